@@ -98,9 +98,15 @@ def match_graph(text: str, graphs: list) -> tuple[Any, float]:
     return match_best_graph(text, graphs)
 
 
+_stream_line_open = False
+
+
 def _cdc_live_printer(event) -> None:
     """Print CDC events in real-time during graph execution."""
     from libs.python.graph.context import CDCEventType
+    from libs.python.graph.payload_store import PayloadRef
+
+    global _stream_line_open
 
     # Only print interesting events during in_flight stage
     if event.stage != "in_flight":
@@ -110,14 +116,27 @@ def _cdc_live_printer(event) -> None:
     data = event.data
     ts = event.timestamp.strftime("%H:%M:%S")
 
+    if _stream_line_open and etype != CDCEventType.NODE_STREAM:
+        print()  # end the line of streamed text
+        _stream_line_open = False
+
     # Format based on event type
     if etype == CDCEventType.NODE_START:
         print(f"  [cdc] {ts} node_start: {data.get('node_id')} ({data.get('node_type')})")
     elif etype == CDCEventType.NODE_OUTPUT:
         node_id = data.get("node_id", "")
         output = data.get("output", {})
-        keys = list(output.keys())[:3]  # First 3 keys
+        # Large outputs are PayloadRefs; their top-level keys are kept for previews
+        keys = list(output.top_keys if isinstance(output, PayloadRef) else output.keys())[:3]  # First 3 keys
         print(f"  [cdc] {ts} node_output: {node_id} {{{', '.join(keys)}...}}")
+    elif etype == CDCEventType.NODE_STREAM:
+        # Streamed text is printed as it arrives, on its own line per node run
+        if data.get("index") == 0:
+            print(f"  [cdc] {ts} node_stream: {data.get('node_id')} ", end="")
+        print(data.get("text", ""), end="", flush=True)
+        _stream_line_open = True
+    elif etype == CDCEventType.NODE_CACHED:
+        print(f"  [cdc] {ts} node_cached: {data.get('node_id')} (memo {data.get('memo_key', '')[:12]})")
     elif etype == CDCEventType.NODE_SUCCESS:
         print(f"  [cdc] {ts} node_success: {data.get('node_id')}")
     elif etype == CDCEventType.NODE_FAILED:
@@ -289,8 +308,8 @@ async def run_session() -> None:  # noqa: C901
     else:
         session_ctx = context_store.create(session_id)
 
-    # Enable live CDC streaming during execution
-    session_ctx.set_live_callback(_cdc_live_printer)
+    # Enable live CDC streaming during execution (printed on the bus thread, not the executor's)
+    session_ctx.subscribe(_cdc_live_printer, prefixes=("node.",), name="cli-printer")
 
     # Register embedding observer for transparency
     if isinstance(doc_store, EmbeddingDocumentStore):
@@ -380,9 +399,12 @@ async def run_session() -> None:  # noqa: C901
 
         # Execute graph (inline to avoid deep nesting)
         await _execute_graph(match, text, session_id, session_ctx, uuid_mod)
+        # Let the live printer catch up before the next prompt
+        session_ctx.cdc_bus.flush(timeout=1.0)
 
     # === GRACEFUL SHUTDOWN ===
     # Persist session state on clean exit
+    session_ctx.cdc_bus.close()
     print("persisting session...")
     if context_store.persist(session_ctx):
         print(f"session saved: {session_id[:8]}...")
@@ -445,9 +467,8 @@ async def _execute_graph(match, text: str, session_id: str, session_ctx, uuid_mo
     record = FlightRecord(context=flight_context)
 
     # === PRE-FLIGHT STEP 0: PROMPT ASSEMBLY PIPELINE ===
-    cdc_feed = session_ctx.cdc_feed()
     message_history = []
-    for event in cdc_feed:
+    for event in session_ctx.iter_cdc():
         if event.event_type == CDCEventType.MSG_USER:
             message_history.append({"role": "user", "content": event.data.get("text", "")})
         elif event.event_type == CDCEventType.MSG_SYSTEM:
@@ -604,7 +625,7 @@ async def _run_json_graph(content_str: str, session_ctx, record) -> None:
 
         # Execute graph with input - pass to first node (search)
         # Find the first node (no incoming edges)
-        first_nodes = [n for n in graph.nodes if not any(dst == n for _, dst, _ in graph.edges)]
+        first_nodes = [n for n in graph.nodes if not graph.incoming_edges(n)]
         initial_inputs = {node_id: {"input": {"topic": last_input}} for node_id in first_nodes}
 
         executor = GraphExecutor(session_ctx)
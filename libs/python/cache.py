@@ -1,6 +1,6 @@
 """
 @llm-type library.cache
-@llm-does LRU cache with document store persistence
+@llm-does LRU caches with document store persistence
 
 LRU Cache
 ---------
@@ -8,6 +8,11 @@ LRU Cache
 A simple LRU (Least Recently Used) cache backed by the document store.
 When the cache exceeds max_size, the least recently used entries are evicted.
 
+BoundedCache is the size-aware variant for large or shared values (node
+outputs): weighted by approximate bytes, optional per-entry TTL, striped
+locks, segmented-LRU admission and incremental persistence. See its
+docstring.
+
 Usage:
     from libs.python.cache import LRUCache
     from libs.python.persistence import PostgresDocumentStore
@@ -28,8 +33,13 @@ Usage:
 
 from __future__ import annotations
 
+import itertools
+import json
+import threading
+import time
 from collections import OrderedDict
 from collections.abc import Callable
+from dataclasses import dataclass
 from datetime import datetime
 from typing import TYPE_CHECKING, Any
 
@@ -38,6 +48,7 @@ if TYPE_CHECKING:
 
 # Callback type for eviction notifications
 EvictCallback = Callable[[str, Any], None]  # (key, value) -> None
+Weigher = Callable[[Any], int]
 
 
 class LRUCache:
@@ -194,3 +205,444 @@ class LRUCache:
         self._max_size = doc.data.get("max_size", self._max_size)
         return True
 
+
+def approx_bytes(value: Any) -> int:
+    """Default BoundedCache weigher: encoded size for str/bytes, JSON size otherwise."""
+    if isinstance(value, bytes | bytearray):
+        return len(value)
+    if isinstance(value, str):
+        return len(value.encode("utf-8", "replace"))
+    try:
+        return len(json.dumps(value, default=str, separators=(",", ":")))
+    except (TypeError, ValueError):
+        return 64
+
+
+@dataclass
+class _Entry:
+    value: Any
+    weight: int
+    expires_at: float | None  # time.monotonic() deadline
+    tick: int  # global recency stamp (orders keys() across stripes)
+    protected: bool = False
+
+
+class _Budget:
+    """Weight and entry totals shared by all stripes of a BoundedCache."""
+
+    def __init__(self, max_weight: int, max_entries: int | None, protected_ratio: float) -> None:
+        self.lock = threading.Lock()
+        self.protected_ratio = protected_ratio
+        self.weight = 0
+        self.entries = 0
+        self.protected_weight = 0
+        self.resize(max_weight, max_entries)
+
+    def resize(self, max_weight: int, max_entries: int | None) -> None:
+        self.max_weight = max_weight
+        self.max_entries = max_entries
+        self.protected_cap = int(max_weight * self.protected_ratio)
+
+    def over(self) -> bool:
+        return self.weight > self.max_weight or (self.max_entries is not None and self.entries > self.max_entries)
+
+    def add(self, weight: int, entries: int, protected_weight: int) -> None:
+        with self.lock:
+            self.weight += weight
+            self.entries += entries
+            self.protected_weight += protected_weight
+
+
+class _Stripe:
+    """One lock's share of a BoundedCache's keys: a segmented LRU (probation + protected)."""
+
+    def __init__(self, budget: _Budget) -> None:
+        self.lock = threading.Lock()
+        self.budget = budget
+        self.probation: OrderedDict[str, _Entry] = OrderedDict()
+        self.protected: OrderedDict[str, _Entry] = OrderedDict()
+
+    def __len__(self) -> int:
+        return len(self.probation) + len(self.protected)
+
+    def find(self, key: str) -> _Entry | None:
+        entry = self.probation.get(key)
+        return entry if entry is not None else self.protected.get(key)
+
+    def remove(self, key: str) -> _Entry | None:
+        entry = self.probation.pop(key, None)
+        if entry is None:
+            entry = self.protected.pop(key, None)
+            if entry is None:
+                return None
+        self._account(entry, -1)
+        return entry
+
+    def touch(self, key: str, entry: _Entry) -> None:
+        """Record a hit: probation entries are promoted, protected ones move to MRU."""
+        if entry.protected:
+            self.protected.move_to_end(key)
+            return
+        del self.probation[key]
+        entry.protected = True
+        self.protected[key] = entry
+        self.budget.add(0, 0, entry.weight)
+        # Overflowing protected entries get a second chance in probation
+        while self.budget.protected_weight > self.budget.protected_cap and len(self.protected) > 1:
+            demoted_key, demoted = self.protected.popitem(last=False)
+            demoted.protected = False
+            self.budget.add(0, 0, -demoted.weight)
+            self.probation[demoted_key] = demoted
+
+    def insert(self, key: str, entry: _Entry) -> None:
+        (self.protected if entry.protected else self.probation)[key] = entry
+        self._account(entry, 1)
+
+    def oldest_tick(self, protected: bool) -> int | None:
+        """Recency stamp of the segment's LRU entry (None if the segment is empty)."""
+        segment = self.protected if protected else self.probation
+        return next(iter(segment.values())).tick if segment else None
+
+    def pop_oldest(self, protected: bool) -> tuple[str, _Entry] | None:
+        segment = self.protected if protected else self.probation
+        if not segment:
+            return None
+        key, entry = segment.popitem(last=False)
+        self._account(entry, -1)
+        return key, entry
+
+    def _account(self, entry: _Entry, sign: int) -> None:
+        protected_weight = entry.weight if entry.protected else 0
+        self.budget.add(sign * entry.weight, sign, sign * protected_weight)
+
+
+class BoundedCache:
+    """Thread-safe cache bounded by total weight (bytes), with TTL and scan resistance.
+
+    - Weight: ``weigher(value)``, approximate bytes by default. The cache
+      stays under ``max_bytes`` (and ``max_entries`` if given), so a 2 MB
+      web page costs what it weighs instead of one slot.
+    - TTL: ``set(key, value, ttl=...)`` or ``default_ttl``; expired entries
+      read as missing and are dropped lazily (or by purge_expired()).
+    - Striped locking: keys hash to ``stripes`` independent locks, so
+      thread pools don't serialize on one lock. The budget is shared: a
+      write that goes over it evicts the least recently used entry across
+      all stripes, and only a value over the whole ``max_bytes`` is
+      rejected.
+    - Segmented LRU: new entries enter a probation segment; a second hit
+      promotes them to a protected segment (``protected_ratio`` of the
+      budget). Eviction takes probation entries first, so a one-pass scan
+      (e.g. ForLoopGraph iterations) cannot flush the hot set.
+    - Persistence: save() writes only entries changed since the last
+      save (one document per entry in the cache_entries collection) and
+      deletes removed ones; load() restores the namespace.
+
+    ``on_evict(key, value)`` runs after the lock is released, for
+    capacity evictions and expiries (not for delete()/clear(), nor for a
+    rejected value that was never cached).
+    """
+
+    COLLECTION = "cache_entries"
+
+    def __init__(
+        self,
+        max_bytes: int = 64 * 1024 * 1024,
+        max_entries: int | None = None,
+        weigher: Weigher = approx_bytes,
+        default_ttl: float | None = None,
+        stripes: int = 8,
+        protected_ratio: float = 0.8,
+        on_evict: EvictCallback | None = None,
+        store: DocumentStore | None = None,
+        namespace: str = "cache",
+    ) -> None:
+        """Initialize cache.
+
+        Args:
+            max_bytes: Total weight budget
+            max_entries: Optional entry-count bound on top of the weight budget
+            weigher: Value -> weight (bytes)
+            default_ttl: Seconds entries live unless set() overrides (None = forever)
+            stripes: Number of independent locks
+            protected_ratio: Share of the budget for entries hit more than once
+            on_evict: Called with (key, value) for evicted or expired entries
+            store: Document store for save()/load(). None = in-memory only.
+            namespace: Persistence namespace
+        """
+        if max_bytes < 1 or stripes < 1:
+            raise ValueError("max_bytes and stripes must be >= 1")
+        self._max_bytes = max_bytes
+        self._max_entries = max_entries
+        self._weigher = weigher
+        self._default_ttl = default_ttl
+        self._on_evict = on_evict
+        self._store = store
+        self._namespace = namespace
+        self._ticks = itertools.count()
+        self._budget = _Budget(max_bytes, max_entries, protected_ratio)
+        self._stripes = [_Stripe(self._budget) for _ in range(stripes)]
+        self._counters_lock = threading.Lock()
+        self._counters = dict.fromkeys(("hits", "misses", "evictions", "expirations"), 0)
+        # Persistence bookkeeping: keys changed / removed since the last save()
+        self._dirty: set[str] = set()
+        self._removed: set[str] = set()
+
+    def _stripe(self, key: str) -> _Stripe:
+        return self._stripes[hash(key) % len(self._stripes)]
+
+    def set_on_evict(self, callback: EvictCallback | None) -> None:
+        """Set the eviction callback."""
+        self._on_evict = callback
+
+    def resize(self, max_bytes: int | None = None, max_entries: int | None = None) -> None:
+        """Change the budget (None keeps the current value), evicting if now over it."""
+        self._max_bytes = max_bytes if max_bytes is not None else self._max_bytes
+        self._max_entries = max_entries if max_entries is not None else self._max_entries
+        self._budget.resize(self._max_bytes, self._max_entries)
+        evicted = self._evict_over_budget()
+        with self._counters_lock:
+            self._counters["evictions"] += len(evicted)
+        for key, _ in evicted:
+            self._note_removed(key)
+        self._notify(evicted)
+
+    def __contains__(self, key: str) -> bool:
+        """True if key is cached and not expired. Does not count as an access."""
+        stripe = self._stripe(key)
+        with stripe.lock:
+            entry = stripe.find(key)
+            return entry is not None and (entry.expires_at is None or entry.expires_at > time.monotonic())
+
+    def get(self, key: str, default: Any = None) -> Any:
+        """Get value by key, recording the hit for recency/promotion."""
+        stripe = self._stripe(key)
+        expired = None
+        with stripe.lock:
+            entry = stripe.find(key)
+            if entry is not None and entry.expires_at is not None and entry.expires_at <= time.monotonic():
+                expired = stripe.remove(key)
+                entry = None
+            if entry is not None:
+                stripe.touch(key, entry)
+                entry.tick = next(self._ticks)
+                value = entry.value
+        if expired is not None:
+            self._note_removed(key)
+            self._count("expirations")
+            self._notify([(key, expired)])
+        if entry is None:
+            self._count("misses")
+            return default
+        self._count("hits")
+        return value
+
+    def set(self, key: str, value: Any, ttl: float | None = None) -> None:
+        """Set key-value, evicting (probation LRU first) while over budget."""
+        ttl = ttl if ttl is not None else self._default_ttl
+        entry = _Entry(
+            value=value,
+            weight=max(self._weigher(value), 1),
+            expires_at=time.monotonic() + ttl if ttl is not None else None,
+            tick=next(self._ticks),
+        )
+        stripe = self._stripe(key)
+        with stripe.lock:
+            previous = stripe.remove(key)
+            rejected = entry.weight > self._budget.max_weight
+            if not rejected:
+                # An update keeps its segment; a new key starts on probation
+                entry.protected = previous is not None and previous.protected
+                stripe.insert(key, entry)
+        if rejected:
+            # Larger than the whole budget: reject rather than flush the cache. Only a
+            # value that was cached before counts as evicted.
+            evicted = [(key, previous)] if previous is not None else []
+        else:
+            evicted = self._evict_over_budget()
+        with self._counters_lock:
+            self._dirty.add(key)
+            self._removed.discard(key)
+            self._counters["evictions"] += len(evicted)
+        for evicted_key, _ in evicted:
+            self._note_removed(evicted_key)
+        self._notify(evicted)
+
+    def delete(self, key: str) -> bool:
+        """Delete key. Returns True if key existed."""
+        stripe = self._stripe(key)
+        with stripe.lock:
+            removed = stripe.remove(key) is not None
+        if removed:
+            self._note_removed(key)
+        return removed
+
+    def clear(self) -> None:
+        """Clear all entries."""
+        for key in self.keys():
+            self.delete(key)
+
+    def purge_expired(self) -> int:
+        """Drop every expired entry now. Returns how many were dropped."""
+        now = time.monotonic()
+        expired = []
+        for stripe in self._stripes:
+            with stripe.lock:
+                keys = [
+                    k
+                    for segment in (stripe.probation, stripe.protected)
+                    for k, e in segment.items()
+                    if e.expires_at is not None and e.expires_at <= now
+                ]
+                expired.extend((k, entry) for k in keys if (entry := stripe.remove(k)) is not None)
+        for key, _ in expired:
+            self._note_removed(key)
+        with self._counters_lock:
+            self._counters["expirations"] += len(expired)
+        self._notify(expired)
+        return len(expired)
+
+    def _snapshot(self) -> list[tuple[str, _Entry]]:
+        """Live entries, least recently used first."""
+        now = time.monotonic()
+        entries = []
+        for stripe in self._stripes:
+            with stripe.lock:
+                entries.extend(
+                    (k, e)
+                    for segment in (stripe.probation, stripe.protected)
+                    for k, e in segment.items()
+                    if e.expires_at is None or e.expires_at > now
+                )
+        entries.sort(key=lambda item: item[1].tick)
+        return entries
+
+    def keys(self) -> list[str]:
+        """Get all keys, least recently used first."""
+        return [k for k, _ in self._snapshot()]
+
+    def items(self) -> list[tuple[str, Any]]:
+        """Get all (key, value) pairs, least recently used first."""
+        return [(k, e.value) for k, e in self._snapshot()]
+
+    def size(self) -> int:
+        """Current number of entries."""
+        return sum(len(stripe) for stripe in self._stripes)
+
+    def weight(self) -> int:
+        """Current total weight."""
+        return self._budget.weight
+
+    def stats(self) -> dict[str, Any]:
+        """Cache statistics."""
+        with self._counters_lock:
+            counters = dict(self._counters)
+        total = counters["hits"] + counters["misses"]
+        return {
+            "size": self.size(),
+            "max_size": self._max_entries,
+            "bytes": self.weight(),
+            "max_bytes": self._max_bytes,
+            **counters,
+            "hit_rate": counters["hits"] / total if total > 0 else 0.0,
+        }
+
+    def to_dict(self) -> dict[str, Any]:
+        """Serialize cache for embedding in another structure (LRUCache-compatible shape)."""
+        snapshot = self._snapshot()
+        return {
+            "entries": {k: e.value for k, e in snapshot},
+            "key_order": [k for k, _ in snapshot],
+            "max_size": self._max_entries,
+            "max_bytes": self._max_bytes,
+        }
+
+    def from_dict(self, data: dict[str, Any]) -> None:
+        """Restore entries (oldest first) from to_dict() or LRUCache.to_dict() output."""
+        entries = data.get("entries", {})
+        for key in data.get("key_order", list(entries.keys())):
+            if key in entries:
+                self.set(key, entries[key])
+
+    def save(self) -> bool:
+        """Persist entries changed since the last save. Returns True on success."""
+        if not self._store:
+            return False
+
+        with self._counters_lock:
+            dirty, self._dirty = self._dirty, set()
+            removed, self._removed = self._removed, set()
+        try:
+            live = {k: e for k, e in self._snapshot() if k in dirty}
+            if live:
+                results = self._store.upsert_many(
+                    self.COLLECTION,
+                    {
+                        self._doc_id(k): {"namespace": self._namespace, "key": k, "value": e.value, "tick": e.tick}
+                        for k, e in live.items()
+                    },
+                )
+                failed = {k for k, r in zip(live, results, strict=False) if not r.ok}
+                if failed:
+                    raise RuntimeError(f"{len(failed)} cache entries failed to save")
+            for key in removed:
+                self._store.delete(self.COLLECTION, self._doc_id(key))
+            return True
+        except Exception:
+            # Retry everything on the next save
+            with self._counters_lock:
+                self._dirty |= dirty
+                self._removed |= removed
+            return False
+
+    def load(self) -> bool:
+        """Load this namespace's entries from the document store. Returns True if any found."""
+        if not self._store:
+            return False
+        docs = self._store.query(self.COLLECTION, {"namespace": self._namespace}, limit=100_000)
+        for doc in sorted(docs, key=lambda d: d.data.get("tick", 0)):
+            self.set(doc.data["key"], doc.data.get("value"))
+        with self._counters_lock:
+            self._dirty.clear()
+        return bool(docs)
+
+    def _evict_over_budget(self) -> list[tuple[str, _Entry]]:
+        """Evict until within budget: the oldest probation entry of any stripe first, then protected."""
+        evicted: list[tuple[str, _Entry]] = []
+        while self._budget.over():
+            victim = None
+            for protected in (False, True):
+                oldest = None
+                for stripe in self._stripes:
+                    with stripe.lock:
+                        tick = stripe.oldest_tick(protected)
+                    if tick is not None and (oldest is None or tick < oldest):
+                        oldest, victim = tick, stripe
+                if victim is not None:
+                    break
+            if victim is None:
+                break
+            with victim.lock:
+                # Another thread may have changed the stripe since it was picked; pop_oldest copes
+                popped = victim.pop_oldest(protected) if self._budget.over() else None
+            if popped is not None:
+                evicted.append(popped)
+        return evicted
+
+    def _doc_id(self, key: str) -> str:
+        assert self._store is not None
+        return self._store.key_id(self.COLLECTION, f"{self._namespace}/{key}")
+
+    def _note_removed(self, key: str) -> None:
+        with self._counters_lock:
+            self._dirty.discard(key)
+            self._removed.add(key)
+
+    def _count(self, name: str) -> None:
+        with self._counters_lock:
+            self._counters[name] += 1
+
+    def _notify(self, evicted: list[tuple[str, _Entry]]) -> None:
+        if self._on_evict is None:
+            return
+        for key, entry in evicted:
+            self._on_evict(key, entry.value)
@@ -14,9 +14,25 @@ Supported Models (Mistral family - Apache-2.0):
 - mixtral: Mixtral 8x7B (MoE)
 - codestral: Code-focused variant
 - devstral: Development/coding focused
+
+Connections: one Ollama client per host is shared by every service
+instance (per event loop for the async API, since keep-alive connections
+belong to the loop that opened them), and the /api/tags health check is
+cached for HEALTH_CHECK_TTL seconds. Creating a TextGenerationService per
+call is therefore cheap.
+
+Async API (agenerate, agenerate_stream) never blocks the event loop, so
+concurrent LLM nodes overlap; each request can be given a timeout and is
+cancelled with its task.
 """
 
+import asyncio
 import logging
+import threading
+import time
+import weakref
+from collections.abc import AsyncIterator
+from dataclasses import dataclass
 from typing import Any
 
 import requests  # type: ignore
@@ -25,6 +41,12 @@ from .errors import ServiceNotRunningError
 
 logger = logging.getLogger(__name__)
 
+# Ollama on external port 1500 (mapped from internal 11434)
+OLLAMA_HOST = "http://localhost:1500"
+HEALTH_CHECK_TTL = 30.0  # seconds a successful /api/tags check is trusted
+HEALTH_CHECK_TIMEOUT = 2.0
+DEFAULT_REQUEST_TIMEOUT = 300.0
+
 # Supported Mistral family models (Apache-2.0 licensed)
 SUPPORTED_MODELS = frozenset(
     {
@@ -45,6 +67,40 @@ SUPPORTED_MODELS = frozenset(
 )
 
 
+def generation_options(max_tokens: int, temperature: float, top_p: float) -> dict[str, Any]:
+    """Ollama request options for the service's sampling parameters."""
+    return {"num_predict": max_tokens, "temperature": temperature, "top_p": top_p}
+
+
+# Sync clients and health, shared by host across threads
+_sync_clients: dict[str, Any] = {}
+_sync_healthy_until: dict[str, float] = {}
+_sync_lock = threading.Lock()
+
+
+@dataclass
+class _AsyncHost:
+    """One host's shared AsyncClient and health state, for one event loop."""
+
+    client: Any
+    healthy_until: float = 0.0
+    check: asyncio.Task[bool] | None = None
+
+
+# loop -> host -> state; entries go away with their loop
+_async_hosts: weakref.WeakKeyDictionary[asyncio.AbstractEventLoop, dict[str, _AsyncHost]] = weakref.WeakKeyDictionary()
+
+
+def _async_host(host: str) -> _AsyncHost:
+    hosts = _async_hosts.setdefault(asyncio.get_running_loop(), {})
+    state = hosts.get(host)
+    if state is None:
+        from ollama import AsyncClient
+
+        state = hosts[host] = _AsyncHost(client=AsyncClient(host=host))
+    return state
+
+
 class TextGenerationService:
     """Text generation using Mistral family models via local Ollama.
 
@@ -56,16 +112,18 @@ class TextGenerationService:
     - devstral - Development tasks
     """
 
-    def __init__(self, model: str = "mistral"):
+    def __init__(self, model: str = "mistral", host: str = OLLAMA_HOST):
         """
         Initialize text generation service.
 
         Args:
             model: Mistral family model name. Supported:
                    mistral, mistral-nemo, mixtral, codestral, devstral
+            host: Ollama base URL
         """
         # Normalize model name
         self.model = model.lower().strip()
+        self.host = host
         self.client: Any = None
         self.model_loaded = False
 
@@ -97,27 +155,40 @@ class TextGenerationService:
         return SUPPORTED_MODELS
 
     def _check_ollama_health(self) -> bool:
-        """Check if Ollama service is available at localhost:1500 (external port)."""
+        """Check if Ollama is available at the host. Successes are cached for HEALTH_CHECK_TTL."""
+        with _sync_lock:
+            if _sync_healthy_until.get(self.host, 0.0) > time.monotonic():
+                return True
         try:
-            response = requests.get("http://localhost:1500/api/tags", timeout=2)
-            return response.status_code == 200
+            response = requests.get(f"{self.host}/api/tags", timeout=HEALTH_CHECK_TIMEOUT)
+            healthy = response.status_code == 200
         except (requests.ConnectionError, requests.Timeout, Exception):
-            return False
+            healthy = False
+        if healthy:
+            with _sync_lock:
+                _sync_healthy_until[self.host] = time.monotonic() + HEALTH_CHECK_TTL
+        return healthy
+
+    def _not_running_error(self) -> ServiceNotRunningError:
+        logger.error("Ollama service is not running")
+        return ServiceNotRunningError(
+            service_name="Ollama",
+            port=11434,
+            install_url="https://ollama.com/download",
+        )
 
     def _load_ollama_client(self) -> None:
-        """Load Ollama client with health check."""
+        """Load the host's shared Ollama client, after a health check."""
         if not self._check_ollama_health():
-            logger.error("Ollama service is not running")
-            raise ServiceNotRunningError(
-                service_name="Ollama",
-                port=11434,
-                install_url="https://ollama.com/download",
-            )
+            raise self._not_running_error()
 
         from ollama import Client
 
-        # Connect to Ollama on external port 1500 (mapped from internal 11434)
-        self.client = Client(host="http://localhost:1500")
+        with _sync_lock:
+            client = _sync_clients.get(self.host)
+            if client is None:
+                client = _sync_clients[self.host] = Client(host=self.host)
+        self.client = client
         logger.info(f"Ollama client initialized for model: {self.model}")
 
     def _load_client(self) -> None:
@@ -169,6 +240,7 @@ class TextGenerationService:
                 model=self.model,
                 prompt=prompt,
                 stream=False,
+                options=generation_options(max_tokens, temperature, top_p),
             )
             text = str(response.get("response", "")).strip()
 
@@ -183,6 +255,125 @@ class TextGenerationService:
             logger.error(f"Text generation failed: {e}")
             raise RuntimeError(f"Failed to generate text: {e}") from e
 
+    async def _async_client(self) -> Any:
+        """The host's shared AsyncClient for the running loop, after a (cached) health check."""
+        state = _async_host(self.host)
+        if state.healthy_until > time.monotonic():
+            return state.client
+        # Concurrent callers share one in-flight check
+        if state.check is None or state.check.done():
+            state.check = asyncio.ensure_future(self._async_health_check(state))
+        if not await asyncio.shield(state.check):
+            raise self._not_running_error()
+        return state.client
+
+    @staticmethod
+    async def _async_health_check(state: _AsyncHost) -> bool:
+        try:
+            async with asyncio.timeout(HEALTH_CHECK_TIMEOUT):
+                await state.client.list()
+        except Exception:
+            return False
+        state.healthy_until = time.monotonic() + HEALTH_CHECK_TTL
+        return True
+
+    async def agenerate(
+        self,
+        prompt: str,
+        max_tokens: int = 512,
+        temperature: float = 0.7,
+        top_p: float = 0.9,
+        timeout: float | None = DEFAULT_REQUEST_TIMEOUT,
+    ) -> str:
+        """
+        Generate text from prompt without blocking the event loop.
+
+        Args:
+            prompt: Input prompt
+            max_tokens: Maximum tokens to generate
+            temperature: Sampling temperature (0.0-1.0)
+            top_p: Top-p sampling parameter
+            timeout: Seconds before the request is abandoned (None = no limit)
+
+        Returns:
+            Generated text
+
+        Raises:
+            ServiceNotRunningError: If Ollama is not reachable
+            RuntimeError: If generation fails or times out
+        """
+        client = await self._async_client()
+        try:
+            logger.info(f"Generating text with ollama/{self.model}")
+            async with asyncio.timeout(timeout):
+                response = await client.generate(
+                    model=self.model,
+                    prompt=prompt,
+                    stream=False,
+                    options=generation_options(max_tokens, temperature, top_p),
+                )
+            text = str(response.get("response", "")).strip()
+            logger.info(f"Generation complete: {len(text)} characters")
+            return text
+        except TimeoutError as e:
+            raise RuntimeError(f"Text generation timed out after {timeout}s") from e
+        except Exception as e:
+            logger.error(f"Text generation failed: {e}")
+            raise RuntimeError(f"Failed to generate text: {e}") from e
+
+    async def agenerate_stream(
+        self,
+        prompt: str,
+        max_tokens: int = 512,
+        temperature: float = 0.7,
+        top_p: float = 0.9,
+        timeout: float | None = DEFAULT_REQUEST_TIMEOUT,
+    ) -> AsyncIterator[str]:
+        """
+        Generate text from prompt, yielding chunks as they arrive, without blocking the event loop.
+
+        Args:
+            prompt: Input prompt
+            max_tokens: Maximum tokens to generate
+            temperature: Sampling temperature (0.0-1.0)
+            top_p: Top-p sampling parameter
+            timeout: Seconds for the whole completion (None = no limit)
+
+        Yields:
+            Response text chunks (roughly one token each)
+
+        Raises:
+            ServiceNotRunningError: If Ollama is not reachable
+            RuntimeError: If generation fails or times out
+        """
+        client = await self._async_client()
+        deadline = None if timeout is None else asyncio.get_running_loop().time() + timeout
+        try:
+            logger.info(f"Streaming text with ollama/{self.model}")
+            async with asyncio.timeout_at(deadline):
+                parts = await client.generate(
+                    model=self.model,
+                    prompt=prompt,
+                    stream=True,
+                    options=generation_options(max_tokens, temperature, top_p),
+                )
+            total = 0
+            while True:
+                async with asyncio.timeout_at(deadline):
+                    part = await anext(parts, None)
+                if part is None:
+                    break
+                chunk = str(part.get("response", ""))
+                if chunk:
+                    total += len(chunk)
+                    yield chunk
+            logger.info(f"Streaming complete: {total} characters")
+        except TimeoutError as e:
+            raise RuntimeError(f"Text generation timed out after {timeout}s") from e
+        except Exception as e:
+            logger.error(f"Text generation failed: {e}")
+            raise RuntimeError(f"Failed to generate text: {e}") from e
+
     def generate_with_metadata(
         self,
         prompt: str,
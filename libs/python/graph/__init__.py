@@ -7,6 +7,7 @@
 from __future__ import annotations
 
 from .analytical_nodes import AnalyticalNode, TextClassifierNode
+from .cdc_bus import CDCBus, OverflowPolicy, Subscription, SubscriptionStats
 from .checks import AuditAction, ContextLoadCheck, ContextPersistAction, RubricGradeAction, RubricMatchCheck
 from .context import CDCEvent, CDCEventType, ContextStore, Mutation, MutationType, SessionContext, SessionSummary
 from .generation_nodes import (
@@ -16,8 +17,9 @@ from .generation_nodes import (
     TextGenerationNode,
     VideoGenerationNode,
 )
-from .graph import Graph, GraphExecutionResult, GraphExecutor, NodeExecutionResult
+from .graph import Graph, GraphExecutionResult, GraphExecutor, NodeExecutionResult, SchedulingMode
 from .loader import GraphLoadError, load_graph_from_dict, load_graph_from_json
+from .node_memo import NodeMemo, get_node_memo, memo_key
 from .nodes import (
     APINode,
     GraphNode,
@@ -30,6 +32,7 @@ from .nodes import (
     UserInputNode,
     WebSearchNode,
 )
+from .payload_store import PayloadRef, PayloadStore
 from .pipeline_steps import (
     AssembleFinalPromptStep,
     ContextWindowCheckStep,
@@ -66,7 +69,8 @@ from .strace import (
     parse_strace_output,
     run_with_strace,
 )
-from .template import interpolate
+from .template import CompiledTemplate, compile_template, interpolate
+from .token_stream import StreamRelay, TokenStream, TokenStreamError
 
 __all__ = [
     # nodes
@@ -98,6 +102,11 @@ __all__ = [
     "GraphExecutor",
     "NodeExecutionResult",
     "GraphExecutionResult",
+    "SchedulingMode",
+    # node memoization
+    "NodeMemo",
+    "get_node_memo",
+    "memo_key",
     # protocol
     "ExecutionProtocol",
     "FlightContext",
@@ -122,6 +131,13 @@ __all__ = [
     "MutationType",
     "CDCEvent",
     "CDCEventType",
+    # CDC bus
+    "CDCBus",
+    "OverflowPolicy",
+    "Subscription",
+    "SubscriptionStats",
+    "PayloadRef",
+    "PayloadStore",
     # scoring
     "ScoringRubric",
     "DEFAULT_RUBRIC",
@@ -149,4 +165,10 @@ __all__ = [
     "AssembleFinalPromptStep",
     # template DSL
     "interpolate",
+    "compile_template",
+    "CompiledTemplate",
+    # streaming
+    "TokenStream",
+    "TokenStreamError",
+    "StreamRelay",
 ]
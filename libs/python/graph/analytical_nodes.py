@@ -88,16 +88,20 @@ class TextClassifierNode(AnalyticalNode):
         self._label_embeddings: Any = None
 
     def _load_model(self) -> Any:
-        """Load sentence-transformers model."""
-        try:
-            from sentence_transformers import SentenceTransformer
+        """Get the process-wide embedding service for this model.
 
-            return SentenceTransformer(self.model_name)
-        except ImportError as e:
-            raise ImportError("sentence-transformers required. Install: pip install sentence-transformers") from e
+        The model is shared with every other classifier and VectorBridge, and
+        label/utterance embeddings are cached by content, so new node
+        instances neither reload the model nor re-encode the labels.
+        """
+        from libs.python.persistence.embedding_service import embeddings_available, get_embedding_service
+
+        if not embeddings_available():
+            raise ImportError("sentence-transformers required. Install: pip install sentence-transformers")
+        return get_embedding_service(self.model_name)
 
     def _compute_label_embeddings(self) -> None:
-        """Pre-compute embeddings for all labels."""
+        """Pre-compute embeddings for all labels (cache hits after the first classifier)."""
         if self._label_embeddings is None:
             # Expand labels with descriptive phrases for better semantic matching
             # Multiple example phrases help the embedding capture the intent
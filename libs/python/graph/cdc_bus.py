@@ -0,0 +1,292 @@
+"""
+@llm-type library.graph.cdc_bus
+@llm-does in-process CDC event bus with per-subscriber queues and backpressure
+@llm-rule publishing must never run subscriber code on the emitting thread
+
+CDC Bus
+-------
+
+SessionContext.emit() publishes each event here instead of calling a
+subscriber inline, so a slow consumer (terminal printer, TUI, audit,
+persistence) can no longer stall the graph executor.
+
+Each Subscription owns a bounded queue:
+    - Push subscriptions (callback given) are drained by their own
+      daemon thread, in publish order.
+    - Pull subscriptions (no callback) are drained by the owner with
+      poll() on its own thread. An event loop can set_wakeup_fd() to be
+      told when the queue stops being empty instead of polling on a timer.
+
+Subscriptions filter by CDCEventType value prefix ("node.", "msg.user")
+and choose what happens when their queue is full:
+    DROP_OLDEST  discard the oldest queued event (default - live views)
+    DROP_NEWEST  discard the incoming event
+    BLOCK        wait up to block_timeout for room, then drop the event
+
+Publishing is a filter check plus a deque append per interested
+subscriber. Every subscription counts delivered, dropped and failed
+events and its lag (queued, not yet delivered).
+
+Usage:
+    bus = CDCBus()
+    printer = bus.subscribe(print_event, prefixes=("node.",), name="printer")
+    ui = bus.subscribe(prefixes=("msg.",), name="tui")  # pull mode
+    bus.publish(event)
+    for event in ui.poll():
+        ...
+    bus.flush(timeout=1.0)
+    print(bus.stats())
+"""
+
+from __future__ import annotations
+
+import logging
+import os
+import threading
+import time
+from collections import deque
+from collections.abc import Callable, Sequence
+from dataclasses import dataclass
+from enum import Enum
+from typing import TYPE_CHECKING
+
+if TYPE_CHECKING:
+    from .context import CDCEvent, CDCEventType
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_CAPACITY = 1024
+
+
+class OverflowPolicy(Enum):
+    """What a subscription does with an event when its queue is full."""
+
+    DROP_OLDEST = "drop_oldest"
+    DROP_NEWEST = "drop_newest"
+    BLOCK = "block"
+
+
+@dataclass
+class SubscriptionStats:
+    """Point-in-time subscription metrics."""
+
+    name: str
+    delivered: int  # handed to the callback or returned by poll()
+    dropped: int  # lost to overflow
+    errors: int  # callback raised
+    lag: int  # queued, not yet delivered
+    max_lag: int
+
+
+class Subscription:
+    """One consumer's bounded, filtered view of the bus. Create via CDCBus.subscribe()."""
+
+    def __init__(
+        self,
+        name: str,
+        callback: Callable[[CDCEvent], None] | None,
+        prefixes: Sequence[str] | None,
+        capacity: int,
+        policy: OverflowPolicy,
+        block_timeout: float,
+    ) -> None:
+        if capacity < 1:
+            raise ValueError("capacity must be >= 1")
+        self.name = name
+        self.policy = policy
+        self._callback = callback
+        self._prefixes = tuple(prefixes) if prefixes else None
+        self._capacity = capacity
+        self._block_timeout = block_timeout
+        self._accepts: dict[CDCEventType, bool] = {}
+        self._queue: deque[CDCEvent] = deque()
+        self._cond = threading.Condition()
+        self._delivering = False
+        self._closed = False
+        self._counters = dict.fromkeys(("delivered", "dropped", "errors", "max_lag"), 0)
+        self._thread: threading.Thread | None = None
+        self._wakeup_fd: int | None = None
+        if callback is not None:
+            self._thread = threading.Thread(target=self._run, name=f"cdc-bus-{name}", daemon=True)
+            self._thread.start()
+
+    def accepts(self, event_type: CDCEventType) -> bool:
+        """True if this subscription's prefix filter matches the event type."""
+        accepted = self._accepts.get(event_type)
+        if accepted is None:
+            accepted = self._prefixes is None or event_type.value.startswith(self._prefixes)
+            self._accepts[event_type] = accepted
+        return accepted
+
+    def offer(self, event: CDCEvent) -> bool:
+        """Queue an event, applying the overflow policy. Returns False if an event was dropped."""
+        with self._cond:
+            if self._closed:
+                return False
+            if len(self._queue) >= self._capacity and self.policy is OverflowPolicy.BLOCK:
+                self._cond.wait_for(
+                    lambda: len(self._queue) < self._capacity or self._closed,
+                    self._block_timeout,
+                )
+            dropped = len(self._queue) >= self._capacity
+            if dropped:
+                self._counters["dropped"] += 1
+                if self.policy is not OverflowPolicy.DROP_OLDEST:
+                    return False  # DROP_NEWEST, or BLOCK timed out
+                self._queue.popleft()
+            self._queue.append(event)
+            self._counters["max_lag"] = max(self._counters["max_lag"], len(self._queue))
+            self._cond.notify_all()
+            # Under the lock, so the owner can detach and close the fd safely
+            if self._wakeup_fd is not None and len(self._queue) == 1:
+                self._wake(self._wakeup_fd)
+            return not dropped
+
+    def poll(self, max_events: int | None = None) -> list[CDCEvent]:
+        """Take queued events (pull subscriptions only). Never blocks."""
+        if self._callback is not None:
+            raise RuntimeError(f"subscription {self.name!r} is push-mode; events go to its callback")
+        with self._cond:
+            count = len(self._queue) if max_events is None else min(max_events, len(self._queue))
+            events = [self._queue.popleft() for _ in range(count)]
+            self._counters["delivered"] += count
+            self._cond.notify_all()
+        return events
+
+    def set_wakeup_fd(self, fd: int | None) -> None:
+        """Write a byte to ``fd`` whenever the queue goes from empty to non-empty (pull only).
+
+        ``fd`` should be the non-blocking write end of a pipe the owner's
+        event loop watches; the byte means "poll() now". A full pipe is
+        ignored - the owner has a wake-up pending already. None detaches.
+        """
+        if self._callback is not None:
+            raise RuntimeError(f"subscription {self.name!r} is push-mode; it has no owner to wake")
+        with self._cond:
+            self._wakeup_fd = fd
+            if fd is not None and self._queue:
+                self._wake(fd)
+
+    @staticmethod
+    def _wake(fd: int) -> None:
+        try:
+            os.write(fd, b"\0")
+        except BlockingIOError:
+            pass  # pipe full: a wake-up is already pending
+        except OSError as e:
+            logger.debug(f"CDC wake-up write failed: {e}")
+
+    def flush(self, timeout: float | None = None) -> bool:
+        """Wait until the callback has handled every queued event. Returns False on timeout."""
+        if self._thread is None:
+            return True
+        with self._cond:
+            return self._cond.wait_for(lambda: not self._queue and not self._delivering, timeout)
+
+    def close(self, timeout: float | None = 1.0) -> None:
+        """Stop accepting events; a push subscription delivers what is queued, then its thread exits."""
+        with self._cond:
+            self._closed = True
+            self._cond.notify_all()
+        if self._thread is not None and self._thread is not threading.current_thread():
+            self._thread.join(timeout)
+
+    def stats(self) -> SubscriptionStats:
+        """Return current subscription metrics."""
+        with self._cond:
+            return SubscriptionStats(name=self.name, lag=len(self._queue), **self._counters)
+
+    def _run(self) -> None:
+        assert self._callback is not None
+        while True:
+            with self._cond:
+                self._cond.wait_for(lambda: self._queue or self._closed)
+                if not self._queue:
+                    return  # closed and drained
+                event = self._queue.popleft()
+                self._delivering = True
+                self._cond.notify_all()  # room for BLOCK publishers
+            failed = False
+            try:
+                self._callback(event)
+            except Exception as e:
+                failed = True
+                logger.debug(f"CDC subscriber {self.name} failed on {event.event_type.value}: {e}")
+            with self._cond:
+                if failed:
+                    self._counters["errors"] += 1
+                self._delivering = False
+                self._counters["delivered"] += 1
+                self._cond.notify_all()
+
+
+class CDCBus:
+    """Fan-out of CDC events to independent subscriptions. Thread-safe."""
+
+    def __init__(self) -> None:
+        # Copy-on-write so publish() iterates without taking a lock
+        self._subscriptions: tuple[Subscription, ...] = ()
+        self._lock = threading.Lock()
+
+    def subscribe(
+        self,
+        callback: Callable[[CDCEvent], None] | None = None,
+        prefixes: Sequence[str] | None = None,
+        name: str | None = None,
+        capacity: int = DEFAULT_CAPACITY,
+        policy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+        block_timeout: float = 1.0,
+    ) -> Subscription:
+        """Add a subscription.
+
+        Args:
+            callback: Called on the subscription's own thread; None for a pull subscription
+            prefixes: CDCEventType value prefixes to receive (None = everything)
+            name: Label for stats and the worker thread
+            capacity: Max queued events before the overflow policy applies
+            policy: Overflow policy
+            block_timeout: Max seconds a BLOCK publisher waits for room
+        """
+        with self._lock:
+            subscription = Subscription(
+                name=name or f"sub-{len(self._subscriptions)}",
+                callback=callback,
+                prefixes=prefixes,
+                capacity=capacity,
+                policy=policy,
+                block_timeout=block_timeout,
+            )
+            self._subscriptions = (*self._subscriptions, subscription)
+        return subscription
+
+    def unsubscribe(self, subscription: Subscription, timeout: float | None = 1.0) -> None:
+        """Remove a subscription and close it."""
+        with self._lock:
+            self._subscriptions = tuple(s for s in self._subscriptions if s is not subscription)
+        subscription.close(timeout)
+
+    def publish(self, event: CDCEvent) -> None:
+        """Hand an event to every subscription whose filter matches."""
+        for subscription in self._subscriptions:
+            if subscription.accepts(event.event_type):
+                subscription.offer(event)
+
+    def flush(self, timeout: float | None = None) -> bool:
+        """Wait for every push subscription to drain. Returns False if any timed out."""
+        deadline = None if timeout is None else time.monotonic() + timeout
+        drained = True
+        for subscription in self._subscriptions:
+            remaining = None if deadline is None else max(deadline - time.monotonic(), 0.0)
+            drained = subscription.flush(remaining) and drained
+        return drained
+
+    def close(self, timeout: float | None = 1.0) -> None:
+        """Close every subscription."""
+        with self._lock:
+            subscriptions, self._subscriptions = self._subscriptions, ()
+        for subscription in subscriptions:
+            subscription.close(timeout)
+
+    def stats(self) -> list[SubscriptionStats]:
+        """Metrics for every subscription."""
+        return [subscription.stats() for subscription in self._subscriptions]
@@ -0,0 +1,233 @@
+"""
+@llm-type library.graph.cdc_feed
+@llm-does segmented, spill-to-disk storage for a session's CDC feed
+@llm-rule memory stays flat: only the active segment is held as objects
+
+CDC Feed
+--------
+
+A session's CDC feed grows for as long as the session lives, and node
+output events embed whole LLM texts and page bodies. CDCFeed keeps only
+the active segment (``segment_size`` events) in memory. When it fills it
+is sealed: serialized as JSON lines, appended to a per-feed spill file,
+and dropped from memory. Sealed segments are read back through mmap and
+decoded one segment at a time (the most recent decoded segment is
+cached, so tail reads across a segment boundary stay cheap).
+
+Reads never copy the whole feed:
+    feed.tail(20)          # last 20 events
+    feed.since(seq)        # events after a sequence number (skips segments)
+    feed.iter_from(index)  # lazy iteration from a position
+
+Spill files live in UNHINGED_CDC_SPILL_DIR (default: the system temp
+dir) and are deleted when the feed is closed or garbage collected - the
+durable copy of the feed is the session_cdc collection. Event data that
+is not JSON-serializable is stored as its string form.
+"""
+
+from __future__ import annotations
+
+import bisect
+import json
+import logging
+import mmap
+import os
+import tempfile
+import weakref
+from collections.abc import Callable, Iterator
+from dataclasses import dataclass
+from typing import IO, TYPE_CHECKING, Any
+
+if TYPE_CHECKING:
+    from .context import CDCEvent
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_SEGMENT_SIZE = 512
+SPILL_DIR_ENV = "UNHINGED_CDC_SPILL_DIR"
+
+
+@dataclass
+class _Segment:
+    """A sealed run of events: a byte range of the spill file, or in memory if spilling failed."""
+
+    first_seq: int
+    last_seq: int
+    start: int  # feed index of the first event
+    count: int
+    offset: int = 0
+    length: int = 0
+    events: list[CDCEvent] | None = None
+
+
+class SpillFile:
+    """Append-only temp file in UNHINGED_CDC_SPILL_DIR plus a read mmap.
+
+    Owned by a weakref finalizer, not by the feed/store using it, so it is
+    deleted even if the owner is never closed.
+    """
+
+    def __init__(self, prefix: str, suffix: str = ".jsonl") -> None:
+        directory = os.environ.get(SPILL_DIR_ENV) or None
+        if directory:
+            os.makedirs(directory, exist_ok=True)
+        fd, self.path = tempfile.mkstemp(prefix=prefix, suffix=suffix, dir=directory)
+        self._file: IO[bytes] | None = os.fdopen(fd, "ab")
+        self._mmap: mmap.mmap | None = None
+        self.size = 0
+
+    def append(self, payload: bytes) -> int:
+        """Append bytes, return their offset."""
+        assert self._file is not None
+        offset = self.size
+        self._file.write(payload)
+        self._file.flush()
+        self.size += len(payload)
+        return offset
+
+    def read(self, offset: int, length: int) -> bytes:
+        if self._mmap is None or len(self._mmap) < offset + length:
+            if self._mmap is not None:
+                self._mmap.close()
+            assert self._file is not None
+            self._mmap = mmap.mmap(self._file.fileno(), 0, access=mmap.ACCESS_READ)
+        return self._mmap[offset : offset + length]
+
+    def close(self) -> None:
+        if self._mmap is not None:
+            self._mmap.close()
+            self._mmap = None
+        if self._file is not None:
+            self._file.close()
+            self._file = None
+            try:
+                os.unlink(self.path)
+            except OSError:
+                pass
+
+
+class CDCFeed:
+    """Append-only CDC event feed held as fixed-size segments, sealed segments spilled to disk."""
+
+    def __init__(
+        self,
+        decode: Callable[[dict[str, Any]], CDCEvent],
+        segment_size: int = DEFAULT_SEGMENT_SIZE,
+        name: str = "feed",
+    ) -> None:
+        """Initialize feed.
+
+        Args:
+            decode: Rebuilds an event from its ``to_record()`` dict
+            segment_size: Events per segment (the in-memory high-water mark)
+            name: Spill file name prefix (e.g. the session ID)
+        """
+        if segment_size < 1:
+            raise ValueError("segment_size must be >= 1")
+        self._decode = decode
+        self.segment_size = segment_size
+        self._name = name
+        self._active: list[CDCEvent] = []
+        self._sealed: list[_Segment] = []
+        self._sealed_count = 0
+        self._spill: SpillFile | None = None
+        self._finalizer: weakref.finalize | None = None
+        self._decoded: tuple[int, list[CDCEvent]] | None = None  # (segment index, events)
+
+    def __len__(self) -> int:
+        return self._sealed_count + len(self._active)
+
+    def __iter__(self) -> Iterator[CDCEvent]:
+        return self.iter_from(0)
+
+    def append(self, event: CDCEvent) -> None:
+        """Add an event; seals the active segment when it is full."""
+        self._active.append(event)
+        if len(self._active) >= self.segment_size:
+            self._seal()
+
+    def tail(self, n: int) -> list[CDCEvent]:
+        """Last ``n`` events, oldest first."""
+        if n <= 0:
+            return []
+        events = self._active[-n:]
+        for index in range(len(self._sealed) - 1, -1, -1):
+            if len(events) >= n:
+                break
+            events = self._segment_events(index)[-(n - len(events)) :] + events
+        return events
+
+    def since(self, sequence: int) -> list[CDCEvent]:
+        """Events with a sequence number greater than ``sequence``, skipping whole segments."""
+        first = bisect.bisect_right(self._sealed, sequence, key=lambda s: s.last_seq)
+        events: list[CDCEvent] = []
+        for index in range(first, len(self._sealed)):
+            segment_events = self._segment_events(index)
+            start = bisect.bisect_right(segment_events, sequence, key=lambda e: e.sequence)
+            events.extend(segment_events[start:])
+        start = bisect.bisect_right(self._active, sequence, key=lambda e: e.sequence)
+        events.extend(self._active[start:])
+        return events
+
+    def iter_from(self, index: int) -> Iterator[CDCEvent]:
+        """Lazily yield events from feed position ``index`` onwards."""
+        i = max(bisect.bisect_right(self._sealed, index, key=lambda s: s.start) - 1, 0)
+        # len() re-read each pass: segments sealed while iterating are still visited
+        while i < len(self._sealed):
+            segment = self._sealed[i]
+            if segment.start + segment.count > index:
+                yield from self._segment_events(i)[max(index - segment.start, 0) :]
+            i += 1
+        # Sealing swaps in a new active list, so this stays consistent while appends happen
+        active, active_start = self._active, self._sealed_count
+        yield from active[max(index - active_start, 0) :]
+
+    def close(self) -> None:
+        """Delete the spill file. Sealed events are no longer readable afterwards."""
+        if self._finalizer is not None:
+            self._finalizer()
+
+    def stats(self) -> dict[str, Any]:
+        """Event counts and spill size."""
+        return {
+            "events": len(self),
+            "in_memory": len(self._active),
+            "sealed_segments": len(self._sealed),
+            "spill_bytes": self._spill.size if self._spill is not None else 0,
+        }
+
+    def _seal(self) -> None:
+        events, self._active = self._active, []
+        segment = _Segment(
+            first_seq=events[0].sequence,
+            last_seq=events[-1].sequence,
+            start=self._sealed_count,
+            count=len(events),
+        )
+        try:
+            payload = b"".join(
+                json.dumps(event.to_record(), default=str, separators=(",", ":")).encode() + b"\n"
+                for event in events
+            )
+            if self._spill is None:
+                self._spill = SpillFile(prefix=f"cdc-{self._name[:32]}-")
+                self._finalizer = weakref.finalize(self, self._spill.close)
+            segment.offset = self._spill.append(payload)
+            segment.length = len(payload)
+        except (OSError, ValueError) as e:
+            logger.warning(f"CDC spill failed, keeping segment in memory: {e}")
+            segment.events = events
+        self._sealed.append(segment)
+        self._sealed_count += segment.count
+
+    def _segment_events(self, index: int) -> list[CDCEvent]:
+        segment = self._sealed[index]
+        if segment.events is not None:
+            return segment.events
+        if self._decoded is not None and self._decoded[0] == index:
+            return self._decoded[1]
+        assert self._spill is not None
+        raw = self._spill.read(segment.offset, segment.length)
+        events = [self._decode(json.loads(line)) for line in raw.splitlines()]
+        self._decoded = (index, events)
+        return events
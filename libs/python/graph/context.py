@@ -28,14 +28,20 @@ while maintaining a record of all mutations.
 
 from __future__ import annotations
 
-from collections.abc import Callable
+import json
+from collections import deque
+from collections.abc import Callable, Iterable, Iterator
 from dataclasses import dataclass, field
 from datetime import datetime
 from enum import Enum
 from typing import TYPE_CHECKING, Any
 
+from .cdc_bus import CDCBus, OverflowPolicy, Subscription
+from .cdc_feed import CDCFeed
+from .payload_store import PayloadRef, PayloadStore, decode_refs, encode_refs
+
 if TYPE_CHECKING:
-    from libs.python.cache import LRUCache
+    from libs.python.cache import BoundedCache
 
 
 class MutationType(Enum):
@@ -79,6 +85,8 @@ class CDCEventType(Enum):
     NODE_SUCCESS = "node.success"
     NODE_FAILED = "node.failed"
     NODE_SKIPPED = "node.skipped"
+    NODE_CACHED = "node.cached"  # output served from the node memo, not executed
+    NODE_STREAM = "node.stream"  # incremental output text from a streaming node
 
     # Edge transitions
     EDGE_EVAL = "edge.eval"
@@ -138,6 +146,27 @@ class CDCEvent:
     stage: str = ""  # pre_flight, in_flight, post_flight
     sequence: int = 0  # monotonic sequence number within session
 
+    def to_record(self) -> dict[str, Any]:
+        """Plain-dict form, used for spill segments and session_cdc documents."""
+        return {
+            "event_type": self.event_type.value,
+            "timestamp": self.timestamp.isoformat(),
+            "data": encode_refs(self.data),
+            "stage": self.stage,
+            "sequence": self.sequence,
+        }
+
+    @classmethod
+    def from_record(cls, record: dict[str, Any]) -> CDCEvent:
+        """Inverse of to_record()."""
+        return cls(
+            event_type=CDCEventType(record["event_type"]),
+            timestamp=datetime.fromisoformat(record["timestamp"]),
+            data=decode_refs(record["data"]),
+            stage=record["stage"],
+            sequence=record["sequence"],
+        )
+
 
 # TODO: Pivot this pattern to "Delta".
 # - This is the diff between two things, and is determined both by "an" event as well as "between" events if applicable.
@@ -176,30 +205,56 @@ class SessionContext:
     - Embedding events
     - System calls (if strace enabled)
 
-    Node outputs are stored in an LRU cache (libs/python/cache.LRUCache)
-    for automatic eviction when the session grows large.
+    Node outputs are stored in a byte-bounded cache (libs/python/cache.BoundedCache)
+    for automatic eviction when the session grows large: memory is capped by
+    _outputs_max_bytes as well as _outputs_max_size entries.
     Access via set_output()/get_output().
+
+    The CDC feed is a segmented CDCFeed: only the newest segment is held
+    in memory, older ones spill to disk. Read it with cdc_tail(),
+    cdc_since() or iter_cdc(); the changelog keeps the most recent
+    CHANGELOG_MAX_SIZE mutations.
+
+    Node inputs/outputs in node and outputs.* events are PayloadRefs into
+    a content-addressed PayloadStore, so one output referenced by several
+    events is stored and serialized once. Use event_data() to read an
+    event with its payloads resolved.
     """
 
+    CHANGELOG_MAX_SIZE = 1000
+
     session_id: str
     created_at: datetime = field(default_factory=datetime.utcnow)
     _data: dict[str, Any] = field(default_factory=dict)
-    _changelog: list[Mutation] = field(default_factory=list)
-    _cdc_feed: list[CDCEvent] = field(default_factory=list)
+    _changelog: deque[Mutation] = field(default_factory=lambda: deque(maxlen=SessionContext.CHANGELOG_MAX_SIZE))
+    _mutation_count: int = 0
+    _cdc_feed: CDCFeed | None = field(default=None, repr=False)
     _current_stage: str = ""
     _sequence: int = 0
-    _live_callback: CDCCallback | None = None
-    # LRU cache for node outputs - initialized in __post_init__
-    _outputs_cache: LRUCache | None = field(default=None, repr=False)
+    _persisted_seq: int = 0  # watermark: CDC events up to here are in the store
+    _persisted_ahead: set[int] = field(default_factory=set, repr=False)  # written events past the watermark
+    _legacy_snapshot: bool = field(default=False, repr=False)  # resumed from a snapshot that embedded its history
+    # Fan-out to subscribers - created on first subscribe(), so emit() stays a plain append until then
+    _bus: CDCBus | None = field(default=None, repr=False)
+    _live_subscription: Subscription | None = field(default=None, repr=False)
+    _payloads: PayloadStore | None = field(default=None, repr=False)
+    # Bounded cache for node outputs - initialized in __post_init__
+    _outputs_cache: BoundedCache | None = field(default=None, repr=False)
     _outputs_max_size: int = 100  # Max nodes to keep in cache
+    _outputs_max_bytes: int = 64 * 1024 * 1024  # Max approximate bytes of outputs
 
     def __post_init__(self) -> None:
-        """Initialize LRU cache with eviction callback."""
-        from libs.python.cache import LRUCache
+        """Initialize CDC feed and outputs cache with eviction callback."""
+        from libs.python.cache import BoundedCache
 
+        if self._cdc_feed is None:
+            self._cdc_feed = CDCFeed(CDCEvent.from_record, name=self.session_id)
+        if self._payloads is None:
+            self._payloads = PayloadStore()
         if self._outputs_cache is None:
-            self._outputs_cache = LRUCache(
-                max_size=self._outputs_max_size,
+            self._outputs_cache = BoundedCache(
+                max_bytes=self._outputs_max_bytes,
+                max_entries=self._outputs_max_size,
                 on_evict=self._on_output_evict,
             )
         else:
@@ -207,38 +262,79 @@ class SessionContext:
             self._outputs_cache.set_on_evict(self._on_output_evict)
 
     def _on_output_evict(self, key: str, value: Any) -> None:
-        """Called by LRUCache when an output is evicted."""
+        """Called by the outputs cache when an output is evicted or expires."""
         self.emit(
             CDCEventType.STATE_DELETE,
             {"key": f"outputs.{key}", "reason": "lru_eviction"},
         )
 
+    @property
+    def cdc_bus(self) -> CDCBus:
+        """The session's CDC bus (created on first use)."""
+        if self._bus is None:
+            self._bus = CDCBus()
+        return self._bus
+
+    def subscribe(
+        self,
+        callback: CDCCallback | None = None,
+        prefixes: tuple[str, ...] | None = None,
+        name: str | None = None,
+        capacity: int = 1024,
+        policy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+    ) -> Subscription:
+        """Subscribe to CDC events emitted from now on.
+
+        The callback runs on the subscription's own thread, never on the
+        emitting (executor) thread. Omit it for a pull subscription and
+        drain with ``subscription.poll()``. See cdc_bus.py for policies.
+        """
+        return self.cdc_bus.subscribe(callback, prefixes=prefixes, name=name, capacity=capacity, policy=policy)
+
+    def unsubscribe(self, subscription: Subscription) -> None:
+        """Remove a subscription."""
+        self.cdc_bus.unsubscribe(subscription)
+
     def set_live_callback(self, callback: CDCCallback | None) -> None:
-        """Set a callback to receive CDC events in real-time."""
-        self._live_callback = callback
+        """Set a callback to receive CDC events in real-time (None removes it).
+
+        Shorthand for a push subscribe(); the callback runs asynchronously.
+        """
+        if self._live_subscription is not None:
+            self.unsubscribe(self._live_subscription)
+            self._live_subscription = None
+        if callback is not None:
+            self._live_subscription = self.subscribe(callback, name="live")
 
     def set_outputs_max_size(self, max_size: int) -> None:
         """Set max number of node outputs to keep (LRU eviction)."""
         self._outputs_max_size = max_size
         if self._outputs_cache:
-            self._outputs_cache._max_size = max_size
+            self._outputs_cache.resize(max_entries=max_size)
+
+    def set_outputs_max_bytes(self, max_bytes: int) -> None:
+        """Set the byte budget for node outputs (eviction)."""
+        self._outputs_max_bytes = max_bytes
+        if self._outputs_cache:
+            self._outputs_cache.resize(max_bytes=max_bytes)
 
-    def set_output(self, node_id: str, output: dict[str, Any]) -> None:
-        """Store a node output in the LRU cache.
+    def set_output(self, node_id: str, output: dict[str, Any], ref: Any = None) -> None:
+        """Store a node output in the outputs cache.
 
         Automatically evicts oldest outputs when over max_size.
-        Emits CDC event for the mutation.
+        Emits CDC event for the mutation. ``ref`` is payloads.ref(output)
+        if the caller already computed it.
         """
         if self._outputs_cache is None:
             return
-        is_update = self._outputs_cache.get(node_id) is not None
+        is_update = node_id in self._outputs_cache
 
-        # Store in cache (eviction handled by LRUCache with callback)
+        # Store in cache (eviction handled by BoundedCache with callback)
         self._outputs_cache.set(node_id, output)
 
         # Emit CDC event for the set
         cdc_type = CDCEventType.STATE_UPDATE if is_update else CDCEventType.STATE_CREATE
-        self.emit(cdc_type, {"key": f"outputs.{node_id}", "output": output})
+        self.emit(cdc_type, {"key": f"outputs.{node_id}", "output": self._output_ref(output, ref)})
 
     def get_output(self, node_id: str, default: dict[str, Any] | None = None) -> dict[str, Any] | None:
         """Get a node output from the cache. Moves to most-recently-used."""
@@ -263,6 +359,10 @@ class SessionContext:
         """Set current execution stage for mutation tracking."""
         self._current_stage = stage
 
+    def _output_ref(self, output: dict[str, Any], ref: Any) -> Any:
+        """``ref`` if given (one output emitted several times is digested once), else payloads.ref(output)."""
+        return self.payloads.ref(output) if ref is None else ref
+
     def _next_seq(self) -> int:
         """Get next sequence number."""
         self._sequence += 1
@@ -280,11 +380,12 @@ class SessionContext:
             stage=self._current_stage,
             sequence=self._next_seq(),
         )
+        assert self._cdc_feed is not None
         self._cdc_feed.append(event)
 
-        # Notify live callback if set
-        if self._live_callback:
-            self._live_callback(event)
+        # Subscribers consume on their own threads/queues
+        if self._bus is not None:
+            self._bus.publish(event)
 
     def msg_user(self, text: str) -> None:
         """Log a user message."""
@@ -328,27 +429,27 @@ class SessionContext:
             {
                 "node_id": node_id,
                 "node_type": node_type,
-                "input": input_data or {},
+                "input": self.payloads.ref(input_data or {}),
             },
         )
 
-    def node_output(self, node_id: str, output: dict[str, Any]) -> None:
-        """Log node output (stdout, result, etc)."""
+    def node_output(self, node_id: str, output: dict[str, Any], ref: Any = None) -> None:
+        """Log node output (stdout, result, etc). ``ref``: precomputed payloads.ref(output)."""
         self.emit(
             CDCEventType.NODE_OUTPUT,
             {
                 "node_id": node_id,
-                "output": output,
+                "output": self._output_ref(output, ref),
             },
         )
 
-    def node_success(self, node_id: str, output: dict[str, Any]) -> None:
-        """Log successful node completion."""
+    def node_success(self, node_id: str, output: dict[str, Any], ref: Any = None) -> None:
+        """Log successful node completion. ``ref``: precomputed payloads.ref(output)."""
         self.emit(
             CDCEventType.NODE_SUCCESS,
             {
                 "node_id": node_id,
-                "output": output,
+                "output": self._output_ref(output, ref),
             },
         )
 
@@ -372,6 +473,27 @@ class SessionContext:
             },
         )
 
+    def node_stream(self, node_id: str, text: str, index: int) -> None:
+        """Log a chunk of streamed node output (``index`` counts chunks per node run)."""
+        self.emit(
+            CDCEventType.NODE_STREAM,
+            {
+                "node_id": node_id,
+                "text": text,
+                "index": index,
+            },
+        )
+
+    def node_cached(self, node_id: str, memo_key: str) -> None:
+        """Log a memo hit: the node's output was reused instead of executing it."""
+        self.emit(
+            CDCEventType.NODE_CACHED,
+            {
+                "node_id": node_id,
+                "memo_key": memo_key,
+            },
+        )
+
     def edge_eval(self, source: str, target: str, condition: str | None, result: bool) -> None:
         """Log edge condition evaluation."""
         self.emit(
@@ -450,7 +572,7 @@ class SessionContext:
     def get(self, key: str, default: Any = None) -> Any:
         """Get a value from context.
 
-        Special handling for 'outputs' key - returns the LRU cache contents.
+        Special handling for 'outputs' key - returns the outputs cache contents.
         """
         if key == "outputs":
             return self.get_all_outputs()
@@ -462,6 +584,7 @@ class SessionContext:
         mutation_type = MutationType.UPDATE if key in self._data else MutationType.CREATE
 
         self._data[key] = value
+        self._mutation_count += 1
         self._changelog.append(
             Mutation(
                 key=key,
@@ -479,6 +602,7 @@ class SessionContext:
         """Delete a key, recording the mutation."""
         if key in self._data:
             old_value = self._data.pop(key)
+            self._mutation_count += 1
             self._changelog.append(
                 Mutation(
                     key=key,
@@ -495,55 +619,101 @@ class SessionContext:
         return dict(self._data)
 
     def changelog(self) -> list[Mutation]:
-        """Get the mutation changelog (legacy)."""
+        """Get the most recent mutations (legacy, bounded by CHANGELOG_MAX_SIZE)."""
         return list(self._changelog)
 
     def cdc_feed(self) -> list[CDCEvent]:
-        """Get the full CDC feed."""
+        """Get the full CDC feed as a list.
+
+        Materializes every spilled segment - prefer cdc_tail(), cdc_since()
+        or iter_cdc() for long sessions.
+        """
+        assert self._cdc_feed is not None
         return list(self._cdc_feed)
 
+    def cdc_count(self) -> int:
+        """Number of CDC events emitted in this execution."""
+        assert self._cdc_feed is not None
+        return len(self._cdc_feed)
+
+    def cdc_tail(self, n: int) -> list[CDCEvent]:
+        """Get the last ``n`` CDC events, oldest first."""
+        assert self._cdc_feed is not None
+        return self._cdc_feed.tail(n)
+
+    def iter_cdc(self, start: int = 0) -> Iterator[CDCEvent]:
+        """Iterate CDC events from feed position ``start`` without copying the feed."""
+        assert self._cdc_feed is not None
+        return self._cdc_feed.iter_from(start)
+
+    @property
+    def payloads(self) -> PayloadStore:
+        """Content-addressed store behind the PayloadRefs in this session's events."""
+        assert self._payloads is not None
+        return self._payloads
+
+    def event_data(self, event: CDCEvent) -> dict[str, Any]:
+        """An event's data with PayloadRefs resolved to their payloads."""
+        return self.payloads.resolve_data(event.data)
+
+    def cdc_since(self, sequence: int) -> list[CDCEvent]:
+        """Get CDC events with a sequence number greater than ``sequence``."""
+        assert self._cdc_feed is not None
+        return self._cdc_feed.since(sequence)
+
+    def cdc_unpersisted(self) -> list[CDCEvent]:
+        """CDC events not written to the store yet: past the watermark and not marked ahead of it."""
+        return [e for e in self.cdc_since(self._persisted_seq) if e.sequence not in self._persisted_ahead]
+
+    @property
+    def persisted_seq(self) -> int:
+        """Watermark: sequence of the last CDC event written to the store."""
+        return self._persisted_seq
+
+    @property
+    def persisted_ahead(self) -> frozenset[int]:
+        """Sequences past the watermark that are already written (behind a failed event)."""
+        return frozenset(self._persisted_ahead)
+
+    def mark_persisted(self, sequence: int, ahead: Iterable[int] = ()) -> None:
+        """Advance the persistence watermark (never moves backwards).
+
+        ``ahead`` are sequences past the watermark that are written too,
+        behind an event that failed; cdc_unpersisted() skips them.
+        """
+        self._persisted_seq = max(self._persisted_seq, sequence)
+        self._persisted_ahead = {s for s in (*self._persisted_ahead, *ahead) if s > self._persisted_seq}
+
     def to_dict(self) -> dict[str, Any]:
-        """Serialize context for persistence."""
+        """Serialize current state for persistence.
+
+        The snapshot holds state plus the CDC watermark only - the event
+        history lives in the session_cdc collection, so snapshot size does
+        not grow with session age.
+        """
         return {
             "session_id": self.session_id,
             "created_at": self.created_at.isoformat(),
             "data": self._data,
             "sequence": self._sequence,
-            # LRU outputs cache - use LRUCache.to_dict()
+            "persisted_seq": self._persisted_seq,
+            # Outputs cache - use BoundedCache.to_dict()
             "outputs_cache": self._outputs_cache.to_dict() if self._outputs_cache else {},
             "outputs_max_size": self._outputs_max_size,
-            "changelog": [
-                {
-                    "key": m.key,
-                    "type": m.mutation_type.value,
-                    "old": m.old_value,
-                    "new": m.new_value,
-                    "timestamp": m.timestamp.isoformat(),
-                    "stage": m.stage,
-                }
-                for m in self._changelog
-            ],
-            "cdc_feed": [
-                {
-                    "type": e.event_type.value,
-                    "timestamp": e.timestamp.isoformat(),
-                    "data": e.data,
-                    "stage": e.stage,
-                    "seq": e.sequence,
-                }
-                for e in self._cdc_feed
-            ],
+            "outputs_max_bytes": self._outputs_max_bytes,
+            "mutation_count": self._mutation_count,
         }
 
     @classmethod
     def from_dict(cls, d: dict[str, Any]) -> SessionContext:
         """Deserialize context from persistence."""
-        from libs.python.cache import LRUCache
+        from libs.python.cache import BoundedCache
 
         max_size = d.get("outputs_max_size", 100)
+        max_bytes = d.get("outputs_max_bytes", cls._outputs_max_bytes)
 
-        # Create LRUCache and restore from serialized data
-        cache = LRUCache(max_size=max_size)
+        # Create the outputs cache and restore from serialized data (also reads LRUCache snapshots)
+        cache = BoundedCache(max_bytes=max_bytes, max_entries=max_size)
         cache_data = d.get("outputs_cache", {})
         if cache_data:
             cache.from_dict(cache_data)
@@ -553,9 +723,14 @@ class SessionContext:
             created_at=datetime.fromisoformat(d["created_at"]),
             _outputs_cache=cache,
             _outputs_max_size=max_size,
+            _outputs_max_bytes=max_bytes,
         )
         ctx._data = dict(d.get("data", {}))
         ctx._sequence = d.get("sequence", 0)
+        # Older snapshots embedded their feed and had no watermark; their
+        # events were all written to session_cdc, so resume past them
+        ctx._persisted_seq = d.get("persisted_seq", ctx._sequence)
+        ctx._legacy_snapshot = "changelog" in d or "cdc_feed" in d
 
         # Changelog and CDC feed are not restored - they're append-only per execution
         # But we preserve the sequence counter for continuity
@@ -589,6 +764,7 @@ class ContextStore:
     """
 
     COLLECTION = "session_contexts"
+    PAYLOADS_COLLECTION = "session_payloads"
 
     def __init__(self) -> None:
         self._store: Any = None  # DocumentStore, lazy-loaded
@@ -622,6 +798,10 @@ class ContextStore:
             return None
 
         try:
+            doc = store.read(self.COLLECTION, store.key_id(self.COLLECTION, session_id))
+            if doc is not None:
+                return SessionContext.from_dict(doc.data)
+            # Sessions persisted before keyed upserts have random document IDs
             docs = store.query(
                 self.COLLECTION,
                 filters={"session_id": session_id},
@@ -633,30 +813,38 @@ class ContextStore:
             pass
         return None
 
+    # Fields needed for a SessionSummary - avoids fetching changelog/CDC arrays
+    SUMMARY_FIELDS = ["session_id", "created_at", "mutation_count"]
+
     def _doc_to_summary(self, doc) -> SessionSummary:
         """Convert a document to a SessionSummary."""
         data = doc.data
         created = datetime.fromisoformat(data.get("created_at", datetime.utcnow().isoformat()))
-        changelog = data.get("changelog", [])
-        last_ts = datetime.fromisoformat(changelog[-1].get("timestamp", created.isoformat())) if changelog else created
         return SessionSummary(
             session_id=data.get("session_id", doc.id),
             created_at=created,
-            last_updated=last_ts,
-            mutation_count=len(changelog),
+            last_updated=getattr(doc, "updated_at", None) or created,
+            mutation_count=data.get("mutation_count", 0),
         )
 
     def list_sessions(self, limit: int = 20) -> list[SessionSummary]:
-        """List previous sessions for landing page. Returns sessions ordered by most recent first."""
+        """List previous sessions for landing page. Returns sessions ordered by most recent first.
+
+        Ordering, limit and field projection happen in the store, so only
+        ``limit`` small summary documents are transferred.
+        """
         store = self._get_store()
         if store is None:
             return []
 
         try:
-            docs = store.query(self.COLLECTION, limit=limit)
-            summaries = [self._doc_to_summary(doc) for doc in docs]
-            summaries.sort(key=lambda s: s.last_updated, reverse=True)
-            return summaries
+            from libs.python.persistence import DocumentQuery
+
+            page = store.find(
+                self.COLLECTION,
+                DocumentQuery(fields=self.SUMMARY_FIELDS, order_by="updated_at", descending=True, limit=limit),
+            )
+            return [self._doc_to_summary(doc) for doc in page.documents]
         except Exception:
             return []
 
@@ -666,9 +854,13 @@ class ContextStore:
         return self.create(session_id)
 
     def persist(self, context: SessionContext) -> bool:
-        """Write context and changelog to store.
+        """Write new CDC events and a state snapshot to store.
 
-        Called during POST-FLIGHT to record session state and mutations.
+        Called during POST-FLIGHT (and per-turn checkpoints) to record
+        session state and mutations. Cost is proportional to what changed
+        since the last persist, not to session age: only events past the
+        context's watermark are appended, then the snapshot (state plus
+        watermark) is upserted.
         Returns True if successful, False otherwise.
         """
         store = self._get_store()
@@ -676,48 +868,79 @@ class ContextStore:
             return False
 
         try:
-            data = context.to_dict()
-
-            # Check if exists
-            docs = store.query(
-                self.COLLECTION,
-                filters={"session_id": context.session_id},
-                limit=1,
-            )
-
-            if docs:
-                # Update existing
-                store.update(self.COLLECTION, docs[0].id, data)
-            else:
-                # Create new
-                store.create(self.COLLECTION, data)
-
-            # Persist full CDC feed (includes changelog mutations + everything else)
+            # Events first, so a stored watermark never covers unwritten events
             self._persist_cdc_feed(context)
 
+            snapshot = context.to_dict()
+            if context._legacy_snapshot:
+                # The merge keeps keys the snapshot no longer has; drop the old embedded history
+                snapshot.update(changelog=None, cdc_feed=None)
+            # One statement: keyed by session_id, merged server-side if present
+            store.upsert(self.COLLECTION, context.session_id, snapshot)
+            context._legacy_snapshot = False
+
             return True
         except Exception:
             return False
 
     def _cdc_event_to_doc(self, session_id: str, event) -> dict:
         """Convert a CDC event to a document dict."""
-        return {
-            "session_id": session_id,
-            "event_type": event.event_type.value,
-            "timestamp": event.timestamp.isoformat(),
-            "data": event.data,
-            "stage": event.stage,
-            "sequence": event.sequence,
-        }
+        return {"session_id": session_id, **event.to_record()}
 
     def _persist_cdc_feed(self, context: SessionContext) -> None:
-        """Write all CDC events to the session_cdc collection. Best-effort."""
+        """Append unwritten CDC events to session_cdc in one batch. Best-effort.
+
+        Every result is checked: the watermark advances up to the first
+        failed event and written events behind it are marked, so the next
+        persist retries only the failed events and never duplicates one.
+        """
         store = self._get_store()
-        if store is None or not context.cdc_feed():
+        pending = context.cdc_unpersisted()
+        if store is None or not pending:
             return
 
         try:
-            for event in context.cdc_feed():
-                store.create("session_cdc", self._cdc_event_to_doc(context.session_id, event))
+            # Payloads first, so a stored event never references a missing blob
+            if not self._persist_payloads(context, pending):
+                return
+            results = store.create_many(
+                "session_cdc", [self._cdc_event_to_doc(context.session_id, event) for event in pending]
+            )
         except Exception:
-            pass  # CDC is best-effort
+            return  # CDC is best-effort; retried next persist
+
+        written: list[int] = []
+        failed: list[int] = []
+        for i, event in enumerate(pending):
+            (written if i < len(results) and results[i].ok else failed).append(event.sequence)
+        if failed:
+            context.mark_persisted(failed[0] - 1, written)
+        else:  # the retried events were the only gaps
+            context.mark_persisted(max([pending[-1].sequence, *context.persisted_ahead]))
+
+    def _persist_payloads(self, context: SessionContext, events: list[CDCEvent]) -> bool:
+        """Write blobs referenced by ``events`` that are not stored yet, once each. True if all written."""
+        store = self._get_store()
+        refs = [v for event in events for v in event.data.values() if isinstance(v, PayloadRef)]
+        blobs = context.payloads.unpersisted(refs)
+        if not blobs:
+            return True
+
+        results = store.upsert_many(
+            self.PAYLOADS_COLLECTION,
+            {
+                store.key_id(self.PAYLOADS_COLLECTION, digest): {"digest": digest, "payload": json.loads(blob)}
+                for digest, blob in blobs.items()
+            },
+        )
+        written = [digest for digest, result in zip(blobs, results, strict=False) if result.ok]
+        context.payloads.mark_persisted(written)
+        return len(written) == len(blobs)
+
+    def read_payload(self, ref: PayloadRef) -> Any:
+        """Load a persisted payload by reference (e.g. from a session_cdc document). None if missing."""
+        store = self._get_store()
+        if store is None:
+            return None
+        doc = store.read(self.PAYLOADS_COLLECTION, store.key_id(self.PAYLOADS_COLLECTION, ref.digest))
+        return doc.data.get("payload") if doc is not None else None
@@ -9,10 +9,13 @@ They enable algorithms (BFS, DFS, crawlers) to be expressed as graph composition
 
 from __future__ import annotations
 
+import asyncio
+import time
+from dataclasses import dataclass
 from typing import TYPE_CHECKING, Any
 
 from .context import CDCEventType
-from .graph import Graph, GraphExecutor
+from .graph import Graph, GraphExecutionResult, GraphExecutor
 from .nodes import GraphNode
 
 if TYPE_CHECKING:
@@ -36,6 +39,21 @@ class ForLoopGraph(GraphNode):
     """Execute body graph for each item in a collection.
 
     Acts as recursion primitive for iteration-based algorithms.
+
+    Up to ``parallelism`` iterations run concurrently (default 1: one at a
+    time). Iterations share the body graph's node instances, so body nodes
+    must tolerate concurrent execute() calls when parallelism > 1. Results
+    are always reported in item order, and BreakNode keeps its serial
+    meaning: when iteration ``i`` breaks, iterations after ``i`` are
+    cancelled (or never started) and excluded from the result, while
+    earlier ones still finish.
+
+    Map mode: with ``map_node`` set, the result also carries ``results``,
+    that node's output for each completed iteration in item order (None
+    where the iteration was skipped or the node did not run).
+
+    Iteration end events carry ``duration_ms`` and a ``status`` of ok,
+    continue, break, cancelled or error.
     """
 
     def __init__(
@@ -44,41 +62,47 @@ class ForLoopGraph(GraphNode):
         items: list[Any] | None = None,
         body_graph: Graph | None = None,
         item_input_node: str | None = None,
+        parallelism: int = 1,
+        map_node: str | None = None,
     ) -> None:
         super().__init__(node_id)
+        if parallelism < 1:
+            raise ValueError("parallelism must be >= 1")
         self.items = items or []
         self.body_graph = body_graph
         self.item_input_node = item_input_node
+        self.parallelism = parallelism
+        self.map_node = map_node
         self._session_ctx: SessionContext | None = None
 
-    async def _execute_iteration(self, idx: int, item: Any, outputs: list[dict[str, Any]]) -> dict[str, Any] | None:
-        """Execute a single loop iteration. Returns early-exit result or None to continue."""
-        if not self.body_graph:
-            return None
-
+    async def _execute_iteration(self, executor: GraphExecutor, idx: int, item: Any) -> _Iteration:
+        """Execute a single loop iteration, emitting timed start/end CDC events."""
+        assert self.body_graph is not None
+        started = time.perf_counter()
         if self._session_ctx:
             self._session_ctx.emit(CDCEventType.LOOP_ITERATION_START, {"index": idx, "item": item})
 
-        # Prepare inputs for ALL nodes in body graph with loop context
-        loop_context = {"stdin": str(item), "item": item, "index": idx}
-        body_inputs: dict[str, dict[str, Any]] = {nid: dict(loop_context) for nid in self.body_graph.nodes}
-
-        # Execute body graph
-        executor = GraphExecutor(session_ctx=self._session_ctx)
-        result = await executor.execute(self.body_graph, initial_inputs=body_inputs)
-
-        # Check for break/continue signals
-        should_break, should_skip = self._check_control_signals(result)
-
-        if self._session_ctx:
-            self._session_ctx.emit(CDCEventType.LOOP_ITERATION_END, {"index": idx})
-
-        if should_break:
-            return {"success": True, "iterations": idx + 1, "outputs": outputs, "terminated_early": True}
-
-        if not should_skip:
-            outputs.append({"index": idx, "item": item, "result": result})
-        return None
+        status = "error"
+        try:
+            # Prepare inputs for ALL nodes in body graph with loop context
+            loop_context = {"stdin": str(item), "item": item, "index": idx}
+            body_inputs: dict[str, dict[str, Any]] = {nid: dict(loop_context) for nid in self.body_graph.nodes}
+
+            result = await executor.execute(self.body_graph, initial_inputs=body_inputs)
+
+            # Check for break/continue signals
+            should_break, should_skip = self._check_control_signals(result)
+            status = "break" if should_break else "continue" if should_skip else "ok"
+            return _Iteration(index=idx, item=item, result=result, should_break=should_break, should_skip=should_skip)
+        except asyncio.CancelledError:
+            status = "cancelled"
+            raise
+        finally:
+            if self._session_ctx:
+                self._session_ctx.emit(
+                    CDCEventType.LOOP_ITERATION_END,
+                    {"index": idx, "status": status, "duration_ms": (time.perf_counter() - started) * 1000},
+                )
 
     def _check_control_signals(self, result: Any) -> tuple[bool, bool]:
         """Check for break/continue signals in node results. Returns (should_break, should_skip)."""
@@ -92,27 +116,84 @@ class ForLoopGraph(GraphNode):
                 should_skip = True
         return should_break, should_skip
 
+    async def _run_iterations(self) -> tuple[dict[int, _Iteration], int | None]:
+        """Run iterations under the parallelism bound. Returns (finished by index, break index)."""
+        executor = GraphExecutor(session_ctx=self._session_ctx)
+        finished: dict[int, _Iteration] = {}
+        running: dict[asyncio.Task[_Iteration], int] = {}
+        break_at: int | None = None
+        next_idx = 0
+
+        try:
+            while True:
+                while (
+                    next_idx < len(self.items)
+                    and len(running) < self.parallelism
+                    and (break_at is None or next_idx < break_at)
+                ):
+                    task = asyncio.create_task(self._execute_iteration(executor, next_idx, self.items[next_idx]))
+                    running[task] = next_idx
+                    next_idx += 1
+                if not running:
+                    break
+
+                done, _ = await asyncio.wait(running, return_when=asyncio.FIRST_COMPLETED)
+                for task in done:
+                    idx = running.pop(task)
+                    if task.cancelled():
+                        continue
+                    iteration = task.result()
+                    finished[idx] = iteration
+                    if iteration.should_break and (break_at is None or idx < break_at):
+                        break_at = idx
+                        for other, other_idx in running.items():
+                            if other_idx > idx:
+                                other.cancel()
+        finally:
+            for task in running:
+                task.cancel()
+
+        return finished, break_at
+
     async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
         input_data = input_data or {}
 
         if not self.body_graph:
             return {"success": True, "iterations": 0, "outputs": [], "error": None}
 
-        outputs: list[dict[str, Any]] = []
-        iteration_indices: list[int] = []
-
-        for idx, item in enumerate(self.items):
-            iteration_result = await self._execute_iteration(idx, item, outputs)
-            if iteration_result is not None:
-                return iteration_result
-            iteration_indices.append(idx)
+        finished, break_at = await self._run_iterations()
+        iterations = len(self.items) if break_at is None else break_at + 1
+        kept = [finished[idx] for idx in range(iterations) if idx != break_at]
 
-        return {
+        result: dict[str, Any] = {
             "success": True,
-            "iterations": len(self.items),
-            "outputs": outputs,
-            "iteration_indices": iteration_indices,
+            "iterations": iterations,
+            "outputs": [{"index": it.index, "item": it.item, "result": it.result} for it in kept if not it.should_skip],
         }
+        if break_at is None:
+            result["iteration_indices"] = list(range(iterations))
+        else:
+            result["terminated_early"] = True
+        if self.map_node is not None:
+            result["results"] = [self._mapped_output(it) for it in kept]
+        return result
+
+    def _mapped_output(self, iteration: _Iteration) -> dict[str, Any] | None:
+        node_result = iteration.result.node_results.get(self.map_node or "")
+        if iteration.should_skip or node_result is None:
+            return None
+        return node_result.output
+
+
+@dataclass
+class _Iteration:
+    """Outcome of one ForLoopGraph iteration."""
+
+    index: int
+    item: Any
+    result: GraphExecutionResult
+    should_break: bool
+    should_skip: bool
 
 
 # =============================================================================
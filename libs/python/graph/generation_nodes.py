@@ -162,7 +162,7 @@ class TextGenerationNode(GenerationNode):
 
         # TextGenerationService only supports Ollama, so provider is ignored
         service = TextGenerationService(model=self.model)
-        text = service.generate(
+        text = await service.agenerate(
             prompt=prompt,
             max_tokens=self.max_tokens,
             temperature=self.temperature,
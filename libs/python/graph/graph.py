@@ -7,14 +7,70 @@
 from __future__ import annotations
 
 import asyncio
-from collections.abc import Iterable
+import functools
+import heapq
+import logging
+from collections.abc import Iterable, Iterator, Mapping
 from dataclasses import dataclass, field
+from enum import Enum
+from types import CodeType
 from typing import TYPE_CHECKING, Any
 
 from .nodes import GraphNode
+from .token_stream import StreamRelay, TokenStream
 
 if TYPE_CHECKING:
     from .context import SessionContext
+    from .node_memo import NodeMemo
+
+logger = logging.getLogger(__name__)
+
+# (source, target, condition)
+Edge = tuple[str, str, str | None]
+
+
+@functools.lru_cache(maxsize=1024)
+def _compile_condition(condition: str) -> CodeType | None:
+    """Compile an edge condition once. Returns None if it is not a valid expression."""
+    try:
+        return compile(condition, "<edge-condition>", "eval")
+    except SyntaxError:
+        return None
+
+
+class _OutputNamespace(Mapping[str, Any]):
+    """Read-only view of node outputs by id, used as the eval() namespace.
+
+    Avoids copying every node's output into a fresh dict per evaluation.
+    """
+
+    def __init__(self, node_results: dict[str, NodeExecutionResult]) -> None:
+        self._results = node_results
+
+    def __getitem__(self, key: str) -> Any:
+        return self._results[key].output
+
+    def __iter__(self) -> Iterator[str]:
+        return iter(self._results)
+
+    def __len__(self) -> int:
+        return len(self._results)
+
+
+class SchedulingMode(Enum):
+    """How ``GraphExecutor`` dispatches nodes.
+
+    LAYERED waits for every node in a topological group before starting the
+    next group. Dispatch order is fully deterministic, which makes it the
+    mode to use for replaying a recorded session.
+
+    EAGER starts each node as soon as all of its incoming edges are resolved
+    (source finished or skipped), so a slow branch only delays its own
+    descendants. End-to-end latency approaches the critical-path time.
+    """
+
+    LAYERED = "layered"
+    EAGER = "eager"
 
 
 @dataclass
@@ -48,16 +104,23 @@ class Graph:
     can produce execution groups suitable for parallel execution.
 
     Edges can have optional conditions for runtime branching.
+
+    Per-node incoming/outgoing edge indexes are built lazily and dropped on
+    ``add_node``/``add_edge`` (or any other change to the edge count).
     """
 
     def __init__(self) -> None:
         self.nodes: dict[str, GraphNode] = {}
-        self.edges: list[tuple[str, str, str | None]] = []  # (source, target, condition)
+        self.edges: list[Edge] = []
+        self._incoming: dict[str, list[Edge]] | None = None
+        self._outgoing: dict[str, list[Edge]] | None = None
+        self._indexed_edge_count = 0
 
     def add_node(self, node: GraphNode) -> None:
         if node.id in self.nodes:
             raise ValueError(f"Node with id {node.id!r} already exists")
         self.nodes[node.id] = node
+        self._invalidate_indexes()
 
     def add_edge(self, source_id: str, target_id: str, condition: str | None = None) -> None:
         if source_id == target_id:
@@ -67,6 +130,31 @@ class Graph:
         if target_id not in self.nodes:
             raise KeyError(f"Unknown target node {target_id!r}")
         self.edges.append((source_id, target_id, condition))
+        self._invalidate_indexes()
+
+    def _invalidate_indexes(self) -> None:
+        self._incoming = None
+        self._outgoing = None
+
+    def _ensure_indexes(self) -> tuple[dict[str, list[Edge]], dict[str, list[Edge]]]:
+        """Return (incoming, outgoing) edge indexes, rebuilding them if stale."""
+        if self._incoming is None or self._outgoing is None or self._indexed_edge_count != len(self.edges):
+            incoming: dict[str, list[Edge]] = {node_id: [] for node_id in self.nodes}
+            outgoing: dict[str, list[Edge]] = {node_id: [] for node_id in self.nodes}
+            for edge in self.edges:
+                outgoing.setdefault(edge[0], []).append(edge)
+                incoming.setdefault(edge[1], []).append(edge)
+            self._incoming, self._outgoing = incoming, outgoing
+            self._indexed_edge_count = len(self.edges)
+        return self._incoming, self._outgoing
+
+    def incoming_edges(self, node_id: str) -> list[Edge]:
+        """Edges whose target is ``node_id``."""
+        return self._ensure_indexes()[0].get(node_id, [])
+
+    def outgoing_edges(self, node_id: str) -> list[Edge]:
+        """Edges whose source is ``node_id``."""
+        return self._ensure_indexes()[1].get(node_id, [])
 
     def _build_adjacency(self) -> tuple[dict[str, list[str]], dict[str, int], dict[tuple[str, str], str | None]]:
         """Return adjacency list, in-degree map, and edge conditions for the current graph."""
@@ -106,6 +194,22 @@ class Graph:
 
         return groups
 
+    def critical_path_lengths(self, costs: dict[str, float] | None = None) -> dict[str, float]:
+        """Return the cost of the longest path from each node to any sink.
+
+        The length includes the node's own cost. ``costs`` maps node ids to a
+        relative cost hint (e.g. expected seconds); missing nodes cost 1.0.
+        Raises ``ValueError`` if the graph contains a cycle.
+        """
+        costs = costs or {}
+        adjacency, _, _ = self._build_adjacency()
+        lengths: dict[str, float] = {}
+        for group in reversed(self.topological_groups()):
+            for node_id in group:
+                downstream = max((lengths[dst] for dst in adjacency[node_id]), default=0.0)
+                lengths[node_id] = costs.get(node_id, 1.0) + downstream
+        return lengths
+
     def _advance_ready_nodes(
         self,
         group: list[str],
@@ -123,14 +227,44 @@ class Graph:
 
 
 class GraphExecutor:
-    """Execute graphs of ``GraphNode`` instances with parallelism per layer.
+    """Execute graphs of ``GraphNode`` instances in parallel.
+
+    By default nodes run layer by layer (``SchedulingMode.LAYERED``). With
+    ``SchedulingMode.EAGER`` a node starts as soon as its own inputs are
+    resolved. ``max_concurrency`` bounds the number of nodes in flight; when
+    the bound is hit, ready nodes on the longest remaining path go first.
+    ``node_costs`` optionally weights that path computation per node id.
+
+    Nodes with ``cacheable`` set are memoized in ``memo`` (default: the
+    process-wide node_memo.get_node_memo()): an unchanged node returns its
+    stored output instead of executing.
+
+    Streaming nodes (GraphNode.streams_output()) get a TokenStream whose
+    chunks are relayed to the session as node.stream CDC events. In EAGER
+    mode a downstream node with ``accepts_stream`` whose only incoming edge
+    is an unconditional edge from a streaming node starts right away and
+    reads ``stdin_stream``. A node whose templates read the producer's
+    output (``{{producer.stdout}}``) waits for the producer to finish instead.
 
     Optionally integrates with SessionContext for CDC event emission.
     """
 
-    def __init__(self, session_ctx: SessionContext | None = None) -> None:
+    def __init__(
+        self,
+        session_ctx: SessionContext | None = None,
+        scheduling: SchedulingMode = SchedulingMode.LAYERED,
+        max_concurrency: int | None = None,
+        node_costs: dict[str, float] | None = None,
+        memo: NodeMemo | None = None,
+    ) -> None:
         """Initialize executor with optional session context for CDC."""
+        if max_concurrency is not None and max_concurrency < 1:
+            raise ValueError("max_concurrency must be >= 1")
         self._session_ctx = session_ctx
+        self._scheduling = scheduling
+        self._max_concurrency = max_concurrency
+        self._node_costs = node_costs or {}
+        self._memo = memo
 
     def _evaluate_condition(self, condition: str | None, node_results: dict[str, NodeExecutionResult]) -> bool:
         """Evaluate a condition expression against node results.
@@ -138,27 +272,49 @@ class GraphExecutor:
         Supports expressions like:
         - "user_input.selected_option == 2"
         - "user_input.confirmed == true"
+
+        The expression is compiled once per distinct string and evaluated
+        against a read-only view of node outputs.
         """
         if condition is None or not condition:
             return True
 
-        try:
-            # Build a safe namespace with node results
-            namespace: dict[str, Any] = {}
-            for node_id, result in node_results.items():
-                namespace[node_id] = result.output
+        code = _compile_condition(condition)
+        if code is None:
+            return False
 
-            # Evaluate the condition
-            return bool(eval(condition, {"__builtins__": {}}, namespace))
+        try:
+            return bool(eval(code, {"__builtins__": {}}, _OutputNamespace(node_results)))
         except Exception:
             # If condition evaluation fails, skip the edge
             return False
 
+    def _evaluate_edge(
+        self,
+        edge: Edge,
+        node_results: dict[str, NodeExecutionResult],
+        edge_results: dict[Edge, bool],
+    ) -> bool:
+        """Evaluate an edge condition once per execution.
+
+        The first evaluation (normally right after the source node finishes)
+        is memoized, so routing, CDC emission and downstream scheduling all
+        see the same decision.
+        """
+        if edge[2] is None:
+            return True
+        result = edge_results.get(edge)
+        if result is None:
+            result = self._evaluate_condition(edge[2], node_results)
+            edge_results[edge] = result
+        return result
+
     def _should_execute_node(
         self,
         node_id: str,
         graph: Graph,
         node_results: dict[str, NodeExecutionResult],
+        edge_results: dict[Edge, bool],
     ) -> bool:
         """Determine if a node should execute based on incoming edge conditions.
 
@@ -169,8 +325,7 @@ class GraphExecutor:
 
         Returns False if all incoming edges have conditions and at least one evaluates to False.
         """
-        # Find all incoming edges to this node
-        incoming_edges = [(src, dst, cond) for src, dst, cond in graph.edges if dst == node_id]
+        incoming_edges = graph.incoming_edges(node_id)
 
         if not incoming_edges:
             # No incoming edges - this is a source node, always execute
@@ -180,13 +335,13 @@ class GraphExecutor:
         has_unconditional = False
         all_conditions_true = True
 
-        for _src, _dst, condition in incoming_edges:
-            if condition is None:
+        for edge in incoming_edges:
+            if edge[2] is None:
                 # Unconditional edge - node should execute
                 has_unconditional = True
             else:
                 # Conditional edge - evaluate it
-                if not self._evaluate_condition(condition, node_results):
+                if not self._evaluate_edge(edge, node_results, edge_results):
                     all_conditions_true = False
 
         # Execute if: has unconditional edge OR all conditions are true
@@ -196,9 +351,10 @@ class GraphExecutor:
         self,
         node_id: str,
         output: dict[str, Any],
-        edges: list[tuple[str, str, str | None]],
+        edges: list[Edge],
         node_results: dict[str, NodeExecutionResult],
         aggregated_inputs: dict[str, dict[str, Any]],
+        edge_results: dict[Edge, bool],
     ) -> None:
         """Route outputs from a node to downstream nodes based on edge conditions.
 
@@ -209,8 +365,9 @@ class GraphExecutor:
         """
         src_input = aggregated_inputs.get(node_id, {})
 
-        for src, dst, condition in edges:
-            if src == node_id and self._evaluate_condition(condition, node_results):
+        for edge in edges:
+            src, dst, _condition = edge
+            if src == node_id and self._evaluate_edge(edge, node_results, edge_results):
                 dest_input = aggregated_inputs.setdefault(dst, {})
                 # Route stdout → stdin for piping
                 stdout_value = output.get("stdout")
@@ -235,11 +392,13 @@ class GraphExecutor:
         output = result
         node_success = bool(output.get("success", True))
         if self._session_ctx:
-            self._session_ctx.node_output(node_id, output)
+            # Serialize and digest the output once for all three events
+            ref = self._session_ctx.payloads.ref(output)
+            self._session_ctx.node_output(node_id, output, ref=ref)
             # Store output to LRU cache for cross-graph access via {{session.outputs.node_id.field}}
-            self._session_ctx.set_output(node_id, output)
+            self._session_ctx.set_output(node_id, output, ref=ref)
             if node_success:
-                self._session_ctx.node_success(node_id, output)
+                self._session_ctx.node_success(node_id, output, ref=ref)
             else:
                 self._session_ctx.node_failed(node_id, output.get("stderr", ""))
         return output, node_success, None
@@ -247,17 +406,19 @@ class GraphExecutor:
     def _emit_edge_cdc(
         self,
         node_id: str,
-        edges: list[tuple[str, str, str | None]],
+        edges: list[Edge],
         node_results: dict[str, NodeExecutionResult],
+        edge_results: dict[Edge, bool],
     ) -> None:
         """Emit CDC events for edge transitions from a node."""
         if not self._session_ctx:
             return
 
-        for src, dst, condition in edges:
+        for edge in edges:
+            src, dst, condition = edge
             if src != node_id:
                 continue
-            cond_result = self._evaluate_condition(condition, node_results)
+            cond_result = self._evaluate_edge(edge, node_results, edge_results)
             self._session_ctx.edge_eval(src, dst, condition, cond_result)
             if cond_result:
                 self._session_ctx.edge_taken(src, dst)
@@ -270,9 +431,15 @@ class GraphExecutor:
         graph: Graph,
         node_results: dict[str, NodeExecutionResult],
         aggregated_inputs: dict[str, dict[str, Any]],
+        edge_results: dict[Edge, bool],
+        semaphore: asyncio.Semaphore | None = None,
+        streams: dict[str, TokenStream] | None = None,
     ) -> asyncio.Task[dict[str, Any]] | None:
-        """Schedule a node for execution if conditions are met. Returns task or None."""
-        should_execute = self._should_execute_node(node_id, graph, node_results)
+        """Schedule a node for execution if conditions are met. Returns task or None.
+
+        A streaming node's TokenStream is added to ``streams`` when given.
+        """
+        should_execute = self._should_execute_node(node_id, graph, node_results, edge_results)
         if not should_execute:
             if self._session_ctx:
                 self._session_ctx.node_skipped(node_id, "edge condition not met")
@@ -282,7 +449,114 @@ class GraphExecutor:
         input_payload = aggregated_inputs.get(node_id, {})
         if self._session_ctx:
             self._session_ctx.node_start(node_id, type(node).__name__, input_payload)
-        return asyncio.create_task(node.execute(input_payload))
+        stream = self._open_stream(node_id) if node.streams_output() else None
+        if stream is not None and streams is not None:
+            streams[node_id] = stream
+        if node.cacheable:
+            return asyncio.create_task(self._execute_memoized(node, input_payload, semaphore, stream))
+        if semaphore is None and stream is None:
+            return asyncio.create_task(node.execute(input_payload))
+        return asyncio.create_task(self._execute_bounded(node, input_payload, semaphore, stream))
+
+    def _open_stream(self, node_id: str) -> TokenStream:
+        """Create a node's TokenStream, relayed to the session's CDC feed in coalesced batches."""
+        stream = TokenStream(node_id)
+        session_ctx = self._session_ctx
+        if session_ctx is not None:
+            stream.add_listener(StreamRelay(lambda text, index: session_ctx.node_stream(node_id, text, index)))
+        return stream
+
+    async def _execute_bounded(
+        self,
+        node: GraphNode,
+        input_payload: dict[str, Any],
+        semaphore: asyncio.Semaphore | None,
+        stream: TokenStream | None = None,
+    ) -> dict[str, Any]:
+        """Run a node while holding a concurrency slot."""
+        if semaphore is None:
+            return await self._run_node(node, input_payload, stream)
+        async with semaphore:
+            return await self._run_node(node, input_payload, stream)
+
+    @staticmethod
+    async def _run_node(node: GraphNode, input_payload: dict[str, Any], stream: TokenStream | None) -> dict[str, Any]:
+        """Execute a node; a streaming node's stream is closed when it finishes, with the error if it raised."""
+        if stream is None:
+            return await node.execute(input_payload)
+        try:
+            output = await node.execute_stream(input_payload, stream)
+        except BaseException as e:
+            stream.close(error=str(e) or type(e).__name__)
+            raise
+        stream.close(error=None if output.get("success", True) else str(output.get("error", "failed")))
+        return output
+
+    async def _execute_memoized(
+        self,
+        node: GraphNode,
+        input_payload: dict[str, Any],
+        semaphore: asyncio.Semaphore | None,
+        stream: TokenStream | None = None,
+    ) -> dict[str, Any]:
+        """Return a cacheable node's memoized output, or run it and memoize a successful result.
+
+        A hit takes no concurrency slot. Memo failures fall back to executing.
+        """
+        from .node_memo import get_node_memo, memo_key
+
+        if self._memo is None:
+            self._memo = get_node_memo()
+        try:
+            key = memo_key(node, input_payload)
+            cached = self._memo.get(key)
+        except Exception as e:
+            logger.warning(f"Node memo lookup failed for {node.id}: {e}")
+            return await self._execute_bounded(node, input_payload, semaphore, stream)
+
+        if cached is not None:
+            if self._session_ctx:
+                self._session_ctx.node_cached(node.id, key)
+            if stream is not None:
+                stdout = cached.get("stdout")
+                stream.feed(stdout if isinstance(stdout, str) else "")
+                stream.close()
+            return cached
+
+        output = await self._execute_bounded(node, input_payload, semaphore, stream)
+        if output.get("success", True):
+            try:
+                self._memo.put(key, type(node).__name__, output, ttl=node.cache_ttl)
+            except Exception as e:
+                logger.warning(f"Node memo store failed for {node.id}: {e}")
+        return output
+
+    def _record_node_result(
+        self,
+        node_id: str,
+        result: Any,
+        graph: Graph,
+        node_results: dict[str, NodeExecutionResult],
+        aggregated_inputs: dict[str, dict[str, Any]],
+        edge_results: dict[Edge, bool],
+    ) -> tuple[bool, str | None]:
+        """Store a finished node's result and route it downstream. Returns (success, error)."""
+        output, node_success, err = self._process_node_result(node_id, result)
+
+        node_results[node_id] = NodeExecutionResult(
+            node_id=node_id,
+            output=output,
+            success=node_success,
+            error=err,
+        )
+
+        outgoing = graph.outgoing_edges(node_id)
+        self._route_stdout_to_downstream(node_id, output, outgoing, node_results, aggregated_inputs, edge_results)
+        self._emit_edge_cdc(node_id, outgoing, node_results, edge_results)
+
+        if node_success:
+            return True, None
+        return False, err or output.get("stderr") or "Node execution failed"
 
     def hydrate(
         self,
@@ -327,19 +601,18 @@ class GraphExecutor:
 
                 # Simulate routing: for downstream nodes to hydrate correctly,
                 # we need to propagate 'input' key (actual outputs won't exist)
-                for src, dst, _cond in graph.edges:
-                    if src == node_id:
-                        dest_input = aggregated_inputs.setdefault(dst, {})
-                        # Propagate input key
-                        src_input = aggregated_inputs.get(node_id, {})
-                        if "input" in src_input and "input" not in dest_input:
-                            dest_input["input"] = src_input["input"]
-                        # Mark that this node ran (for template placeholders)
-                        dest_input[node_id] = {"_pending": True}
+                for _src, dst, _cond in graph.outgoing_edges(node_id):
+                    dest_input = aggregated_inputs.setdefault(dst, {})
+                    # Propagate input key
+                    src_input = aggregated_inputs.get(node_id, {})
+                    if "input" in src_input and "input" not in dest_input:
+                        dest_input["input"] = src_input["input"]
+                    # Mark that this node ran (for template placeholders)
+                    dest_input[node_id] = {"_pending": True}
 
         return hydrated
 
-    async def execute(  # noqa: C901
+    async def execute(
         self,
         graph: Graph,
         initial_inputs: dict[str, dict[str, Any]] | None = None,
@@ -353,6 +626,9 @@ class GraphExecutor:
         Conditional edges are evaluated at runtime based on upstream node outputs.
         Nodes are only executed if all their incoming edges have conditions that
         evaluate to True (or have no condition).
+
+        ``execution_order`` holds the topological groups in LAYERED mode and
+        the dispatch batches (nodes started together) in EAGER mode.
         """
         initial_inputs = initial_inputs or {}
 
@@ -368,13 +644,43 @@ class GraphExecutor:
             node_id: dict(payload) for node_id, payload in initial_inputs.items()
         }
         node_results: dict[str, NodeExecutionResult] = {}
+
+        if self._scheduling == SchedulingMode.EAGER:
+            success, error_message, execution_order = await self._execute_eager(
+                graph, node_results, aggregated_inputs
+            )
+        else:
+            success, error_message = await self._execute_layered(
+                graph, execution_groups, node_results, aggregated_inputs
+            )
+            execution_order = execution_groups
+
+        return GraphExecutionResult(
+            success=success,
+            node_results=node_results,
+            execution_order=execution_order,
+            error_message=error_message,
+        )
+
+    async def _execute_layered(
+        self,
+        graph: Graph,
+        execution_groups: list[list[str]],
+        node_results: dict[str, NodeExecutionResult],
+        aggregated_inputs: dict[str, dict[str, Any]],
+    ) -> tuple[bool, str | None]:
+        """Run one topological group at a time, waiting for the whole group."""
         success = True
         error_message: str | None = None
+        edge_results: dict[Edge, bool] = {}
+        semaphore = asyncio.Semaphore(self._max_concurrency) if self._max_concurrency else None
 
         for group in execution_groups:
             tasks: dict[str, asyncio.Task[dict[str, Any]]] = {}
             for node_id in group:
-                task = self._maybe_schedule_node(node_id, graph, node_results, aggregated_inputs)
+                task = self._maybe_schedule_node(
+                    node_id, graph, node_results, aggregated_inputs, edge_results, semaphore
+                )
                 if task:
                     tasks[node_id] = task
 
@@ -386,25 +692,116 @@ class GraphExecutor:
             )
 
             for node_id, result in completed:
-                output, node_success, err = self._process_node_result(node_id, result)
-
-                node_results[node_id] = NodeExecutionResult(
-                    node_id=node_id,
-                    output=output,
-                    success=node_success,
-                    error=err,
+                node_success, err = self._record_node_result(
+                    node_id, result, graph, node_results, aggregated_inputs, edge_results
                 )
-
                 if not node_success and success:
                     success = False
-                    error_message = err or output.get("stderr") or "Node execution failed"
+                    error_message = err
 
-                self._route_stdout_to_downstream(node_id, output, graph.edges, node_results, aggregated_inputs)
-                self._emit_edge_cdc(node_id, graph.edges, node_results)
+        return success, error_message
 
-        return GraphExecutionResult(
-            success=success,
-            node_results=node_results,
-            execution_order=execution_groups,
-            error_message=error_message,
-        )
+    @staticmethod
+    def _stream_consumers(graph: Graph, node_id: str) -> list[str]:
+        """Nodes that can start on ``node_id``'s stream.
+
+        It must be their only input, unconditionally, and their templates must
+        not read its output, which only exists once it finishes.
+        """
+        consumers = []
+        for _src, dst, condition in graph.outgoing_edges(node_id):
+            node = graph.nodes[dst]
+            if condition is None and node.accepts_stream and not node.cacheable and len(graph.incoming_edges(dst)) == 1:
+                if node_id not in node.template_node_ids():
+                    consumers.append(dst)
+        return consumers
+
+    async def _execute_eager(
+        self,
+        graph: Graph,
+        node_results: dict[str, NodeExecutionResult],
+        aggregated_inputs: dict[str, dict[str, Any]],
+    ) -> tuple[bool, str | None, list[list[str]]]:
+        """Start each node as soon as every upstream node has finished or been skipped.
+
+        Ready nodes sit in a heap keyed by critical-path length so that, when
+        ``max_concurrency`` is reached, the node with the most work behind it
+        gets the next free slot. Ties break on node id for stable ordering.
+        """
+        adjacency, indegree, _ = graph._build_adjacency()
+        path_lengths = graph.critical_path_lengths(self._node_costs)
+        limit = self._max_concurrency or max(len(graph.nodes), 1)
+
+        ready: list[tuple[float, str]] = [(-path_lengths[nid], nid) for nid, deg in indegree.items() if deg == 0]
+        heapq.heapify(ready)
+        running: dict[asyncio.Task[dict[str, Any]], str] = {}
+        dispatch_order: list[list[str]] = []
+        edge_results: dict[Edge, bool] = {}
+        streams: dict[str, TokenStream] = {}
+        started_early: set[str] = set()  # stream consumers started before their producer finished
+        success = True
+        error_message: str | None = None
+
+        def resolve(node_id: str) -> None:
+            for neighbour in adjacency[node_id]:
+                indegree[neighbour] -= 1
+                if indegree[neighbour] == 0:
+                    heapq.heappush(ready, (-path_lengths[neighbour], neighbour))
+
+        try:
+            while ready or running:
+                batch: list[str] = []
+                while ready and len(running) < limit:
+                    _, node_id = heapq.heappop(ready)
+                    if node_id in started_early:
+                        continue
+                    batch.append(node_id)
+                    task = self._maybe_schedule_node(
+                        node_id, graph, node_results, aggregated_inputs, edge_results, streams=streams
+                    )
+                    if task is None:
+                        # Skipped nodes resolve their outgoing edges immediately
+                        resolve(node_id)
+                        continue
+                    running[task] = node_id
+                    if node_id not in streams:
+                        continue
+                    for consumer in self._stream_consumers(graph, node_id):
+                        if len(running) >= limit:
+                            break
+                        dest_input = aggregated_inputs.setdefault(consumer, {})
+                        dest_input["stdin_stream"] = streams[node_id]
+                        src_input = aggregated_inputs.get(node_id, {})
+                        if "input" in src_input:
+                            dest_input.setdefault("input", src_input["input"])
+                        consumer_task = self._maybe_schedule_node(
+                            consumer, graph, node_results, aggregated_inputs, edge_results, streams=streams
+                        )
+                        if consumer_task is not None:
+                            running[consumer_task] = consumer
+                            started_early.add(consumer)
+                            batch.append(consumer)
+                if batch:
+                    dispatch_order.append(batch)
+                if not running:
+                    continue
+
+                done, _ = await asyncio.wait(running, return_when=asyncio.FIRST_COMPLETED)
+                for task in sorted(done, key=running.__getitem__):
+                    node_id = running.pop(task)
+                    if task.cancelled():
+                        result: Any = RuntimeError(f"Node {node_id!r} was cancelled")
+                    else:
+                        result = task.exception() or task.result()
+                    node_success, err = self._record_node_result(
+                        node_id, result, graph, node_results, aggregated_inputs, edge_results
+                    )
+                    if not node_success and success:
+                        success = False
+                        error_message = err
+                    resolve(node_id)
+        finally:
+            for task in running:
+                task.cancel()
+
+        return success, error_message, dispatch_order
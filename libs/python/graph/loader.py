@@ -135,12 +135,15 @@ def list_registry_graphs() -> list[dict[str, Any]]:
         List of graph metadata dicts with keys: id, name, description, tags
     """
     try:
-        from libs.python.persistence import get_document_store
+        from libs.python.persistence import DocumentQuery, get_document_store
     except ImportError:
         return []
 
     store = get_document_store()
-    docs = store.query("graphs", {}, limit=1000)
+    docs = store.find(
+        "graphs",
+        DocumentQuery(fields=["name", "description", "tags"], order_by="name", descending=False, limit=1000),
+    ).documents
 
     return [
         {
@@ -163,6 +166,7 @@ def load_graph_from_dict(data: dict[str, Any]) -> Graph:
         "nodes": [
             {"id": "node1", "type": "unix", "command": "..."},
             {"id": "node2", "type": "llm", "config": {...}},
+            {"id": "node3", "type": "web_search", "cacheable": true, "ttl": 3600, "config": {...}},
             ...
         ],
         "edges": [
@@ -214,7 +218,20 @@ def _create_node(node_def: dict[str, Any]) -> GraphNode:
     factory = _NODE_FACTORIES.get(node_type)
     if factory is None:
         raise GraphLoadError(f"No factory for node type '{node_type}'")
-    return factory(node_id, node_def, config)
+    node = factory(node_id, node_def, config)
+    _apply_memo_options(node, node_def)
+    return node
+
+
+def _apply_memo_options(node: GraphNode, node_def: dict[str, Any]) -> None:
+    """Apply the node-level ``cacheable`` / ``ttl`` memoization fields."""
+    if "cacheable" in node_def:
+        node.cacheable = bool(node_def["cacheable"])
+    ttl = node_def.get("ttl")
+    if ttl is not None:
+        if not isinstance(ttl, int | float) or isinstance(ttl, bool) or ttl <= 0:
+            raise GraphLoadError(f"Node '{node.id}' has invalid ttl {ttl!r}: expected seconds > 0")
+        node.cache_ttl = float(ttl)
 
 
 def _create_unix_node(node_id: str, node_def: dict[str, Any], config: dict[str, Any]) -> UnixCommandNode:
@@ -232,6 +249,8 @@ def _create_llm_node(node_id: str, node_def: dict[str, Any], config: dict[str, A
         input_template=config.get("input_template", ""),
         max_tokens=config.get("max_tokens", 1024),
         temperature=config.get("temperature", 0.7),
+        stream=bool(config.get("stream", False)),
+        timeout=config.get("timeout", 300.0),
     )
 
 
@@ -0,0 +1,204 @@
+"""
+@llm-type library.graph.node_memo
+@llm-does persistent cross-session memoization of deterministic node outputs
+@llm-rule only nodes marked cacheable are memoized, and only their successful outputs
+
+Node Memo
+---------
+
+Re-running a graph re-executes every node, even when an LLM prompt, a web
+query or a shell command interpolates to exactly what it did last time.
+A node that opts in (``cacheable: true`` in the loader JSON, optionally
+with ``ttl`` seconds) has its output stored under a key derived from:
+
+    - the node type
+    - its configuration (public attributes: model, templates, limits ...)
+    - its interpolated inputs (GraphNode.memo_inputs: the hydrated prompt,
+      query or command - not the whole upstream payload)
+
+On the next run with the same key GraphExecutor returns the stored output
+without executing the node, and the session's CDC feed gets a
+``node.cached`` event before the usual node.output / node.success.
+
+Entries live in a SQLite file so they survive the process: the path is
+UNHINGED_NODE_MEMO_PATH, defaulting to ~/.cache/unhinged/node_memo.sqlite3.
+The file is bounded by ``max_bytes`` of stored output JSON; least recently
+used entries are evicted first. Expired entries are dropped when read and
+by purge_expired(). Expiry uses wall-clock time, since entries outlive
+the process that wrote them.
+
+Usage:
+    memo = get_node_memo()
+    key = memo_key(node, input_payload)
+    output = memo.get(key)
+    if output is None:
+        output = await node.execute(input_payload)
+        memo.put(key, type(node).__name__, output, ttl=node.cache_ttl)
+"""
+
+from __future__ import annotations
+
+import hashlib
+import json
+import logging
+import os
+import sqlite3
+import threading
+import time
+from pathlib import Path
+from typing import TYPE_CHECKING, Any
+
+if TYPE_CHECKING:
+    from .nodes import GraphNode
+
+logger = logging.getLogger(__name__)
+
+MEMO_PATH_ENV = "UNHINGED_NODE_MEMO_PATH"
+DEFAULT_MEMO_PATH = Path.home() / ".cache" / "unhinged" / "node_memo.sqlite3"
+DEFAULT_MAX_BYTES = 256 * 1024 * 1024
+
+# Bump when the key derivation changes, so stale entries simply miss
+_KEY_VERSION = 1
+
+_SCHEMA = """
+CREATE TABLE IF NOT EXISTS node_memo (
+    key TEXT PRIMARY KEY,
+    node_type TEXT NOT NULL,
+    output TEXT NOT NULL,
+    size INTEGER NOT NULL,
+    created_at REAL NOT NULL,
+    expires_at REAL,
+    last_used REAL NOT NULL,
+    hits INTEGER NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS node_memo_last_used ON node_memo (last_used);
+"""
+
+
+def memo_key(node: GraphNode, input_data: dict[str, Any]) -> str:
+    """Key for a node run: BLAKE2b of (type, config, interpolated inputs) as canonical JSON."""
+    material = {
+        "v": _KEY_VERSION,
+        "type": f"{type(node).__module__}.{type(node).__qualname__}",
+        "config": node.memo_config(),
+        "inputs": node.memo_inputs(input_data),
+    }
+    blob = json.dumps(material, sort_keys=True, separators=(",", ":"), default=str).encode()
+    return hashlib.blake2b(blob, digest_size=20).hexdigest()
+
+
+class NodeMemo:
+    """SQLite-backed memo of node outputs with LRU eviction and TTL. Thread-safe."""
+
+    def __init__(self, path: str | Path | None = None, max_bytes: int = DEFAULT_MAX_BYTES) -> None:
+        """Initialize memo.
+
+        Args:
+            path: SQLite file (default: UNHINGED_NODE_MEMO_PATH or ~/.cache/unhinged/node_memo.sqlite3);
+                ":memory:" keeps the memo for this process only
+            max_bytes: Total output JSON bytes kept before least recently used entries are evicted
+        """
+        if max_bytes < 1:
+            raise ValueError("max_bytes must be >= 1")
+        self.path = str(path or os.environ.get(MEMO_PATH_ENV) or DEFAULT_MEMO_PATH)
+        self.max_bytes = max_bytes
+        if self.path != ":memory:":
+            Path(self.path).parent.mkdir(parents=True, exist_ok=True)
+        self._conn = sqlite3.connect(self.path, check_same_thread=False, isolation_level=None)
+        self._conn.execute("PRAGMA journal_mode=WAL")
+        self._conn.executescript(_SCHEMA)
+        self._lock = threading.Lock()
+        self._counters = dict.fromkeys(("hits", "misses", "stores", "evictions", "expirations"), 0)
+
+    def get(self, key: str) -> dict[str, Any] | None:
+        """Stored output for ``key``, or None if absent or expired."""
+        now = time.time()
+        with self._lock:
+            row = self._conn.execute("SELECT output, expires_at FROM node_memo WHERE key = ?", (key,)).fetchone()
+            if row is None:
+                self._counters["misses"] += 1
+                return None
+            output, expires_at = row
+            if expires_at is not None and expires_at <= now:
+                self._conn.execute("DELETE FROM node_memo WHERE key = ?", (key,))
+                self._counters["expirations"] += 1
+                self._counters["misses"] += 1
+                return None
+            self._conn.execute("UPDATE node_memo SET last_used = ?, hits = hits + 1 WHERE key = ?", (now, key))
+            self._counters["hits"] += 1
+        return json.loads(output)
+
+    def put(self, key: str, node_type: str, output: dict[str, Any], ttl: float | None = None) -> bool:
+        """Store an output. Returns False if it is not JSON-serializable or larger than max_bytes."""
+        try:
+            blob = json.dumps(output, separators=(",", ":"))
+        except (TypeError, ValueError) as e:
+            logger.debug(f"Not memoizing {node_type} output: {e}")
+            return False
+        size = len(blob.encode())
+        if size > self.max_bytes:
+            return False
+        now = time.time()
+        with self._lock:
+            self._conn.execute(
+                "INSERT OR REPLACE INTO node_memo (key, node_type, output, size, created_at, expires_at, last_used)"
+                " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                (key, node_type, blob, size, now, now + ttl if ttl is not None else None, now),
+            )
+            self._counters["stores"] += 1
+            self._evict_locked()
+        return True
+
+    def delete(self, key: str) -> bool:
+        with self._lock:
+            return self._conn.execute("DELETE FROM node_memo WHERE key = ?", (key,)).rowcount > 0
+
+    def clear(self) -> None:
+        with self._lock:
+            self._conn.execute("DELETE FROM node_memo")
+
+    def purge_expired(self) -> int:
+        """Drop every expired entry. Returns the number removed."""
+        with self._lock:
+            removed = self._conn.execute(
+                "DELETE FROM node_memo WHERE expires_at IS NOT NULL AND expires_at <= ?", (time.time(),)
+            ).rowcount
+            self._counters["expirations"] += removed
+        return removed
+
+    def stats(self) -> dict[str, Any]:
+        """Hit/miss counters for this process plus entry count and bytes on disk."""
+        with self._lock:
+            entries, size = self._conn.execute("SELECT COUNT(*), COALESCE(SUM(size), 0) FROM node_memo").fetchone()
+            return {**self._counters, "entries": entries, "bytes": size, "path": self.path}
+
+    def close(self) -> None:
+        with self._lock:
+            self._conn.close()
+
+    def _evict_locked(self) -> None:
+        (total,) = self._conn.execute("SELECT COALESCE(SUM(size), 0) FROM node_memo").fetchone()
+        if total <= self.max_bytes:
+            return
+        rows = self._conn.execute("SELECT key, size FROM node_memo ORDER BY last_used").fetchall()
+        victims: list[tuple[str]] = []
+        for key, size in rows:
+            if total <= self.max_bytes:
+                break
+            victims.append((key,))
+            total -= size
+        self._conn.executemany("DELETE FROM node_memo WHERE key = ?", victims)
+        self._counters["evictions"] += len(victims)
+
+
+_default_memo: NodeMemo | None = None
+_default_lock = threading.Lock()
+
+
+def get_node_memo() -> NodeMemo:
+    """Process-wide NodeMemo at the default path, opened on first use."""
+    global _default_memo
+    with _default_lock:
+        if _default_memo is None:
+            _default_memo = NodeMemo()
+        return _default_memo
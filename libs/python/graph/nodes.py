@@ -14,10 +14,30 @@ from typing import TYPE_CHECKING, Any
 if TYPE_CHECKING:  # pragma: no cover - import only for type checking
     from .context import SessionContext
     from .graph import Graph, GraphExecutionResult
+    from .token_stream import TokenStream
 
 
 class GraphNode(ABC):
-    """Abstract base for all graph nodes in the Unhinged DAG framework."""
+    """Abstract base for all graph nodes in the Unhinged DAG framework.
+
+    ``cacheable`` opts a deterministic node into GraphExecutor memoization
+    (see node_memo); ``cache_ttl`` bounds how long its memoized output is
+    reused, in seconds (None = until evicted). Attributes named in
+    ``memo_exclude`` change how a node runs, not what it returns, and are
+    left out of its memo key.
+
+    Streaming (see token_stream): a node whose streams_output() is true is
+    run via execute_stream() and publishes text while it works. A node with
+    ``accepts_stream`` can read that text from ``input_data["stdin_stream"]``;
+    GraphExecutor in EAGER mode starts such a node as soon as its only
+    upstream node starts streaming, unless its templates read that node's
+    output (template_node_ids()).
+    """
+
+    cacheable: bool = False
+    cache_ttl: float | None = None
+    memo_exclude: frozenset[str] = frozenset()
+    accepts_stream: bool = False
 
     def __init__(self, node_id: str) -> None:
         self.id = node_id
@@ -31,6 +51,44 @@ class GraphNode(ABC):
         downstream nodes.
         """
 
+    def memo_config(self) -> dict[str, Any]:
+        """Configuration that determines this node's output (part of its memo key)."""
+        return {
+            key: value
+            for key, value in vars(self).items()
+            if not key.startswith("_")
+            and key not in ("id", "cacheable", "cache_ttl")
+            and key not in self.memo_exclude
+        }
+
+    def memo_inputs(self, input_data: dict[str, Any]) -> Any:
+        """Inputs that determine this node's output (part of its memo key).
+
+        Defaults to the whole input payload. Template-driven nodes narrow it
+        to the interpolated text, so upstream changes they never read still hit.
+        """
+        return input_data
+
+    def template_node_ids(self) -> frozenset[str]:
+        """Node ids whose outputs this node's templates read ({{node_id.field}})."""
+        return frozenset()
+
+    def streams_output(self) -> bool:
+        """True if execute_stream() publishes output incrementally."""
+        return False
+
+    async def execute_stream(self, input_data: dict[str, Any] | None, stream: TokenStream) -> dict[str, Any]:
+        """Execute, publishing output text to ``stream``.
+
+        The default runs execute() and publishes ``stdout`` in one chunk.
+        Implementations must feed ``stream`` but need not close it.
+        """
+        output = await self.execute(input_data)
+        stdout = output.get("stdout")
+        if isinstance(stdout, str):
+            stream.feed(stdout)
+        return output
+
 
 class UnixCommandNode(GraphNode):
     """Graph node that executes a single UNIX shell command.
@@ -48,8 +106,13 @@ class UnixCommandNode(GraphNode):
     - ``{{input.topic}}``: user input
     - ``{{node_id.field}}``: output from another node
     - ``{{session.key}}``: session state value
+
+    Accepts streams: with ``stdin_stream`` (a TokenStream) in the input and
+    no ``stdin``, chunks are written to the process as they arrive.
     """
 
+    accepts_stream = True
+
     def __init__(self, node_id: str, command: str, timeout: float = 30.0) -> None:
         super().__init__(node_id)
         self.command = command
@@ -60,6 +123,22 @@ class UnixCommandNode(GraphNode):
         """Inject session context for template interpolation."""
         self._session = session
 
+    def template_node_ids(self) -> frozenset[str]:
+        """Node ids referenced by the command template."""
+        from libs.python.graph.template import compile_template
+
+        return compile_template(self.command).node_ids
+
+    def memo_inputs(self, input_data: dict[str, Any]) -> Any:
+        """The interpolated command plus stdin."""
+        from libs.python.graph.template import interpolate
+
+        stdin = input_data.get("stdin")
+        return {
+            "command": interpolate(template=self.command, nodes=input_data, session=self._session),
+            "stdin": stdin.decode("utf-8", errors="replace") if isinstance(stdin, bytes) else stdin,
+        }
+
     async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
         """Execute the configured shell command.
 
@@ -101,16 +180,18 @@ class UnixCommandNode(GraphNode):
             else:
                 raise TypeError("stdin must be str or bytes")
 
+        stdin_stream = input_data.get("stdin_stream") if stdin_bytes is None else None
+
         process = await asyncio.create_subprocess_shell(
             command,
-            stdin=asyncio.subprocess.PIPE if stdin_bytes is not None else None,
+            stdin=asyncio.subprocess.PIPE if stdin_bytes is not None or stdin_stream is not None else None,
             stdout=asyncio.subprocess.PIPE,
             stderr=asyncio.subprocess.PIPE,
         )
 
         try:
             stdout, stderr = await asyncio.wait_for(
-                process.communicate(stdin_bytes),
+                self._communicate(process, stdin_bytes, stdin_stream),
                 timeout=self.timeout,
             )
         except TimeoutError:
@@ -135,6 +216,37 @@ class UnixCommandNode(GraphNode):
             "success": process.returncode == 0,
         }
 
+    @staticmethod
+    async def _communicate(
+        process: asyncio.subprocess.Process,
+        stdin_bytes: bytes | None,
+        stdin_stream: TokenStream | None,
+    ) -> tuple[bytes, bytes]:
+        """Like process.communicate(), but feeding stdin from a TokenStream if given."""
+        if stdin_stream is None:
+            return await process.communicate(stdin_bytes)
+        assert process.stdin is not None and process.stdout is not None and process.stderr is not None
+        stdin = process.stdin
+
+        async def pipe_stream() -> None:
+            try:
+                async for chunk in stdin_stream:
+                    stdin.write(chunk.encode("utf-8"))
+                    await stdin.drain()
+            except (BrokenPipeError, ConnectionResetError):
+                pass  # the command stopped reading its input
+            finally:
+                stdin.close()
+
+        try:
+            _, stdout, stderr = await asyncio.gather(pipe_stream(), process.stdout.read(), process.stderr.read())
+        except BaseException:
+            if process.returncode is None:
+                process.kill()
+            raise
+        await process.wait()
+        return stdout, stderr
+
 
 class UserInputNode(GraphNode):
     """Graph node that prompts user for input during execution.
@@ -403,6 +515,13 @@ class LLMNode(GraphNode):
     - input_template: User prompt template with {{...}} placeholders
     - max_tokens: Maximum tokens in response (default: 1024)
     - temperature: Sampling temperature (default: 0.7)
+    - stream: Stream the completion (default: False). Chunks go to the
+      executor's TokenStream - and from there to node.stream CDC events and
+      stream-accepting downstream nodes - as they are generated.
+    - timeout: Seconds before the LLM request is abandoned (default: 300)
+
+    Requests use the async Ollama client, so LLM nodes in the same layer
+    run concurrently.
 
     Output keys:
     - ``stdout``: Raw LLM response text (for downstream piping)
@@ -412,6 +531,8 @@ class LLMNode(GraphNode):
     - ``success``: Boolean indicating success
     """
 
+    memo_exclude = frozenset({"stream", "timeout"})
+
     def __init__(
         self,
         node_id: str,
@@ -421,6 +542,8 @@ class LLMNode(GraphNode):
         input_template: str = "",
         max_tokens: int = 1024,
         temperature: float = 0.7,
+        stream: bool = False,
+        timeout: float | None = 300.0,
     ) -> None:
         super().__init__(node_id)
         self.model = model
@@ -429,6 +552,8 @@ class LLMNode(GraphNode):
         self.input_template = input_template
         self.max_tokens = max_tokens
         self.temperature = temperature
+        self.stream = stream
+        self.timeout = timeout
         # Session context for {{session.*}} interpolation (set by executor)
         self._session: SessionContext | None = None
 
@@ -464,10 +589,26 @@ class LLMNode(GraphNode):
             "full_prompt": full_prompt,
         }
 
+    def memo_inputs(self, input_data: dict[str, Any]) -> Any:
+        """The fully interpolated prompt."""
+        return self.hydrate(input_data)["full_prompt"]
+
+    def streams_output(self) -> bool:
+        return self.stream
+
     async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
         """Execute LLM call with interpolated template."""
         from libs.python.graph.template import interpolate
 
+        if self.stream:
+            from .token_stream import TokenStream
+
+            stream = TokenStream(self.id)
+            try:
+                return await self.execute_stream(input_data, stream)
+            finally:
+                stream.close()
+
         input_data = input_data or {}
 
         # Interpolate template with nodes, session, and env
@@ -488,10 +629,11 @@ class LLMNode(GraphNode):
 
             # TextGenerationService only supports Ollama, so provider is ignored
             service = TextGenerationService(model=self.model)
-            text = service.generate(
+            text = await service.agenerate(
                 prompt=full_prompt,
                 max_tokens=self.max_tokens,
                 temperature=self.temperature,
+                timeout=self.timeout,
             )
 
             return {
@@ -509,6 +651,40 @@ class LLMNode(GraphNode):
                 "success": False,
             }
 
+    async def execute_stream(self, input_data: dict[str, Any] | None, stream: TokenStream) -> dict[str, Any]:
+        """Execute LLM call, feeding completion chunks to ``stream`` as they arrive."""
+        from libs.python.clients.text_generation_service import TextGenerationService
+
+        prompt = self.hydrate(input_data)["full_prompt"]
+        try:
+            service = TextGenerationService(model=self.model)
+            chunks = service.agenerate_stream(
+                prompt=prompt,
+                max_tokens=self.max_tokens,
+                temperature=self.temperature,
+                timeout=self.timeout,
+            )
+            async for chunk in chunks:
+                stream.feed(chunk)
+        except Exception as exc:
+            stream.close(error=str(exc))
+            return {
+                "stdout": "",
+                "text": "",
+                "error": str(exc),
+                "success": False,
+            }
+
+        text = stream.text().strip()
+        return {
+            "stdout": text,
+            "text": text,
+            "model": self.model,
+            "provider": "ollama",  # Always ollama for now
+            "first_chunk_ms": stream.first_chunk_ms,
+            "success": True,
+        }
+
 
 class StructuredOutputNode(LLMNode):
     """LLM node that validates output against a JSON schema.
@@ -833,6 +1009,10 @@ class WebSearchNode(GraphNode):
         )
         return {"query": query}
 
+    def memo_inputs(self, input_data: dict[str, Any]) -> Any:
+        """The interpolated search query."""
+        return self.hydrate(input_data)["query"]
+
     async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
         """Execute web search with interpolated query."""
         from libs.python.graph.template import interpolate
@@ -0,0 +1,181 @@
+"""
+@llm-type library.graph.payload_store
+@llm-does content-addressed payload store shared by a session's CDC events
+@llm-rule a payload is serialized and stored once, however many events reference it
+
+Payload Store
+-------------
+
+A node's output is referenced by node_output, set_output's state event
+and node_success - and its input by node_start. Instead of each event
+holding (and later serializing) its own copy, events carry a PayloadRef:
+the BLAKE2b digest of the payload's canonical JSON plus its size. The
+blob is stored once per distinct content and decoded lazily when a
+reader asks for it (resolve()).
+
+Payloads whose JSON is smaller than ``inline_threshold`` stay inline in
+the event - a reference would cost more than it saves. Blobs are kept in
+memory up to ``max_memory_bytes``; older ones move to a spill file next
+to the CDC feed's (see cdc_feed.SpillFile) and are read back via mmap.
+
+Serialized events carry ``{"$payload": digest, "size": n}``;
+ContextStore writes each blob once to the session_payloads collection.
+
+Usage:
+    payloads = PayloadStore()
+    ref = payloads.ref(big_output)        # PayloadRef, or big_output if small
+    payloads.ref(big_output) == ref       # same content, same digest: stored once
+    payloads.resolve(ref) == big_output
+"""
+
+from __future__ import annotations
+
+import hashlib
+import json
+import logging
+import threading
+import weakref
+from collections import OrderedDict
+from dataclasses import dataclass
+from typing import Any
+
+from .cdc_feed import SpillFile
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_INLINE_THRESHOLD = 256
+DEFAULT_MAX_MEMORY_BYTES = 16 * 1024 * 1024
+REF_KEY = "$payload"
+
+
+@dataclass(frozen=True)
+class PayloadRef:
+    """Reference to a payload in a PayloadStore."""
+
+    digest: str
+    size: int  # bytes of canonical JSON
+    top_keys: tuple[str, ...] = ()  # first keys of a dict payload, for previews
+
+    def to_record(self) -> dict[str, Any]:
+        return {REF_KEY: self.digest, "size": self.size, "keys": list(self.top_keys)}
+
+    @classmethod
+    def from_record(cls, record: dict[str, Any]) -> PayloadRef:
+        return cls(digest=record[REF_KEY], size=record.get("size", 0), top_keys=tuple(record.get("keys", ())))
+
+    @staticmethod
+    def is_record(value: Any) -> bool:
+        return isinstance(value, dict) and REF_KEY in value
+
+
+def encode_refs(data: dict[str, Any]) -> dict[str, Any]:
+    """Replace top-level PayloadRefs with their record form (for serialization)."""
+    return {k: v.to_record() if isinstance(v, PayloadRef) else v for k, v in data.items()}
+
+
+def decode_refs(data: dict[str, Any]) -> dict[str, Any]:
+    """Inverse of encode_refs()."""
+    return {k: PayloadRef.from_record(v) if PayloadRef.is_record(v) else v for k, v in data.items()}
+
+
+class PayloadStore:
+    """Digest -> canonical JSON blob, written once per distinct payload. Thread-safe."""
+
+    def __init__(
+        self,
+        inline_threshold: int = DEFAULT_INLINE_THRESHOLD,
+        max_memory_bytes: int = DEFAULT_MAX_MEMORY_BYTES,
+    ) -> None:
+        """Initialize store.
+
+        Args:
+            inline_threshold: Payloads with smaller JSON are not stored, ref() returns them as-is
+            max_memory_bytes: Blob bytes kept in memory before the oldest spill to disk
+        """
+        self.inline_threshold = inline_threshold
+        self.max_memory_bytes = max_memory_bytes
+        self._blobs: OrderedDict[str, bytes] = OrderedDict()
+        self._memory_bytes = 0
+        self._spilled: dict[str, tuple[int, int]] = {}  # digest -> (offset, length)
+        self._spill: SpillFile | None = None
+        self._persisted: set[str] = set()
+        self._lock = threading.Lock()
+
+    def ref(self, payload: Any) -> Any:
+        """Store ``payload`` and return its PayloadRef (or ``payload`` itself if small).
+
+        Always digests the current content: callers may mutate and re-send
+        the same object, so identity says nothing about what it holds.
+        """
+        blob = json.dumps(payload, sort_keys=True, separators=(",", ":"), default=str).encode()
+        if len(blob) < self.inline_threshold:
+            result: Any = payload
+        else:
+            digest = hashlib.blake2b(blob, digest_size=16).hexdigest()
+            with self._lock:
+                if digest not in self._blobs and digest not in self._spilled:
+                    self._blobs[digest] = blob
+                    self._memory_bytes += len(blob)
+                    self._spill_oldest_locked()
+            keys = tuple(str(k) for k in list(payload)[:8]) if isinstance(payload, dict) else ()
+            result = PayloadRef(digest=digest, size=len(blob), top_keys=keys)
+        return result
+
+    def get(self, ref: PayloadRef) -> Any:
+        """Decode a stored payload. Raises KeyError if it is not in this store."""
+        return json.loads(self._blob(ref.digest))
+
+    def resolve(self, value: Any) -> Any:
+        """``value`` with a PayloadRef decoded; anything else is returned unchanged."""
+        return self.get(value) if isinstance(value, PayloadRef) else value
+
+    def resolve_data(self, data: dict[str, Any]) -> dict[str, Any]:
+        """Event data with every top-level PayloadRef decoded."""
+        if not any(isinstance(v, PayloadRef) for v in data.values()):
+            return data
+        return {k: self.resolve(v) for k, v in data.items()}
+
+    def unpersisted(self, refs: list[PayloadRef]) -> dict[str, bytes]:
+        """Blobs for ``refs`` not yet marked persisted, by digest."""
+        with self._lock:
+            return {r.digest: self._blob_locked(r.digest) for r in refs if r.digest not in self._persisted}
+
+    def mark_persisted(self, digests: list[str]) -> None:
+        with self._lock:
+            self._persisted.update(digests)
+
+    def stats(self) -> dict[str, int]:
+        """Blob counts and bytes, in memory and spilled."""
+        with self._lock:
+            return {
+                "blobs": len(self._blobs) + len(self._spilled),
+                "memory_bytes": self._memory_bytes,
+                "spilled": len(self._spilled),
+                "spill_bytes": self._spill.size if self._spill is not None else 0,
+            }
+
+    def _blob(self, digest: str) -> bytes:
+        with self._lock:
+            return self._blob_locked(digest)
+
+    def _blob_locked(self, digest: str) -> bytes:
+        blob = self._blobs.get(digest)
+        if blob is not None:
+            return blob
+        offset, length = self._spilled[digest]
+        assert self._spill is not None
+        return self._spill.read(offset, length)
+
+    def _spill_oldest_locked(self) -> None:
+        while self._memory_bytes > self.max_memory_bytes and len(self._blobs) > 1:
+            digest, blob = next(iter(self._blobs.items()))
+            try:
+                if self._spill is None:
+                    self._spill = SpillFile(prefix="payloads-", suffix=".bin")
+                    weakref.finalize(self, self._spill.close)
+                self._spilled[digest] = (self._spill.append(blob), len(blob))
+            except OSError as e:
+                logger.warning(f"Payload spill failed, keeping blobs in memory: {e}")
+                return
+            del self._blobs[digest]
+            self._memory_bytes -= len(blob)
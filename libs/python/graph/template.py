@@ -33,15 +33,29 @@ Usage:
         nodes={"diagnose": {"stdout": "OK", "code": 0}},
         session=session_context,
     )
+
+Compiled templates:
+    A template string is parsed once into literal segments and pre-split
+    placeholder paths (compile_template, cached by template string);
+    interpolate() renders the compiled form with a single str.join. The
+    compiled form also lists what a template reads:
+
+    compiled = compile_template("{{search.text}} for {{input.topic}} ({{env.USER}})")
+    compiled.namespaces   # frozenset({"search", "input", "env"})
+    compiled.node_ids     # frozenset({"search", "input"}) - non-reserved namespaces
 """
 
 from __future__ import annotations
 
+import functools
 import os
 import re
+from dataclasses import dataclass
 from typing import TYPE_CHECKING, Any
 
 if TYPE_CHECKING:
+    from collections.abc import Sequence
+
     from libs.python.graph.context import SessionContext
 
 # Reserved namespace prefixes
@@ -51,6 +65,71 @@ _RESERVED_NAMESPACES = frozenset({"session", "env"})
 _PLACEHOLDER_PATTERN = re.compile(r"\{\{([^}]+)\}\}")
 
 
+@dataclass(frozen=True)
+class Placeholder:
+    """A parsed ``{{namespace.a.b}}`` reference."""
+
+    namespace: str
+    parts: tuple[str, ...]  # path below the namespace
+
+
+@dataclass(frozen=True)
+class CompiledTemplate:
+    """A template parsed into literal segments and placeholders.
+
+    ``segments`` alternates literal text and placeholder slots: it always
+    has ``2 * len(placeholders) + 1`` entries with placeholder slots at odd
+    indexes (holding "").
+    """
+
+    source: str
+    segments: tuple[str, ...]
+    placeholders: tuple[Placeholder, ...]
+
+    @property
+    def namespaces(self) -> frozenset[str]:
+        """Every namespace the template reads, reserved ones included."""
+        return frozenset(p.namespace for p in self.placeholders)
+
+    @property
+    def node_ids(self) -> frozenset[str]:
+        """Namespaces resolved from node outputs (everything but session/env)."""
+        return self.namespaces - _RESERVED_NAMESPACES
+
+    def render(
+        self,
+        nodes: dict[str, Any] | None = None,
+        session: SessionContext | None = None,
+    ) -> str:
+        """Substitute placeholders; same semantics as interpolate()."""
+        if not self.placeholders:
+            return self.source
+        nodes = nodes or {}
+        out = list(self.segments)
+        for i, placeholder in enumerate(self.placeholders):
+            namespace, parts = placeholder.namespace, placeholder.parts
+            if namespace == "env":
+                value = _resolve_env(parts)
+            elif namespace == "session":
+                value = _resolve_session(parts, session)
+            else:
+                value = _resolve_node(namespace, parts, nodes)
+            out[2 * i + 1] = value
+        return "".join(out)
+
+
+@functools.lru_cache(maxsize=1024)
+def compile_template(template: str) -> CompiledTemplate:
+    """Parse a template once. Cached by template string."""
+    pieces = _PLACEHOLDER_PATTERN.split(template)
+    placeholders = []
+    for index in range(1, len(pieces), 2):
+        namespace, *parts = pieces[index].strip().split(".")
+        placeholders.append(Placeholder(namespace=namespace, parts=tuple(parts)))
+        pieces[index] = ""
+    return CompiledTemplate(source=template, segments=tuple(pieces), placeholders=tuple(placeholders))
+
+
 def interpolate(
     template: str,
     nodes: dict[str, Any] | None = None,
@@ -68,35 +147,10 @@ def interpolate(
     """
     if not template:
         return template
-
-    nodes = nodes or {}
-
-    def resolve_path(path: str) -> str:
-        """Resolve a dotted path to a value."""
-        parts = path.strip().split(".")
-        if not parts:
-            return f"{{{{{path}}}}}"
-
-        namespace = parts[0]
-        rest = parts[1:]
-
-        # Handle reserved namespaces
-        if namespace == "env":
-            return _resolve_env(rest)
-        if namespace == "session":
-            return _resolve_session(rest, session)
-
-        # Default: node output access
-        return _resolve_node(namespace, rest, nodes)
-
-    def replace_match(match: re.Match[str]) -> str:
-        path = match.group(1)
-        return resolve_path(path)
-
-    return _PLACEHOLDER_PATTERN.sub(replace_match, template)
+    return compile_template(template).render(nodes, session)
 
 
-def _resolve_env(parts: list[str]) -> str:
+def _resolve_env(parts: Sequence[str]) -> str:
     """Resolve {{env.VAR_NAME}} to environment variable."""
     if not parts:
         return "{{env}}"
@@ -105,7 +159,7 @@ def _resolve_env(parts: list[str]) -> str:
     return os.environ.get(var_name, "")
 
 
-def _resolve_session(parts: list[str], session: SessionContext | None) -> str:
+def _resolve_session(parts: Sequence[str], session: SessionContext | None) -> str:
     """Resolve {{session.key}} to session data."""
     if session is None:
         # No session provided, keep placeholder
@@ -136,7 +190,7 @@ def _resolve_session(parts: list[str], session: SessionContext | None) -> str:
     return _to_string(value)
 
 
-def _resolve_node(node_id: str, parts: list[str], nodes: dict[str, Any]) -> str:
+def _resolve_node(node_id: str, parts: Sequence[str], nodes: dict[str, Any]) -> str:
     """Resolve {{node_id.field}} to node output."""
     if node_id not in nodes:
         # Node not found, keep placeholder
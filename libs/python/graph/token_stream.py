@@ -0,0 +1,151 @@
+"""
+@llm-type library.graph.token_stream
+@llm-does replayable async stream of text chunks from a streaming node to its consumers
+@llm-rule one producer per stream; every reader sees every chunk from the start, in order
+
+Token Stream
+------------
+
+A streaming node (LLMNode with ``stream=True``) publishes its completion
+chunk by chunk into a TokenStream while it runs. Readers iterate it with
+``async for`` and get each chunk as soon as it is fed - a reader that
+starts late replays the chunks it missed first. The assembled text is
+always available via text(), so non-streaming consumers still get the
+full ``stdout`` when the node finishes.
+
+Listeners (add_listener) are called synchronously on every chunk and once
+with None at close; GraphExecutor uses one to relay chunks to the CDC feed
+as node.stream events.
+
+A TokenStream belongs to one event loop: feed() and close() must run on
+it, as they do when an async client (agenerate_stream) produces the chunks.
+
+Usage:
+    stream = TokenStream("summarize")
+    stream.feed("Hel")
+    stream.feed("lo")
+    stream.close()
+    async for chunk in stream:
+        ...
+    stream.text()  # "Hello"
+"""
+
+from __future__ import annotations
+
+import asyncio
+import logging
+import time
+from collections.abc import AsyncIterator, Callable
+
+logger = logging.getLogger(__name__)
+
+
+class TokenStreamError(Exception):
+    """Raised to stream readers when the producer closed the stream with an error."""
+
+
+class TokenStream:
+    """Append-only chunk buffer with async readers. Not thread-safe: use from one event loop."""
+
+    def __init__(self, node_id: str) -> None:
+        self.node_id = node_id
+        self._chunks: list[str] = []
+        self._closed = False
+        self._error: str | None = None
+        self._wakeup = asyncio.Event()
+        self._listeners: list[Callable[[str | None], None]] = []
+        self._opened_at = time.perf_counter()
+        self.first_chunk_ms: float | None = None  # time to first chunk, from creation
+
+    @property
+    def closed(self) -> bool:
+        return self._closed
+
+    @property
+    def error(self) -> str | None:
+        return self._error
+
+    def feed(self, chunk: str) -> None:
+        """Append a chunk and wake readers. Ignored after close()."""
+        if self._closed or not chunk:
+            return
+        if self.first_chunk_ms is None:
+            self.first_chunk_ms = (time.perf_counter() - self._opened_at) * 1000
+        self._chunks.append(chunk)
+        self._notify(chunk)
+
+    def close(self, error: str | None = None) -> None:
+        """End the stream; readers finish (or raise TokenStreamError if ``error`` is set). Idempotent."""
+        if self._closed:
+            return
+        self._closed = True
+        self._error = error
+        self._notify(None)
+
+    def text(self) -> str:
+        """Everything fed so far, joined."""
+        return "".join(self._chunks)
+
+    def add_listener(self, listener: Callable[[str | None], None]) -> None:
+        """Call ``listener(chunk)`` on every future chunk and ``listener(None)`` at close."""
+        self._listeners.append(listener)
+
+    def __aiter__(self) -> AsyncIterator[str]:
+        return self._read()
+
+    async def _read(self) -> AsyncIterator[str]:
+        index = 0
+        while True:
+            while index < len(self._chunks):
+                yield self._chunks[index]
+                index += 1
+            if self._closed:
+                if self._error is not None:
+                    raise TokenStreamError(f"{self.node_id}: {self._error}")
+                return
+            wakeup = self._wakeup
+            await wakeup.wait()
+
+    def _notify(self, chunk: str | None) -> None:
+        # Swap in a fresh event so readers that wake up wait on the next chunk
+        wakeup, self._wakeup = self._wakeup, asyncio.Event()
+        wakeup.set()
+        for listener in self._listeners:
+            try:
+                listener(chunk)
+            except Exception as e:
+                logger.debug(f"Token stream listener failed for {self.node_id}: {e}")
+
+
+class StreamRelay:
+    """Stream listener that coalesces chunks into batches before handing them on.
+
+    The first chunk is passed on immediately (time to first token is what
+    users notice); later ones are batched until ``interval`` seconds have
+    passed since the last batch. The remainder is flushed at close.
+    """
+
+    def __init__(self, emit: Callable[[str, int], None], interval: float = 0.05) -> None:
+        """Initialize relay.
+
+        Args:
+            emit: Called with (text, batch_index) per batch
+            interval: Minimum seconds between batches after the first
+        """
+        self._emit = emit
+        self._interval = interval
+        self._pending: list[str] = []
+        self._last_emit: float | None = None
+        self._batches = 0
+
+    def __call__(self, chunk: str | None) -> None:
+        if chunk is not None:
+            self._pending.append(chunk)
+            now = time.perf_counter()
+            if self._last_emit is not None and now - self._last_emit < self._interval:
+                return
+            self._last_emit = now
+        if self._pending:
+            self._emit("".join(self._pending), self._batches)
+            self._batches += 1
+            self._pending.clear()
@@ -28,6 +28,9 @@ Usage:
     # Update a document
     store.update("users", doc.id, {"name": "Alice Smith"})
 
+    # Create-or-merge by natural key in one statement
+    store.upsert("sessions", "session:abc", {"value": 42})
+
     # Query documents
     results = store.query("users", {"email": "alice@example.com"})
 
@@ -37,7 +40,18 @@ Usage:
 
 from typing import Any, Optional
 
-from .document_store import Document, DocumentStore
+from .document_store import (
+    Document,
+    DocumentPage,
+    DocumentQuery,
+    DocumentStore,
+    VersionConflictError,
+    WriteResult,
+    key_to_id,
+)
+
+from .embedding_service import EmbeddingCacheStats, EmbeddingService, get_embedding_service
+from .vector_index import LocalVectorIndex, VectorBackend, VectorHit, get_local_index
 
 # Try to import PostgreSQL store, but make it optional for testing
 try:
@@ -62,14 +76,18 @@ except ImportError:
 try:
     from .embedding_store import (
         EmbeddingDocumentStore,
+        EmbeddingPipeline,
         EmbedEvent,
         EmbedEventType,
         EmbedObserver,
+        EmbedPipelineStats,
     )
 
     _EMBEDDING_AVAILABLE = True
 except ImportError:
     EmbeddingDocumentStore = None  # type: ignore
+    EmbeddingPipeline = None  # type: ignore
+    EmbedPipelineStats = None  # type: ignore
     EmbedEvent = None  # type: ignore
     EmbedEventType = None  # type: ignore
     EmbedObserver = None  # type: ignore
@@ -78,13 +96,28 @@ except ImportError:
 __all__ = [
     "DocumentStore",
     "Document",
+    "DocumentQuery",
+    "DocumentPage",
+    "WriteResult",
+    "VersionConflictError",
+    "key_to_id",
     "PostgresDocumentStore",
     "get_document_store",
     # Vector bridge
     "VectorBridge",
     "RecallResult",
+    "VectorBackend",
+    "VectorHit",
+    "LocalVectorIndex",
+    "get_local_index",
+    # Shared embedding model + content-hash cache
+    "EmbeddingService",
+    "EmbeddingCacheStats",
+    "get_embedding_service",
     # Embedding store + transparency
     "EmbeddingDocumentStore",
+    "EmbeddingPipeline",
+    "EmbedPipelineStats",
     "EmbedEvent",
     "EmbedEventType",
     "EmbedObserver",
@@ -9,12 +9,47 @@ Defines the contract for document storage backends. Think of this like
 the file system API - all implementations must support the same operations.
 """
 
+import base64
+import json
 import uuid
 from abc import ABC, abstractmethod
+from collections.abc import Mapping, Sequence
 from dataclasses import dataclass
 from datetime import datetime
 from typing import Any
 
+# Sort keys that map to document columns rather than paths inside data
+TIMESTAMP_ORDER_KEYS = frozenset({"created_at", "updated_at"})
+
+# Namespace for deriving document IDs from natural keys (see key_to_id)
+_KEY_NAMESPACE = uuid.UUID("6f1c2a52-3d0e-5b8f-9a41-7c2e0d9b6a13")
+
+
+class VersionConflictError(Exception):
+    """Raised when an upsert's expected_version does not match the stored document."""
+
+    def __init__(self, collection: str, key: str, expected: int, actual: int | None):
+        self.collection = collection
+        self.key = key
+        self.expected = expected
+        self.actual = actual
+        found = "missing" if actual is None else f"at version {actual}"
+        super().__init__(f"{collection}/{key}: expected version {expected}, document is {found}")
+
+
+def key_to_id(collection: str, key: str, scope: str = "") -> str:
+    """
+    Map a natural key (session ID, Redis key, ...) to a stable document ID.
+
+    Keys that are already UUIDs are used as-is. Anything else becomes a
+    UUIDv5 of (scope, collection, key), so the same key always lands on the
+    same row and upserts need no lookup first.
+    """
+    try:
+        return str(uuid.UUID(key))
+    except ValueError:
+        return str(uuid.uuid5(_KEY_NAMESPACE, f"{scope}/{collection}/{key}"))
+
 
 @dataclass
 class Document:
@@ -38,11 +73,11 @@ class Document:
     version: int = 1
 
     @classmethod
-    def create(cls, collection: str, data: dict[str, Any]) -> "Document":
-        """Create a new document with auto-generated ID."""
+    def create(cls, collection: str, data: dict[str, Any], doc_id: str | None = None) -> "Document":
+        """Create a new document with ``doc_id``, or an auto-generated ID."""
         now = datetime.utcnow()
         return cls(
-            id=str(uuid.uuid4()),
+            id=doc_id or str(uuid.uuid4()),
             collection=collection,
             data=data,
             created_at=now,
@@ -51,6 +86,116 @@ class Document:
         )
 
 
+@dataclass
+class WriteResult:
+    """
+    Outcome of one document in a batch write.
+
+    Attributes:
+        index: Position of the document in the input batch
+        document: The written Document, or None if the write failed
+        error: Error message if the write failed
+    """
+
+    index: int
+    document: Document | None
+    error: str | None = None
+
+    @property
+    def ok(self) -> bool:
+        return self.error is None
+
+
+@dataclass
+class DocumentQuery:
+    """
+    Query specification for DocumentStore.find().
+
+    Attributes:
+        filters: Exact-match filters on top-level fields (like query())
+        contains: JSON containment, e.g. {"tags": ["voice"]} matches any
+                  document whose tags include "voice"
+        fields: Top-level data fields to return (None = whole document)
+        order_by: "created_at", "updated_at", or a dotted path into data
+                  (e.g. "stats.score")
+        descending: Sort direction
+        limit: Page size
+        cursor: Opaque token from a previous page's next_cursor
+    """
+
+    filters: dict[str, Any] | None = None
+    contains: dict[str, Any] | None = None
+    fields: list[str] | None = None
+    order_by: str = "updated_at"
+    descending: bool = True
+    limit: int = 100
+    cursor: str | None = None
+
+
+@dataclass
+class DocumentPage:
+    """
+    One page of find() results.
+
+    Attributes:
+        documents: Matching documents, in requested order
+        next_cursor: Pass as DocumentQuery.cursor for the next page,
+                     None when there are no more results
+    """
+
+    documents: list[Document]
+    next_cursor: str | None = None
+
+
+def encode_cursor(value: Any, doc_id: str) -> str:
+    """Encode a keyset position (sort value, document id) as an opaque token."""
+    raw = json.dumps({"v": value, "id": doc_id}, default=str)
+    return base64.urlsafe_b64encode(raw.encode()).decode()
+
+
+def decode_cursor(cursor: str) -> tuple[Any, str]:
+    """Decode a token from encode_cursor(). Raises ValueError if malformed."""
+    try:
+        raw = json.loads(base64.urlsafe_b64decode(cursor.encode()))
+        return raw["v"], raw["id"]
+    except Exception as e:
+        raise ValueError(f"Invalid cursor: {cursor!r}") from e
+
+
+def _contains(value: Any, pattern: Any) -> bool:
+    """Python equivalent of JSONB ``@>`` containment."""
+    if isinstance(pattern, dict):
+        return isinstance(value, dict) and all(k in value and _contains(value[k], v) for k, v in pattern.items())
+    if isinstance(pattern, list):
+        return isinstance(value, list) and all(any(_contains(item, p) for item in value) for p in pattern)
+    return bool(value == pattern)
+
+
+def _sort_value(doc: Document, order_by: str) -> Any:
+    """Sort value for a document, JSON-encodable so it can go into a cursor."""
+    if order_by in TIMESTAMP_ORDER_KEYS:
+        return getattr(doc, order_by).isoformat()
+    value: Any = doc.data
+    for part in order_by.split("."):
+        value = value.get(part) if isinstance(value, dict) else None
+    return value
+
+
+def _sort_key(value: Any) -> tuple[int, Any]:
+    """Total order over JSON values, following JSONB: null < string < number < bool < array < object."""
+    if value is None:
+        return (0, 0)
+    if isinstance(value, str):
+        return (1, value)
+    if isinstance(value, bool):
+        return (3, value)
+    if isinstance(value, int | float):
+        return (2, value)
+    if isinstance(value, list):
+        return (4, json.dumps(value, sort_keys=True))
+    return (5, json.dumps(value, sort_keys=True, default=str))
+
+
 class DocumentStore(ABC):
     """
     Abstract base class for document storage.
@@ -75,6 +220,119 @@ class DocumentStore(ABC):
         """
         pass
 
+    @abstractmethod
+    def create_with_id(self, collection: str, doc_id: str, data: dict[str, Any]) -> Document:
+        """
+        Create a new document with a caller-chosen ID.
+
+        upsert() and upsert_many() use this for documents that do not exist
+        yet, so a key always lands on key_id(collection, key).
+
+        Args:
+            collection: Collection name
+            doc_id: Document ID (e.g. from key_id())
+            data: Document content as a dict
+
+        Returns:
+            Created Document with ID ``doc_id`` and metadata
+        """
+        pass
+
+    def create_many(self, collection: str, items: Sequence[dict[str, Any]]) -> list[WriteResult]:
+        """
+        Create many documents in a collection.
+
+        The default implementation calls create() once per document.
+        Backends override this to write the whole batch in one statement.
+
+        Args:
+            collection: Collection name
+            items: Document contents, one dict per document
+
+        Returns:
+            One WriteResult per input item, in input order
+        """
+        results: list[WriteResult] = []
+        for index, data in enumerate(items):
+            try:
+                results.append(WriteResult(index, self.create(collection, data)))
+            except Exception as e:
+                results.append(WriteResult(index, None, str(e)))
+        return results
+
+    def upsert_many(self, collection: str, items: Mapping[str, dict[str, Any]]) -> list[WriteResult]:
+        """
+        Insert or merge many documents keyed by document ID.
+
+        Existing documents are merged with the new data (like update());
+        missing ones are created with the given ID. The default implementation
+        calls update() and falls back to create_with_id(). Backends override
+        this to write the whole batch in one statement.
+
+        Args:
+            collection: Collection name
+            items: Mapping of document ID -> fields to write
+
+        Returns:
+            One WriteResult per input item, in input order
+        """
+        results: list[WriteResult] = []
+        for index, (doc_id, data) in enumerate(items.items()):
+            try:
+                doc = self.update(collection, doc_id, data)
+                if doc is None:
+                    doc = self.create_with_id(collection, doc_id, data)
+                results.append(WriteResult(index, doc))
+            except Exception as e:
+                results.append(WriteResult(index, None, str(e)))
+        return results
+
+    def key_id(self, collection: str, key: str) -> str:
+        """Document ID that upsert() uses for ``key``. Pass it to read()/delete()."""
+        return key_to_id(collection, key)
+
+    def upsert(
+        self,
+        collection: str,
+        key: str,
+        data: dict[str, Any],
+        expected_version: int | None = None,
+    ) -> Document:
+        """
+        Create or merge the document identified by ``key``.
+
+        The document ID is key_id(collection, key). Existing documents are
+        shallow-merged with ``data`` (like update()) and their version bumped.
+
+        Optimistic concurrency: with ``expected_version`` set, the write only
+        happens if the stored version matches - 0 means "must not exist yet".
+        Otherwise VersionConflictError is raised and nothing is written.
+
+        The default implementation reads, then updates or calls
+        create_with_id(); it is not atomic. Backends override this with a
+        single statement.
+
+        Args:
+            collection: Collection name
+            key: Natural key or document ID
+            data: Fields to write (merged with existing)
+            expected_version: Version the caller last saw, or None to skip the check
+
+        Returns:
+            The written Document
+        """
+        doc_id = self.key_id(collection, key)
+        existing = self.read(collection, doc_id)
+        if expected_version is not None:
+            actual = existing.version if existing else None
+            if (actual or 0) != expected_version:
+                raise VersionConflictError(collection, key, expected_version, actual)
+        if existing is not None:
+            updated = self.update(collection, doc_id, data)
+            if updated is not None:
+                return updated
+        return self.create_with_id(collection, doc_id, data)
+
     @abstractmethod
     def read(self, collection: str, doc_id: str) -> Document | None:
         """
@@ -133,6 +391,56 @@ class DocumentStore(ABC):
         """
         pass
 
+    def find(self, collection: str, spec: DocumentQuery) -> DocumentPage:
+        """
+        Query with containment, projection, ordering and keyset pagination.
+
+        The default implementation pulls the collection through query() and
+        applies the spec in Python. Backends override this to push it all
+        into the database.
+
+        Args:
+            collection: Collection name
+            spec: What to match, return and in which order
+
+        Returns:
+            One page of documents plus the cursor for the next page
+        """
+        docs = self.query(collection, spec.filters, limit=2**31 - 1)
+        if spec.contains:
+            docs = [doc for doc in docs if _contains(doc.data, spec.contains)]
+
+        def key(doc: Document) -> tuple[tuple[int, Any], str]:
+            return _sort_key(_sort_value(doc, spec.order_by)), doc.id
+
+        docs.sort(key=key, reverse=spec.descending)
+
+        if spec.cursor:
+            value, doc_id = decode_cursor(spec.cursor)
+            position = (_sort_key(value), doc_id)
+            docs = [d for d in docs if (key(d) < position if spec.descending else key(d) > position)]
+
+        page = docs[: spec.limit]
+        next_cursor = None
+        if len(docs) > spec.limit and page:
+            last = page[-1]
+            next_cursor = encode_cursor(_sort_value(last, spec.order_by), last.id)
+
+        if spec.fields is not None:
+            wanted = set(spec.fields)
+            page = [
+                Document(
+                    id=d.id,
+                    collection=d.collection,
+                    data={k: v for k, v in d.data.items() if k in wanted},
+                    created_at=d.created_at,
+                    updated_at=d.updated_at,
+                    version=d.version,
+                )
+                for d in page
+            ]
+        return DocumentPage(documents=page, next_cursor=next_cursor)
+
     @abstractmethod
     def list_collections(self) -> list[str]:
         """
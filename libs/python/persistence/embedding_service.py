@@ -0,0 +1,312 @@
+"""
+@llm-type library.persistence.embedding_service
+@llm-does process-wide sentence embedding service with content-hash vector cache
+@llm-rule load each embedding model once per process; never encode the same text twice
+
+Embedding Service
+-----------------
+
+One EmbeddingService per model name, shared by VectorBridge, RecallNode
+and TextClassifierNode, so the SentenceTransformer is loaded once per
+process instead of once per caller.
+
+encode() looks every text up by content hash (BLAKE2b of the UTF-8 text)
+before touching the model. Misses are de-duplicated and encoded in one
+batched model call. Vectors are cached as compact float32 arrays in an
+in-memory LRU (max_entries).
+
+Optional disk spill: with UNHINGED_EMBEDDING_CACHE_DIR set (or spill_dir
+passed), every computed vector is also appended to a memory-mapped
+float32 file per model. Vectors evicted from memory - or computed by an
+earlier process - are served from disk, and on a fully warm cache the
+model is not even loaded.
+
+Returned vectors are ``array("f")`` objects: they support ``tolist()``,
+indexing, and numpy's buffer protocol (``np.dot``). Treat them as
+read-only - they are shared with the cache.
+
+Usage:
+    service = get_embedding_service("all-MiniLM-L6-v2")
+    vector = service.encode("user said hello")
+    vectors = service.encode(["a", "b", "a"])  # one model call for "a", "b"
+    print(service.stats())
+"""
+
+from __future__ import annotations
+
+import hashlib
+import logging
+import mmap
+import os
+import threading
+import time
+from array import array
+from collections import OrderedDict
+from collections.abc import Callable, Sequence
+from dataclasses import dataclass
+from pathlib import Path
+from typing import Any, overload
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_MODEL = "sentence-transformers/all-MiniLM-L6-v2"
+DEFAULT_MAX_ENTRIES = 50_000
+CACHE_DIR_ENV = "UNHINGED_EMBEDDING_CACHE_DIR"
+
+_DIGEST_SIZE = 16
+_FLOAT_SIZE = 4
+
+
+def canonical_model_name(model_name: str) -> str:
+    """Short SBERT names ("all-MiniLM-L6-v2") resolve to the sentence-transformers org."""
+    return model_name if "/" in model_name else f"sentence-transformers/{model_name}"
+
+
+def content_key(text: str) -> bytes:
+    """Cache key for a text."""
+    return hashlib.blake2b(text.encode("utf-8"), digest_size=_DIGEST_SIZE).digest()
+
+
+def _to_float32(row: Any) -> array:
+    return array("f", row.tolist() if hasattr(row, "tolist") else row)
+
+
+@dataclass
+class EmbeddingCacheStats:
+    """Point-in-time EmbeddingService metrics."""
+
+    hits: int  # served from memory
+    disk_hits: int  # served from the spill file
+    misses: int  # had to be encoded
+    encode_calls: int  # batched model calls
+    evictions: int
+    entries: int
+    spilled: int  # vectors in the spill file
+    model_load_seconds: float
+
+    @property
+    def hit_rate(self) -> float:
+        lookups = self.hits + self.disk_hits + self.misses
+        return (self.hits + self.disk_hits) / lookups if lookups else 0.0
+
+
+class _SpillFile:
+    """Append-only float32 vector file plus its key file, memory-mapped for reads."""
+
+    def __init__(self, directory: Path) -> None:
+        directory.mkdir(parents=True, exist_ok=True)
+        self._vectors_path = directory / "vectors.f32"
+        self._keys_path = directory / "keys.bin"
+        self._dim_path = directory / "dim"
+        self.dim: int | None = None
+        self._rows: dict[bytes, int] = {}
+        self._mmap: mmap.mmap | None = None
+        self._load()
+
+    def _load(self) -> None:
+        if not self._dim_path.exists():
+            return
+        self.dim = int(self._dim_path.read_text())
+        keys = self._keys_path.read_bytes() if self._keys_path.exists() else b""
+        row_bytes = self.dim * _FLOAT_SIZE
+        vector_rows = self._vectors_path.stat().st_size // row_bytes if self._vectors_path.exists() else 0
+        count = min(len(keys) // _DIGEST_SIZE, vector_rows)
+
+        # Drop the tail of an interrupted append so both files stay row-aligned
+        with open(self._keys_path, "ab") as f:
+            f.truncate(count * _DIGEST_SIZE)
+        with open(self._vectors_path, "ab") as f:
+            f.truncate(count * row_bytes)
+
+        for row in range(count):
+            self._rows[keys[row * _DIGEST_SIZE : (row + 1) * _DIGEST_SIZE]] = row
+
+    def __len__(self) -> int:
+        return len(self._rows)
+
+    def get(self, key: bytes) -> array | None:
+        row = self._rows.get(key)
+        if row is None or self.dim is None:
+            return None
+        row_bytes = self.dim * _FLOAT_SIZE
+        if self._mmap is None or len(self._mmap) < (row + 1) * row_bytes:
+            self._remap()
+        vector = array("f")
+        vector.frombytes(self._mmap[row * row_bytes : (row + 1) * row_bytes])  # type: ignore[index]
+        return vector
+
+    def _remap(self) -> None:
+        if self._mmap is not None:
+            self._mmap.close()
+        with open(self._vectors_path, "rb") as f:
+            self._mmap = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ)
+
+    def append(self, items: list[tuple[bytes, array]]) -> None:
+        if self.dim is None and items:
+            self.dim = len(items[0][1])
+            self._dim_path.write_text(str(self.dim))
+        items = [(key, vector) for key, vector in items if key not in self._rows and len(vector) == self.dim]
+        if not items:
+            return
+        row = len(self._rows)
+        with open(self._vectors_path, "ab") as f:
+            f.write(b"".join(vector.tobytes() for _, vector in items))
+        with open(self._keys_path, "ab") as f:
+            f.write(b"".join(key for key, _ in items))
+        for key, _ in items:
+            self._rows[key] = row
+            row += 1
+
+
+class EmbeddingService:
+    """Shared, cached sentence embedding model. Thread-safe."""
+
+    def __init__(
+        self,
+        model_name: str = DEFAULT_MODEL,
+        max_entries: int = DEFAULT_MAX_ENTRIES,
+        spill_dir: str | Path | None = None,
+        loader: Callable[[str], Any] | None = None,
+    ) -> None:
+        """Initialize service (the model loads on the first cache miss).
+
+        Args:
+            model_name: SentenceTransformer model name
+            max_entries: Vectors kept in memory before LRU eviction
+            spill_dir: Directory for the on-disk spill (None = memory only)
+            loader: Model factory (defaults to SentenceTransformer)
+        """
+        self.model_name = canonical_model_name(model_name)
+        self.max_entries = max_entries
+        self._loader = loader or self._load_sentence_transformer
+        self._model: Any = None
+        self._model_lock = threading.Lock()
+        self._lock = threading.Lock()
+        self._cache: OrderedDict[bytes, array] = OrderedDict()
+        self._spill: _SpillFile | None = None
+        if spill_dir is not None:
+            self._spill = _SpillFile(Path(spill_dir) / self.model_name.replace("/", "__"))
+        self._counters = dict.fromkeys(("hits", "disk_hits", "misses", "encode_calls", "evictions"), 0)
+        self._model_load_seconds = 0.0
+
+    @staticmethod
+    def _load_sentence_transformer(model_name: str) -> Any:
+        from sentence_transformers import SentenceTransformer
+
+        return SentenceTransformer(model_name)
+
+    @property
+    def model(self) -> Any:
+        """The loaded model (loads it on first access)."""
+        if self._model is None:
+            with self._model_lock:
+                if self._model is None:
+                    start = time.perf_counter()
+                    self._model = self._loader(self.model_name)
+                    self._model_load_seconds = time.perf_counter() - start
+                    logger.info(f"Loaded embedding model: {self.model_name} ({self._model_load_seconds:.1f}s)")
+        return self._model
+
+    @overload
+    def encode(self, texts: str, batch_size: int = ...) -> array: ...
+
+    @overload
+    def encode(self, texts: Sequence[str], batch_size: int = ...) -> list[array]: ...
+
+    def encode(self, texts: str | Sequence[str], batch_size: int = 64) -> array | list[array]:
+        """Embed one text (returns a vector) or many (returns a list, one model call for all misses)."""
+        if isinstance(texts, str):
+            return self.encode([texts], batch_size)[0]
+
+        keys = [content_key(text) for text in texts]
+        found: dict[bytes, array] = {}
+        missing: dict[bytes, str] = {}
+        with self._lock:
+            for key, text in zip(keys, texts, strict=True):
+                if key in found or key in missing:
+                    continue
+                vector = self._cache.get(key)
+                if vector is not None:
+                    self._cache.move_to_end(key)
+                    self._counters["hits"] += 1
+                    found[key] = vector
+                    continue
+                vector = self._spill.get(key) if self._spill is not None else None
+                if vector is not None:
+                    self._counters["disk_hits"] += 1
+                    found[key] = vector
+                    self._remember_locked(key, vector)
+                    continue
+                missing[key] = text
+            self._counters["misses"] += len(missing)
+
+        if missing:
+            rows = self.model.encode(list(missing.values()), batch_size=batch_size)
+            computed = [(key, _to_float32(row)) for key, row in zip(missing, rows, strict=True)]
+            with self._lock:
+                self._counters["encode_calls"] += 1
+                for key, vector in computed:
+                    found[key] = vector
+                    self._remember_locked(key, vector)
+                if self._spill is not None:
+                    try:
+                        self._spill.append(computed)
+                    except OSError as e:
+                        logger.warning(f"Embedding spill write failed, continuing in memory: {e}")
+
+        return [found[key] for key in keys]
+
+    def _remember_locked(self, key: bytes, vector: array) -> None:
+        self._cache[key] = vector
+        self._cache.move_to_end(key)
+        while len(self._cache) > self.max_entries:
+            self._cache.popitem(last=False)
+            self._counters["evictions"] += 1
+
+    def stats(self) -> EmbeddingCacheStats:
+        """Return current cache metrics."""
+        with self._lock:
+            return EmbeddingCacheStats(
+                entries=len(self._cache),
+                spilled=len(self._spill) if self._spill is not None else 0,
+                model_load_seconds=self._model_load_seconds,
+                **self._counters,
+            )
+
+    def clear(self) -> None:
+        """Drop the in-memory cache (the spill file is kept)."""
+        with self._lock:
+            self._cache.clear()
+
+
+_services: dict[str, EmbeddingService] = {}
+_services_lock = threading.Lock()
+
+
+def get_embedding_service(model_name: str = DEFAULT_MODEL) -> EmbeddingService:
+    """Get the process-wide EmbeddingService for a model, creating it on first use."""
+    name = canonical_model_name(model_name)
+    with _services_lock:
+        service = _services.get(name)
+        if service is None:
+            spill_dir = os.environ.get(CACHE_DIR_ENV) or None
+            service = _services[name] = EmbeddingService(name, spill_dir=spill_dir)
+        return service
+
+
+def embeddings_available() -> bool:
+    """True if sentence-transformers can be imported (without loading a model)."""
+    import importlib.util
+
+    return importlib.util.find_spec("sentence_transformers") is not None
+
+
+__all__ = [
+    "DEFAULT_MODEL",
+    "EmbeddingCacheStats",
+    "EmbeddingService",
+    "canonical_model_name",
+    "content_key",
+    "embeddings_available",
+    "get_embedding_service",
+]
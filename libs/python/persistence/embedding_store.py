@@ -11,6 +11,13 @@ vector database on create/update. Uses VectorBridge for embedding.
 This is the wiring that connects document persistence to semantic recall.
 Embedding is best-effort - failures do not block document operations.
 
+By default embedding runs in the background: writes enqueue the document
+and return. An EmbeddingPipeline worker micro-batches queued documents
+(up to batch_size, or whatever arrived within max_wait), encodes each
+batch with one model call and writes it with one Weaviate batch insert
+per collection. The queue is bounded (writers block up to submit_timeout,
+then the embed is dropped); failed documents are retried with backoff.
+
 Transparency: Register an observer callback to see all embedding activity.
 This supports max-transparency CLI mode.
 
@@ -26,18 +33,25 @@ Usage:
 
     # Now all creates/updates are automatically embedded
     store.create("sessions", {"text": "user said hello"})
+
+    # Wait for queued embeddings (e.g. before recall in a test)
+    store.flush_embeddings(timeout=5.0)
 """
 
 from __future__ import annotations
 
+import atexit
 import logging
-from collections.abc import Callable
-from dataclasses import dataclass
+import threading
+import time
+from collections import OrderedDict
+from collections.abc import Callable, Mapping, Sequence
+from dataclasses import dataclass, field
 from datetime import datetime
 from enum import Enum
 from typing import Any
 
-from .document_store import Document, DocumentStore
+from .document_store import Document, DocumentPage, DocumentQuery, DocumentStore, WriteResult
 
 logger = logging.getLogger(__name__)
 
@@ -49,6 +63,11 @@ class EmbedEventType(Enum):
     EMBED_SUCCESS = "embed_success"
     EMBED_FAILED = "embed_failed"
     EMBED_SKIPPED = "embed_skipped"
+    # Background pipeline
+    EMBED_QUEUED = "embed_queued"
+    EMBED_BATCH = "embed_batch"
+    EMBED_RETRY = "embed_retry"
+    EMBED_DROPPED = "embed_dropped"
 
 
 @dataclass
@@ -64,6 +83,9 @@ class EmbedEvent:
     timestamp: datetime
     text_preview: str = ""  # First 80 chars of embedded text
     error: str = ""
+    batch_size: int = 0  # EMBED_BATCH: documents in the batch
+    queue_depth: int = 0  # Documents waiting when the event was emitted
+    attempt: int = 0  # EMBED_RETRY/EMBED_FAILED: attempts made so far
 
     def __str__(self) -> str:
         """Human-readable format for CLI display."""
@@ -77,6 +99,14 @@ class EmbedEvent:
             return f"{ts} embed failed {self.collection}/{self.document_id[:8]}: {self.error}"
         elif self.event_type == EmbedEventType.EMBED_SKIPPED:
             return f"{ts} embed skipped {self.collection}/{self.document_id[:8]} (not in whitelist)"
+        elif self.event_type == EmbedEventType.EMBED_QUEUED:
+            return f"{ts} queued {self.collection}/{self.document_id[:8]} (depth {self.queue_depth})"
+        elif self.event_type == EmbedEventType.EMBED_BATCH:
+            return f"{ts} embedding batch of {self.batch_size} (depth {self.queue_depth})"
+        elif self.event_type == EmbedEventType.EMBED_RETRY:
+            return f"{ts} embed retry {self.attempt} {self.collection}/{self.document_id[:8]}: {self.error}"
+        elif self.event_type == EmbedEventType.EMBED_DROPPED:
+            return f"{ts} embed dropped {self.collection}/{self.document_id[:8]} (queue full, depth {self.queue_depth})"
         return f"{ts} {self.event_type.value} {self.collection}/{self.document_id[:8]}"
 
 
@@ -84,13 +114,301 @@ class EmbedEvent:
 EmbedObserver = Callable[[EmbedEvent], None]
 
 
+@dataclass
+class _EmbedJob:
+    """A document waiting to be embedded."""
+
+    collection: str
+    document_id: str
+    data: dict[str, Any] | None  # None = remove the document's vector
+    enqueued_at: float = field(default_factory=time.monotonic)
+    attempts: int = 0
+    not_before: float = 0.0  # retry backoff deadline
+
+
+@dataclass
+class EmbedPipelineStats:
+    """Point-in-time EmbeddingPipeline metrics."""
+
+    queued: int  # waiting for a batch
+    retrying: int  # waiting for their backoff to expire
+    in_flight: int  # in the batch being embedded
+    submitted: int
+    coalesced: int  # submits that replaced a queued version of the same document
+    embedded: int
+    failed: int  # gave up after max_retries
+    dropped: int  # rejected because the queue stayed full
+    batches: int
+    max_batch_size: int
+
+    @property
+    def avg_batch_size(self) -> float:
+        return (self.embedded + self.failed) / self.batches if self.batches else 0.0
+
+
+class EmbeddingPipeline:
+    """Background worker that embeds documents in micro-batches.
+
+    Queued documents are keyed by (collection, document_id); a resubmit
+    before the batch is taken replaces the queued data. The worker takes a
+    batch once batch_size documents are queued or the oldest has waited
+    max_wait, and hands it to ``VectorBridge.embed_documents``.
+    """
+
+    def __init__(
+        self,
+        bridge_factory: Callable[[], Any],
+        emit: EmbedObserver | None = None,
+        batch_size: int = 64,
+        max_wait: float = 0.05,
+        max_queue: int = 10_000,
+        submit_timeout: float = 1.0,
+        max_retries: int = 3,
+        retry_backoff: float = 0.5,
+    ) -> None:
+        """Initialize pipeline (the worker thread starts on first submit).
+
+        Args:
+            bridge_factory: Returns a VectorBridge (or None if unavailable); called on the worker
+            emit: Observer callback for EmbedEvents
+            batch_size: Max documents per encode/insert batch
+            max_wait: Max seconds a document waits for its batch to fill
+            max_queue: Max documents queued + retrying before submit() blocks
+            submit_timeout: Seconds submit() blocks on a full queue before dropping
+            max_retries: Retries per document before reporting EMBED_FAILED
+            retry_backoff: First retry delay in seconds, doubled per attempt
+        """
+        self._bridge_factory = bridge_factory
+        self._emit = emit or (lambda event: None)
+        self.batch_size = batch_size
+        self.max_wait = max_wait
+        self.max_queue = max_queue
+        self.submit_timeout = submit_timeout
+        self.max_retries = max_retries
+        self.retry_backoff = retry_backoff
+
+        self._cond = threading.Condition()
+        self._queue: OrderedDict[tuple[str, str], _EmbedJob] = OrderedDict()
+        self._retries: dict[tuple[str, str], _EmbedJob] = {}
+        self._in_flight = 0
+        self._flush_waiters = 0
+        self._stopping = False
+        self._thread: threading.Thread | None = None
+        self._counters = dict.fromkeys(
+            ("submitted", "coalesced", "embedded", "failed", "dropped", "batches", "max_batch_size"), 0
+        )
+
+    def _event(self, event_type: EmbedEventType, job: _EmbedJob | None = None, **kwargs: Any) -> EmbedEvent:
+        return EmbedEvent(
+            event_type=event_type,
+            collection=job.collection if job else "",
+            document_id=job.document_id if job else "",
+            timestamp=datetime.utcnow(),
+            **kwargs,
+        )
+
+    def _pending_locked(self) -> int:
+        return len(self._queue) + len(self._retries)
+
+    def submit(self, collection: str, document_id: str, data: dict[str, Any] | None) -> bool:
+        """Queue a document for embedding (``data=None`` removes its vector). Returns False if dropped."""
+        key = (collection, document_id)
+        with self._cond:
+            if self._stopping:
+                return False
+            self._ensure_worker_locked()
+            self._counters["submitted"] += 1
+            self._retries.pop(key, None)  # newer data supersedes a pending retry
+            if key in self._queue:
+                self._queue[key].data = data
+                self._counters["coalesced"] += 1
+                return True
+
+            job = _EmbedJob(collection, document_id, data)
+            deadline = time.monotonic() + self.submit_timeout
+            while self._pending_locked() >= self.max_queue:
+                remaining = deadline - time.monotonic()
+                if remaining <= 0:
+                    self._counters["dropped"] += 1
+                    event = self._event(EmbedEventType.EMBED_DROPPED, job, queue_depth=self._pending_locked())
+                    break
+                self._cond.wait(remaining)
+            else:
+                self._queue[key] = job
+                self._cond.notify_all()
+                event = self._event(EmbedEventType.EMBED_QUEUED, job, queue_depth=len(self._queue))
+
+        self._emit(event)
+        return event.event_type is EmbedEventType.EMBED_QUEUED
+
+    def _ensure_worker_locked(self) -> None:
+        if self._thread is None:
+            self._thread = threading.Thread(target=self._run, name="embedding-pipeline", daemon=True)
+            self._thread.start()
+            atexit.register(self.close, 2.0)
+
+    def _next_batch_locked(self) -> list[_EmbedJob] | None:
+        """Block until a batch is due; None means the pipeline has stopped and drained."""
+        while True:
+            now = time.monotonic()
+            for key, job in list(self._retries.items()):
+                if job.not_before <= now or self._stopping or self._flush_waiters:
+                    self._queue[key] = self._retries.pop(key)
+
+            wake_at = [job.not_before for job in self._retries.values()]
+            if self._queue:
+                oldest = next(iter(self._queue.values())).enqueued_at
+                if (
+                    len(self._queue) >= self.batch_size
+                    or self._stopping
+                    or self._flush_waiters
+                    or oldest + self.max_wait <= now
+                ):
+                    size = min(self.batch_size, len(self._queue))
+                    return [self._queue.popitem(last=False)[1] for _ in range(size)]
+                wake_at.append(oldest + self.max_wait)
+            elif self._stopping and not self._retries:
+                return None
+
+            self._cond.wait(max(min(wake_at) - now, 0.0) if wake_at else None)
+
+    def _run(self) -> None:
+        """Worker loop: take a batch, embed it, settle each document."""
+        while True:
+            with self._cond:
+                batch = self._next_batch_locked()
+                if batch is None:
+                    return
+                self._in_flight = len(batch)
+                depth = self._pending_locked()
+            self._emit(self._event(EmbedEventType.EMBED_BATCH, batch_size=len(batch), queue_depth=depth))
+
+            errors = self._process(batch)
+
+            events = []
+            with self._cond:
+                now = time.monotonic()
+                for job, error in zip(batch, errors, strict=True):
+                    key = (job.collection, job.document_id)
+                    if error is None:
+                        if job.data is not None:
+                            self._counters["embedded"] += 1
+                            preview = _extract_text_preview(job.data)
+                            events.append(self._event(EmbedEventType.EMBED_SUCCESS, job, text_preview=preview))
+                        continue
+                    job.attempts += 1
+                    superseded = key in self._queue or key in self._retries
+                    if job.attempts > self.max_retries or superseded or self._stopping:
+                        if not superseded:
+                            self._counters["failed"] += 1
+                            events.append(
+                                self._event(EmbedEventType.EMBED_FAILED, job, error=error, attempt=job.attempts)
+                            )
+                        continue
+                    job.not_before = now + self.retry_backoff * 2 ** (job.attempts - 1)
+                    self._retries[key] = job
+                    events.append(self._event(EmbedEventType.EMBED_RETRY, job, error=error, attempt=job.attempts))
+                self._counters["batches"] += 1
+                self._counters["max_batch_size"] = max(self._counters["max_batch_size"], len(batch))
+                self._in_flight = 0
+                self._cond.notify_all()
+
+            for event in events:
+                self._emit(event)
+
+    def _process(self, batch: list[_EmbedJob]) -> list[str | None]:
+        """Embed (and delete) a batch through the bridge. Returns per-job errors."""
+        errors: list[str | None] = [None] * len(batch)
+        try:
+            bridge = self._bridge_factory()
+            if bridge is None:
+                return ["VectorBridge not available"] * len(batch)
+
+            embeds = [i for i, job in enumerate(batch) if job.data is not None]
+            if embeds:
+                results = bridge.embed_documents(
+                    [(batch[i].collection, batch[i].document_id, batch[i].data) for i in embeds],
+                    batch_size=self.batch_size,
+                )
+                for i, error in zip(embeds, results, strict=True):
+                    errors[i] = error
+
+            deletes: dict[str, list[int]] = {}
+            for i, job in enumerate(batch):
+                if job.data is None:
+                    deletes.setdefault(job.collection, []).append(i)
+            for collection, members in deletes.items():
+                try:
+                    bridge.delete_documents(collection, [batch[i].document_id for i in members])
+                except Exception as e:
+                    for i in members:
+                        errors[i] = str(e)
+        except Exception as e:
+            return [str(e)] * len(batch)
+        return errors
+
+    def flush(self, timeout: float | None = None) -> bool:
+        """Embed everything queued now, skipping batching delays and retry backoff.
+
+        Returns True once nothing is queued, retrying or in flight; False on
+        timeout. Documents that exhaust their retries count as settled.
+        """
+        deadline = None if timeout is None else time.monotonic() + timeout
+        with self._cond:
+            self._flush_waiters += 1
+            self._cond.notify_all()
+            try:
+                while self._pending_locked() or self._in_flight:
+                    remaining = None if deadline is None else deadline - time.monotonic()
+                    if remaining is not None and remaining <= 0:
+                        return False
+                    self._cond.wait(remaining)
+                return True
+            finally:
+                self._flush_waiters -= 1
+
+    def close(self, timeout: float | None = 10.0) -> None:
+        """Drain the queue (one attempt for pending retries) and stop the worker."""
+        with self._cond:
+            if self._stopping:
+                return
+            self._stopping = True
+            self._cond.notify_all()
+            thread = self._thread
+        if thread is not None and thread is not threading.current_thread():
+            thread.join(timeout)
+            if thread.is_alive():
+                logger.warning(f"Embedding pipeline closed with {self.stats().queued} documents not embedded")
+
+    def stats(self) -> EmbedPipelineStats:
+        """Return current pipeline metrics."""
+        with self._cond:
+            return EmbedPipelineStats(
+                queued=len(self._queue),
+                retrying=len(self._retries),
+                in_flight=self._in_flight,
+                **self._counters,
+            )
+
+
+def _extract_text_preview(data: dict[str, Any]) -> str:
+    """Extract text preview for transparency display."""
+    for key in ("text", "content", "message"):
+        if key in data and isinstance(data[key], str):
+            text: str = data[key]
+            return text[:80]
+    return ""
+
+
 class EmbeddingDocumentStore(DocumentStore):
     """Document store wrapper that auto-embeds on write.
 
     Delegates all operations to the wrapped store. On create/update,
     also embeds the document to the vector database via VectorBridge.
 
-    Embedding is best-effort and non-blocking.
+    Embedding is best-effort and non-blocking: with background=True (the
+    default) writes only enqueue the document on an EmbeddingPipeline;
+    background=False embeds inline, one document at a time.
 
     Transparency: Register observers via add_observer() to see all
     embedding activity. Used for CLI max-transparency mode.
@@ -110,6 +428,8 @@ class EmbeddingDocumentStore(DocumentStore):
         wrapped: DocumentStore,
         collections: set[str] | None = None,
         embed_all: bool = False,
+        background: bool = True,
+        pipeline: EmbeddingPipeline | None = None,
     ) -> None:
         """Initialize embedding wrapper.
 
@@ -117,12 +437,17 @@ class EmbeddingDocumentStore(DocumentStore):
             wrapped: The underlying document store
             collections: Set of collection names to embed. If None, uses DEFAULT_COLLECTIONS.
             embed_all: If True, embed all collections (ignores collections parameter)
+            background: Embed on a background EmbeddingPipeline instead of inline
+            pipeline: Pipeline to use when background=True (default: one with stock settings)
         """
         self._wrapped = wrapped
         self._bridge: Any = None  # VectorBridge, lazy-loaded
         self._embed_all = embed_all
         self._collections = collections if collections is not None else self.DEFAULT_COLLECTIONS
         self._observers: list[EmbedObserver] = []
+        self._pipeline: EmbeddingPipeline | None = None
+        if background:
+            self._pipeline = pipeline or EmbeddingPipeline(self._get_bridge, emit=self._emit)
 
     def add_observer(self, observer: EmbedObserver) -> None:
         """Register an observer for embedding events.
@@ -164,18 +489,10 @@ class EmbeddingDocumentStore(DocumentStore):
             return True
         return collection in self._collections
 
-    def _extract_text_preview(self, data: dict[str, Any]) -> str:
-        """Extract text preview for transparency display."""
-        for key in ("text", "content", "message"):
-            if key in data and isinstance(data[key], str):
-                text: str = data[key]
-                return text[:80]
-        return ""
-
     def _try_embed(self, collection: str, doc_id: str, data: dict[str, Any]) -> None:
         """Attempt to embed document. Best-effort, non-blocking."""
         now = datetime.utcnow()
-        text_preview = self._extract_text_preview(data)
+        text_preview = _extract_text_preview(data)
 
         if not self._should_embed(collection):
             self._emit(
@@ -188,6 +505,10 @@ class EmbeddingDocumentStore(DocumentStore):
             )
             return
 
+        if self._pipeline is not None:
+            self._pipeline.submit(collection, doc_id, data)
+            return
+
         bridge = self._get_bridge()
         if bridge is None:
             return
@@ -224,6 +545,19 @@ class EmbeddingDocumentStore(DocumentStore):
                 )
             )
 
+    def flush_embeddings(self, timeout: float | None = None) -> bool:
+        """Wait for queued embeddings to finish. Returns False on timeout."""
+        return self._pipeline.flush(timeout) if self._pipeline is not None else True
+
+    def embedding_stats(self) -> EmbedPipelineStats | None:
+        """Background pipeline metrics, or None when embedding inline."""
+        return self._pipeline.stats() if self._pipeline is not None else None
+
+    def close(self, timeout: float | None = 10.0) -> None:
+        """Drain and stop the background embedding pipeline."""
+        if self._pipeline is not None:
+            self._pipeline.close(timeout)
+
     # === Delegated operations with embedding hooks ===
 
     def create(self, collection: str, data: dict[str, Any]) -> Document:
@@ -232,6 +566,12 @@ class EmbeddingDocumentStore(DocumentStore):
         self._try_embed(collection, doc.id, data)
         return doc
 
+    def create_with_id(self, collection: str, doc_id: str, data: dict[str, Any]) -> Document:
+        """Create document with ``doc_id`` and embed."""
+        doc = self._wrapped.create_with_id(collection, doc_id, data)
+        self._try_embed(collection, doc.id, data)
+        return doc
+
     def update(self, collection: str, doc_id: str, data: dict[str, Any]) -> Document | None:
         """Update document and re-embed."""
         doc = self._wrapped.update(collection, doc_id, data)
@@ -239,17 +579,65 @@ class EmbeddingDocumentStore(DocumentStore):
             self._try_embed(collection, doc_id, doc.data)
         return doc
 
+    def upsert(
+        self,
+        collection: str,
+        key: str,
+        data: dict[str, Any],
+        expected_version: int | None = None,
+    ) -> Document:
+        """Upsert through the wrapped store and re-embed the merged document."""
+        doc = self._wrapped.upsert(collection, key, data, expected_version)
+        self._try_embed(collection, doc.id, doc.data)
+        return doc
+
+    def delete(self, collection: str, doc_id: str) -> bool:
+        """Delete document and remove its vector."""
+        deleted = self._wrapped.delete(collection, doc_id)
+        if not deleted or not self._should_embed(collection):
+            return deleted
+        if self._pipeline is not None:
+            self._pipeline.submit(collection, doc_id, None)
+            return deleted
+        bridge = self._get_bridge()
+        try:
+            if bridge is not None:
+                bridge.delete_documents(collection, [doc_id])
+        except Exception as e:
+            logger.debug(f"Vector delete failed for {collection}/{doc_id}: {e}")
+        return deleted
+
+    def create_many(self, collection: str, items: Sequence[dict[str, Any]]) -> list[WriteResult]:
+        """Batch-create through the wrapped store, then embed each written document."""
+        results = self._wrapped.create_many(collection, items)
+        self._embed_results(collection, results)
+        return results
+
+    def upsert_many(self, collection: str, items: Mapping[str, dict[str, Any]]) -> list[WriteResult]:
+        """Batch-upsert through the wrapped store, then re-embed each written document."""
+        results = self._wrapped.upsert_many(collection, items)
+        self._embed_results(collection, results)
+        return results
+
+    def _embed_results(self, collection: str, results: list[WriteResult]) -> None:
+        for result in results:
+            if result.document is not None:
+                self._try_embed(collection, result.document.id, result.document.data)
+
     # === Pure delegation (no embedding needed) ===
 
+    def key_id(self, collection: str, key: str) -> str:
+        return self._wrapped.key_id(collection, key)
+
     def read(self, collection: str, doc_id: str) -> Document | None:
         return self._wrapped.read(collection, doc_id)
 
-    def delete(self, collection: str, doc_id: str) -> bool:
-        return self._wrapped.delete(collection, doc_id)
-
     def query(self, collection: str, filters: dict[str, Any] | None = None, limit: int = 100) -> list[Document]:
         return self._wrapped.query(collection, filters, limit)
 
+    def find(self, collection: str, spec: DocumentQuery) -> DocumentPage:
+        return self._wrapped.find(collection, spec)
+
     def list_collections(self) -> list[str]:
         return self._wrapped.list_collections()
 
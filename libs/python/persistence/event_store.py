@@ -17,10 +17,11 @@ how we use the existing document store for event persistence.
 from __future__ import annotations
 
 import logging
+from collections.abc import Iterable
 from datetime import datetime
 from typing import Any
 
-from . import DocumentStore, get_document_store
+from . import DocumentStore, WriteResult, get_document_store
 
 logger = logging.getLogger(__name__)
 
@@ -41,6 +42,26 @@ def _get_store() -> DocumentStore:
     return get_document_store()
 
 
+def _build_event(
+    service_id: str,
+    event_type: str,
+    payload: dict[str, Any] | None = None,
+    *,
+    level: str = "INFO",
+    session_id: str | None = None,
+) -> dict[str, Any]:
+    """Build the standard event document shape."""
+
+    return {
+        "service_id": service_id,
+        "event_type": event_type,
+        "session_id": session_id,
+        "level": level,
+        "timestamp": datetime.utcnow().isoformat(),
+        "payload": payload or {},
+    }
+
+
 def persist_event(
     service_id: str,
     event_type: str,
@@ -65,19 +86,31 @@ def persist_event(
     """
 
     store = _get_store()
-    data: dict[str, Any] = {
-        "service_id": service_id,
-        "event_type": event_type,
-        "session_id": session_id,
-        "level": level,
-        "timestamp": datetime.utcnow().isoformat(),
-        "payload": payload or {},
-    }
+    data = _build_event(service_id, event_type, payload, level=level, session_id=session_id)
 
     logger.debug("Persisting event", extra={"collection": EVENTS_COLLECTION, "event_type": event_type})
     store.create(EVENTS_COLLECTION, data)
 
 
+def persist_events(events: Iterable[dict[str, Any]]) -> list[WriteResult]:
+    """Persist many events to the ``events`` collection in one batch write.
+
+    Each item takes the same fields as ``persist_event`` (``service_id``,
+    ``event_type`` and optionally ``payload``, ``level``, ``session_id``).
+
+    Returns:
+        One ``WriteResult`` per event, in input order.
+    """
+
+    store = _get_store()
+    batch = [_build_event(**event) for event in events]
+    if not batch:
+        return []
+
+    logger.debug("Persisting events", extra={"collection": EVENTS_COLLECTION, "count": len(batch)})
+    return store.create_many(EVENTS_COLLECTION, batch)
+
+
 def dump_all_events(limit: int = _MAX_EVENTS_DUMP) -> list[dict[str, Any]]:
     """Return up to ``limit`` event documents as plain dicts.
 
@@ -106,6 +139,7 @@ def clear_all_events() -> bool:
 __all__ = [
     "EVENTS_COLLECTION",
     "persist_event",
+    "persist_events",
     "dump_all_events",
     "clear_all_events",
 ]
@@ -0,0 +1,282 @@
+"""
+@llm-type library.persistence.pool
+@llm-does bounded thread-safe connection pool for the PostgreSQL document store
+@llm-rule connections are checked out per operation and always returned
+
+PostgreSQL Connection Pool
+--------------------------
+
+Keeps a bounded set of open connections so document operations do not pay
+a TCP + auth handshake each. Callers block (up to ``timeout``) when every
+connection is in use.
+
+Health checks:
+    - Closed connections are discarded on checkout and checkin
+    - Connections idle longer than ``health_check_interval`` are pinged
+      with ``SELECT 1`` before being handed out
+    - Connections that raised inside ``connection()`` are discarded
+
+Each pooled connection carries the set of server-side prepared statement
+names it has seen, since PREPARE is per database session.
+
+Usage:
+    pool = PostgresConnectionPool("postgresql://...", max_size=8)
+    with pool.connection() as pooled:
+        cursor = pooled.conn.cursor()
+        cursor.execute("SELECT 1")
+    print(pool.stats())
+"""
+
+from __future__ import annotations
+
+import logging
+import os
+import threading
+import time
+from collections import deque
+from collections.abc import Callable, Iterator
+from contextlib import contextmanager
+from dataclasses import dataclass, field
+from typing import Any
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_MAX_SIZE = int(os.environ.get("POSTGRES_POOL_MAX_SIZE", "8"))
+
+
+class PoolTimeoutError(TimeoutError):
+    """Raised when no connection becomes available within the pool timeout."""
+
+
+@dataclass
+class PooledConnection:
+    """A DB-API connection plus per-session bookkeeping."""
+
+    conn: Any
+    prepared: set[str] = field(default_factory=set)
+    last_used: float = field(default_factory=time.monotonic)
+
+
+@dataclass
+class PoolStats:
+    """Point-in-time pool metrics."""
+
+    size: int  # open connections (idle + in use)
+    idle: int
+    in_use: int
+    max_size: int
+    checkouts: int
+    total_wait_seconds: float
+    max_wait_seconds: float
+    created: int
+    discarded: int
+    timeouts: int
+
+    @property
+    def avg_wait_seconds(self) -> float:
+        return self.total_wait_seconds / self.checkouts if self.checkouts else 0.0
+
+
+class PostgresConnectionPool:
+    """Bounded, thread-safe pool of PostgreSQL connections.
+
+    Connections are opened lazily up to ``max_size`` and run in autocommit
+    mode, so a single statement costs a single round-trip.
+    """
+
+    def __init__(
+        self,
+        connection_string: str,
+        max_size: int = DEFAULT_MAX_SIZE,
+        timeout: float = 30.0,
+        health_check_interval: float = 30.0,
+        connect: Callable[[], Any] | None = None,
+    ) -> None:
+        """Initialize pool.
+
+        Args:
+            connection_string: PostgreSQL DSN
+            max_size: Maximum number of open connections
+            timeout: Seconds to wait for a free connection before raising
+            health_check_interval: Ping connections idle longer than this
+            connect: Connection factory (defaults to psycopg2.connect)
+        """
+        if max_size < 1:
+            raise ValueError("max_size must be >= 1")
+
+        self.connection_string = connection_string
+        self.max_size = max_size
+        self.timeout = timeout
+        self.health_check_interval = health_check_interval
+        self._connect = connect or self._psycopg2_connect
+
+        self._idle: deque[PooledConnection] = deque()
+        self._size = 0
+        self._cond = threading.Condition()
+        self._closed = False
+
+        # Metrics
+        self._checkouts = 0
+        self._total_wait = 0.0
+        self._max_wait = 0.0
+        self._created = 0
+        self._discarded = 0
+        self._timeouts = 0
+
+    def _psycopg2_connect(self) -> Any:
+        import psycopg2
+
+        return psycopg2.connect(self.connection_string)
+
+    def _open(self) -> PooledConnection:
+        conn = self._connect()
+        conn.autocommit = True
+        with self._cond:
+            self._created += 1
+        return PooledConnection(conn=conn)
+
+    def _is_healthy(self, pooled: PooledConnection) -> bool:
+        """Return False if the connection is closed or fails a ping."""
+        if getattr(pooled.conn, "closed", 0):
+            return False
+        if time.monotonic() - pooled.last_used < self.health_check_interval:
+            return True
+        try:
+            cursor = pooled.conn.cursor()
+            cursor.execute("SELECT 1")
+            cursor.close()
+            return True
+        except Exception as e:
+            logger.debug(f"Pooled connection failed health check: {e}")
+            return False
+
+    def _discard(self, pooled: PooledConnection) -> None:
+        """Close a connection and release its slot."""
+        try:
+            pooled.conn.close()
+        except Exception:
+            pass
+        with self._cond:
+            self._size -= 1
+            self._discarded += 1
+            self._cond.notify()
+
+    def _checkout(self) -> PooledConnection:
+        start = time.monotonic()
+        deadline = start + self.timeout
+
+        while True:
+            with self._cond:
+                if self._closed:
+                    raise RuntimeError("Connection pool is closed")
+                while not self._idle and self._size >= self.max_size:
+                    remaining = deadline - time.monotonic()
+                    if remaining <= 0:
+                        self._timeouts += 1
+                        raise PoolTimeoutError(f"No PostgreSQL connection available after {self.timeout}s")
+                    self._cond.wait(remaining)
+
+                pooled = self._idle.pop() if self._idle else None
+                if pooled is None:
+                    # Reserve a slot; open the connection outside the lock
+                    self._size += 1
+
+            if pooled is None:
+                try:
+                    pooled = self._open()
+                except Exception:
+                    with self._cond:
+                        self._size -= 1
+                        self._cond.notify()
+                    raise
+            elif not self._is_healthy(pooled):
+                self._discard(pooled)
+                continue
+
+            waited = time.monotonic() - start
+            with self._cond:
+                self._checkouts += 1
+                self._total_wait += waited
+                self._max_wait = max(self._max_wait, waited)
+            return pooled
+
+    def _checkin(self, pooled: PooledConnection, broken: bool) -> None:
+        if broken or self._closed or getattr(pooled.conn, "closed", 0):
+            self._discard(pooled)
+            return
+        pooled.last_used = time.monotonic()
+        with self._cond:
+            self._idle.append(pooled)
+            self._cond.notify()
+
+    @contextmanager
+    def connection(self) -> Iterator[PooledConnection]:
+        """Check out a connection for the duration of the block.
+
+        The connection is discarded rather than reused if the block raises,
+        since its session state (aborted transaction, half-read result) is
+        unknown.
+        """
+        pooled = self._checkout()
+        broken = True
+        try:
+            yield pooled
+            broken = False
+        finally:
+            self._checkin(pooled, broken)
+
+    def stats(self) -> PoolStats:
+        """Return current pool metrics."""
+        with self._cond:
+            idle = len(self._idle)
+            return PoolStats(
+                size=self._size,
+                idle=idle,
+                in_use=self._size - idle,
+                max_size=self.max_size,
+                checkouts=self._checkouts,
+                total_wait_seconds=self._total_wait,
+                max_wait_seconds=self._max_wait,
+                created=self._created,
+                discarded=self._discarded,
+                timeouts=self._timeouts,
+            )
+
+    def close(self) -> None:
+        """Close idle connections and refuse further checkouts.
+
+        Connections currently checked out are closed when returned.
+        """
+        with self._cond:
+            self._closed = True
+            idle = list(self._idle)
+            self._idle.clear()
+            self._cond.notify_all()
+        for pooled in idle:
+            self._discard(pooled)
+
+
+_shared_pools: dict[str, PostgresConnectionPool] = {}
+_shared_lock = threading.Lock()
+
+
+def get_shared_pool(connection_string: str, max_size: int = DEFAULT_MAX_SIZE) -> PostgresConnectionPool:
+    """Get the process-wide pool for a DSN, creating it on first use.
+
+    Stores for different tenants on the same database share one pool.
+    """
+    with _shared_lock:
+        pool = _shared_pools.get(connection_string)
+        if pool is None or pool._closed:
+            pool = PostgresConnectionPool(connection_string, max_size=max_size)
+            _shared_pools[connection_string] = pool
+        return pool
+
+
+__all__ = [
+    "PoolStats",
+    "PoolTimeoutError",
+    "PooledConnection",
+    "PostgresConnectionPool",
+    "get_shared_pool",
+]
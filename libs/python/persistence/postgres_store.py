@@ -21,23 +21,105 @@ Schema:
     CREATE INDEX idx_documents_collection ON documents(collection);
     CREATE INDEX idx_documents_tenant ON documents(tenant);
     CREATE INDEX idx_documents_data ON documents USING GIN(data);
+    CREATE INDEX idx_documents_tenant_collection_updated
+        ON documents(tenant, collection, updated_at, id);
+    CREATE INDEX idx_documents_tenant_collection_created
+        ON documents(tenant, collection, created_at, id);
+
+Filters are sent as JSONB containment (``data @> ...``) so the GIN index
+can narrow candidates; the composite indexes serve ordered, keyset-paged
+listings (find()).
+
+Connections come from a shared, bounded pool (see pg_pool.py) and the
+fixed-shape statements are PREPAREd once per pooled connection, so each
+operation costs one round-trip instead of a connect + auth + execute.
 """
 
+import csv
+import io
+import json
 import logging
 import os
+from collections.abc import Mapping, Sequence
 from datetime import datetime
 from typing import Any
 
 try:
-    import psycopg2
-    from psycopg2.extras import Json, RealDictCursor
+    from psycopg2.extras import Json, RealDictCursor, execute_values
 except ImportError as e:
     raise ImportError("psycopg2 is required. Install with: pip install psycopg2-binary") from e
 
-from .document_store import Document, DocumentStore
+from .document_store import (
+    TIMESTAMP_ORDER_KEYS,
+    Document,
+    DocumentPage,
+    DocumentQuery,
+    DocumentStore,
+    VersionConflictError,
+    WriteResult,
+    decode_cursor,
+    encode_cursor,
+    key_to_id,
+)
+from .pg_pool import PooledConnection, PostgresConnectionPool, PoolStats, get_shared_pool
 
 logger = logging.getLogger(__name__)
 
+# Server-side prepared statements: name -> SQL with $n placeholders.
+# Prepared lazily on each pooled connection the first time it is used.
+_PREPARED_STATEMENTS: dict[str, str] = {
+    "doc_insert": (
+        "INSERT INTO documents (id, collection, tenant, data, created_at, updated_at, version) "
+        "VALUES ($1, $2, $3, $4, $5, $6, $7)"
+    ),
+    "doc_read": "SELECT * FROM documents WHERE id = $1 AND collection = $2 AND tenant = $3",
+    # Shallow merge happens server-side (jsonb ||), so update is one statement
+    "doc_update": (
+        "UPDATE documents SET data = data || $1, updated_at = $2, version = version + 1 "
+        "WHERE id = $3 AND collection = $4 AND tenant = $5 RETURNING *"
+    ),
+    # Upsert family. A row that comes back empty means the guard failed:
+    # foreign collection/tenant for doc_upsert, wrong version otherwise.
+    "doc_upsert": (
+        "INSERT INTO documents (id, collection, tenant, data, created_at, updated_at, version) "
+        "VALUES ($1, $2, $3, $4, $5, $5, 1) "
+        "ON CONFLICT (id) DO UPDATE SET data = documents.data || EXCLUDED.data, "
+        "updated_at = EXCLUDED.updated_at, version = documents.version + 1 "
+        "WHERE documents.collection = EXCLUDED.collection AND documents.tenant = EXCLUDED.tenant "
+        "RETURNING *"
+    ),
+    "doc_insert_if_absent": (
+        "INSERT INTO documents (id, collection, tenant, data, created_at, updated_at, version) "
+        "VALUES ($1, $2, $3, $4, $5, $5, 1) ON CONFLICT (id) DO NOTHING RETURNING *"
+    ),
+    "doc_update_if_version": (
+        "UPDATE documents SET data = data || $4, updated_at = $5, version = version + 1 "
+        "WHERE id = $1 AND collection = $2 AND tenant = $3 AND version = $6 RETURNING *"
+    ),
+    "doc_version": "SELECT version FROM documents WHERE id = $1 AND collection = $2 AND tenant = $3",
+    "doc_delete": "DELETE FROM documents WHERE id = $1 AND collection = $2 AND tenant = $3",
+    "doc_list_collections": "SELECT DISTINCT collection FROM documents WHERE tenant = $1 ORDER BY collection",
+    "doc_delete_collection": "DELETE FROM documents WHERE collection = $1 AND tenant = $2",
+}
+
+_COPY_SQL = (
+    "COPY documents (id, collection, tenant, data, created_at, updated_at, version) FROM STDIN WITH (FORMAT csv)"
+)
+
+# Multi-row upsert. The WHERE clause stops an ID that already belongs to
+# another collection/tenant from being overwritten; such rows are simply
+# not RETURNed.
+_UPSERT_MANY_SQL = """
+    INSERT INTO documents (id, collection, tenant, data, created_at, updated_at, version)
+    VALUES %s
+    ON CONFLICT (id) DO UPDATE
+    SET data = documents.data || EXCLUDED.data,
+        updated_at = EXCLUDED.updated_at,
+        version = documents.version + 1
+    WHERE documents.collection = EXCLUDED.collection AND documents.tenant = EXCLUDED.tenant
+    RETURNING *
+"""
+
 
 class PostgresDocumentStore(DocumentStore):
     """
@@ -50,9 +132,19 @@ class PostgresDocumentStore(DocumentStore):
         All documents are scoped to a tenant. Default tenant is 'default'.
         Use tenant='test' for e2e tests - this data is isolated and can be
         bulk-deleted without affecting production data.
+
+    Connection pooling:
+        Stores on the same connection string share one pool by default.
+        Pass ``pool`` to use a dedicated one. ``pool_stats()`` exposes
+        checkouts, wait time and size.
     """
 
-    def __init__(self, connection_string: str | None = None, tenant: str = "default"):
+    def __init__(
+        self,
+        connection_string: str | None = None,
+        tenant: str = "default",
+        pool: PostgresConnectionPool | None = None,
+    ):
         """
         Initialize PostgreSQL document store.
 
@@ -62,78 +154,112 @@ class PostgresDocumentStore(DocumentStore):
                              or default "postgresql://localhost/unhinged"
             tenant: Tenant identifier for multi-tenancy isolation.
                    Default is 'default'. Use 'test' for e2e tests.
+            pool: Connection pool to use. Defaults to the shared pool for
+                  connection_string.
         """
         if connection_string is None:
             connection_string = os.environ.get("POSTGRES_CONNECTION_STRING", "postgresql://localhost/unhinged")
 
         self.connection_string = connection_string
         self.tenant = tenant
+        self._pool = pool or get_shared_pool(connection_string)
         self._init_schema()
 
-    def _get_connection(self):
-        """Get a database connection."""
-        return psycopg2.connect(self.connection_string)
+    def pool_stats(self) -> PoolStats:
+        """Get connection pool metrics (checkouts, wait time, size)."""
+        return self._pool.stats()
+
+    def _execute_prepared(self, pooled: PooledConnection, cursor, name: str, params: tuple[Any, ...]) -> None:
+        """Execute a named prepared statement, preparing it on this connection first if needed."""
+        if name not in pooled.prepared:
+            cursor.execute(f"PREPARE {name} AS {_PREPARED_STATEMENTS[name]}")
+            pooled.prepared.add(name)
+        placeholders = ", ".join(["%s"] * len(params))
+        cursor.execute(f"EXECUTE {name} ({placeholders})", params)
+
+    @staticmethod
+    def _row_to_document(row: dict[str, Any]) -> Document:
+        return Document(
+            id=str(row["id"]),
+            collection=row["collection"],
+            data=row["data"],
+            created_at=row["created_at"],
+            updated_at=row["updated_at"],
+            version=row["version"],
+        )
 
     def _init_schema(self):
         """Initialize database schema if needed, with tenant column migration."""
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
-
-            # Create documents table if it doesn't exist
-            cursor.execute(
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+
+                # Create documents table if it doesn't exist
+                cursor.execute(
+                    """
+                    CREATE TABLE IF NOT EXISTS documents (
+                        id UUID PRIMARY KEY,
+                        collection VARCHAR(255) NOT NULL,
+                        tenant VARCHAR(64) NOT NULL DEFAULT 'default',
+                        data JSONB NOT NULL,
+                        created_at TIMESTAMP NOT NULL,
+                        updated_at TIMESTAMP NOT NULL,
+                        version INT NOT NULL DEFAULT 1
+                    );
                 """
-                CREATE TABLE IF NOT EXISTS documents (
-                    id UUID PRIMARY KEY,
-                    collection VARCHAR(255) NOT NULL,
-                    tenant VARCHAR(64) NOT NULL DEFAULT 'default',
-                    data JSONB NOT NULL,
-                    created_at TIMESTAMP NOT NULL,
-                    updated_at TIMESTAMP NOT NULL,
-                    version INT NOT NULL DEFAULT 1
-                );
-            """
-            )
+                )
 
-            # Migration: add tenant column if table exists without it
-            cursor.execute(
+                # Migration: add tenant column if table exists without it
+                cursor.execute(
+                    """
+                    DO $$
+                    BEGIN
+                        IF NOT EXISTS (
+                            SELECT 1 FROM information_schema.columns
+                            WHERE table_name = 'documents' AND column_name = 'tenant'
+                        ) THEN
+                            ALTER TABLE documents
+                            ADD COLUMN tenant VARCHAR(64) NOT NULL DEFAULT 'default';
+                        END IF;
+                    END $$;
                 """
-                DO $$
-                BEGIN
-                    IF NOT EXISTS (
-                        SELECT 1 FROM information_schema.columns
-                        WHERE table_name = 'documents' AND column_name = 'tenant'
-                    ) THEN
-                        ALTER TABLE documents
-                        ADD COLUMN tenant VARCHAR(64) NOT NULL DEFAULT 'default';
-                    END IF;
-                END $$;
-            """
-            )
+                )
 
-            # Create indexes
-            cursor.execute(
+                # Create indexes
+                cursor.execute(
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_documents_collection
+                    ON documents(collection);
                 """
-                CREATE INDEX IF NOT EXISTS idx_documents_collection
-                ON documents(collection);
-            """
-            )
-            cursor.execute(
+                )
+                cursor.execute(
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_documents_tenant
+                    ON documents(tenant);
                 """
-                CREATE INDEX IF NOT EXISTS idx_documents_tenant
-                ON documents(tenant);
-            """
-            )
-            cursor.execute(
+                )
+                cursor.execute(
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_documents_data
+                    ON documents USING GIN(data);
                 """
-                CREATE INDEX IF NOT EXISTS idx_documents_data
-                ON documents USING GIN(data);
-            """
-            )
+                )
 
-            conn.commit()
-            cursor.close()
-            conn.close()
+                # Migration: composite indexes for ordered listings and keyset pagination
+                cursor.execute(
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_documents_tenant_collection_updated
+                    ON documents(tenant, collection, updated_at, id);
+                """
+                )
+                cursor.execute(
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_documents_tenant_collection_created
+                    ON documents(tenant, collection, created_at, id);
+                """
+                )
+
+                cursor.close()
             logger.info("Database schema initialized (tenant-aware)")
         except Exception as e:
             logger.error(f"Failed to initialize schema: {e}")
@@ -141,137 +267,233 @@ class PostgresDocumentStore(DocumentStore):
 
     def create(self, collection: str, data: dict[str, Any]) -> Document:
         """Create a new document in the current tenant."""
-        doc = Document.create(collection, data)
+        return self._insert(Document.create(collection, data))
 
+    def create_with_id(self, collection: str, doc_id: str, data: dict[str, Any]) -> Document:
+        """Create a document with ``doc_id`` in the current tenant."""
+        return self._insert(Document.create(collection, data, doc_id))
+
+    def _insert(self, doc: Document) -> Document:
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                self._execute_prepared(
+                    pooled,
+                    cursor,
+                    "doc_insert",
+                    (
+                        doc.id,
+                        doc.collection,
+                        self.tenant,
+                        Json(doc.data),
+                        doc.created_at,
+                        doc.updated_at,
+                        doc.version,
+                    ),
+                )
+                cursor.close()
+            logger.info(f"Created document {doc.id} in {doc.collection} (tenant={self.tenant})")
+            return doc
+        except Exception as e:
+            logger.error(f"Failed to create document: {e}")
+            raise
 
-            cursor.execute(
-                """
-                INSERT INTO documents (id, collection, tenant, data, created_at, updated_at, version)
-                VALUES (%s, %s, %s, %s, %s, %s, %s)
-            """,
-                (
+    def create_many(self, collection: str, items: Sequence[dict[str, Any]]) -> list[WriteResult]:
+        """Create many documents with a single COPY.
+
+        Documents that cannot be JSON-encoded fail individually. If the COPY
+        itself fails (nothing is written, it is one statement), falls back to
+        one INSERT per document so each gets its own result.
+        """
+        results: list[WriteResult | None] = [None] * len(items)
+        batch: list[tuple[int, Document]] = []
+        buffer = io.StringIO()
+        writer = csv.writer(buffer, quoting=csv.QUOTE_ALL)
+
+        for index, data in enumerate(items):
+            doc = Document.create(collection, data)
+            try:
+                encoded = json.dumps(doc.data)
+            except (TypeError, ValueError) as e:
+                results[index] = WriteResult(index, None, str(e))
+                continue
+            writer.writerow(
+                [
                     doc.id,
                     doc.collection,
                     self.tenant,
-                    Json(doc.data),
-                    doc.created_at,
-                    doc.updated_at,
+                    encoded,
+                    doc.created_at.isoformat(),
+                    doc.updated_at.isoformat(),
                     doc.version,
-                ),
+                ]
             )
+            batch.append((index, doc))
 
-            conn.commit()
-            cursor.close()
-            conn.close()
-            logger.info(f"Created document {doc.id} in {collection} (tenant={self.tenant})")
-            return doc
-        except Exception as e:
-            logger.error(f"Failed to create document: {e}")
-            raise
+        if not batch:
+            return [r for r in results if r is not None]
 
-    def read(self, collection: str, doc_id: str) -> Document | None:
-        """Read a document by ID (scoped to current tenant)."""
+        buffer.seek(0)
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor(cursor_factory=RealDictCursor)
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                cursor.copy_expert(_COPY_SQL, buffer)
+                cursor.close()
+        except Exception as e:
+            logger.warning(f"Batch COPY into {collection} failed, retrying per document: {e}")
+            for index, doc in batch:
+                try:
+                    results[index] = WriteResult(index, self.create(collection, doc.data))
+                except Exception as row_error:
+                    results[index] = WriteResult(index, None, str(row_error))
+            return [r for r in results if r is not None]
+
+        for index, doc in batch:
+            results[index] = WriteResult(index, doc)
+        logger.info(f"Created {len(batch)} documents in {collection} (tenant={self.tenant})")
+        return [r for r in results if r is not None]
+
+    def upsert_many(self, collection: str, items: Mapping[str, dict[str, Any]]) -> list[WriteResult]:
+        """Insert or JSONB-merge many documents with one multi-row INSERT ... ON CONFLICT.
+
+        If the batch statement fails (e.g. one malformed ID), retries each
+        row on its own so every document gets an individual result.
+        """
+        if not items:
+            return []
 
-            cursor.execute(
-                """
-                SELECT * FROM documents WHERE id = %s AND collection = %s AND tenant = %s
-            """,
-                (doc_id, collection, self.tenant),
-            )
+        now = datetime.utcnow()
+        keys = list(items.keys())
+        rows = [(doc_id, collection, self.tenant, Json(items[doc_id]), now, now, 1) for doc_id in keys]
 
-            row = cursor.fetchone()
+        try:
+            written = {str(row["id"]): row for row in self._execute_upsert(rows)}
+            row_errors: dict[str, str] = {}
+        except Exception as e:
+            logger.warning(f"Batch upsert into {collection} failed, retrying per document: {e}")
+            written = {}
+            row_errors = {}
+            for row in rows:
+                try:
+                    written.update({str(r["id"]): r for r in self._execute_upsert([row])})
+                except Exception as row_error:
+                    row_errors[row[0]] = str(row_error)
+
+        results: list[WriteResult] = []
+        for index, doc_id in enumerate(keys):
+            if doc_id in written:
+                results.append(WriteResult(index, self._row_to_document(written[doc_id])))
+            else:
+                error = row_errors.get(doc_id, f"Document {doc_id} belongs to another collection or tenant")
+                results.append(WriteResult(index, None, error))
+        return results
+
+    def _execute_upsert(self, rows: list[tuple[Any, ...]]) -> list[dict[str, Any]]:
+        """Run the multi-row upsert for ``rows`` in one statement and return the written rows."""
+        with self._pool.connection() as pooled:
+            cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+            returned = execute_values(cursor, _UPSERT_MANY_SQL, rows, page_size=len(rows), fetch=True)
             cursor.close()
-            conn.close()
+        return returned  # type: ignore[no-any-return]
+
+    def read(self, collection: str, doc_id: str) -> Document | None:
+        """Read a document by ID (scoped to current tenant)."""
+        try:
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+                self._execute_prepared(pooled, cursor, "doc_read", (doc_id, collection, self.tenant))
+                row = cursor.fetchone()
+                cursor.close()
 
             if row:
-                return Document(
-                    id=str(row["id"]),
-                    collection=row["collection"],
-                    data=row["data"],
-                    created_at=row["created_at"],
-                    updated_at=row["updated_at"],
-                    version=row["version"],
-                )
+                return self._row_to_document(row)
             return None
         except Exception as e:
             logger.error(f"Failed to read document: {e}")
             raise
 
     def update(self, collection: str, doc_id: str, data: dict[str, Any]) -> Document | None:
-        """Update a document (merge with existing, scoped to current tenant)."""
-        try:
-            conn = self._get_connection()
-            cursor = conn.cursor(cursor_factory=RealDictCursor)
-
-            # Get existing document
-            cursor.execute(
-                """
-                SELECT data FROM documents WHERE id = %s AND collection = %s AND tenant = %s
-            """,
-                (doc_id, collection, self.tenant),
-            )
+        """Update a document (merge with existing, scoped to current tenant).
 
-            row = cursor.fetchone()
-            if not row:
+        The merge is a server-side ``data || $1``, so concurrent updates to
+        different keys of the same document do not overwrite each other.
+        """
+        try:
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+                self._execute_prepared(
+                    pooled,
+                    cursor,
+                    "doc_update",
+                    (Json(data), datetime.utcnow(), doc_id, collection, self.tenant),
+                )
+                row = cursor.fetchone()
                 cursor.close()
-                conn.close()
-                return None
 
-            # Merge data
-            merged_data = {**row["data"], **data}
-            now = datetime.utcnow()
+            return self._row_to_document(row) if row else None
+        except Exception as e:
+            logger.error(f"Failed to update document: {e}")
+            raise
 
-            # Update document
-            cursor.execute(
-                """
-                UPDATE documents
-                SET data = %s, updated_at = %s, version = version + 1
-                WHERE id = %s AND collection = %s AND tenant = %s
-                RETURNING *
-            """,
-                (Json(merged_data), now, doc_id, collection, self.tenant),
+    def key_id(self, collection: str, key: str) -> str:
+        """Document ID for ``key``, scoped to this tenant so tenants never share a row."""
+        return key_to_id(collection, key, scope=self.tenant)
+
+    def upsert(
+        self,
+        collection: str,
+        key: str,
+        data: dict[str, Any],
+        expected_version: int | None = None,
+    ) -> Document:
+        """Create or JSONB-merge the document for ``key`` in one round-trip.
+
+        ``expected_version=None`` runs INSERT ... ON CONFLICT DO UPDATE.
+        ``expected_version=0`` inserts only if absent; ``N > 0`` updates only
+        if the stored version is N. A failed guard costs one extra SELECT to
+        report the actual version in VersionConflictError.
+        """
+        doc_id = self.key_id(collection, key)
+        now = datetime.utcnow()
+
+        if expected_version is None:
+            name, params = "doc_upsert", (doc_id, collection, self.tenant, Json(data), now)
+        elif expected_version == 0:
+            name, params = "doc_insert_if_absent", (doc_id, collection, self.tenant, Json(data), now)
+        else:
+            name, params = (
+                "doc_update_if_version",
+                (doc_id, collection, self.tenant, Json(data), now, expected_version),
             )
 
-            updated_row = cursor.fetchone()
-            conn.commit()
-            cursor.close()
-            conn.close()
-
-            return Document(
-                id=str(updated_row["id"]),
-                collection=updated_row["collection"],
-                data=updated_row["data"],
-                created_at=updated_row["created_at"],
-                updated_at=updated_row["updated_at"],
-                version=updated_row["version"],
-            )
+        current = None
+        try:
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+                self._execute_prepared(pooled, cursor, name, params)
+                row = cursor.fetchone()
+                if row is None:
+                    self._execute_prepared(pooled, cursor, "doc_version", (doc_id, collection, self.tenant))
+                    current = cursor.fetchone()
+                cursor.close()
         except Exception as e:
-            logger.error(f"Failed to update document: {e}")
+            logger.error(f"Failed to upsert document {collection}/{key}: {e}")
             raise
 
+        if row is not None:
+            return self._row_to_document(row)
+        if expected_version is None:
+            raise ValueError(f"Document {doc_id} belongs to another collection or tenant")
+        raise VersionConflictError(collection, key, expected_version, current["version"] if current else None)
+
     def delete(self, collection: str, doc_id: str) -> bool:
         """Delete a document (scoped to current tenant)."""
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
-
-            cursor.execute(
-                """
-                DELETE FROM documents WHERE id = %s AND collection = %s AND tenant = %s
-            """,
-                (doc_id, collection, self.tenant),
-            )
-
-            deleted = cursor.rowcount > 0
-            conn.commit()
-            cursor.close()
-            conn.close()
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                self._execute_prepared(pooled, cursor, "doc_delete", (doc_id, collection, self.tenant))
+                deleted = cursor.rowcount > 0
+                cursor.close()
 
             if deleted:
                 logger.info(f"Deleted document {doc_id} from {collection}")
@@ -280,58 +502,121 @@ class PostgresDocumentStore(DocumentStore):
             logger.error(f"Failed to delete document: {e}")
             raise
 
+    @staticmethod
+    def _filter_clauses(filters: dict[str, Any] | None) -> tuple[list[str], list[Any]]:
+        """Build WHERE clauses for exact-match filters.
+
+        One containment predicate lets the GIN index narrow candidates;
+        per-key equality keeps exact semantics for array/object values.
+        """
+        if not filters:
+            return [], []
+        clauses = ["data @> %s"]
+        params: list[Any] = [Json(filters)]
+        for key, value in filters.items():
+            if isinstance(value, dict | list):
+                clauses.append("data -> %s = %s")
+                params.extend([key, Json(value)])
+        return clauses, params
+
     def query(self, collection: str, filters: dict[str, Any] | None = None, limit: int = 100) -> list[Document]:
         """Query documents in a collection (scoped to current tenant)."""
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor(cursor_factory=RealDictCursor)
-
             # Build WHERE clause with tenant scoping
             where_parts = ["collection = %s", "tenant = %s"]
             params: list[Any] = [collection, self.tenant]
 
-            if filters:
-                for key, value in filters.items():
-                    where_parts.append(f"data->'{key}' = %s")
-                    params.append(Json(value))
+            filter_parts, filter_params = self._filter_clauses(filters)
+            where_parts.extend(filter_parts)
+            params.extend(filter_params)
 
             where_clause = " AND ".join(where_parts)
             query = f"SELECT * FROM documents WHERE {where_clause} LIMIT %s"
             params.append(limit)
 
-            cursor.execute(query, params)
-            rows = cursor.fetchall()
-            cursor.close()
-            conn.close()
-
-            return [
-                Document(
-                    id=str(row["id"]),
-                    collection=row["collection"],
-                    data=row["data"],
-                    created_at=row["created_at"],
-                    updated_at=row["updated_at"],
-                    version=row["version"],
-                )
-                for row in rows
-            ]
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+                cursor.execute(query, params)
+                rows = cursor.fetchall()
+                cursor.close()
+
+            return [self._row_to_document(row) for row in rows]
         except Exception as e:
             logger.error(f"Failed to query documents: {e}")
             raise
 
-    def list_collections(self) -> list[str]:
-        """List all collections (scoped to current tenant)."""
+    def find(self, collection: str, spec: DocumentQuery) -> DocumentPage:
+        """Query with containment, projection, server-side ORDER BY and keyset pagination."""
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
+            by_timestamp = spec.order_by in TIMESTAMP_ORDER_KEYS
+            order_params: list[Any] = []
+            if by_timestamp:
+                order_expr, cast = spec.order_by, "timestamp"
+            else:
+                order_expr, cast = "COALESCE(data #> %s, 'null'::jsonb)", "jsonb"
+                order_params.append(spec.order_by.split("."))
+
+            select_params: list[Any] = []
+            if spec.fields is not None:
+                data_expr = (
+                    "COALESCE((SELECT jsonb_object_agg(key, value) FROM jsonb_each(data) "
+                    "WHERE key = ANY(%s)), '{}'::jsonb)"
+                )
+                select_params.append(list(spec.fields))
+            else:
+                data_expr = "data"
+            sort_column = "" if by_timestamp else f", {order_expr} AS sort_value"
+            select_params.extend(order_params)
 
-            cursor.execute(
-                "SELECT DISTINCT collection FROM documents WHERE tenant = %s ORDER BY collection",
-                (self.tenant,),
+            where_parts = ["collection = %s", "tenant = %s"]
+            where_params: list[Any] = [collection, self.tenant]
+            filter_parts, filter_params = self._filter_clauses(spec.filters)
+            where_parts.extend(filter_parts)
+            where_params.extend(filter_params)
+            if spec.contains:
+                where_parts.append("data @> %s")
+                where_params.append(Json(spec.contains))
+            if spec.cursor:
+                value, doc_id = decode_cursor(spec.cursor)
+                op = "<" if spec.descending else ">"
+                where_parts.append(f"({order_expr}, id) {op} (%s::{cast}, %s::uuid)")
+                where_params.extend([*order_params, value if by_timestamp else Json(value), doc_id])
+
+            direction = "DESC" if spec.descending else "ASC"
+            query = (
+                f"SELECT id, collection, {data_expr} AS data, created_at, updated_at, version{sort_column} "
+                f"FROM documents WHERE {' AND '.join(where_parts)} "
+                f"ORDER BY {order_expr} {direction}, id {direction} LIMIT %s"
             )
-            collections = [row[0] for row in cursor.fetchall()]
-            cursor.close()
-            conn.close()
+            # Fetch one extra row to learn whether another page exists
+            params = [*select_params, *where_params, *order_params, spec.limit + 1]
+
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor(cursor_factory=RealDictCursor)
+                cursor.execute(query, params)
+                rows = cursor.fetchall()
+                cursor.close()
+
+            page_rows = rows[: spec.limit]
+            next_cursor = None
+            if len(rows) > spec.limit and page_rows:
+                last = page_rows[-1]
+                sort_value = last[spec.order_by].isoformat() if by_timestamp else last["sort_value"]
+                next_cursor = encode_cursor(sort_value, str(last["id"]))
+
+            return DocumentPage(documents=[self._row_to_document(row) for row in page_rows], next_cursor=next_cursor)
+        except Exception as e:
+            logger.error(f"Failed to find documents: {e}")
+            raise
+
+    def list_collections(self) -> list[str]:
+        """List all collections (scoped to current tenant)."""
+        try:
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                self._execute_prepared(pooled, cursor, "doc_list_collections", (self.tenant,))
+                collections = [row[0] for row in cursor.fetchall()]
+                cursor.close()
 
             return collections
         except Exception as e:
@@ -341,17 +626,11 @@ class PostgresDocumentStore(DocumentStore):
     def delete_collection(self, collection: str) -> bool:
         """Delete an entire collection (scoped to current tenant)."""
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
-
-            cursor.execute(
-                "DELETE FROM documents WHERE collection = %s AND tenant = %s",
-                (collection, self.tenant),
-            )
-            deleted = cursor.rowcount > 0
-            conn.commit()
-            cursor.close()
-            conn.close()
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                self._execute_prepared(pooled, cursor, "doc_delete_collection", (collection, self.tenant))
+                deleted = cursor.rowcount > 0
+                cursor.close()
 
             if deleted:
                 logger.info(f"Deleted collection {collection} (tenant={self.tenant})")
@@ -367,14 +646,11 @@ class PostgresDocumentStore(DocumentStore):
             Number of documents deleted.
         """
         try:
-            conn = self._get_connection()
-            cursor = conn.cursor()
-
-            cursor.execute("DELETE FROM documents WHERE tenant = %s", (self.tenant,))
-            deleted_count = cursor.rowcount
-            conn.commit()
-            cursor.close()
-            conn.close()
+            with self._pool.connection() as pooled:
+                cursor = pooled.conn.cursor()
+                cursor.execute("DELETE FROM documents WHERE tenant = %s", (self.tenant,))
+                deleted_count = cursor.rowcount
+                cursor.close()
 
             logger.info(f"Deleted {deleted_count} documents for tenant={self.tenant}")
             return deleted_count  # type: ignore[no-any-return]
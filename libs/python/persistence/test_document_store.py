@@ -16,7 +16,7 @@ from pathlib import Path
 # Add parent directory to path for imports
 sys.path.insert(0, str(Path(__file__).parent))
 
-from document_store import Document, DocumentStore
+from document_store import Document, DocumentQuery, DocumentStore, VersionConflictError, key_to_id
 
 
 class TestDocument(unittest.TestCase):
@@ -50,7 +50,10 @@ class MockDocumentStore(DocumentStore):
         self.documents = {}
 
     def create(self, collection, data):
-        doc = Document.create(collection, data)
+        return self.create_with_id(collection, None, data)
+
+    def create_with_id(self, collection, doc_id, data):
+        doc = Document.create(collection, data, doc_id)
         key = (collection, doc.id)
         self.documents[key] = doc
         return doc
@@ -163,6 +166,99 @@ class TestDocumentStore(unittest.TestCase):
         self.assertEqual(len(users), 0)
         self.assertEqual(len(posts), 1)
 
+    def test_create_many_default_reports_per_document(self):
+        """Test default create_many falls back to create() per document."""
+        results = self.store.create_many("users", [{"name": "Liam"}, {"name": "Mia"}])
+
+        self.assertEqual([r.index for r in results], [0, 1])
+        self.assertTrue(all(r.ok for r in results))
+        self.assertEqual(len(self.store.query("users")), 2)
+
+    def test_upsert_many_default_merges_and_creates(self):
+        """Test default upsert_many updates existing documents and creates missing ones."""
+        doc = self.store.create("users", {"name": "Noah", "status": "active"})
+
+        results = self.store.upsert_many("users", {doc.id: {"status": "away"}, "missing": {"name": "Olivia"}})
+
+        self.assertTrue(all(r.ok for r in results))
+        self.assertEqual(results[0].document.data, {"name": "Noah", "status": "away"})
+        self.assertEqual(results[1].document.data, {"name": "Olivia"})
+        self.assertEqual(results[1].document.id, "missing")
+        self.assertEqual(len(self.store.query("users")), 2)
+
+    def test_upsert_default_merges_and_checks_version(self):
+        """Test default upsert merges into the keyed document and enforces expected_version."""
+        doc = self.store.create("users", {"name": "Paul", "status": "active"})
+
+        merged = self.store.upsert("users", doc.id, {"status": "away"}, expected_version=1)
+        self.assertEqual(merged.data, {"name": "Paul", "status": "away"})
+        self.assertEqual(merged.version, 2)
+
+        with self.assertRaises(VersionConflictError) as ctx:
+            self.store.upsert("users", doc.id, {"status": "gone"}, expected_version=1)
+        self.assertEqual(ctx.exception.actual, 2)
+        self.assertEqual(self.store.read("users", doc.id).data["status"], "away")
+
+        with self.assertRaises(VersionConflictError):
+            self.store.upsert("users", "session:new", {"name": "Quinn"}, expected_version=3)
+        created = self.store.upsert("users", "session:new", {"name": "Quinn"}, expected_version=0)
+        self.assertEqual(created.data, {"name": "Quinn"})
+        self.assertEqual(created.id, self.store.key_id("users", "session:new"))
+
+        # The created document is found again by its key
+        again = self.store.upsert("users", "session:new", {"status": "active"}, expected_version=1)
+        self.assertEqual(again.id, created.id)
+        self.assertEqual(again.data, {"name": "Quinn", "status": "active"})
+        self.assertEqual(len(self.store.query("users")), 2)
+
+    def test_key_to_id_is_stable_and_scoped(self):
+        """Test natural keys map to stable UUIDs per scope/collection; UUID keys pass through."""
+        doc_id = key_to_id("sessions", "session:abc")
+
+        self.assertEqual(doc_id, key_to_id("sessions", "session:abc"))
+        self.assertNotEqual(doc_id, key_to_id("other", "session:abc"))
+        self.assertNotEqual(doc_id, key_to_id("sessions", "session:abc", scope="test"))
+        self.assertEqual(key_to_id("sessions", doc_id), doc_id)
+
+    def test_find_contains_and_projection(self):
+        """Test default find() applies containment filters and field projection."""
+        self.store.create("graphs", {"name": "a", "tags": ["etl", "daily"], "nodes": [1, 2, 3]})
+        self.store.create("graphs", {"name": "b", "tags": ["adhoc"], "nodes": [4]})
+
+        page = self.store.find("graphs", DocumentQuery(contains={"tags": ["etl"]}, fields=["name"]))
+
+        self.assertEqual([doc.data for doc in page.documents], [{"name": "a"}])
+        self.assertIsNone(page.next_cursor)
+
+    def test_find_orders_by_data_field(self):
+        """Test default find() orders by a data field in either direction."""
+        for name, rank in [("x", 2), ("y", 1), ("z", 3)]:
+            self.store.create("items", {"name": name, "rank": rank})
+
+        asc = self.store.find("items", DocumentQuery(order_by="rank", descending=False))
+        desc = self.store.find("items", DocumentQuery(order_by="rank"))
+
+        self.assertEqual([d.data["name"] for d in asc.documents], ["y", "x", "z"])
+        self.assertEqual([d.data["name"] for d in desc.documents], ["z", "x", "y"])
+
+    def test_find_keyset_pagination(self):
+        """Test following next_cursor visits every document exactly once."""
+        for i in range(7):
+            self.store.create("items", {"n": i % 3})
+
+        seen = []
+        cursor = None
+        while True:
+            page = self.store.find("items", DocumentQuery(order_by="n", limit=3, cursor=cursor))
+            seen.extend(page.documents)
+            cursor = page.next_cursor
+            if cursor is None:
+                break
+
+        self.assertEqual(len(seen), 7)
+        self.assertEqual(len({d.id for d in seen}), 7)
+        self.assertEqual([d.data["n"] for d in seen], sorted((d.data["n"] for d in seen), reverse=True))
+
 
 if __name__ == "__main__":
     unittest.main()
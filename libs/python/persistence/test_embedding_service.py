@@ -0,0 +1,79 @@
+"""
+@llm-type test.persistence.embedding_service
+@llm-does unit tests for the shared embedding service and its content-hash cache
+
+Uses a fake model loader, so no sentence-transformers download is needed.
+"""
+
+from __future__ import annotations
+
+from libs.python.persistence import embedding_service
+from libs.python.persistence.embedding_service import EmbeddingService, get_embedding_service
+
+
+class _FakeModel:
+    def __init__(self) -> None:
+        self.calls: list[list[str]] = []
+
+    def encode(self, texts, batch_size=64):
+        self.calls.append(list(texts))
+        return [[float(len(text)), float(sum(map(ord, text)) % 97), 1.0] for text in texts]
+
+
+def _service(**kwargs) -> tuple[EmbeddingService, list[_FakeModel]]:
+    loaded: list[_FakeModel] = []
+
+    def loader(name):
+        loaded.append(_FakeModel())
+        return loaded[-1]
+
+    return EmbeddingService("fake", loader=loader, **kwargs), loaded
+
+
+def test_encode_dedupes_and_caches():
+    service, loaded = _service()
+
+    first = service.encode(["a", "bb", "a"])
+    second = service.encode("bb")
+
+    assert loaded[0].calls == [["a", "bb"]]
+    assert first[0].tolist() == first[2].tolist()
+    assert second.tolist() == first[1].tolist()
+    stats = service.stats()
+    assert (stats.misses, stats.hits, stats.encode_calls) == (2, 1, 1)
+
+
+def test_lru_evicts_oldest():
+    service, loaded = _service(max_entries=2)
+
+    service.encode(["a", "b"])
+    service.encode("a")  # refresh "a"
+    service.encode("c")  # evicts "b"
+    service.encode(["a", "b"])
+
+    assert loaded[0].calls == [["a", "b"], ["c"], ["b"]]
+    assert service.stats().evictions == 2
+
+
+def test_spill_serves_later_instances_without_loading_model(tmp_path):
+    warm, _ = _service(spill_dir=tmp_path)
+    expected = [v.tolist() for v in warm.encode(["hello", "world"])]
+
+    cold, loaded = _service(spill_dir=tmp_path)
+    assert [v.tolist() for v in cold.encode(["hello", "world"])] == expected
+    assert loaded == []
+    assert cold.stats().disk_hits == 2
+
+    cold.encode("new")
+    assert loaded[0].calls == [["new"]]
+    assert cold.stats().spilled == 3
+
+
+def test_registry_shares_service_per_model(monkeypatch):
+    monkeypatch.setattr(embedding_service, "_services", {})
+    monkeypatch.delenv(embedding_service.CACHE_DIR_ENV, raising=False)
+
+    service = get_embedding_service("all-MiniLM-L6-v2")
+
+    assert get_embedding_service() is service
+    assert get_embedding_service("other/model") is not service
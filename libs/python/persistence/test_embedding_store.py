@@ -0,0 +1,152 @@
+"""
+@llm-type test.persistence.embedding_store
+@llm-does unit tests for the background embedding pipeline
+
+Uses a fake VectorBridge so no model or Weaviate instance is needed.
+"""
+
+from __future__ import annotations
+
+import threading
+import time
+from typing import Any
+
+from libs.python.persistence.document_store import Document
+from libs.python.persistence.embedding_store import (
+    EmbeddingDocumentStore,
+    EmbeddingPipeline,
+    EmbedEvent,
+    EmbedEventType,
+)
+from libs.python.persistence.test_event_store import _FakeStore
+
+
+class _RecordingStore(_FakeStore):
+    def create(self, collection: str, data: dict[str, Any]) -> Document:  # type: ignore[override]
+        super().create(collection, data)
+        return Document.create(collection, data)
+
+
+class _FakeBridge:
+    def __init__(self) -> None:
+        self.batches: list[list[tuple[str, str, dict[str, Any]]]] = []
+        self.fail_ids: dict[str, int] = {}  # document_id -> failures left
+        self.gate: threading.Event | None = None
+        self.deleted: list[tuple[str, str]] = []
+
+    def embed_documents(self, items, batch_size: int = 64) -> list[str | None]:
+        if self.gate is not None:
+            self.gate.wait()
+        self.batches.append(list(items))
+        errors: list[str | None] = []
+        for _, doc_id, _ in items:
+            if self.fail_ids.get(doc_id, 0) > 0:
+                self.fail_ids[doc_id] -= 1
+                errors.append("weaviate unavailable")
+            else:
+                errors.append(None)
+        return errors
+
+    def delete_documents(self, collection: str, document_ids) -> int:
+        self.deleted.extend((collection, doc_id) for doc_id in document_ids)
+        return len(document_ids)
+
+
+def _wait_until(predicate, timeout: float = 2.0) -> None:
+    deadline = time.monotonic() + timeout
+    while not predicate():
+        assert time.monotonic() < deadline, "condition not reached"
+        time.sleep(0.001)
+
+
+def _make_pipeline(bridge: _FakeBridge, **kwargs: Any) -> tuple[EmbeddingPipeline, list[EmbedEvent]]:
+    events: list[EmbedEvent] = []
+    return EmbeddingPipeline(lambda: bridge, emit=events.append, **kwargs), events
+
+
+def test_documents_are_embedded_in_batches() -> None:
+    bridge = _FakeBridge()
+    pipeline, events = _make_pipeline(bridge, batch_size=4, max_wait=1.0)
+
+    for i in range(10):
+        assert pipeline.submit("graphs", f"doc{i}", {"text": f"t{i}"})
+    assert pipeline.flush(timeout=2.0)
+
+    assert sum(len(b) for b in bridge.batches) == 10
+    assert max(len(b) for b in bridge.batches) == 4
+    stats = pipeline.stats()
+    assert stats.embedded == 10
+    assert stats.max_batch_size == 4
+    batch_events = [e for e in events if e.event_type is EmbedEventType.EMBED_BATCH]
+    assert [e.batch_size for e in batch_events] == [len(b) for b in bridge.batches]
+    assert any(e.queue_depth > 0 for e in events if e.event_type is EmbedEventType.EMBED_QUEUED)
+    pipeline.close()
+
+
+def test_resubmit_before_batch_coalesces() -> None:
+    bridge = _FakeBridge()
+    bridge.gate = threading.Event()
+    pipeline, _ = _make_pipeline(bridge, batch_size=1, max_wait=0.0)
+
+    pipeline.submit("graphs", "blocker", {"text": "x"})  # occupies the worker
+    _wait_until(lambda: pipeline.stats().in_flight == 1)
+    pipeline.submit("graphs", "a", {"text": "v1"})
+    pipeline.submit("graphs", "a", {"text": "v2"})
+    bridge.gate.set()
+    assert pipeline.flush(timeout=2.0)
+
+    embedded_a = [data for batch in bridge.batches for _, doc_id, data in batch if doc_id == "a"]
+    assert embedded_a == [{"text": "v2"}]
+    assert pipeline.stats().coalesced == 1
+    pipeline.close()
+
+
+def test_failed_documents_are_retried_then_reported() -> None:
+    bridge = _FakeBridge()
+    bridge.fail_ids = {"flaky": 1, "broken": 99}
+    pipeline, events = _make_pipeline(bridge, max_wait=0.0, max_retries=2, retry_backoff=0.01)
+
+    pipeline.submit("graphs", "flaky", {"text": "a"})
+    pipeline.submit("graphs", "broken", {"text": "b"})
+    assert pipeline.flush(timeout=2.0)
+
+    stats = pipeline.stats()
+    assert stats.embedded == 1
+    assert stats.failed == 1
+    retries = [e.document_id for e in events if e.event_type is EmbedEventType.EMBED_RETRY]
+    assert retries.count("flaky") == 1
+    assert retries.count("broken") == 2
+    failed = [e for e in events if e.event_type is EmbedEventType.EMBED_FAILED]
+    assert [(e.document_id, e.attempt) for e in failed] == [("broken", 3)]
+    pipeline.close()
+
+
+def test_full_queue_drops_after_submit_timeout() -> None:
+    bridge = _FakeBridge()
+    bridge.gate = threading.Event()
+    pipeline, events = _make_pipeline(bridge, batch_size=1, max_wait=0.0, max_queue=1, submit_timeout=0.01)
+
+    pipeline.submit("graphs", "a", {"text": "a"})
+    _wait_until(lambda: pipeline.stats().in_flight == 1)
+    pipeline.submit("graphs", "b", {"text": "b"})
+    assert pipeline.submit("graphs", "c", {"text": "c"}) is False
+
+    assert pipeline.stats().dropped == 1
+    assert events[-1].event_type is EmbedEventType.EMBED_DROPPED
+    bridge.gate.set()
+    pipeline.close()
+
+
+def test_store_writes_do_not_wait_for_embedding() -> None:
+    bridge = _FakeBridge()
+    bridge.gate = threading.Event()
+    pipeline = EmbeddingPipeline(lambda: bridge, max_wait=0.0)
+    store = EmbeddingDocumentStore(_RecordingStore(), pipeline=pipeline)
+
+    store.create("graphs", {"text": "hello"})  # returns although the bridge is blocked
+    assert store.flush_embeddings(timeout=0.05) is False
+
+    bridge.gate.set()
+    assert store.flush_embeddings(timeout=2.0)
+    assert store.embedding_stats().embedded == 1
+    store.close()
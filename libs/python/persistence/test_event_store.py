@@ -30,6 +30,9 @@ class _FakeStore(document_store.DocumentStore):
         self.created.append({"collection": collection, "data": data})
         return _FakeDocument(data=data)
 
+    def create_with_id(self, collection: str, doc_id: str, data: dict[str, Any]):  # type: ignore[override]
+        return self.create(collection, data)
+
     def read(self, collection: str, doc_id: str):  # type: ignore[override]
         return None
 
@@ -68,6 +71,31 @@ def test_persist_event_uses_events_collection(monkeypatch):
     assert "timestamp" in data
 
 
+def test_persist_events_writes_one_batch(monkeypatch):
+    store = _FakeStore()
+    batches: list[int] = []
+    original_create_many = store.create_many
+
+    def create_many(collection, items):
+        batches.append(len(items))
+        return original_create_many(collection, items)
+
+    store.create_many = create_many  # type: ignore[method-assign]
+    monkeypatch.setattr(event_store, "_get_store", lambda: store)
+
+    results = event_store.persist_events(
+        [
+            {"service_id": "svc", "event_type": "a"},
+            {"service_id": "svc", "event_type": "b", "payload": {"n": 1}, "level": "WARN"},
+        ]
+    )
+
+    assert batches == [2]
+    assert [r.ok for r in results] == [True, True]
+    assert [c["data"]["event_type"] for c in store.created] == ["a", "b"]
+    assert store.created[1]["data"]["level"] == "WARN"
+
+
 def test_dump_all_events_returns_document_data(monkeypatch):
     store = _FakeStore()
     store._query_results = [
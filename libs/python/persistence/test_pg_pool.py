@@ -0,0 +1,125 @@
+"""
+@llm-type test.persistence.pool
+@llm-does unit tests for the PostgreSQL connection pool
+
+Uses fake DB-API connections so no PostgreSQL instance is needed.
+"""
+
+from __future__ import annotations
+
+import threading
+import time
+from typing import Any
+
+import pytest
+
+from libs.python.persistence.pg_pool import PoolTimeoutError, PostgresConnectionPool
+
+
+class _FakeCursor:
+    def __init__(self, conn: _FakeConnection) -> None:
+        self._conn = conn
+
+    def execute(self, sql: str, params: Any = None) -> None:
+        if self._conn.fail_ping and sql == "SELECT 1":
+            raise RuntimeError("server closed the connection")
+        self._conn.executed.append(sql)
+
+    def close(self) -> None:
+        pass
+
+
+class _FakeConnection:
+    def __init__(self) -> None:
+        self.closed = 0
+        self.autocommit = False
+        self.fail_ping = False
+        self.executed: list[str] = []
+
+    def cursor(self) -> _FakeCursor:
+        return _FakeCursor(self)
+
+    def close(self) -> None:
+        self.closed = 1
+
+
+def _make_pool(**kwargs: Any) -> tuple[PostgresConnectionPool, list[_FakeConnection]]:
+    opened: list[_FakeConnection] = []
+
+    def connect() -> _FakeConnection:
+        conn = _FakeConnection()
+        opened.append(conn)
+        return conn
+
+    return PostgresConnectionPool("postgresql://fake", connect=connect, **kwargs), opened
+
+
+def test_connections_are_reused_and_autocommit() -> None:
+    pool, opened = _make_pool(max_size=2)
+
+    for _ in range(5):
+        with pool.connection() as pooled:
+            assert pooled.conn.autocommit is True
+
+    stats = pool.stats()
+    assert len(opened) == 1
+    assert stats.checkouts == 5
+    assert stats.size == 1
+    assert stats.idle == 1
+
+
+def test_checkout_blocks_until_timeout_when_exhausted() -> None:
+    pool, _ = _make_pool(max_size=1, timeout=0.05)
+
+    with pool.connection(), pytest.raises(PoolTimeoutError):
+        with pool.connection():
+            pass
+
+    assert pool.stats().timeouts == 1
+
+
+def test_waiter_gets_connection_when_released() -> None:
+    pool, opened = _make_pool(max_size=1, timeout=2.0)
+    got: list[bool] = []
+
+    def worker() -> None:
+        with pool.connection():
+            got.append(True)
+
+    with pool.connection():
+        thread = threading.Thread(target=worker)
+        thread.start()
+        time.sleep(0.05)
+        assert got == []
+    thread.join(timeout=2.0)
+
+    assert got == [True]
+    assert len(opened) == 1
+    assert pool.stats().max_wait_seconds > 0
+
+
+def test_connection_discarded_after_error() -> None:
+    pool, opened = _make_pool(max_size=1)
+
+    with pytest.raises(ValueError), pool.connection():
+        raise ValueError("boom")
+
+    with pool.connection():
+        pass
+
+    assert len(opened) == 2
+    assert opened[0].closed == 1
+    assert pool.stats().discarded == 1
+
+
+def test_stale_connection_replaced_on_failed_health_check() -> None:
+    pool, opened = _make_pool(max_size=1, health_check_interval=0.0)
+
+    with pool.connection():
+        pass
+    opened[0].fail_ping = True
+
+    with pool.connection() as pooled:
+        assert pooled.conn is opened[1]
+
+    assert pool.stats().discarded == 1
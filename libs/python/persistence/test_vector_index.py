@@ -0,0 +1,127 @@
+"""
+@llm-type test.persistence.vector_index
+@llm-does unit tests for the local on-disk vector index and VectorBridge recall
+
+Runs entirely in-process against a temporary index directory.
+"""
+
+from __future__ import annotations
+
+from libs.python.persistence import vector_bridge, vector_index
+from libs.python.persistence.vector_bridge import VectorBridge
+from libs.python.persistence.vector_index import LocalVectorIndex
+
+
+def test_search_ranks_by_cosine_across_collections(tmp_path) -> None:
+    index = LocalVectorIndex(tmp_path)
+    index.upsert("notes", [("a", [1.0, 0.0, 0.0], {"text": "x axis"}), ("b", [0.0, 1.0, 0.0], {"text": "y axis"})])
+    index.upsert("graphs", [("c", [2.0, 2.0, 0.0], {"text": "diagonal"})])
+
+    hits = index.search([1.0, 0.1, 0.0], limit=2)
+
+    assert [(h.collection, h.document_id) for h in hits] == [("notes", "a"), ("graphs", "c")]
+    assert abs(hits[0].score - 0.995) < 1e-3
+    assert hits[0].payload == {"text": "x axis"}
+    assert [h.document_id for h in index.search([1.0, 0.1, 0.0], collections=["graphs"])] == ["c"]
+    assert index.search([1.0, 0.0, 0.0], collections=["missing"]) == []
+
+
+def test_upsert_replaces_and_delete_removes(tmp_path) -> None:
+    index = LocalVectorIndex(tmp_path)
+    index.upsert("notes", [("a", [1.0, 0.0], {"text": "old"})])
+    index.upsert("notes", [("a", [0.0, 1.0], {"text": "new"})])
+
+    hit = index.search([0.0, 1.0], limit=1)[0]
+    assert (hit.document_id, hit.payload["text"]) == ("a", "new")
+    assert len(index) == 1
+
+    assert index.delete("notes", ["a", "missing"]) == 1
+    assert index.search([0.0, 1.0]) == []
+
+
+def test_index_survives_reload_and_compaction(tmp_path) -> None:
+    index = LocalVectorIndex(tmp_path)
+    index.upsert("notes", [(f"d{i}", [float(i), 1.0], {"i": i}) for i in range(6)])
+    index.delete("notes", ["d0", "d1", "d2"])
+    index.upsert("notes", [("d5", [1.0, 0.0], {"i": 50})])
+
+    reloaded = LocalVectorIndex(tmp_path)
+    assert len(reloaded) == 3
+    assert reloaded.search([1.0, 0.0], limit=1)[0].payload == {"i": 50}
+
+    reloaded.compact()
+    compacted = LocalVectorIndex(tmp_path)
+    assert sorted(h.document_id for h in compacted.search([1.0, 1.0], limit=10)) == ["d3", "d4", "d5"]
+    assert (tmp_path / "vectors.f32").stat().st_size == 3 * 2 * 4
+
+
+def test_re_embedding_one_document_keeps_the_log_bounded(tmp_path, monkeypatch) -> None:
+    monkeypatch.setattr(vector_index, "_COMPACT_MIN_DEAD", 16)
+    index = LocalVectorIndex(tmp_path)
+    index.upsert("notes", [("other", [0.0, 1.0], {"text": "stays"})])
+
+    for i in range(200):
+        index.upsert("session_contexts", [("s1", [1.0, float(i)], {"text": "x" * 100, "i": i})])
+
+    lines = (tmp_path / "meta.jsonl").read_text().splitlines()
+    assert len(lines) <= 16
+    reloaded = LocalVectorIndex(tmp_path)
+    assert len(reloaded) == 2
+    assert reloaded.search([1.0, 199.0], collections=["session_contexts"], limit=1)[0].payload["i"] == 199
+
+
+def test_dimension_mismatch_is_reported_per_item(tmp_path) -> None:
+    index = LocalVectorIndex(tmp_path)
+
+    errors = index.upsert("notes", [("a", [1.0, 0.0], {}), ("b", [1.0, 0.0, 0.0], {})])
+
+    assert errors[0] is None
+    assert "dimensions" in errors[1]
+
+
+class _Vector(list):
+    def tolist(self) -> list[float]:
+        return list(self)
+
+
+class _FakeModel:
+    """Embeds text as letter counts for 'a', 'b', 'c'."""
+
+    def encode(self, texts, batch_size: int = 32):
+        if isinstance(texts, str):
+            return _Vector(float(texts.count(ch)) for ch in "abc")
+        return [self.encode(t) for t in texts]
+
+
+def test_bridge_recall_uses_local_backend(tmp_path) -> None:
+    bridge = VectorBridge(backend=LocalVectorIndex(tmp_path))
+    bridge._model = _FakeModel()
+
+    errors = bridge.embed_documents(
+        [("notes", "a", {"text": "aaa"}), ("graphs", "b", {"text": "bbb"}), ("notes", "e", {"other": 1})]
+    )
+    assert errors == [None, None, None]
+
+    results = bridge.recall("aab", limit=5, threshold=0.5)
+    assert [r.document_id for r in results] == ["a"]
+    assert results[0].text == "aaa"
+
+    assert bridge.delete_documents("notes", ["a"]) == 1
+    assert bridge.recall("aab", threshold=0.5) == []
+
+
+def test_default_backend_keeps_reachable_weaviate(tmp_path, monkeypatch) -> None:
+    client, local = object(), LocalVectorIndex(tmp_path)
+    monkeypatch.delenv(vector_bridge.BACKEND_ENV, raising=False)
+    monkeypatch.setattr(vector_bridge, "get_local_index", lambda: local)
+    monkeypatch.setattr(vector_bridge, "_default_backend", None)
+    monkeypatch.setattr(vector_bridge, "_get_weaviate", lambda: client)
+    backend = vector_bridge.get_vector_backend()
+    assert isinstance(backend, vector_bridge.WeaviateVectorBackend) and backend._client is client
+
+    probes = []
+    monkeypatch.setattr(vector_bridge, "_default_backend", None)
+    monkeypatch.setattr(vector_bridge, "_get_weaviate", lambda: probes.append(1))
+    assert vector_bridge.get_vector_backend() is local
+    assert vector_bridge.get_vector_backend() is local
+    assert len(probes) == 1  # resolved (and warned about) once
@@ -7,43 +7,48 @@ Vector Bridge
 
 Automatic embedding of documents on write. When a document is created
 in the document store, the bridge:
-1. Generates embedding via sentence-transformers
-2. Upserts to Weaviate with document ID as reference
+1. Generates embedding via the shared EmbeddingService (sentence-transformers)
+2. Upserts to the vector backend with document ID as reference
 3. Enables semantic recall via natural language query
 
 This is the "recall" capability for self-querying sessions.
 
+Backends (see vector_index.py), chosen by UNHINGED_VECTOR_BACKEND:
+    local     In-process LocalVectorIndex on disk - no service needed,
+              one exact search across all collections
+    weaviate  Weaviate at localhost, one collection per document collection
+
+Unset, Weaviate is used if it is reachable (as before backends were
+pluggable), else the local index, with a one-time warning. Vectors already
+in Weaviate are not copied to the local index.
+
 Usage:
     bridge = VectorBridge()
     bridge.embed_document("sessions", doc_id, {"text": "user said X"})
+    bridge.embed_documents([("sessions", id1, data1), ("sessions", id2, data2)])
     results = bridge.recall("what did the user say?", collection="sessions")
 """
 
 from __future__ import annotations
 
 import logging
+import os
+from collections.abc import Sequence
 from dataclasses import dataclass
 from typing import Any
 
+from .embedding_service import embeddings_available, get_embedding_service
+from .vector_index import VectorBackend, VectorHit, get_local_index
+
 logger = logging.getLogger(__name__)
 
+BACKEND_ENV = "UNHINGED_VECTOR_BACKEND"
+
 # Lazy-loaded dependencies
-_model = None
 _weaviate_client = None
 
-
-def _get_model():
-    """Lazy-load sentence transformer model."""
-    global _model
-    if _model is None:
-        try:
-            from sentence_transformers import SentenceTransformer
-
-            _model = SentenceTransformer("sentence-transformers/all-MiniLM-L6-v2")
-            logger.info("Loaded embedding model: all-MiniLM-L6-v2")
-        except ImportError:
-            logger.warning("sentence-transformers not available")
-    return _model
+# Backend used when none is named, resolved on first use
+_default_backend: str | None = None
 
 
 def _get_weaviate():
@@ -71,6 +76,129 @@ class RecallResult:
     metadata: dict[str, Any]
 
 
+class WeaviateVectorBackend(VectorBackend):
+    """VectorBackend on a Weaviate server, one Weaviate collection per document collection."""
+
+    COLLECTION_PREFIX = "unhinged_"
+
+    def __init__(self, client: Any) -> None:
+        self._client = client
+
+    def _collection_name(self, collection: str) -> str:
+        """Convert document store collection to Weaviate class name."""
+        # Weaviate requires PascalCase class names
+        name = collection.replace("_", " ").title().replace(" ", "")
+        return f"{self.COLLECTION_PREFIX}{name}"
+
+    def _ensure_collection(self, class_name: str) -> None:
+        """Ensure Weaviate collection exists."""
+        try:
+            if not self._client.collections.exists(class_name):
+                self._client.collections.create(
+                    name=class_name,
+                    properties=[
+                        {"name": "document_id", "data_type": ["text"]},
+                        {"name": "collection", "data_type": ["text"]},
+                        {"name": "text", "data_type": ["text"]},
+                    ],
+                )
+        except Exception:
+            pass  # Collection may already exist
+
+    def upsert(
+        self,
+        collection: str,
+        items: Sequence[tuple[str, Sequence[float], dict[str, Any]]],
+    ) -> list[str | None]:
+        """Batch insert; Weaviate batches overwrite objects with the same UUID."""
+        from weaviate.classes.data import DataObject
+
+        errors: list[str | None] = [None] * len(items)
+        class_name = self._collection_name(collection)
+        self._ensure_collection(class_name)
+        objects = [
+            DataObject(
+                properties={"document_id": doc_id, "collection": collection, "text": payload.get("text", "")},
+                vector=list(vector),
+                uuid=doc_id,
+            )
+            for doc_id, vector, payload in items
+        ]
+        response = self._client.collections.get(class_name).data.insert_many(objects)
+        for position, error in (getattr(response, "errors", None) or {}).items():
+            errors[position] = str(getattr(error, "message", error))
+        return errors
+
+    def delete(self, collection: str, document_ids: Sequence[str]) -> int:
+        coll = self._client.collections.get(self._collection_name(collection))
+        return sum(1 for doc_id in document_ids if coll.data.delete_by_id(doc_id))
+
+    def search(
+        self,
+        vector: Sequence[float],
+        collections: Sequence[str] | None = None,
+        limit: int = 5,
+    ) -> list[VectorHit]:
+        """near_vector per Weaviate collection, merged by score."""
+        if collections is not None:
+            class_names = [self._collection_name(c) for c in collections]
+        else:
+            class_names = [c for c in self._client.collections.list_all() if c.startswith(self.COLLECTION_PREFIX)]
+
+        hits = []
+        for class_name in class_names:
+            try:
+                response = self._client.collections.get(class_name).query.near_vector(
+                    near_vector=list(vector),
+                    limit=limit,
+                    return_metadata=["distance"],
+                )
+                for obj in response.objects:
+                    # Weaviate returns cosine distance, convert to similarity
+                    hits.append(
+                        VectorHit(
+                            collection=obj.properties.get("collection", ""),
+                            document_id=obj.properties.get("document_id", ""),
+                            score=1.0 - (obj.metadata.distance or 0),
+                            payload={"text": obj.properties.get("text", "")},
+                        )
+                    )
+            except Exception as e:
+                logger.debug(f"Search failed for {class_name}: {e}")
+
+        hits.sort(key=lambda h: h.score, reverse=True)
+        return hits[:limit]
+
+
+def _default_backend_name() -> str:
+    """"weaviate" if a local Weaviate is reachable, else "local" (warned about once)."""
+    global _default_backend
+    if _default_backend is None:
+        if _get_weaviate() is not None:
+            _default_backend = "weaviate"
+        else:
+            _default_backend = "local"
+            logger.warning(
+                f"Weaviate is not reachable, storing embeddings in the local vector index; "
+                f"set {BACKEND_ENV}=local or {BACKEND_ENV}=weaviate to choose explicitly"
+            )
+    return _default_backend
+
+
+def get_vector_backend(name: str | None = None) -> VectorBackend | None:
+    """Backend named by ``name`` or UNHINGED_VECTOR_BACKEND; None if unavailable.
+
+    With neither set, Weaviate if it is reachable, otherwise the local index.
+    """
+    name = name or os.environ.get(BACKEND_ENV) or _default_backend_name()
+    if name == "weaviate":
+        client = _get_weaviate()
+        return WeaviateVectorBackend(client) if client is not None else None
+    if name != "local":
+        logger.warning(f"Unknown vector backend {name!r}, using local index")
+    return get_local_index()
+
+
 class VectorBridge:
     """Bridge between document store and vector database.
 
@@ -78,27 +206,23 @@ class VectorBridge:
     Falls back gracefully when dependencies unavailable.
     """
 
-    COLLECTION_PREFIX = "unhinged_"
-
-    def __init__(self) -> None:
+    def __init__(self, backend: VectorBackend | None = None) -> None:
         self._model = None
-        self._client = None
+        self._backend = backend
 
     def _ensure_model(self):
+        """Shared, cached embedding service (the model itself loads on first cache miss)."""
         if self._model is None:
-            self._model = _get_model()
+            if embeddings_available():
+                self._model = get_embedding_service()
+            else:
+                logger.warning("sentence-transformers not available")
         return self._model
 
-    def _ensure_client(self):
-        if self._client is None:
-            self._client = _get_weaviate()
-        return self._client
-
-    def _collection_name(self, collection: str) -> str:
-        """Convert document store collection to Weaviate class name."""
-        # Weaviate requires PascalCase class names
-        name = collection.replace("_", " ").title().replace(" ", "")
-        return f"{self.COLLECTION_PREFIX}{name}"
+    def _ensure_backend(self) -> VectorBackend | None:
+        if self._backend is None:
+            self._backend = get_vector_backend()
+        return self._backend
 
     def _extract_text(self, data: dict[str, Any]) -> str:
         """Extract embeddable text from document data."""
@@ -129,55 +253,72 @@ class VectorBridge:
 
         Returns True if successful, False otherwise (best-effort).
         """
-        model = self._ensure_model()
-        client = self._ensure_client()
-
-        if model is None or client is None:
+        if not self._extract_text(data):
             return False
+        return self.embed_documents([(collection, document_id, data)])[0] is None
 
-        try:
-            text = self._extract_text(data)
-            if not text:
-                return False
-
-            embedding = model.encode(text).tolist()
-            class_name = self._collection_name(collection)
-
-            # Ensure collection exists
-            self._ensure_collection(client, class_name)
-
-            # Upsert with document ID
-            client.collections.get(class_name).data.insert(
-                properties={
-                    "document_id": document_id,
-                    "collection": collection,
-                    "text": text[:10000],  # Truncate for storage
-                },
-                vector=embedding,
-                uuid=document_id,
-            )
+    def embed_documents(
+        self,
+        items: Sequence[tuple[str, str, dict[str, Any]]],
+        batch_size: int = 64,
+    ) -> list[str | None]:
+        """Embed many documents with one encode call and one backend upsert per collection.
 
-            logger.debug(f"Embedded document {document_id} in {class_name}")
-            return True
+        Upserts replace existing vectors, so re-embedding an updated
+        document replaces its vector.
 
-        except Exception as e:
-            logger.warning(f"Failed to embed document: {e}")
-            return False
+        Args:
+            items: (collection, document_id, data) tuples
+            batch_size: Encoder batch size
+
+        Returns:
+            Per-item error message, or None if embedded (or nothing to embed)
+        """
+        errors: list[str | None] = [None] * len(items)
+        model = self._ensure_model()
+        backend = self._ensure_backend()
+        if model is None or backend is None:
+            return ["embedding backend unavailable"] * len(items)
+
+        texts = [self._extract_text(data) for _, _, data in items]
+        indexes = [i for i, text in enumerate(texts) if text]
+        if not indexes:
+            return errors
 
-    def _ensure_collection(self, client, class_name: str) -> None:
-        """Ensure Weaviate collection exists."""
         try:
-            if not client.collections.exists(class_name):
-                client.collections.create(
-                    name=class_name,
-                    properties=[
-                        {"name": "document_id", "data_type": ["text"]},
-                        {"name": "collection", "data_type": ["text"]},
-                        {"name": "text", "data_type": ["text"]},
-                    ],
+            vectors = model.encode([texts[i] for i in indexes], batch_size=batch_size)
+        except Exception as e:
+            logger.warning(f"Batch encode of {len(indexes)} documents failed: {e}")
+            for i in indexes:
+                errors[i] = str(e)
+            return errors
+
+        by_collection: dict[str, list[tuple[int, Any]]] = {}
+        for i, vector in zip(indexes, vectors, strict=True):
+            by_collection.setdefault(items[i][0], []).append((i, vector))
+
+        for collection, members in by_collection.items():
+            try:
+                result = backend.upsert(
+                    collection,
+                    [(items[i][1], vector.tolist(), {"text": texts[i][:10000]}) for i, vector in members],
                 )
-        except Exception:
-            pass  # Collection may already exist
+                for (i, _), error in zip(members, result, strict=True):
+                    errors[i] = error
+            except Exception as e:
+                logger.warning(f"Vector upsert into {collection} failed: {e}")
+                for i, _ in members:
+                    errors[i] = str(e)
+
+        logger.debug(f"Embedded {len(indexes) - sum(e is not None for e in errors)}/{len(items)} documents")
+        return errors
+
+    def delete_documents(self, collection: str, document_ids: Sequence[str]) -> int:
+        """Remove documents' vectors. Returns how many existed."""
+        backend = self._ensure_backend()
+        if backend is None or not document_ids:
+            return 0
+        return backend.delete(collection, document_ids)
 
     def recall(
         self,
@@ -198,55 +339,25 @@ class VectorBridge:
             List of RecallResult ordered by relevance
         """
         model = self._ensure_model()
-        client = self._ensure_client()
+        backend = self._ensure_backend()
 
-        if model is None or client is None:
+        if model is None or backend is None:
             return []
 
         try:
             query_embedding = model.encode(query).tolist()
-
-            results = []
-
-            # Search across all unhinged collections or specific one
-            if collection:
-                collections_to_search = [self._collection_name(collection)]
-            else:
-                # Get all unhinged_ prefixed collections
-                all_collections = client.collections.list_all()
-                collections_to_search = [c for c in all_collections if c.startswith(self.COLLECTION_PREFIX)]
-
-            for class_name in collections_to_search:
-                try:
-                    coll = client.collections.get(class_name)
-                    response = coll.query.near_vector(
-                        near_vector=query_embedding,
-                        limit=limit,
-                        return_metadata=["distance"],
-                    )
-
-                    for obj in response.objects:
-                        # Weaviate returns distance, convert to similarity
-                        distance = obj.metadata.distance or 0
-                        score = 1.0 - distance
-
-                        if score >= threshold:
-                            results.append(
-                                RecallResult(
-                                    document_id=obj.properties.get("document_id", ""),
-                                    collection=obj.properties.get("collection", ""),
-                                    text=obj.properties.get("text", ""),
-                                    score=score,
-                                    metadata={},
-                                )
-                            )
-                except Exception as e:
-                    logger.debug(f"Search failed for {class_name}: {e}")
-                    continue
-
-            # Sort by score descending
-            results.sort(key=lambda r: r.score, reverse=True)
-            return results[:limit]
+            hits = backend.search(query_embedding, [collection] if collection else None, limit)
+            return [
+                RecallResult(
+                    document_id=hit.document_id,
+                    collection=hit.collection,
+                    text=hit.payload.get("text", ""),
+                    score=hit.score,
+                    metadata={},
+                )
+                for hit in hits
+                if hit.score >= threshold
+            ]
 
         except Exception as e:
             logger.warning(f"Recall failed: {e}")
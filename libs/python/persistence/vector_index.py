@@ -0,0 +1,387 @@
+"""
+@llm-type library.persistence.vector_index
+@llm-does pluggable vector backends and an in-process, on-disk flat vector index
+@llm-rule every backend scores by cosine similarity so recall thresholds are portable
+
+Vector Index
+------------
+
+VectorBridge stores and searches embeddings through a VectorBackend.
+LocalVectorIndex is the in-process backend: exact (flat) cosine search
+over one float32 matrix for all collections, so a cross-collection recall
+is a single matrix-vector product rather than one request per collection.
+
+On-disk layout (one directory per index):
+    index.json    {"dim": 384}
+    vectors.f32   row-major float32 matrix, one unit-length row per slot
+    meta.jsonl    append-only log of put/del operations (slot -> document)
+
+Rows are normalised on insert, so the dot product is the cosine
+similarity. Re-embedding a document overwrites its row in place; deletes
+tombstone the slot. compact() reclaims space once tombstones dominate, and
+rewrites the log once superseded puts and deletes dominate it.
+Search memory-maps vectors.f32 and uses numpy when available, with a
+pure-Python fallback for small indexes and numpy-less environments.
+
+Usage:
+    index = get_local_index()  # shared per directory
+    index.upsert("sessions", [("doc-1", vector, {"text": "user said X"})])
+    hits = index.search(query_vector, collections=None, limit=5)
+"""
+
+from __future__ import annotations
+
+import heapq
+import json
+import logging
+import math
+import mmap
+import os
+import threading
+from abc import ABC, abstractmethod
+from array import array
+from collections.abc import Sequence
+from dataclasses import dataclass
+from pathlib import Path
+from typing import Any
+
+logger = logging.getLogger(__name__)
+
+DEFAULT_INDEX_DIR = Path(
+    os.environ.get("UNHINGED_VECTOR_INDEX_DIR", str(Path.home() / ".cache" / "unhinged" / "vectors"))
+)
+
+# Compact when at least this many slots are tombstoned and they outnumber live ones
+_COMPACT_MIN_DEAD = 1024
+# ... or when the log has at least that many lines and this many per live vector
+_COMPACT_LOG_RATIO = 2
+
+_FLOAT_SIZE = 4
+
+
+@dataclass
+class VectorHit:
+    """One search result from a VectorBackend."""
+
+    collection: str
+    document_id: str
+    score: float  # cosine similarity, higher is closer
+    payload: dict[str, Any]
+
+
+class VectorBackend(ABC):
+    """Storage and nearest-neighbour search for document embeddings."""
+
+    @abstractmethod
+    def upsert(
+        self,
+        collection: str,
+        items: Sequence[tuple[str, Sequence[float], dict[str, Any]]],
+    ) -> list[str | None]:
+        """
+        Insert or replace vectors.
+
+        Args:
+            collection: Document store collection name
+            items: (document_id, vector, payload) tuples
+
+        Returns:
+            Per-item error message, or None on success
+        """
+
+    @abstractmethod
+    def delete(self, collection: str, document_ids: Sequence[str]) -> int:
+        """Remove vectors. Returns how many existed."""
+
+    @abstractmethod
+    def search(
+        self,
+        vector: Sequence[float],
+        collections: Sequence[str] | None = None,
+        limit: int = 5,
+    ) -> list[VectorHit]:
+        """
+        Nearest neighbours of ``vector`` by cosine similarity, best first.
+
+        Args:
+            vector: Query embedding
+            collections: Restrict to these collections (None = all)
+            limit: Max hits
+        """
+
+
+def _normalise(vector: Sequence[float]) -> array:
+    row = array("f", vector)
+    length = math.sqrt(sum(x * x for x in row))
+    if length > 0:
+        for i in range(len(row)):
+            row[i] /= length
+    return row
+
+
+class LocalVectorIndex(VectorBackend):
+    """Exact cosine search over a memory-mapped float32 matrix. Thread-safe."""
+
+    def __init__(self, path: str | Path) -> None:
+        self.path = Path(path)
+        self.path.mkdir(parents=True, exist_ok=True)
+        self._vectors_path = self.path / "vectors.f32"
+        self._meta_path = self.path / "meta.jsonl"
+        self._header_path = self.path / "index.json"
+        self._lock = threading.RLock()
+
+        self.dim: int | None = None
+        self._slots: dict[tuple[str, str], int] = {}
+        self._rows: list[tuple[str, str, dict[str, Any]] | None] = []  # slot -> (collection, id, payload)
+        self._codes = array("i")  # slot -> collection code, -1 = dead
+        self._collection_codes: dict[str, int] = {}
+        self._dead = 0
+        self._log_lines = 0  # lines in meta.jsonl, superseded ones included
+        self._matrix: Any = None  # cached numpy memmap
+        self._load()
+
+    # === Persistence ===
+
+    def _load(self) -> None:
+        if self._header_path.exists():
+            self.dim = json.loads(self._header_path.read_text()).get("dim")
+        if self.dim is None:
+            return
+
+        rows_on_disk = 0
+        if self._vectors_path.exists():
+            rows_on_disk = self._vectors_path.stat().st_size // (self.dim * _FLOAT_SIZE)
+        if self._meta_path.exists():
+            with open(self._meta_path) as f:
+                for line in f:
+                    self._log_lines += 1
+                    try:
+                        op = json.loads(line)
+                    except json.JSONDecodeError:
+                        logger.warning(f"Skipping corrupt line in {self._meta_path}")
+                        continue
+                    if op["op"] == "put" and op["slot"] < rows_on_disk:
+                        self._set_slot(op["slot"], op["collection"], op["id"], op.get("payload", {}))
+                    elif op["op"] == "del":
+                        self._clear_slot(op["collection"], op["id"])
+
+        # Rows whose log entry never made it to disk are unreachable
+        while len(self._rows) < rows_on_disk:
+            self._rows.append(None)
+            self._codes.append(-1)
+            self._dead += 1
+        logger.info(f"Loaded vector index {self.path}: {len(self._slots)} vectors, dim {self.dim}")
+
+    def _code(self, collection: str) -> int:
+        code = self._collection_codes.get(collection)
+        if code is None:
+            code = self._collection_codes[collection] = len(self._collection_codes)
+        return code
+
+    def _set_slot(self, slot: int, collection: str, document_id: str, payload: dict[str, Any]) -> None:
+        while len(self._rows) <= slot:
+            self._rows.append(None)
+            self._codes.append(-1)
+            self._dead += 1
+        if self._rows[slot] is None:
+            self._dead -= 1
+        previous = self._slots.get((collection, document_id))
+        if previous is not None and previous != slot:
+            self._tombstone(previous)
+        self._slots[(collection, document_id)] = slot
+        self._rows[slot] = (collection, document_id, payload)
+        self._codes[slot] = self._code(collection)
+
+    def _tombstone(self, slot: int) -> None:
+        if self._rows[slot] is not None:
+            self._rows[slot] = None
+            self._codes[slot] = -1
+            self._dead += 1
+
+    def _clear_slot(self, collection: str, document_id: str) -> bool:
+        slot = self._slots.pop((collection, document_id), None)
+        if slot is None:
+            return False
+        self._tombstone(slot)
+        return True
+
+    def _append_log(self, ops: list[dict[str, Any]]) -> None:
+        with open(self._meta_path, "a") as f:
+            f.write("".join(json.dumps(op) + "\n" for op in ops))
+        self._log_lines += len(ops)
+
+    def _maybe_compact(self) -> None:
+        live = len(self._slots)
+        if self._dead >= _COMPACT_MIN_DEAD and self._dead > live:
+            self.compact()
+        elif self._log_lines >= _COMPACT_MIN_DEAD and self._log_lines > _COMPACT_LOG_RATIO * live:
+            self.compact()
+
+    # === VectorBackend ===
+
+    def upsert(
+        self,
+        collection: str,
+        items: Sequence[tuple[str, Sequence[float], dict[str, Any]]],
+    ) -> list[str | None]:
+        errors: list[str | None] = [None] * len(items)
+        with self._lock:
+            if self.dim is None and items:
+                self.dim = len(items[0][1])
+                self._header_path.write_text(json.dumps({"dim": self.dim}))
+
+            ops: list[dict[str, Any]] = []
+            with open(self._vectors_path, "r+b" if self._vectors_path.exists() else "w+b") as f:
+                next_slot = len(self._rows)
+                for i, (document_id, vector, payload) in enumerate(items):
+                    if len(vector) != self.dim:
+                        errors[i] = f"vector has {len(vector)} dimensions, index has {self.dim}"
+                        continue
+                    slot = self._slots.get((collection, document_id))
+                    if slot is None:
+                        slot, next_slot = next_slot, next_slot + 1
+                    f.seek(slot * self.dim * _FLOAT_SIZE)
+                    f.write(_normalise(vector).tobytes())
+                    ops.append(
+                        {"op": "put", "slot": slot, "collection": collection, "id": document_id, "payload": payload}
+                    )
+
+            # Vectors are on disk before the log points at them
+            self._append_log(ops)
+            for op in ops:
+                self._set_slot(op["slot"], collection, op["id"], op["payload"])
+            self._matrix = None
+            self._maybe_compact()
+        return errors
+
+    def delete(self, collection: str, document_ids: Sequence[str]) -> int:
+        with self._lock:
+            removed = [doc_id for doc_id in document_ids if self._clear_slot(collection, doc_id)]
+            if removed:
+                self._append_log([{"op": "del", "collection": collection, "id": doc_id} for doc_id in removed])
+            self._maybe_compact()
+        return len(removed)
+
+    def search(
+        self,
+        vector: Sequence[float],
+        collections: Sequence[str] | None = None,
+        limit: int = 5,
+    ) -> list[VectorHit]:
+        with self._lock:
+            if self.dim is None or not self._slots or limit <= 0:
+                return []
+            if len(vector) != self.dim:
+                raise ValueError(f"query has {len(vector)} dimensions, index has {self.dim}")
+            if collections is None:
+                wanted = None
+            else:
+                wanted = {self._collection_codes[c] for c in collections if c in self._collection_codes}
+                if not wanted:
+                    return []
+
+            query = _normalise(vector)
+            try:
+                scored = self._search_numpy(query, wanted, limit)
+            except ImportError:
+                scored = self._search_python(query, wanted, limit)
+
+            hits = []
+            for slot, score in scored:
+                row = self._rows[slot]
+                if row is not None:
+                    hits.append(VectorHit(collection=row[0], document_id=row[1], score=score, payload=row[2]))
+            return hits
+
+    # === Search kernels ===
+
+    def _search_numpy(self, query: array, wanted: set[int] | None, limit: int) -> list[tuple[int, float]]:
+        import numpy as np
+
+        rows = len(self._rows)
+        if self._matrix is None or self._matrix.shape[0] != rows:
+            self._matrix = np.memmap(self._vectors_path, dtype=np.float32, mode="r", shape=(rows, self.dim))
+        scores = self._matrix @ np.frombuffer(query, dtype=np.float32)
+
+        codes = np.frombuffer(self._codes, dtype=np.intc)
+        mask = codes >= 0 if wanted is None else np.isin(codes, list(wanted))
+        candidates = np.flatnonzero(mask)
+        if candidates.size == 0:
+            return []
+        candidate_scores = scores[candidates]
+        k = min(limit, candidates.size)
+        top = np.argpartition(-candidate_scores, k - 1)[:k]
+        top = top[np.argsort(-candidate_scores[top])]
+        return [(int(candidates[i]), float(candidate_scores[i])) for i in top]
+
+    def _search_python(self, query: array, wanted: set[int] | None, limit: int) -> list[tuple[int, float]]:
+        dim = self.dim or 0
+        with open(self._vectors_path, "rb") as f, mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ) as mm:
+            view = memoryview(mm).cast("f")
+            try:
+                scored = (
+                    (slot, sum(a * b for a, b in zip(query, view[slot * dim : (slot + 1) * dim], strict=True)))
+                    for slot, code in enumerate(self._codes)
+                    if code >= 0 and (wanted is None or code in wanted)
+                )
+                return heapq.nlargest(limit, scored, key=lambda item: item[1])
+            finally:
+                view.release()
+
+    # === Maintenance ===
+
+    def compact(self) -> None:
+        """Rewrite the matrix and log without tombstoned slots."""
+        with self._lock:
+            if self.dim is None:
+                return
+            row_bytes = self.dim * _FLOAT_SIZE
+            live = [(slot, row) for slot, row in enumerate(self._rows) if row is not None]
+            tmp_vectors = self._vectors_path.with_suffix(".f32.tmp")
+            tmp_meta = self._meta_path.with_suffix(".jsonl.tmp")
+            with open(self._vectors_path, "rb") as src, open(tmp_vectors, "wb") as dst:
+                for slot, _ in live:
+                    src.seek(slot * row_bytes)
+                    dst.write(src.read(row_bytes))
+            with open(tmp_meta, "w") as f:
+                for new_slot, (_, (collection, doc_id, payload)) in enumerate(live):
+                    op = {"op": "put", "slot": new_slot, "collection": collection, "id": doc_id, "payload": payload}
+                    f.write(json.dumps(op) + "\n")
+            self._matrix = None
+            os.replace(tmp_vectors, self._vectors_path)
+            os.replace(tmp_meta, self._meta_path)
+
+            self._slots.clear()
+            self._rows.clear()
+            self._codes = array("i")
+            self._dead = 0
+            self._log_lines = len(live)
+            for new_slot, (_, (collection, doc_id, payload)) in enumerate(live):
+                self._set_slot(new_slot, collection, doc_id, payload)
+            logger.info(f"Compacted vector index {self.path}: {len(live)} live vectors")
+
+    def __len__(self) -> int:
+        return len(self._slots)
+
+
+_shared_indexes: dict[Path, LocalVectorIndex] = {}
+_shared_lock = threading.Lock()
+
+
+def get_local_index(path: str | Path | None = None) -> LocalVectorIndex:
+    """Get the process-wide LocalVectorIndex for a directory, loading it on first use."""
+    resolved = Path(path or DEFAULT_INDEX_DIR).expanduser().resolve()
+    with _shared_lock:
+        index = _shared_indexes.get(resolved)
+        if index is None:
+            index = _shared_indexes[resolved] = LocalVectorIndex(resolved)
+        return index
+
+
+__all__ = [
+    "DEFAULT_INDEX_DIR",
+    "LocalVectorIndex",
+    "VectorBackend",
+    "VectorHit",
+    "get_local_index",
+]
@@ -139,10 +139,13 @@ def get_available_graphs(limit: int = 20) -> list[dict[str, Any]]:
     """Query document store for available graphs."""
     graphs: list[dict[str, Any]] = []
     try:
-        from libs.python.persistence import get_document_store
+        from libs.python.persistence import DocumentQuery, get_document_store
 
         store = get_document_store()
-        docs = store.query("graphs", filters=None, limit=limit)
+        docs = store.find(
+            "graphs",
+            DocumentQuery(fields=["name", "description", "tags"], order_by="updated_at", limit=limit),
+        ).documents
         graphs = [
             {
                 "id": doc.id,
@@ -174,8 +177,9 @@ def get_session_context(session: SessionContext | None, max_cdc: int = 10) -> di
     outputs = session.get_all_outputs()
 
     # Get recent CDC events (last N)
-    cdc_feed = session.cdc_feed()
-    recent_cdc = [{"type": e.event_type.value, "data": e.data, "stage": e.stage} for e in cdc_feed[-max_cdc:]]
+    recent_cdc = [
+        {"type": e.event_type.value, "data": session.event_data(e), "stage": e.stage} for e in session.cdc_tail(max_cdc)
+    ]
 
     return {"outputs": outputs, "recent_cdc": recent_cdc}
 
@@ -1,19 +1,35 @@
 #!/usr/bin/env python3
 """
-Session Store - Write-Through Architecture
+Session Store - Write-Through / Write-Behind Architecture
 
 Write-through implementation with Redis cache and Python persistence platform.
 Optimized for local development with high-performance hardware.
 
+Write-behind mode (WriteMode.WRITE_BEHIND) moves both writes off the
+caller's thread: write() only records the value in an in-process buffer.
+A background flusher sends buffered values to Redis in one pipeline per
+round and persists them to the document store in batches (upsert_many).
+Repeated writes to a key that has not been persisted yet are coalesced,
+so a key written 50 times between flushes costs one row write.
+
+Durability: flush() blocks until everything written before the call is
+in the document store; close() flushes before shutting down. The buffer
+is bounded (max_pending distinct keys) - when full, write() waits up to
+enqueue_timeout and then drops the write and returns False. stats()
+reports lag and drop counts.
+
 @llm-type storage.session
-@llm-does write-through session storage with Redis cache and PostgreSQL persistence
+@llm-does write-through or write-behind session storage with Redis cache and PostgreSQL persistence
 @llm-rule uses document store abstraction for persistence, Redis for caching
 """
 
+import fnmatch
 import json
 import logging
+import threading
 import time
-from dataclasses import dataclass
+from dataclasses import asdict, dataclass
+from enum import Enum
 from typing import Any
 
 try:
@@ -24,6 +40,13 @@ except ImportError as e:
     redis = None  # type: ignore
 
 
+class WriteMode(Enum):
+    """How write() reaches Redis and the document store"""
+
+    WRITE_THROUGH = "write_through"  # both stores synchronously, on the caller's thread
+    WRITE_BEHIND = "write_behind"  # buffered; background flusher pipelines and batches
+
+
 @dataclass
 class SessionStoreConfig:
     """Configuration for session store"""
@@ -35,6 +58,41 @@ class SessionStoreConfig:
 
     connection_timeout: int = 5
 
+    # Write-behind settings (ignored in write-through mode)
+    write_mode: WriteMode = WriteMode.WRITE_THROUGH
+    flush_interval: float = 0.05  # max seconds a key waits before being persisted
+    flush_batch_size: int = 256  # keys per document store batch
+    max_pending: int = 10_000  # distinct unpersisted keys before writes are dropped
+    enqueue_timeout: float = 0.0  # seconds write() waits for room before dropping
+    close_timeout: float = 10.0  # seconds close() waits for the final flush
+
+
+@dataclass
+class WriteBehindStats:
+    """Write-behind buffer metrics"""
+
+    pending: int  # keys not yet persisted (buffered + in flight)
+    enqueued: int  # write() calls accepted
+    coalesced: int  # writes that replaced a not-yet-persisted value
+    persisted: int  # keys written to the document store
+    dropped: int  # writes rejected because the buffer was full
+    failed_flushes: int  # document store batches that failed (entries are retried)
+    batches: int  # document store batches written
+    redis_pipelines: int  # Redis pipelines executed
+    lag_seconds: float  # age of the oldest unpersisted write
+    max_lag_seconds: float  # worst write-to-persist delay observed
+
+
+@dataclass
+class _PendingWrite:
+    """Latest buffered value for one key"""
+
+    value: Any
+    json_value: str
+    first_seq: int  # sequence number of the oldest write this entry stands for
+    first_enqueued: float
+    in_redis: bool = False
+
 
 class SessionStoreError(Exception):
     """Base exception for session store operations"""
@@ -42,30 +100,69 @@ class SessionStoreError(Exception):
     pass
 
 
+SESSIONS_COLLECTION = "sessions"
+
+
 class SessionStore:
     """
     Write-through session storage implementation
 
     Simple pattern:
-    - write(): Redis first, then document store synchronously
+    - write(): Redis first, then a single keyed upsert into the document store
     - read(): Redis first, document store on miss with cache population
     - delete(): Remove from both stores atomically
     - exists(): Check Redis, fallback to document store if needed
     """
 
-    def __init__(self, config: SessionStoreConfig | None = None):
+    def __init__(
+        self,
+        config: SessionStoreConfig | None = None,
+        redis_client: Any = None,
+        document_store: Any = None,
+    ):
         self.config = config or SessionStoreConfig()
         self.logger = logging.getLogger(f"{__name__}.{self.__class__.__name__}")
 
-        # Clients
-        self.redis_client: Any = None
-        self.document_store: Any = None
+        # Clients (injected clients skip connection setup)
+        self.redis_client: Any = redis_client
+        self.document_store: Any = document_store
 
         # Initialize connections
-        self._initialize_connections()
+        if redis_client is None or document_store is None:
+            self._initialize_connections()
+
+        # Write-behind state, guarded by _cond
+        self._cond = threading.Condition()
+        self._pending: dict[str, _PendingWrite] = {}
+        self._inflight: dict[str, _PendingWrite] = {}
+        self._redis_inflight: set[str] = set()  # keys whose pipelined SET has not returned yet
+        self._deleted: set[str] = set()  # keys deleted while in flight: a failed batch must not requeue them
+        self._seq = 0
+        self._durable_seq = 0
+        self._flush_waiters = 0
+        self._retry_at = 0.0
+        self._stopping = False
+        self._counters = dict.fromkeys(
+            ("enqueued", "coalesced", "persisted", "dropped", "failed_flushes", "batches", "redis_pipelines"), 0
+        )
+        self._max_lag = 0.0
+        self._flusher: threading.Thread | None = None
+        if self.write_behind:
+            self._flusher = threading.Thread(target=self._flush_loop, name="session-store-flusher", daemon=True)
+            self._flusher.start()
+
+    @property
+    def write_behind(self) -> bool:
+        return self.config.write_mode is WriteMode.WRITE_BEHIND
 
     def _initialize_connections(self):
         """Initialize Redis and document store connections"""
+        if self.redis_client is None:
+            self._connect_redis()
+        if self.document_store is None:
+            self._connect_document_store()
+
+    def _connect_redis(self):
         try:
             # Redis connection
             self.redis_client = redis.Redis(
@@ -86,6 +183,7 @@ class SessionStore:
             self.logger.error(f"Failed to connect to Redis: {e}")
             raise SessionStoreError(f"Redis connection failed: {e}") from e
 
+    def _connect_document_store(self):
         try:
             # Document store connection
             from libs.python.persistence import get_document_store
@@ -97,16 +195,27 @@ class SessionStore:
             self.logger.error(f"Failed to connect to document store: {e}")
             raise SessionStoreError(f"Document store connection failed: {e}") from e
 
+    def _document_id(self, key: str) -> str:
+        """Document ID the session key is stored under."""
+        return self.document_store.key_id(SESSIONS_COLLECTION, key)  # type: ignore[no-any-return]
+
+    def _read_document(self, key: str) -> Any:
+        return self.document_store.read(SESSIONS_COLLECTION, self._document_id(key))
+
     def write(self, key: str, value: Any) -> bool:
         """
         Write-through operation: Redis first, then document store synchronously
 
+        In write-behind mode the value is only buffered; the flusher writes
+        Redis and the document store. Use flush() when durability matters.
+
         Args:
             key: Session key
             value: Session data (will be JSON serialized)
 
         Returns:
-            True if both writes succeed, False otherwise
+            True if both writes succeed (write-behind: if the write was
+            buffered), False otherwise
         """
         if self.redis_client is None:
             self.logger.error("Redis client not initialized")
@@ -116,6 +225,9 @@ class SessionStore:
             # Serialize value
             json_value = json.dumps(value, default=str)
 
+            if self.write_behind:
+                return self._enqueue(key, value, json_value)
+
             # Write to Redis first
             redis_success = self.redis_client.set(key, json_value)
             if not redis_success:
@@ -128,13 +240,8 @@ class SessionStore:
                 return False
 
             try:
-                # Try to update existing document
-                doc = self.document_store.read("sessions", key)
-                if doc:
-                    self.document_store.update("sessions", key, {"value": value})
-                else:
-                    # Create new document
-                    self.document_store.create("sessions", {"id": key, "value": value})
+                # Create-or-merge in one round-trip; the row ID is derived from the key
+                self.document_store.upsert(SESSIONS_COLLECTION, key, {"key": key, "value": value})
 
                 self.logger.debug(f"Write-through completed for key: {key}")
                 return True
@@ -164,6 +271,11 @@ class SessionStore:
             return None
 
         try:
+            # Not yet flushed values win over both stores
+            buffered = self._buffered(key)
+            if buffered is not None:
+                return json.loads(buffered.json_value)
+
             # Try Redis first
             redis_value = self.redis_client.get(key)
             if redis_value is not None:
@@ -175,7 +287,7 @@ class SessionStore:
                 self.logger.error("Document store not initialized")
                 return None
 
-            doc = self.document_store.read("sessions", key)
+            doc = self._read_document(key)
             if doc is None:
                 self.logger.debug(f"Key not found in document store: {key}")
                 return None
@@ -206,13 +318,16 @@ class SessionStore:
             return False
 
         try:
+            # Drop any buffered value so the flusher cannot resurrect the key
+            buffered_deleted = self._discard_buffered(key)
+
             # Delete from Redis
             redis_deleted = self.redis_client.delete(key)
 
             # Delete from document store
-            doc_deleted = self.document_store.delete("sessions", key)
+            doc_deleted = self.document_store.delete(SESSIONS_COLLECTION, self._document_id(key))
 
-            success = redis_deleted > 0 or doc_deleted
+            success = buffered_deleted or redis_deleted > 0 or doc_deleted
             self.logger.debug(f"Delete operation for key {key}: Redis={redis_deleted}, DocStore={doc_deleted}")
             return success  # type: ignore[no-any-return]
 
@@ -235,13 +350,15 @@ class SessionStore:
             return False
 
         try:
+            if self._buffered(key) is not None:
+                return True
+
             # Check Redis first
             if self.redis_client.exists(key):
                 return True
 
             # Fallback to document store
-            doc = self.document_store.read("sessions", key)
-            return doc is not None
+            return self._read_document(key) is not None
 
         except Exception as e:
             self.logger.error(f"Exists check failed for key {key}: {e}")
@@ -264,19 +381,231 @@ class SessionStore:
         try:
             # Use Redis for fast key listing
             keys = self.redis_client.keys(pattern)
+            if self.write_behind:
+                with self._cond:
+                    buffered = [k for k in (*self._pending, *self._inflight) if fnmatch.fnmatchcase(k, pattern)]
+                keys = list(dict.fromkeys([*keys, *buffered]))
             if keys:
                 return keys  # type: ignore[no-any-return]
 
             # Fallback to document store if Redis is empty
             # Note: Document store doesn't support pattern matching,
             # so we return all session keys
-            docs = self.document_store.query("sessions", limit=1000)
-            return [doc.id for doc in docs]
+            docs = self.document_store.query(SESSIONS_COLLECTION, limit=1000)
+            return [doc.data.get("key", doc.id) for doc in docs]
 
         except Exception as e:
             self.logger.error(f"List keys failed for pattern {pattern}: {e}")
             return []
 
+    # === Write-behind ===
+
+    def _buffered(self, key: str) -> _PendingWrite | None:
+        """Latest value for key that the flusher has not persisted yet."""
+        if not self.write_behind:
+            return None
+        with self._cond:
+            return self._pending.get(key) or self._inflight.get(key)
+
+    def _enqueue(self, key: str, value: Any, json_value: str) -> bool:
+        """Buffer a write for the flusher. Returns False if dropped because the buffer is full."""
+        with self._cond:
+            if self._stopping:
+                self.logger.error(f"Session store closed, write dropped for key: {key}")
+                self._counters["dropped"] += 1
+                return False
+
+            entry = self._pending.get(key)
+            if entry is not None:
+                entry.value = value
+                entry.json_value = json_value
+                entry.in_redis = False
+                self._seq += 1
+                self._counters["enqueued"] += 1
+                self._counters["coalesced"] += 1
+                self._cond.notify_all()
+                return True
+
+            deadline = time.monotonic() + self.config.enqueue_timeout
+            while len(self._pending) + len(self._inflight) >= self.config.max_pending:
+                remaining = deadline - time.monotonic()
+                if remaining <= 0:
+                    self._counters["dropped"] += 1
+                    self.logger.warning(f"Write-behind buffer full, write dropped for key: {key}")
+                    return False
+                self._cond.wait(remaining)
+
+            self._seq += 1
+            self._pending[key] = _PendingWrite(value, json_value, self._seq, time.monotonic())
+            self._counters["enqueued"] += 1
+            self._cond.notify_all()
+            return True
+
+    def _discard_buffered(self, key: str) -> bool:
+        """Drop a buffered value; waits for in-flight Redis and document store writes of the key to land.
+
+        The caller deletes from both stores afterwards, so nothing the
+        flusher already started can write the key back.
+        """
+        if not self.write_behind:
+            return False
+        with self._cond:
+            dropped = self._pending.pop(key, None) is not None
+            if key in self._inflight or key in self._redis_inflight:
+                self._deleted.add(key)
+                while key in self._inflight or key in self._redis_inflight:
+                    self._cond.wait()
+                self._deleted.discard(key)
+            self._update_durable_locked()
+            self._cond.notify_all()
+            return dropped
+
+    def flush(self, timeout: float | None = None) -> bool:
+        """
+        Durability fence: wait until every write made before this call is
+        persisted to the document store.
+
+        Args:
+            timeout: Max seconds to wait (None waits indefinitely)
+
+        Returns:
+            True if everything up to this point is durable, False on timeout
+        """
+        if not self.write_behind:
+            return True
+        deadline = None if timeout is None else time.monotonic() + timeout
+        with self._cond:
+            target = self._seq
+            self._flush_waiters += 1
+            self._cond.notify_all()
+            try:
+                while self._durable_seq < target:
+                    if self._flusher is None or not self._flusher.is_alive():
+                        return False
+                    remaining = None if deadline is None else deadline - time.monotonic()
+                    if remaining is not None and remaining <= 0:
+                        return False
+                    self._cond.wait(remaining)
+                return True
+            finally:
+                self._flush_waiters -= 1
+
+    def stats(self) -> WriteBehindStats:
+        """Current write-behind metrics (all zero in write-through mode)"""
+        with self._cond:
+            oldest = min(
+                (e.first_enqueued for e in (*self._pending.values(), *self._inflight.values())),
+                default=None,
+            )
+            return WriteBehindStats(
+                pending=len(self._pending) + len(self._inflight),
+                lag_seconds=time.monotonic() - oldest if oldest is not None else 0.0,
+                max_lag_seconds=self._max_lag,
+                **self._counters,
+            )
+
+    def _update_durable_locked(self) -> None:
+        """Everything before the oldest unpersisted write is durable."""
+        unpersisted = [e.first_seq for e in (*self._pending.values(), *self._inflight.values())]
+        self._durable_seq = min(unpersisted) - 1 if unpersisted else self._seq
+
+    def _persist_due_locked(self, now: float) -> float | None:
+        """Seconds until the next document store batch is due (0 = now, None = nothing buffered)."""
+        if not self._pending:
+            return None
+        wait = 0.0
+        if not (self._stopping or self._flush_waiters or len(self._pending) >= self.config.flush_batch_size):
+            oldest = next(iter(self._pending.values())).first_enqueued
+            wait = oldest + self.config.flush_interval - now
+        return max(wait, self._retry_at - now, 0.0)
+
+    def _flush_loop(self) -> None:
+        """Background flusher: pipeline new values to Redis, batch them into the document store."""
+        while True:
+            with self._cond:
+                while True:
+                    now = time.monotonic()
+                    persist_wait = self._persist_due_locked(now)
+                    redis_due = any(not e.in_redis for e in self._pending.values())
+                    if redis_due or persist_wait == 0.0:
+                        break
+                    if self._stopping and not self._pending:
+                        return
+                    self._cond.wait(persist_wait)
+
+                redis_batch = []
+                for key, entry in self._pending.items():
+                    if not entry.in_redis:
+                        entry.in_redis = True
+                        redis_batch.append((key, entry.json_value))
+                self._redis_inflight = {key for key, _ in redis_batch}
+
+                batch: dict[str, _PendingWrite] = {}
+                if persist_wait == 0.0:
+                    for key in list(self._pending)[: self.config.flush_batch_size]:
+                        batch[key] = self._pending.pop(key)
+                    self._inflight = batch
+
+            if redis_batch:
+                self._write_redis(redis_batch)
+            failed = self._persist(batch) if batch else {}
+
+            with self._cond:
+                now = time.monotonic()
+                for key, entry in batch.items():
+                    if key not in failed:
+                        self._max_lag = max(self._max_lag, now - entry.first_enqueued)
+                        continue
+                    newer = self._pending.get(key)
+                    if newer is None:
+                        if key not in self._deleted:
+                            self._pending[key] = entry
+                    else:
+                        # Keep the newer value but stay accountable for the older write
+                        newer.first_seq = min(newer.first_seq, entry.first_seq)
+                        newer.first_enqueued = min(newer.first_enqueued, entry.first_enqueued)
+                if batch:
+                    self._counters["persisted"] += len(batch) - len(failed)
+                    if failed:
+                        self._counters["failed_flushes"] += 1
+                        self._retry_at = now + self.config.flush_interval
+                    else:
+                        self._counters["batches"] += 1
+                    self._inflight = {}
+                self._redis_inflight = set()
+                self._update_durable_locked()
+                self._cond.notify_all()
+                if self._stopping and failed:
+                    self.logger.error(f"Session store closing, {len(self._pending)} buffered writes not persisted")
+                    return
+
+    def _write_redis(self, items: list[tuple[str, str]]) -> None:
+        """SET many keys in one round-trip."""
+        try:
+            pipe = self.redis_client.pipeline(transaction=False)
+            for key, json_value in items:
+                pipe.set(key, json_value)
+            pipe.execute()
+            with self._cond:
+                self._counters["redis_pipelines"] += 1
+        except Exception as e:
+            # The document store still gets the values; read() falls back to it on a Redis miss
+            self.logger.error(f"Redis pipeline write failed for {len(items)} keys: {e}")
+
+    def _persist(self, batch: dict[str, _PendingWrite]) -> set[str]:
+        """Upsert a batch into the document store. Returns the keys that failed."""
+        keys = list(batch)
+        items = {self._document_id(key): {"key": key, "value": batch[key].value} for key in keys}
+        try:
+            results = self.document_store.upsert_many(SESSIONS_COLLECTION, items)
+        except Exception as e:
+            self.logger.error(f"Write-behind batch of {len(keys)} session keys failed, will retry: {e}")
+            return set(keys)
+        failed = {keys[r.index] for r in results if not r.ok}
+        if failed:
+            self.logger.error(f"Write-behind failed for {len(failed)} session keys, will retry")
+        return failed
+
     def health_check(self) -> dict[str, Any]:
         """
         Health check for both stores
@@ -310,10 +639,22 @@ class SessionStore:
             health["document_store"]["status"] = "unhealthy"
             health["document_store"]["error"] = str(e)
 
+        if self.write_behind:
+            health["write_behind"] = asdict(self.stats())
+
         return health
 
     def close(self):
-        """Close all connections"""
+        """Flush buffered writes (write-behind) and close all connections"""
+        if self._flusher is not None:
+            if not self.flush(timeout=self.config.close_timeout):
+                self.logger.warning(f"Closing with {self.stats().pending} session writes not persisted")
+            with self._cond:
+                self._stopping = True
+                self._cond.notify_all()
+            self._flusher.join(timeout=self.config.close_timeout)
+            self._flusher = None
+
         try:
             if self.redis_client:
                 self.redis_client.close()
@@ -0,0 +1,221 @@
+"""
+@llm-type test.session
+@llm-does unit tests for session store write-behind mode
+
+Uses in-memory fakes for Redis and the document store so no services
+are needed.
+"""
+
+from __future__ import annotations
+
+import threading
+import time
+from typing import Any
+
+from libs.python.persistence.document_store import Document, WriteResult
+from libs.python.session.session_store import SessionStore, SessionStoreConfig, WriteMode
+
+
+class _FakePipeline:
+    def __init__(self, redis: _FakeRedis) -> None:
+        self._redis = redis
+        self._ops: list[tuple[str, str]] = []
+
+    def set(self, key: str, value: str) -> None:
+        self._ops.append((key, value))
+
+    def execute(self) -> None:
+        if self._redis.gate is not None:
+            self._redis.gate.wait()
+        self._redis.pipelines.append(len(self._ops))
+        self._redis.data.update(self._ops)
+
+
+class _FakeRedis:
+    def __init__(self) -> None:
+        self.data: dict[str, str] = {}
+        self.pipelines: list[int] = []
+        self.gate: threading.Event | None = None
+
+    def pipeline(self, transaction: bool = True) -> _FakePipeline:
+        return _FakePipeline(self)
+
+    def set(self, key: str, value: str) -> bool:
+        self.data[key] = value
+        return True
+
+    def get(self, key: str) -> str | None:
+        return self.data.get(key)
+
+    def delete(self, key: str) -> int:
+        return 1 if self.data.pop(key, None) is not None else 0
+
+    def exists(self, key: str) -> int:
+        return int(key in self.data)
+
+    def keys(self, pattern: str) -> list[str]:
+        return list(self.data)
+
+    def close(self) -> None:
+        pass
+
+
+class _FakeDocumentStore:
+    def __init__(self) -> None:
+        self.docs: dict[str, dict[str, Any]] = {}
+        self.batches: list[int] = []
+        self.upserts = 0
+        self.fail_next = 0
+        self.gate: threading.Event | None = None
+
+    def key_id(self, collection: str, key: str) -> str:
+        return f"{collection}:{key}"
+
+    def upsert(self, collection: str, key: str, data: dict[str, Any]) -> Document:
+        self.upserts += 1
+        self.docs[self.key_id(collection, key)] = data
+        return Document.create(collection, data)
+
+    def upsert_many(self, collection: str, items: dict[str, dict[str, Any]]) -> list[WriteResult]:
+        if self.gate is not None:
+            self.gate.wait()
+        if self.fail_next:
+            self.fail_next -= 1
+            raise ConnectionError("database unavailable")
+        self.batches.append(len(items))
+        self.docs.update(items)
+        return [WriteResult(i, Document.create(collection, data)) for i, data in enumerate(items.values())]
+
+    def read(self, collection: str, doc_id: str) -> Document | None:
+        data = self.docs.get(doc_id)
+        return Document.create(collection, data) if data is not None else None
+
+    def delete(self, collection: str, doc_id: str) -> bool:
+        return self.docs.pop(doc_id, None) is not None
+
+
+def _make_store(**config: Any) -> tuple[SessionStore, _FakeRedis, _FakeDocumentStore]:
+    redis, docs = _FakeRedis(), _FakeDocumentStore()
+    cfg = SessionStoreConfig(write_mode=WriteMode.WRITE_BEHIND, **config)
+    return SessionStore(cfg, redis_client=redis, document_store=docs), redis, docs
+
+
+def test_write_through_mode_upserts_synchronously() -> None:
+    redis, docs = _FakeRedis(), _FakeDocumentStore()
+    store = SessionStore(SessionStoreConfig(), redis_client=redis, document_store=docs)
+
+    assert store.write("session:a", {"n": 1})
+
+    assert docs.upserts == 1
+    assert docs.docs["sessions:session:a"] == {"key": "session:a", "value": {"n": 1}}
+    assert store.flush() is True
+
+
+def test_write_behind_coalesces_repeated_writes() -> None:
+    store, redis, docs = _make_store(flush_interval=0.5)
+
+    for i in range(50):
+        assert store.write("session:a", {"n": i})
+    store.write("session:b", {"n": 0})
+    assert store.read("session:a") == {"n": 49}
+
+    assert store.flush(timeout=2.0)
+    stats = store.stats()
+    assert docs.batches == [2]
+    assert docs.docs["sessions:session:a"]["value"] == {"n": 49}
+    assert stats.coalesced == 49
+    assert stats.persisted == 2
+    assert stats.pending == 0
+    assert redis.data["session:a"] == '{"n": 49}'
+    store.close()
+
+
+def test_failed_batch_is_retried_before_flush_returns() -> None:
+    store, _, docs = _make_store(flush_interval=0.01)
+    docs.fail_next = 1
+
+    store.write("session:a", {"n": 1})
+
+    assert store.flush(timeout=2.0)
+    assert docs.docs["sessions:session:a"]["value"] == {"n": 1}
+    assert store.stats().failed_flushes == 1
+    store.close()
+
+
+def test_full_buffer_drops_writes() -> None:
+    store, _, docs = _make_store(max_pending=2, flush_interval=0.01)
+    docs.gate = threading.Event()
+
+    store.write("session:a", 1)
+    store.write("session:b", 2)
+    time.sleep(0.05)  # both now in flight, blocked on the gate
+
+    assert store.write("session:c", 3) is False
+    assert store.stats().dropped == 1
+    assert store.stats().lag_seconds > 0
+
+    docs.gate.set()
+    assert store.flush(timeout=2.0)
+    assert "sessions:session:c" not in docs.docs
+    store.close()
+
+
+def test_delete_discards_buffered_value() -> None:
+    store, _, docs = _make_store(flush_interval=5.0)
+
+    store.write("session:a", {"n": 1})
+    assert store.exists("session:a")
+    assert store.delete("session:a")
+
+    assert store.flush(timeout=2.0)
+    assert store.read("session:a") is None
+    assert docs.docs == {}
+    store.close()
+
+
+def test_delete_waits_for_in_flight_redis_write() -> None:
+    store, redis, docs = _make_store(flush_interval=5.0)
+    redis.gate = threading.Event()
+
+    store.write("session:a", {"n": 1})
+    time.sleep(0.05)  # pipelined to Redis, blocked on the gate; not yet due for the document store
+    deleter = threading.Thread(target=store.delete, args=("session:a",))
+    deleter.start()
+    time.sleep(0.05)
+    assert deleter.is_alive()  # the SET has not landed, so deleting now would be undone
+
+    redis.gate.set()
+    deleter.join(timeout=2.0)
+    assert store.flush(timeout=2.0)
+    assert "session:a" not in redis.data and docs.docs == {}
+    store.close()
+
+
+def test_delete_during_failing_batch_is_not_requeued() -> None:
+    store, redis, docs = _make_store(flush_interval=0.01)
+    docs.gate = threading.Event()
+    docs.fail_next = 1
+
+    store.write("session:a", {"n": 1})
+    time.sleep(0.05)  # in the document store batch, blocked on the gate
+    deleter = threading.Thread(target=store.delete, args=("session:a",))
+    deleter.start()
+    time.sleep(0.05)
+
+    docs.gate.set()  # the batch fails and would normally be retried
+    deleter.join(timeout=2.0)
+    assert store.flush(timeout=2.0)
+    time.sleep(0.05)
+    assert store.stats().failed_flushes == 1 and store.stats().pending == 0
+    assert docs.docs == {} and store.read("session:a") is None and "session:a" not in redis.data
+    store.close()
+
+
+def test_close_flushes_and_rejects_later_writes() -> None:
+    store, _, docs = _make_store(flush_interval=5.0)
+
+    store.write("session:a", {"n": 1})
+    store.close()
+
+    assert docs.docs["sessions:session:a"]["value"] == {"n": 1}
+    assert store.write("session:b", {"n": 2}) is False
@@ -6,11 +6,13 @@ This is the TempleOS path: understand it from bare metal up.
 Components:
 - Cell: Single character with style
 - FrameBuffer: 2D array of cells with dirty tracking
+- AnsiEncoder: cell diffs to one minimal ANSI write per frame
 - Terminal: Raw terminal I/O (ANSI, ioctl)
 - Renderer: Stateless drawing primitives
 """
 
 from libs.python.terminal.cell import Cell, Style
+from libs.python.terminal.encoder import AnsiEncoder, FrameStats
 from libs.python.terminal.framebuffer import FrameBuffer
 from libs.python.terminal.renderer import Renderer
 from libs.python.terminal.terminal import Terminal
@@ -19,6 +21,8 @@ __all__ = [
     "Cell",
     "Style",
     "FrameBuffer",
+    "AnsiEncoder",
+    "FrameStats",
     "Terminal",
     "Renderer",
 ]
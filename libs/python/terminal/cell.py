@@ -6,6 +6,7 @@ This is what a framebuffer is made of.
 
 from dataclasses import dataclass
 from enum import IntEnum
+from functools import lru_cache
 
 
 class Color(IntEnum):
@@ -75,6 +76,23 @@ class Style:
     def dim(self) -> "Style":
         return self.with_attr(Attr.DIM)
 
+    def pack(self) -> int:
+        """Style as one int (what FrameBuffer stores): fg+1 | bg+1 << 5 | attrs << 10.
+
+        The default style packs to 0.
+        """
+        return (self.fg + 1) | (self.bg + 1) << 5 | self.attrs << 10
+
+    @staticmethod
+    def unpack(packed: int) -> "Style":
+        """Inverse of pack()."""
+        return _unpack_style(packed)
+
+
+@lru_cache(maxsize=None)
+def _unpack_style(packed: int) -> Style:
+    return Style(fg=Color((packed & 31) - 1), bg=Color((packed >> 5 & 31) - 1), attrs=packed >> 10)
+
 
 @dataclass(frozen=True, slots=True)
 class Cell:
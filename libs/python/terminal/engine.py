@@ -1,19 +1,23 @@
-"""Blocking synchronous engine loop.
+"""Synchronous engine loop.
 
 This is intentionally simple and blocking.
 When a node executes, the UI freezes. That's the design.
 
+The loop is event-driven (UILoop): it sleeps until a key arrives or the
+terminal is resized and renders only then - no idle ticks.
+
 Later: parallel jobs for UI. But first, understand the basics.
 """
 
-import select
+import signal
 import sys
 from collections.abc import Callable
 from dataclasses import dataclass, field
 from enum import Enum, auto
 from typing import Protocol, TypeVar
 
-from libs.python.terminal.framebuffer import FrameBuffer, create_framebuffer
+from libs.python.terminal.event_loop import FrameMetrics, UILoop
+from libs.python.terminal.framebuffer import FrameBuffer, create_framebuffer, fit_framebuffer
 from libs.python.terminal.renderer import Renderer
 from libs.python.terminal.terminal import Terminal
 
@@ -67,7 +71,7 @@ class EngineState:
 
 
 class Engine:
-    """Simple blocking engine loop.
+    """Simple event-driven engine loop.
 
     Pattern:
         engine = Engine()
@@ -76,14 +80,15 @@ class Engine:
     - update_fn(state, event) -> state  # Pure state transition
     - render_fn(state, renderer)         # Draw to framebuffer
 
-    The loop is synchronous and blocking.
-    If render_fn calls slow code, the UI freezes. Intentional.
+    Update and render run synchronously on the loop thread, after each
+    key press. If render_fn calls slow code, the UI freezes. Intentional.
     """
 
     def __init__(self) -> None:
         self.term = Terminal()
         self.fb: FrameBuffer | None = None
         self.renderer: Renderer | None = None
+        self.metrics = FrameMetrics()  # frame time and key-to-pixel latency of the last run
 
     def run(
         self,
@@ -102,44 +107,43 @@ class Engine:
             self.term.clear()
 
             # Create framebuffer
-            self.fb = create_framebuffer(self.term)
-            self.renderer = Renderer(self.fb)
-
-            # Initial render
-            render(state, self.renderer)
-            self.fb.flush(self.term)
-
-            # Main loop
-            while state.running:
-                # 1. Read input (with timeout for responsive feel)
-                event = self._read_event(timeout=0.1)
-
-                # 2. Update state
-                if event.type != InputEvent.NONE:
-                    state = update(state, event)
-
-                # 3. Render (blocks if slow)
-                self.renderer.clear()
-                render(state, self.renderer)
-                self.fb.flush(self.term)
+            fb = self.fb = create_framebuffer(self.term)
+            renderer = self.renderer = Renderer(fb)
+
+            def draw() -> None:
+                renderer.clear()
+                render(state, renderer)
+                fb.flush(self.term)
+
+            ui = UILoop(draw)
+            self.metrics = ui.metrics
+
+            def on_keys(text: str) -> None:
+                nonlocal state
+                for char in text:
+                    event = self._parse_char(char)
+                    if event.type != InputEvent.NONE:
+                        state = update(state, event)
+                        ui.invalidate()
+                    if not state.running:
+                        ui.stop()
+                        return
+
+            def on_resize() -> None:
+                fit_framebuffer(fb, self.term)
+                self.term.clear()
+                ui.invalidate()
+
+            ui.on_input(sys.stdin.fileno(), on_keys)
+            ui.on_signal(signal.SIGWINCH, on_resize)
+            if state.running:
+                ui.run()
 
         finally:
             # Cleanup
             self.term.exit_alt_screen()
             self.term.exit_raw_mode()
 
-    def _read_event(self, timeout: float = 0.1) -> Event:
-        """Read input event with timeout."""
-        ready, _, _ = select.select([sys.stdin], [], [], timeout)
-        if not ready:
-            return Event(type=InputEvent.NONE)
-
-        char = sys.stdin.read(1)
-        if not char:
-            return Event(type=InputEvent.NONE)
-
-        return self._parse_char(char)
-
     def _parse_char(self, char: str) -> Event:
         """Parse a character into an input event."""
         byte_val = ord(char)
@@ -0,0 +1,268 @@
+"""Event-driven UI loop - render when something changed, not on a timer.
+
+The old loops woke every 100 ms to select() stdin, poll background work
+and redraw the whole screen, changed or not. UILoop instead sleeps in
+asyncio until one of its sources is ready:
+- input fds (stdin) via loop.add_reader
+- CDC subscriptions, through a wake-up pipe the bus writes to when the
+  subscription's queue stops being empty (Subscription.set_wakeup_fd)
+- signals (SIGWINCH)
+- concurrent.futures completions from worker threads
+
+Handlers update state and call invalidate(). Frames are coalesced: the
+first change after an idle period renders immediately, and a burst of
+changes renders at most once per frame_interval. Nothing changed means
+nothing is drawn and no CPU is used.
+
+FrameMetrics records frame time (draw + flush) and event-to-pixel latency
+(oldest change not yet on screen -> frame written).
+
+Usage:
+    ui = UILoop(draw=lambda: (render(state, renderer), fb.flush(term)))
+    ui.on_input(sys.stdin.fileno(), handle_keys)
+    ui.on_subscription(session_ctx.subscribe(name="tui"), handle_events)
+    ui.on_signal(signal.SIGWINCH, handle_resize)
+    ui.run()  # until a handler calls ui.stop()
+"""
+
+import asyncio
+import codecs
+import os
+import time
+from collections.abc import Callable
+from concurrent.futures import Future
+from dataclasses import dataclass
+from datetime import datetime, timezone
+from typing import Any
+
+from libs.python.graph.cdc_bus import Subscription
+from libs.python.graph.context import CDCEvent
+
+DEFAULT_FRAME_INTERVAL = 1 / 60  # seconds; one display refresh
+
+
+@dataclass
+class FrameMetrics:
+    """Frame cost and responsiveness of a UILoop."""
+
+    frames: int = 0
+    wakeups: int = 0  # source callbacks run (input, CDC, signal, future)
+    last_frame_ms: float = 0.0  # draw + flush
+    max_frame_ms: float = 0.0
+    total_frame_ms: float = 0.0
+    last_latency_ms: float = 0.0  # oldest unrendered change -> frame written
+    max_latency_ms: float = 0.0
+
+    @property
+    def mean_frame_ms(self) -> float:
+        return self.total_frame_ms / self.frames if self.frames else 0.0
+
+
+def monotonic_at(when: datetime) -> float:
+    """time.monotonic() reading for a wall-clock timestamp (e.g. CDCEvent.timestamp).
+
+    Naive timestamps are UTC (CDCEvent uses datetime.utcnow()), not local time.
+    """
+    if when.tzinfo is None:
+        when = when.replace(tzinfo=timezone.utc)
+    return time.monotonic() - (time.time() - when.timestamp())
+
+
+class UILoop:
+    """Single-threaded asyncio loop that wakes on input, CDC events, signals and futures.
+
+    Handlers and draw run on the loop thread, so UI state needs no locks.
+    An exception in any of them stops the loop and is re-raised by run().
+    """
+
+    def __init__(self, draw: Callable[[], None], frame_interval: float = DEFAULT_FRAME_INTERVAL) -> None:
+        """Initialize loop.
+
+        Args:
+            draw: Renders the current state and flushes it to the terminal
+            frame_interval: Minimum seconds between frames during bursts
+        """
+        self._draw = draw
+        self.frame_interval = frame_interval
+        self.metrics = FrameMetrics()
+        self._loop: asyncio.AbstractEventLoop | None = None
+        self._stopped: asyncio.Future[None] | None = None
+        self._setup: list[Callable[[], None]] = []
+        self._teardown: list[Callable[[], None]] = []
+        self._dirty_since: float | None = None
+        self._last_frame_at = float("-inf")
+        self._frame_handle: asyncio.Handle | None = None
+
+    # === Sources ===
+
+    def on_input(self, fd: int, handler: Callable[[str], None]) -> None:
+        """Call ``handler`` with the text available on ``fd`` (UTF-8) whenever it is readable."""
+        decoder = codecs.getincrementaldecoder("utf-8")(errors="replace")
+
+        def readable() -> None:
+            data = os.read(fd, 4096)
+            if not data:
+                self._remove_reader(fd)  # EOF
+                return
+            text = decoder.decode(data)
+            if text:
+                handler(text)
+
+        self._when_running(lambda: self._add_reader(fd, readable))
+
+    def on_subscription(self, subscription: Subscription, handler: Callable[[list[CDCEvent]], None]) -> None:
+        """Call ``handler`` with every batch of events queued on a pull subscription."""
+
+        def attach() -> None:
+            wake_read, wake_write = os.pipe()
+            os.set_blocking(wake_read, False)
+            os.set_blocking(wake_write, False)
+
+            def readable() -> None:
+                try:
+                    while os.read(wake_read, 4096):
+                        pass
+                except BlockingIOError:
+                    pass
+                events = subscription.poll()
+                if events:
+                    handler(events)
+
+            def detach() -> None:
+                subscription.set_wakeup_fd(None)
+                os.close(wake_read)
+                os.close(wake_write)
+
+            self._add_reader(wake_read, readable)
+            self._teardown.append(detach)  # after the reader is removed
+            subscription.set_wakeup_fd(wake_write)
+
+        self._when_running(attach)
+
+    def on_signal(self, signum: int, handler: Callable[[], None]) -> None:
+        """Call ``handler`` on the loop thread when ``signum`` arrives (main thread only)."""
+
+        def attach() -> None:
+            loop = self._loop
+            assert loop is not None
+            loop.add_signal_handler(signum, self._guarded(handler))
+            self._teardown.append(lambda: loop.remove_signal_handler(signum))
+
+        self._when_running(attach)
+
+    def on_future(self, future: "Future[Any]", handler: Callable[["Future[Any]"], None]) -> None:
+        """Call ``handler(future)`` on the loop thread when a worker-thread future completes."""
+
+        def attach() -> None:
+            loop = self._loop
+            assert loop is not None
+            callback = self._guarded(handler)
+
+            def done(finished: "Future[Any]") -> None:
+                if not loop.is_closed():
+                    loop.call_soon_threadsafe(callback, finished)
+
+            future.add_done_callback(done)
+
+        self._when_running(attach)
+
+    # === Frames ===
+
+    def invalidate(self, since: float | None = None) -> None:
+        """Request a frame.
+
+        Args:
+            since: time.monotonic() of the change (default now), for latency metrics
+        """
+        since = time.monotonic() if since is None else since
+        if self._dirty_since is None or since < self._dirty_since:
+            self._dirty_since = since
+        if self._loop is not None and self._frame_handle is None:
+            due = self._last_frame_at + self.frame_interval
+            if due <= self._loop.time():
+                self._frame_handle = self._loop.call_soon(self._frame)
+            else:
+                self._frame_handle = self._loop.call_at(due, self._frame)
+
+    def stop(self) -> None:
+        """Stop the loop; run() returns after the current callback."""
+        if self._stopped is not None and not self._stopped.done():
+            self._stopped.set_result(None)
+
+    def run(self) -> None:
+        """Draw the first frame, then dispatch sources until stop()."""
+        asyncio.run(self._main())
+
+    # === Internal ===
+
+    async def _main(self) -> None:
+        self._loop = asyncio.get_running_loop()
+        self._stopped = self._loop.create_future()
+        try:
+            for setup in self._setup:
+                setup()
+            self._setup.clear()
+            self.invalidate()
+            await self._stopped
+        finally:
+            if self._frame_handle is not None:
+                self._frame_handle.cancel()
+                self._frame_handle = None
+            for teardown in self._teardown:
+                teardown()
+            self._teardown.clear()
+            self._loop = None
+
+    def _frame(self) -> None:
+        self._frame_handle = None
+        if self._dirty_since is None:
+            return
+        since, self._dirty_since = self._dirty_since, None
+        start = time.monotonic()
+        try:
+            self._draw()
+        except Exception as e:
+            self._fail(e)
+            return
+        end = time.monotonic()
+        self._last_frame_at = end
+        frame_ms = (end - start) * 1000
+        latency_ms = (end - since) * 1000
+        metrics = self.metrics
+        metrics.frames += 1
+        metrics.last_frame_ms = frame_ms
+        metrics.max_frame_ms = max(metrics.max_frame_ms, frame_ms)
+        metrics.total_frame_ms += frame_ms
+        metrics.last_latency_ms = latency_ms
+        metrics.max_latency_ms = max(metrics.max_latency_ms, latency_ms)
+
+    def _when_running(self, setup: Callable[[], None]) -> None:
+        if self._loop is None:
+            self._setup.append(setup)
+        else:
+            setup()
+
+    def _add_reader(self, fd: int, callback: Callable[[], None]) -> None:
+        assert self._loop is not None
+        self._loop.add_reader(fd, self._guarded(callback))
+        self._teardown.append(lambda: self._remove_reader(fd))
+
+    def _remove_reader(self, fd: int) -> None:
+        if self._loop is not None:
+            self._loop.remove_reader(fd)
+
+    def _guarded(self, handler: Callable[..., None]) -> Callable[..., None]:
+        """Wrap a source callback: count the wake-up and stop the loop if it raises."""
+
+        def call(*args: Any) -> None:
+            self.metrics.wakeups += 1
+            try:
+                handler(*args)
+            except Exception as e:
+                self._fail(e)
+
+        return call
+
+    def _fail(self, error: Exception) -> None:
+        if self._stopped is not None and not self._stopped.done():
+            self._stopped.set_exception(error)
@@ -1,12 +1,28 @@
 """FrameBuffer - 2D array of cells with dirty tracking.
 
 This is the core data structure: a grid of characters.
-When you call flush(), only changed cells are written to terminal.
+When you call flush(), only changed cells are written to terminal,
+encoded by AnsiEncoder into a single write per frame.
+
+Storage is flat and row-major: codepoints in one array('I') and packed
+styles (Style.pack) in another, so clearing, filling and comparing rows
+are C-level slice operations instead of per-Cell Python work. Writes mark
+their row dirty; flush() skips clean rows outright and dirty rows whose
+contents match what is on screen (a re-render of the same frame), so an
+unchanged frame writes nothing.
 """
 
+import sys
+from array import array
+
 from libs.python.terminal.cell import Cell, Style
+from libs.python.terminal.encoder import AnsiEncoder, FrameStats
 from libs.python.terminal.terminal import Terminal
 
+_BLANK = ord(" ")
+# Text to codepoints in one C call; native order to match array("I")
+_UTF32 = "utf-32-le" if sys.byteorder == "little" else "utf-32-be"
+
 
 class FrameBuffer:
     """2D grid of cells with differential rendering.
@@ -16,78 +32,127 @@ class FrameBuffer:
     """
 
     def __init__(self, width: int, height: int) -> None:
+        self._encoder = AnsiEncoder(capacity=width * height * 8)
+        self._allocate(width, height)
+
+    def _allocate(self, width: int, height: int) -> None:
         self.width = width
         self.height = height
+        size = width * height
 
         # Current frame (what we're drawing to)
-        self._cells: list[list[Cell]] = [[Cell.empty() for _ in range(width)] for _ in range(height)]
+        self._chars = array("I", [_BLANK]) * size
+        self._styles = array("I", [0]) * size
 
         # Previous frame (what's on screen)
-        self._prev: list[list[Cell]] = [[Cell.empty() for _ in range(width)] for _ in range(height)]
+        self._prev_chars = array("I", [_BLANK]) * size
+        self._prev_styles = array("I", [0]) * size
+
+        # Templates for clear(); rows written since the last flush
+        self._blank_chars = array("I", [_BLANK]) * size
+        self._blank_styles = array("I", [0]) * size
+        self._dirty = bytearray(height)
+        self._all_dirty = b"\x01" * height
+        self._all_clean = bytes(height)
 
         # Force full redraw on first flush
         self._force_redraw = True
 
+    @property
+    def last_frame(self) -> FrameStats:
+        """Cells, bytes, cursor moves and style changes of the last flush."""
+        return self._encoder.last
+
+    @property
+    def bytes_per_frame(self) -> float:
+        """Mean bytes written per flush so far."""
+        return self._encoder.mean_bytes_per_frame
+
     def resize(self, width: int, height: int) -> None:
         """Resize buffer. Clears content."""
-        self.width = width
-        self.height = height
-        self._cells = [[Cell.empty() for _ in range(width)] for _ in range(height)]
-        self._prev = [[Cell.empty() for _ in range(width)] for _ in range(height)]
-        self._force_redraw = True
+        self._allocate(width, height)
 
     def clear(self) -> None:
         """Clear buffer to empty cells."""
-        empty = Cell.empty()
-        for row in self._cells:
-            for i in range(len(row)):
-                row[i] = empty
+        self._chars[:] = self._blank_chars
+        self._styles[:] = self._blank_styles
+        self._dirty[:] = self._all_dirty
 
     def set_cell(self, x: int, y: int, cell: Cell) -> None:
         """Set a single cell."""
-        if 0 <= x < self.width and 0 <= y < self.height:
-            self._cells[y][x] = cell
+        self.put_char(x, y, cell.char, cell.style)
 
     def get_cell(self, x: int, y: int) -> Cell:
         """Get a single cell."""
         if 0 <= x < self.width and 0 <= y < self.height:
-            return self._cells[y][x]
+            i = y * self.width + x
+            return Cell(chr(self._chars[i]), Style.unpack(self._styles[i]))
         return Cell.empty()
 
     def put_char(self, x: int, y: int, char: str, style: Style | None = None) -> None:
         """Put a character at position with optional style."""
-        self.set_cell(x, y, Cell.from_char(char, style))
+        if 0 <= x < self.width and 0 <= y < self.height:
+            i = y * self.width + x
+            self._chars[i] = ord(char[0]) if char else _BLANK
+            self._styles[i] = style.pack() if style else 0
+            self._dirty[y] = 1
 
     def put_text(self, x: int, y: int, text: str, style: Style | None = None) -> None:
         """Put a string starting at position."""
-        for i, char in enumerate(text):
-            if x + i >= self.width:
-                break
-            self.put_char(x + i, y, char, style)
+        if not 0 <= y < self.height or x >= self.width:
+            return
+        if x < 0:
+            text = text[-x:]
+            x = 0
+        text = text[: self.width - x]
+        if not text:
+            return
+        start = y * self.width + x
+        end = start + len(text)
+        self._chars[start:end] = array("I", text.encode(_UTF32, "surrogatepass"))
+        self._styles[start:end] = array("I", [style.pack() if style else 0]) * len(text)
+        self._dirty[y] = 1
 
     def fill(self, x: int, y: int, w: int, h: int, char: str = " ", style: Style | None = None) -> None:
         """Fill a rectangle with a character."""
-        cell = Cell.from_char(char, style)
-        for row in range(y, min(y + h, self.height)):
-            for col in range(x, min(x + w, self.width)):
-                self._cells[row][col] = cell
+        x0, x1 = max(x, 0), min(x + w, self.width)
+        y0, y1 = max(y, 0), min(y + h, self.height)
+        if x0 >= x1 or y0 >= y1:
+            return
+        chars = array("I", [ord(char[0]) if char else _BLANK]) * (x1 - x0)
+        styles = array("I", [style.pack() if style else 0]) * (x1 - x0)
+        for row in range(y0, y1):
+            start = row * self.width
+            self._chars[start + x0 : start + x1] = chars
+            self._styles[start + x0 : start + x1] = styles
+            self._dirty[row] = 1
 
     def flush(self, term: Terminal) -> int:
         """Render changes to terminal. Returns number of cells written."""
         cells_written = 0
+        force = self._force_redraw
+        width = self.width
 
+        self._encoder.begin_frame()
         for y in range(self.height):
-            for x in range(self.width):
-                curr = self._cells[y][x]
-                prev = self._prev[y][x]
-
-                if self._force_redraw or curr != prev:
-                    term.move_cursor(x, y)
-                    term.write_styled(curr.char, curr.style)
-                    self._prev[y][x] = curr
-                    cells_written += 1
-
-        term.flush()
+            if not (force or self._dirty[y]):
+                continue
+            start, end = y * width, (y + 1) * width
+            chars, styles = self._chars[start:end], self._styles[start:end]
+            prev_chars, prev_styles = self._prev_chars[start:end], self._prev_styles[start:end]
+            # Re-rendered but identical: one C-level compare per array
+            if not force and chars == prev_chars and styles == prev_styles:
+                continue
+            cells_written += self._encoder.encode_row(y, chars, styles, prev_chars, prev_styles, force)
+            self._prev_chars[start:end] = chars
+            self._prev_styles[start:end] = styles
+        frame = self._encoder.end_frame()
+        try:
+            term.write_bytes(frame)
+        finally:
+            frame.release()
+
+        self._dirty[:] = self._all_clean
         self._force_redraw = False
         return cells_written
 
@@ -104,7 +169,19 @@ def create_framebuffer(term: Terminal, padding: int = 2) -> FrameBuffer:
         padding: Horizontal padding to subtract from width (default: 2).
                  Prevents content from rendering off-screen on some terminals.
     """
+    return FrameBuffer(*_fitted_size(term, padding))
+
+
+def fit_framebuffer(fb: FrameBuffer, term: Terminal, padding: int = 2) -> None:
+    """Resize a framebuffer to the current terminal size (on SIGWINCH) and force a full redraw."""
+    width, height = _fitted_size(term, padding)
+    if (width, height) != (fb.width, fb.height):
+        fb.resize(width, height)
+    fb.force_redraw()
+
+
+def _fitted_size(term: Terminal, padding: int) -> tuple[int, int]:
     size = term.get_size()
     # Apply padding to width to prevent off-screen rendering
     width = max(40, size.width - padding)
-    return FrameBuffer(width, size.height)
+    return width, size.height
@@ -59,13 +59,11 @@ class Renderer:
 
     def hline(self, x: int, y: int, length: int, style: Style | None = None) -> None:
         """Draw horizontal line."""
-        for i in range(length):
-            self.fb.put_char(x + i, y, self.box["h"], style)
+        self.fb.fill(x, y, length, 1, self.box["h"], style)
 
     def vline(self, x: int, y: int, length: int, style: Style | None = None) -> None:
         """Draw vertical line."""
-        for i in range(length):
-            self.fb.put_char(x, y + i, self.box["v"], style)
+        self.fb.fill(x, y, 1, length, self.box["v"], style)
 
     def box_frame(self, x: int, y: int, w: int, h: int, style: Style | None = None) -> None:
         """Draw a box frame (border only, no fill).
@@ -85,14 +83,12 @@ class Renderer:
         self.fb.put_char(x + w - 1, y + h - 1, self.box["br"], style)
 
         # Top and bottom edges
-        for i in range(1, w - 1):
-            self.fb.put_char(x + i, y, self.box["h"], style)
-            self.fb.put_char(x + i, y + h - 1, self.box["h"], style)
+        self.hline(x + 1, y, w - 2, style)
+        self.hline(x + 1, y + h - 1, w - 2, style)
 
         # Left and right edges
-        for i in range(1, h - 1):
-            self.fb.put_char(x, y + i, self.box["v"], style)
-            self.fb.put_char(x + w - 1, y + i, self.box["v"], style)
+        self.vline(x, y + 1, h - 2, style)
+        self.vline(x + w - 1, y + 1, h - 2, style)
 
     def fill_rect(self, x: int, y: int, w: int, h: int, char: str = " ", style: Style | None = None) -> None:
         """Fill a rectangle with a character."""
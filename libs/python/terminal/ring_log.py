@@ -0,0 +1,149 @@
+"""RingLog - bounded append-only log with O(1) persistent appends.
+
+UI state is immutable: every change returns a new state object. Keeping
+the last N events in a list then costs an O(N) copy per event
+(``[event] + timeline[: N - 1]``), which is the UI thread's whole budget
+when a graph streams thousands of node/edge/syscall events.
+
+RingLog shares one fixed-size slot array between versions. append()
+writes the next slot and returns a new view that ends one item later;
+the old view still ends where it did. Appending to an older version
+(forking history) copies the slots first, so each version reads as its
+own log.
+
+Views keep the items the ring still holds: once newer appends wrap
+around and overwrite a slot, older views drop that item from their
+window rather than return the wrong one.
+
+Usage:
+    log = RingLog(capacity=1000)
+    log = log.append(event)        # O(1)
+    log.newest(offset=0, count=20) # visible window, newest first
+    log[-1], len(log), log.total
+"""
+
+from collections.abc import Iterable, Iterator
+from typing import Generic, TypeVar, overload
+
+T = TypeVar("T")
+
+
+class _Slots(Generic[T]):
+    """Slot array shared by the versions of one log."""
+
+    __slots__ = ("items", "head")
+
+    def __init__(self, capacity: int) -> None:
+        self.items: list[T | None] = [None] * capacity
+        self.head = 0  # sequence number of the next append
+
+
+class RingLog(Generic[T]):
+    """Immutable view of the newest ``capacity`` items of an append-only log."""
+
+    __slots__ = ("capacity", "_slots", "_begin", "_end")
+
+    def __init__(self, capacity: int, items: Iterable[T] = ()) -> None:
+        if capacity < 1:
+            raise ValueError("capacity must be >= 1")
+        self.capacity = capacity
+        self._slots: _Slots[T] = _Slots(capacity)
+        self._begin = 0  # no item before this sequence number belongs to the view
+        self._end = 0
+        for item in items:
+            self._write(self._slots, item)
+            self._end += 1
+
+    @property
+    def total(self) -> int:
+        """Items ever appended, including ones that fell out of the window."""
+        return self._end
+
+    def append(self, item: T) -> "RingLog[T]":
+        """Return a log with ``item`` appended. O(1) unless this is an older version."""
+        return self.extend((item,))
+
+    def extend(self, items: Iterable[T]) -> "RingLog[T]":
+        """Return a log with ``items`` appended in order."""
+        begin = self._start()
+        slots = self._slots if self._slots.head == self._end else self._fork()
+        end = self._end
+        for item in items:
+            self._write(slots, item, end)
+            end += 1
+        if slots is self._slots and end == self._end:
+            return self
+        return self._view(slots, begin, end)
+
+    def newest(self, offset: int = 0, count: int | None = None) -> list[T]:
+        """Up to ``count`` items, newest first, skipping the ``offset`` newest."""
+        stop = self._end - max(offset, 0)
+        start = self._start() if count is None else max(self._start(), stop - count)
+        return [self._read(seq) for seq in range(stop - 1, start - 1, -1)]
+
+    def window(self, start: int, stop: int) -> list[T]:
+        """Items ``start`` to ``stop`` (oldest first, like a list slice)."""
+        return [self[i] for i in range(*slice(start, stop).indices(len(self)))]
+
+    def recent(self, index: int) -> T:
+        """The ``index``-th newest item (0 = newest)."""
+        if not 0 <= index < len(self):
+            raise IndexError("RingLog index out of range")
+        return self._read(self._end - 1 - index)
+
+    def __len__(self) -> int:
+        return self._end - self._start()
+
+    @overload
+    def __getitem__(self, index: int) -> T: ...
+
+    @overload
+    def __getitem__(self, index: slice) -> list[T]: ...
+
+    def __getitem__(self, index: int | slice) -> T | list[T]:
+        """Oldest-first indexing; negative indexes count from the newest item."""
+        if isinstance(index, slice):
+            return [self[i] for i in range(*index.indices(len(self)))]
+        size = len(self)
+        if index < 0:
+            index += size
+        if not 0 <= index < size:
+            raise IndexError("RingLog index out of range")
+        return self._read(self._start() + index)
+
+    def __iter__(self) -> Iterator[T]:
+        for seq in range(self._start(), self._end):
+            yield self._read(seq)
+
+    def __repr__(self) -> str:
+        return f"RingLog(capacity={self.capacity}, len={len(self)}, total={self._end})"
+
+    # === Internal ===
+
+    def _start(self) -> int:
+        # Oldest sequence number this view can still read: appends by newer
+        # versions may have overwritten the front of its window
+        return min(self._end, max(self._begin, self._slots.head - self.capacity))
+
+    def _read(self, seq: int) -> T:
+        return self._slots.items[seq % self.capacity]  # type: ignore[return-value]
+
+    def _write(self, slots: _Slots[T], item: T, seq: int | None = None) -> None:
+        seq = slots.head if seq is None else seq
+        slots.items[seq % self.capacity] = item
+        slots.head = seq + 1
+
+    def _fork(self) -> _Slots[T]:
+        slots: _Slots[T] = _Slots(self.capacity)
+        for seq in range(self._start(), self._end):
+            slots.items[seq % self.capacity] = self._read(seq)
+        slots.head = self._end
+        return slots
+
+    def _view(self, slots: _Slots[T], begin: int, end: int) -> "RingLog[T]":
+        log: RingLog[T] = RingLog.__new__(RingLog)
+        log.capacity = self.capacity
+        log._slots = slots
+        log._begin = begin
+        log._end = end
+        return log
@@ -120,6 +120,16 @@ class Terminal:
         os.write(self.fd, b"")  # Force flush
         sys.stdout.flush()
 
+    def write_bytes(self, data: bytes | bytearray | memoryview) -> int:
+        """Write pre-encoded output (a whole frame) with os.write. Returns bytes written."""
+        # Text written through _write is buffered in sys.stdout; keep it first
+        sys.stdout.flush()
+        with memoryview(data) as view:
+            written = 0
+            while written < len(view):
+                written += os.write(self.fd, view[written:])
+        return written
+
     # === Internal ===
 
     def _write(self, data: str) -> None:
@@ -128,28 +138,24 @@ class Terminal:
 
     def _style_to_ansi(self, style: Style) -> str:
         """Convert Style to ANSI escape sequence."""
-        codes: list[str] = []
-        self._add_attr_codes(codes, style.attrs)
-        self._add_color_codes(codes, style.fg, style.bg)
-
+        codes = sgr_codes(style)
         if not codes:
             return ""
         return f"\x1b[{';'.join(codes)}m"
 
-    def _add_attr_codes(self, codes: list[str], attrs: int) -> None:
-        """Add attribute codes to the list."""
-        attr_map = [(Attr.BOLD, "1"), (Attr.DIM, "2"), (Attr.ITALIC, "3"), (Attr.UNDERLINE, "4"), (Attr.REVERSE, "7")]
-        for attr, code in attr_map:
-            if attrs & attr:
-                codes.append(code)
-
-    def _add_color_codes(self, codes: list[str], fg: Color, bg: Color) -> None:
-        """Add foreground and background color codes."""
-        # Foreground (30-37 normal, 90-97 bright)
-        if fg != Color.DEFAULT:
-            base = 30 if fg < 8 else 82  # 90 - 8 = 82
-            codes.append(str(base + fg))
-        # Background (40-47 normal, 100-107 bright)
-        if bg != Color.DEFAULT:
-            base = 40 if bg < 8 else 92  # 100 - 8 = 92
-            codes.append(str(base + bg))
+
+_ATTR_CODES = [(Attr.BOLD, "1"), (Attr.DIM, "2"), (Attr.ITALIC, "3"), (Attr.UNDERLINE, "4"), (Attr.REVERSE, "7")]
+
+
+def sgr_codes(style: Style) -> list[str]:
+    """SGR parameter codes for a style (empty for the default style)."""
+    codes = [code for attr, code in _ATTR_CODES if style.attrs & attr]
+    # Foreground (30-37 normal, 90-97 bright)
+    if style.fg != Color.DEFAULT:
+        base = 30 if style.fg < 8 else 82  # 90 - 8 = 82
+        codes.append(str(base + style.fg))
+    # Background (40-47 normal, 100-107 bright)
+    if style.bg != Color.DEFAULT:
+        base = 40 if style.bg < 8 else 92  # 100 - 8 = 92
+        codes.append(str(base + style.bg))
+    return codes
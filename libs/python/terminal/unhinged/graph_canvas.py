@@ -1,7 +1,8 @@
 """GraphCanvas - Renders a full graph through a viewport.
 
 The canvas is responsible for:
-- Drawing all visible nodes and edges
+- Drawing all visible nodes and edges, found through the layout's spatial
+  index rather than by walking the whole graph
 - Transforming world coordinates to screen coordinates via viewport
 - Visual styling (selection, highlighting, animations)
 
@@ -15,6 +16,7 @@ from libs.python.models.graph.schema import Graph, Node
 from libs.python.terminal.cell import Color, Style
 from libs.python.terminal.renderer import Renderer
 from libs.python.terminal.unhinged.graph_layout import GraphLayout
+from libs.python.terminal.unhinged.spatial_index import Rect
 from libs.python.terminal.unhinged.viewport import Viewport
 
 # =============================================================================
@@ -37,12 +39,25 @@ class GraphStyle:
 
 DEFAULT_STYLE = GraphStyle()
 
+NODE_MARGIN = 10  # node labels extend up to 8 cells either side of their position
+EDGE_MARGIN = 1  # edges are clipped while drawing; one cell of slack is enough
+
 
 # =============================================================================
 # Edge Rendering
 # =============================================================================
 
 
+def _world_rect(viewport: Viewport, margin: int, offset_x: int = 0, offset_y: int = 0) -> Rect:
+    """World rectangle that lands within margin cells of the viewport on screen.
+
+    One extra unit on each side covers int() truncation in world_to_screen.
+    """
+    left = viewport.world_x - offset_x - margin - 1
+    top = viewport.world_y - offset_y - margin - 1
+    return (left, top, left + viewport.width + 2 * margin + 2, top + viewport.height + 2 * margin + 2)
+
+
 def _draw_edge_line(
     r: Renderer,
     x1: int,
@@ -52,32 +67,36 @@ def _draw_edge_line(
     viewport: Viewport,
     style: Style,
 ) -> None:
-    """Draw a line between two screen positions."""
-    # Simple line drawing - horizontal then vertical
+    """Draw a line between two screen positions.
+
+    Horizontal from (x1, y1) up to x2, then vertical to an arrow at (x2, y2).
+    Each segment is clipped to the viewport first, so a long edge costs
+    only its visible cells.
+    """
+    width = viewport.width
+    height = viewport.height
     dx = x2 - x1
     dy = y2 - y1
 
-    # Draw horizontal segment
-    if dx != 0:
-        step = 1 if dx > 0 else -1
-        for x in range(x1, x1 + dx, step):
-            if 0 <= x < viewport.width and 0 <= y1 < viewport.height:
-                r.char(x, y1, "─", style)
+    # Draw horizontal segment (x2 itself belongs to the vertical one)
+    if dx != 0 and 0 <= y1 < height:
+        lo, hi = (x1, x2 - 1) if dx > 0 else (x2 + 1, x1)
+        lo, hi = max(lo, 0), min(hi, width - 1)
+        if lo <= hi:
+            r.fill_rect(lo, y1, hi - lo + 1, 1, "─", style)
 
     # Draw vertical segment
-    if dy != 0:
-        step = 1 if dy > 0 else -1
-        mid_x = x1 + dx
-        for y in range(y1, y1 + dy + step, step):
-            if 0 <= mid_x < viewport.width and 0 <= y < viewport.height:
-                char = "│"
-                # Corner at junction
-                if y == y1 and dx != 0:
-                    char = "┐" if dx > 0 else "┌"
-                # Arrow at end
-                elif y == y2:
-                    char = "▼" if dy > 0 else "▲"
-                r.char(mid_x, y, char, style)
+    if dy != 0 and 0 <= x2 < width:
+        lo, hi = (y1, y2) if dy > 0 else (y2, y1)
+        lo, hi = max(lo, 0), min(hi, height - 1)
+        if lo <= hi:
+            r.fill_rect(x2, lo, 1, hi - lo + 1, "│", style)
+            # Corner at junction
+            if dx != 0 and 0 <= y1 < height:
+                r.char(x2, y1, "┐" if dx > 0 else "┌", style)
+            # Arrow at end
+            if 0 <= y2 < height:
+                r.char(x2, y2, "▼" if dy > 0 else "▲", style)
 
 
 def render_edges(
@@ -90,25 +109,16 @@ def render_edges(
     offset_x: int = 0,
     offset_y: int = 0,
 ) -> None:
-    """Render all visible edges."""
+    """Render all edges that cross the viewport."""
     edge_style = Style(fg=style.edge_color)
+    index = layout.spatial_index(graph)
 
-    for edge in graph.edges:
-        src_pos = layout.get_position(edge.source_node_id)
-        tgt_pos = layout.get_position(edge.target_node_id)
-        if not src_pos or not tgt_pos:
-            continue
+    for i in index.edges_in(_world_rect(viewport, EDGE_MARGIN, offset_x, offset_y)):
+        src_x, src_y, tgt_x, tgt_y = index.edge_routes[i]  # type: ignore[misc]
 
         # Convert to screen coords
-        sx1, sy1 = viewport.world_to_screen(src_pos[0], src_pos[1])
-        sx2, sy2 = viewport.world_to_screen(tgt_pos[0], tgt_pos[1])
-
-        # Skip if completely off screen
-        if not (
-            viewport.is_visible(src_pos[0], src_pos[1], margin=2)
-            or viewport.is_visible(tgt_pos[0], tgt_pos[1], margin=2)
-        ):
-            continue
+        sx1, sy1 = viewport.world_to_screen(src_x, src_y)
+        sx2, sy2 = viewport.world_to_screen(tgt_x, tgt_y)
 
         # Offset to connect from bottom of source to top of target
         _draw_edge_line(r, sx1 + offset_x, sy1 + 1 + offset_y, sx2 + offset_x, sy2 - 1 + offset_y, viewport, edge_style)
@@ -138,11 +148,11 @@ def render_node(
     # Node style
     border_style = Style(
         fg=style.selected_fg if selected else style.node_border,
-        bg=style.selected_bg if selected else None,
+        bg=style.selected_bg if selected else Color.DEFAULT,
     )
     label_style = Style(
         fg=style.selected_fg if selected else style.node_fg,
-        bg=style.selected_bg if selected else None,
+        bg=style.selected_bg if selected else Color.DEFAULT,
     )
 
     # Draw simple box: [NodeName]
@@ -162,14 +172,16 @@ def render_nodes(
     offset_y: int = 0,
 ) -> None:
     """Render all visible nodes."""
-    for node in graph.nodes:
-        pos = layout.get_position(node.id)
-        if not pos:
-            continue
+    index = layout.spatial_index(graph)
+
+    for i in index.nodes_in(_world_rect(viewport, NODE_MARGIN)):
+        pos = index.node_points[i]
+        assert pos is not None
 
-        # Check visibility
-        if not viewport.is_visible(pos[0], pos[1], margin=10):
+        # Check visibility (the index query is a slightly larger rectangle)
+        if not viewport.is_visible(pos[0], pos[1], margin=NODE_MARGIN):
             continue
+        node = graph.nodes[i]
 
         # Convert to screen
         sx, sy = viewport.world_to_screen(pos[0], pos[1])
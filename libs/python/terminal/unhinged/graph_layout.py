@@ -4,12 +4,14 @@ Calculates world coordinates for all nodes in a graph.
 Different algorithms can be used depending on graph type.
 
 Pattern: Pure functions that take a Graph and return a GraphLayout.
-Layouts are immutable and can be cached.
+Layouts are immutable and can be cached, along with the spatial index
+the canvas queries for visible nodes and edges.
 """
 
-from dataclasses import dataclass
+from dataclasses import dataclass, field
 
 from libs.python.models.graph.schema import Graph
+from libs.python.terminal.unhinged.spatial_index import GraphIndex
 
 
 @dataclass(frozen=True)
@@ -23,6 +25,7 @@ class GraphLayout:
 
     positions: dict[str, tuple[float, float]]
     bounds: tuple[float, float, float, float]  # min_x, min_y, max_x, max_y
+    _index: GraphIndex | None = field(default=None, init=False, repr=False, compare=False)
 
     @property
     def width(self) -> float:
@@ -43,6 +46,18 @@ class GraphLayout:
         """Get position of a node, or None if not in layout."""
         return self.positions.get(node_id)
 
+    def spatial_index(self, graph: Graph) -> GraphIndex:
+        """Spatial index of graph's nodes and edges at this layout's positions.
+
+        Built on first use and kept with the layout; rebuilt only if the
+        graph's node or edge lists changed since.
+        """
+        index = self._index
+        if index is None or not index.matches(graph):
+            index = GraphIndex(graph, self.positions)
+            object.__setattr__(self, "_index", index)
+        return index
+
 
 def calculate_hierarchical_layout(
     graph: Graph,
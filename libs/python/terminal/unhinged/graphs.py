@@ -34,8 +34,13 @@ def _get_document_store():
 def _load_graphs(limit: int = 10) -> list[GraphSlot]:
     """Load recent graphs from document store."""
     try:
+        from libs.python.persistence import DocumentQuery
+
         store = _get_document_store()
-        docs = store.query("graphs", limit=limit)
+        docs = store.find(
+            "graphs",
+            DocumentQuery(fields=["name", "description", "node_count"], order_by="updated_at", limit=limit),
+        ).documents
         return [
             GraphSlot(
                 graph_id=doc.id,
@@ -34,7 +34,8 @@ from typing import Any
 from libs.python.graph.context import CDCEvent, CDCEventType, SessionContext
 from libs.python.terminal.cell import Color, Style
 from libs.python.terminal.engine import Event, InputEvent
-from libs.python.terminal.framebuffer import create_framebuffer
+from libs.python.terminal.event_loop import UILoop, monotonic_at
+from libs.python.terminal.framebuffer import create_framebuffer, fit_framebuffer
 from libs.python.terminal.renderer import Renderer
 from libs.python.terminal.terminal import Terminal
 from libs.python.terminal.unhinged.state import (
@@ -44,6 +45,7 @@ from libs.python.terminal.unhinged.state import (
     TUIFlightObserver,
     VoiceMode,
     create_main_state,
+    event_preview,
 )
 
 # Single worker for background processing (transcription + LLM)
@@ -143,7 +145,7 @@ def render(state: MainState, r: Renderer) -> None:
 
     # Render transcript entries (last N that fit)
     max_entries = transcript_height - 2
-    visible_transcript = state.transcript[-max_entries:] if state.transcript else []
+    visible_transcript = state.transcript[-max_entries:]
     # Calculate which visible index corresponds to selected row
     transcript_offset = max(0, len(state.transcript) - max_entries)
     for i, entry in enumerate(visible_transcript):
@@ -172,7 +174,7 @@ def render(state: MainState, r: Renderer) -> None:
     # Render timeline events
     max_events = timeline_height - 2
     start_idx = state.timeline_scroll
-    visible_events = state.timeline[start_idx : start_idx + max_events]
+    visible_events = state.timeline.newest(start_idx, max_events)
     for i, event in enumerate(visible_events):
         y = timeline_start + 1 + i
         if y >= timeline_start + timeline_height - 1:
@@ -181,7 +183,7 @@ def render(state: MainState, r: Renderer) -> None:
         is_selected = timeline_focused and actual_idx == state.selected_timeline_row
         time_str = event.timestamp.strftime("%H:%M:%S")
         event_type = event.event_type.value[:15].ljust(15)
-        data_preview = str(event.data)[: w - 32] if event.data else ""
+        data_preview = event_preview(event.data)[: w - 32] if event.data else ""
         prefix = ">" if is_selected else " "
         if is_selected:
             full_line = f"{prefix}{time_str}  {event_type} {data_preview}"
@@ -327,13 +329,12 @@ def _stop_recording(
 
 
 def _poll_processing(state: MainState, processing: ProcessingState) -> tuple[MainState, ProcessingState]:
-    """Poll for background processing completion. Non-blocking."""
+    """Apply finished background processing to state (no-op while it runs). Non-blocking."""
     if processing.future is None:
         return state, processing
 
     if not processing.future.done():
-        # Still running - sync timeline to show progress
-        state = _sync_timeline(state)
+        # Still running - its CDC events reach the timeline via the main loop's subscription
         return state, processing
 
     # Processing complete - get result
@@ -355,48 +356,40 @@ def _poll_processing(state: MainState, processing: ProcessingState) -> tuple[Mai
     except Exception as e:
         state = state.set_status(f"Error: {e}")
 
-    # Sync timeline one final time
-    state = _sync_timeline(state)
-
     # Reset processing state
     processing = ProcessingState()
     return state.set_voice_mode(VoiceMode.IDLE), processing
 
 
-def _sync_timeline(state: MainState) -> MainState:
-    """Sync timeline from session_ctx's CDC feed.
+def run_main(session_ctx: SessionContext) -> None:
+    """Run the main voice interface screen with CDC event wiring.
 
-    During blocking operations (transcription, command execution),
-    events are emitted but the callback updates may be lost when
-    _stop_recording returns a new state. This syncs any missing events.
+    Event-driven: the loop sleeps until a key, a CDC event, a resize or the
+    background worker finishing, and renders only when state changed.
     """
-    # Get all events from session_ctx
-    all_events = state.session_ctx._cdc_feed
-
-    # Find events not yet in timeline (by comparing counts)
-    current_count = len(state.timeline)
-    if len(all_events) > current_count:
-        # Add missing events
-        for event in all_events[current_count:]:
-            state = state.add_timeline_event(event)
-
-    return state
-
-
-def run_main(session_ctx: SessionContext) -> None:
-    """Run the main voice interface screen with CDC event wiring."""
-    import select
+    import signal
     import sys
 
     # Create initial state
     state = create_main_state(session_ctx)
     state = state.set_status("Press E to speak, W/S to scroll, Q to back")
 
-    # Background recording state (polled each tick)
+    # Background recording state
     recording = RecordingState()
     # Background processing state (transcription + command execution)
     processing = ProcessingState()
 
+    term = Terminal()
+    fb = create_framebuffer(term)
+    renderer = Renderer(fb)
+
+    def draw() -> None:
+        renderer.clear()
+        render(state, renderer)
+        fb.flush(term)
+
+    ui = UILoop(draw)
+
     # Create flight observer for transcript and status updates
     # Uses getter/setter pattern to access nonlocal state
     def get_state() -> MainState:
@@ -404,75 +397,84 @@ def run_main(session_ctx: SessionContext) -> None:
 
     def set_state(new_state: MainState) -> None:
         nonlocal state
-        state = new_state
+        if new_state is not state:
+            state = new_state
+            ui.invalidate()
+        if not state.running:
+            ui.stop()
 
     flight_observer = TUIFlightObserver(get_state, set_state)
 
-    # Wire CDC callback to update timeline and delegate to observer
-    def on_cdc_event(event: CDCEvent) -> None:
-        nonlocal state
-        # Timeline always gets all events
-        state = state.add_timeline_event(event)
+    # CDC events arrive on a pull subscription whose wake-up pipe the loop
+    # watches, so state is only touched on this thread (the audio worker
+    # emits from another) and events render as soon as they land
+    cdc_events = session_ctx.subscribe(name="tui")
+
+    def on_cdc_events(events: list[CDCEvent]) -> None:
+        # Latency is measured from emit, not from when the loop woke
+        ui.invalidate(since=monotonic_at(events[0].timestamp))
+
+        # Timeline always gets all events (one state per batch)
+        set_state(state.add_timeline_events(events))
 
         # Delegate transcript/status updates to observer (DRY, reusable)
-        flight_observer.on_event(
-            stage=None,  # Stage tracking is optional for now
-            event_type=event.event_type.value,  # Convert enum to string
-            data=event.data,
-        )
+        for event in events:
+            flight_observer.on_event(
+                stage=None,  # Stage tracking is optional for now
+                event_type=event.event_type.value,  # Convert enum to string
+                data=event.data,
+            )
+
+    def on_processing_done(_future: Future[dict[str, Any]]) -> None:
+        nonlocal processing
+        new_state, processing = _poll_processing(state, processing)
+        set_state(new_state)
+
+    def on_keys(text: str) -> None:
+        nonlocal recording, processing
+        for char in text:
+            event = _parse_char(char)
+
+            if event.type == InputEvent.INTERACT:
+                # Toggle recording (only if not currently processing)
+                if processing.future is not None:
+                    # Already processing, ignore E key
+                    continue
+                if recording.proc is None:
+                    # Start recording (non-blocking)
+                    # Reset observer dedupe state for new conversation turn
+                    flight_observer.reset()
+                    new_state, recording = _start_recording(state, recording)
+                else:
+                    # Stop recording and submit to background (non-blocking!)
+                    new_state, recording, processing = _stop_recording(state, recording, processing)
+                    if processing.future is not None:
+                        ui.on_future(processing.future, on_processing_done)
+                set_state(new_state)
+            else:
+                set_state(update(state, event))
 
-    session_ctx.set_live_callback(on_cdc_event)
+            if not state.running:
+                return
+
+    def on_resize() -> None:
+        fit_framebuffer(fb, term)
+        term.clear()
+        ui.invalidate()
 
     # Emit session start
     session_ctx.emit(CDCEventType.STATE_CREATE, {"screen": "main", "session_id": session_ctx.session_id})
 
     # Setup terminal
-    term = Terminal()
     try:
         term.enter_raw_mode()
         term.enter_alt_screen()
         term.clear()
 
-        fb = create_framebuffer(term)
-        renderer = Renderer(fb)
-
-        # Initial render
-        render(state, renderer)
-        fb.flush(term)
-
-        # Main loop - 0.1s tick
-        while state.running:
-            # Poll for background processing completion (non-blocking)
-            state, processing = _poll_processing(state, processing)
-
-            # Read input with timeout
-            ready, _, _ = select.select([sys.stdin], [], [], 0.1)
-
-            if ready:
-                char = sys.stdin.read(1)
-                if char:
-                    event = _parse_char(char)
-
-                    if event.type == InputEvent.INTERACT:
-                        # Toggle recording (only if not currently processing)
-                        if processing.future is not None:
-                            # Already processing, ignore E key
-                            pass
-                        elif recording.proc is None:
-                            # Start recording (non-blocking)
-                            # Reset observer dedupe state for new conversation turn
-                            flight_observer.reset()
-                            state, recording = _start_recording(state, recording)
-                        else:
-                            # Stop recording and submit to background (non-blocking!)
-                            state, recording, processing = _stop_recording(state, recording, processing)
-                    else:
-                        state = update(state, event)
-
-            # Render (now happens every 0.1s regardless of processing!)
-            renderer.clear()
-            render(state, renderer)
-            fb.flush(term)
+        ui.on_input(sys.stdin.fileno(), on_keys)
+        ui.on_subscription(cdc_events, on_cdc_events)
+        ui.on_signal(signal.SIGWINCH, on_resize)
+        ui.run()
 
     finally:
         # Cleanup: stop any active recording
@@ -488,7 +490,7 @@ def run_main(session_ctx: SessionContext) -> None:
         if processing.future and not processing.future.done():
             processing.future.cancel()
 
-        session_ctx.set_live_callback(None)
+        session_ctx.unsubscribe(cdc_events)
         term.exit_alt_screen()
         term.exit_raw_mode()
 
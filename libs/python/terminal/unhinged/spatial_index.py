@@ -0,0 +1,150 @@
+"""GraphIndex - uniform-grid spatial index over a laid-out graph.
+
+The canvas used to walk every node and edge each frame, looking up
+positions and testing visibility one element at a time. On generated
+graphs (query plans, unrolled loops: thousands of nodes) that walk was
+the frame, even when a few dozen elements were on screen.
+
+GraphIndex is built once per layout (GraphLayout.spatial_index) and
+answers "what intersects this world rectangle" by visiting only the grid
+cells the rectangle covers:
+- Nodes are points, stored in the cell that contains them.
+- Edges are drawn as an L: across from the source, then down (or up) to
+  the target. Each leg is an axis-aligned segment. Short legs are stored
+  in every cell they cross; legs longer than LONG_SEGMENT_CELLS go in one
+  row band (horizontal) or column band (vertical) instead, so a wide
+  fan-out does not fill thousands of cells.
+
+Queries return indexes into graph.nodes / graph.edges in graph order, so
+drawing the results keeps the overlap order of a full walk.
+
+Usage:
+    index = layout.spatial_index(graph)
+    for i in index.nodes_in((min_x, min_y, max_x, max_y)):
+        x, y = index.node_points[i]
+"""
+
+from math import floor
+
+from libs.python.models.graph.schema import Graph
+
+CELL_SIZE = 32  # world units per grid cell, about a third of a terminal width
+LONG_SEGMENT_CELLS = 16  # legs crossing more cells than this go in a band
+
+Rect = tuple[float, float, float, float]  # min_x, min_y, max_x, max_y (inclusive)
+
+
+class GraphIndex:
+    """Grid of node points and edge legs for one graph at one layout."""
+
+    def __init__(
+        self,
+        graph: Graph,
+        positions: dict[str, tuple[float, float]],
+        cell_size: float = CELL_SIZE,
+    ) -> None:
+        """Index graph's nodes and edges at positions.
+
+        Args:
+            graph: Graph whose nodes and edges are indexed
+            positions: node_id -> (x, y) world position (GraphLayout.positions)
+            cell_size: Grid cell edge length in world units
+        """
+        self.cell_size = cell_size
+        self._nodes = graph.nodes
+        self._edges = graph.edges
+        self._counts = (len(graph.nodes), len(graph.edges))
+
+        # Aligned with graph.nodes / graph.edges; None when not in the layout
+        self.node_points: list[tuple[float, float] | None] = []
+        # (source_x, source_y, target_x, target_y) world positions
+        self.edge_routes: list[tuple[float, float, float, float] | None] = []
+
+        self._node_cells: dict[tuple[int, int], list[int]] = {}
+        self._edge_cells: dict[tuple[int, int], list[int]] = {}
+        self._edge_rows: dict[int, list[tuple[float, float, int]]] = {}  # cy -> (min_x, max_x, edge)
+        self._edge_cols: dict[int, list[tuple[float, float, int]]] = {}  # cx -> (min_y, max_y, edge)
+
+        for i, node in enumerate(graph.nodes):
+            point = positions.get(node.id)
+            self.node_points.append(point)
+            if point:
+                self._node_cells.setdefault(self._cell(point[0], point[1]), []).append(i)
+
+        for i, edge in enumerate(graph.edges):
+            source = positions.get(edge.source_node_id)
+            target = positions.get(edge.target_node_id)
+            if not source or not target:
+                self.edge_routes.append(None)
+                continue
+            sx, sy = source
+            tx, ty = target
+            self.edge_routes.append((sx, sy, tx, ty))
+            # Legs as drawn: across below the source, then along the target's x
+            self._add_leg(i, min(sx, tx), sy + 1, max(sx, tx), sy + 1)
+            self._add_leg(i, tx, min(sy + 1, ty - 1), tx, max(sy + 1, ty - 1))
+
+    def matches(self, graph: Graph) -> bool:
+        """Whether this index was built from graph's current node and edge lists."""
+        return (
+            graph.nodes is self._nodes
+            and graph.edges is self._edges
+            and (len(graph.nodes), len(graph.edges)) == self._counts
+        )
+
+    def nodes_in(self, rect: Rect) -> list[int]:
+        """Indexes of nodes positioned inside rect, in graph order."""
+        min_x, min_y, max_x, max_y = rect
+        found = []
+        for key in self._cells_in(rect):
+            for i in self._node_cells.get(key, ()):
+                x, y = self.node_points[i]  # type: ignore[misc]
+                if min_x <= x <= max_x and min_y <= y <= max_y:
+                    found.append(i)
+        found.sort()
+        return found
+
+    def edges_in(self, rect: Rect) -> list[int]:
+        """Indexes of edges with a leg in a grid cell or band rect overlaps, in graph order.
+
+        Cell hits are not clipped exactly; rasterization clips to the viewport.
+        """
+        min_x, min_y, max_x, max_y = rect
+        found: set[int] = set()
+        cx0, cy0 = self._cell(min_x, min_y)
+        cx1, cy1 = self._cell(max_x, max_y)
+        for key in self._cells_in(rect):
+            found.update(self._edge_cells.get(key, ()))
+        for cy in range(cy0, cy1 + 1):
+            for lo, hi, i in self._edge_rows.get(cy, ()):
+                if lo <= max_x and hi >= min_x:
+                    found.add(i)
+        for cx in range(cx0, cx1 + 1):
+            for lo, hi, i in self._edge_cols.get(cx, ()):
+                if lo <= max_y and hi >= min_y:
+                    found.add(i)
+        return sorted(found)
+
+    # === Internal ===
+
+    def _cell(self, x: float, y: float) -> tuple[int, int]:
+        return (floor(x / self.cell_size), floor(y / self.cell_size))
+
+    def _cells_in(self, rect: Rect) -> list[tuple[int, int]]:
+        cx0, cy0 = self._cell(rect[0], rect[1])
+        cx1, cy1 = self._cell(rect[2], rect[3])
+        return [(cx, cy) for cy in range(cy0, cy1 + 1) for cx in range(cx0, cx1 + 1)]
+
+    def _add_leg(self, edge: int, min_x: float, min_y: float, max_x: float, max_y: float) -> None:
+        cx0, cy0 = self._cell(min_x, min_y)
+        cx1, cy1 = self._cell(max_x, max_y)
+        across, down = cx1 - cx0 + 1, cy1 - cy0 + 1
+        if across * down <= LONG_SEGMENT_CELLS:
+            for key in self._cells_in((min_x, min_y, max_x, max_y)):
+                self._edge_cells.setdefault(key, []).append(edge)
+        elif across >= down:
+            for cy in range(cy0, cy1 + 1):
+                self._edge_rows.setdefault(cy, []).append((min_x, max_x, edge))
+        else:
+            for cx in range(cx0, cx1 + 1):
+                self._edge_cols.setdefault(cx, []).append((min_y, max_y, edge))
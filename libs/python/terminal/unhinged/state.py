@@ -12,6 +12,8 @@ from datetime import datetime
 from enum import Enum, auto
 from typing import TYPE_CHECKING, Any
 
+from libs.python.terminal.ring_log import RingLog
+
 if TYPE_CHECKING:
     from libs.python.graph.context import CDCEvent, SessionContext
 
@@ -363,6 +365,24 @@ class TranscriptEntry:
         return self.timestamp.strftime("%H:%M:%S")
 
 
+# Entries kept in memory for scroll-back (RingLog: appends are O(1) at any size)
+TRANSCRIPT_MAX = 1000
+TIMELINE_MAX = 1000
+
+
+def event_preview(data: dict[str, Any]) -> str:
+    """One-line event data: large payloads (PayloadRefs) shown as their top-level keys, not decoded."""
+    from libs.python.graph.payload_store import PayloadRef
+
+    if not any(isinstance(v, PayloadRef) for v in data.values()):
+        return str(data)
+    parts = [
+        f"{k!r}: {{{', '.join(v.top_keys[:3])}...}}" if isinstance(v, PayloadRef) else f"{k!r}: {v!r}"
+        for k, v in data.items()
+    ]
+    return "{" + ", ".join(parts) + "}"
+
+
 @dataclass
 class MainState:
     """State for the main voice interface.
@@ -390,13 +410,12 @@ class MainState:
     # Session context (carries CDC feed)
     session_ctx: "SessionContext"
 
-    # Conversation transcript (user ↔ system)
-    transcript: list[TranscriptEntry] = field(default_factory=list)
+    # Conversation transcript (user ↔ system), oldest first
+    transcript: RingLog[TranscriptEntry] = field(default_factory=lambda: RingLog(TRANSCRIPT_MAX))
 
-    # CDC timeline (all events, newest first for display)
-    timeline: list["CDCEvent"] = field(default_factory=list)
-    timeline_max: int = 50  # Max events to keep in memory
-    timeline_scroll: int = 0  # Scroll offset for timeline view
+    # CDC timeline (all events; read newest first with timeline.newest())
+    timeline: RingLog["CDCEvent"] = field(default_factory=lambda: RingLog(TIMELINE_MAX))
+    timeline_scroll: int = 0  # Scroll offset for timeline view (events back from newest)
 
     # Panel focus and selection (for navigation)
     focused_panel: Panel = Panel.TRANSCRIPT
@@ -423,17 +442,20 @@ class MainState:
     @property
     def event_count(self) -> int:
         """Total events in session."""
-        return len(self.session_ctx._cdc_feed)
+        return self.session_ctx.cdc_count()
 
     def add_transcript(self, role: TranscriptRole, content: str) -> "MainState":
         """Add entry to transcript."""
         entry = TranscriptEntry(role=role, content=content)
-        return self._replace(transcript=[*self.transcript, entry])
+        return self._replace(transcript=self.transcript.append(entry))
 
     def add_timeline_event(self, event: "CDCEvent") -> "MainState":
-        """Add CDC event to timeline (newest first)."""
-        events = [event] + self.timeline[: self.timeline_max - 1]
-        return self._replace(timeline=events)
+        """Add CDC event to timeline."""
+        return self._replace(timeline=self.timeline.append(event))
+
+    def add_timeline_events(self, events: list["CDCEvent"]) -> "MainState":
+        """Add a batch of CDC events to timeline with a single state copy."""
+        return self._replace(timeline=self.timeline.extend(events)) if events else self
 
     def set_voice_mode(self, mode: VoiceMode) -> "MainState":
         """Set voice input mode."""
@@ -487,8 +509,8 @@ class MainState:
                 return entry.content
         else:
             if 0 <= self.selected_timeline_row < len(self.timeline):
-                event = self.timeline[self.selected_timeline_row]
-                return f"{event.event_type.value}: {event.data}"
+                event = self.timeline.recent(self.selected_timeline_row)
+                return f"{event.event_type.value}: {self.session_ctx.event_data(event)}"
         return ""
 
     def quit(self) -> "MainState":
@@ -501,7 +523,6 @@ class MainState:
             session_ctx=changes.get("session_ctx", self.session_ctx),
             transcript=changes.get("transcript", self.transcript),
             timeline=changes.get("timeline", self.timeline),
-            timeline_max=changes.get("timeline_max", self.timeline_max),
             timeline_scroll=changes.get("timeline_scroll", self.timeline_scroll),
             focused_panel=changes.get("focused_panel", self.focused_panel),
             selected_transcript_row=changes.get("selected_transcript_row", self.selected_transcript_row),
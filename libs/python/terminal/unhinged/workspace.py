@@ -291,13 +291,12 @@ def _update_graph_mode(state: WorkspaceState, event: Event) -> WorkspaceState:
     # E to center viewport on selected node
     if event.type == InputEvent.CHAR and event.char == "e":
         if gs.selected_node_id:
-            from libs.python.terminal.unhinged.graph_layout import calculate_hierarchical_layout
             from libs.python.terminal.unhinged.graph_types import get_node
 
             node = get_node(state.graph, gs.selected_node_id)
             if node:
-                # Get layout to find node position
-                layout = calculate_hierarchical_layout(state.graph)
+                # Get layout to find node position (the one being rendered)
+                layout = _get_or_create_layout(state.graph)
                 pos = layout.get_position(gs.selected_node_id)
                 if pos:
                     # Center viewport on this position
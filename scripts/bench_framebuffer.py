@@ -0,0 +1,124 @@
+#!/usr/bin/env python3
+"""Benchmark FrameBuffer.flush output size against per-cell escapes.
+
+@llm-type script.benchmark
+@llm-does measure bytes and writes per frame for a scrolling timeline on a 200x60 terminal
+
+Renders a timeline pane that scrolls by one line per frame (the case that
+tears over SSH), plus a full redraw, and reports per frame:
+- "per-cell": the former flush - cursor move, full SGR, char and reset
+  for every changed cell, each a separate stdout write
+- "encoded": FrameBuffer.flush through AnsiEncoder, one os.write
+
+and the cost of an idle tick: flushing an untouched buffer, and clearing,
+re-drawing and flushing an identical frame.
+
+Output goes to /dev/null; scroll times are draw + flush without terminal I/O.
+
+Usage:
+    python3 scripts/bench_framebuffer.py [--frames 200] [--width 200] [--height 60]
+"""
+
+from __future__ import annotations
+
+import argparse
+import os
+import sys
+import time
+from collections.abc import Callable
+from pathlib import Path
+
+sys.path.insert(0, str(Path(__file__).resolve().parents[1]))
+
+from libs.python.terminal.cell import Color, Style
+from libs.python.terminal.framebuffer import FrameBuffer
+from libs.python.terminal.terminal import Terminal
+
+_STYLES = (Style(fg=Color.CYAN), Style(fg=Color.GREEN), Style(fg=Color.YELLOW).bold(), Style().dim())
+_EVENTS = ("node.start", "node.stream", "node.complete", "state.update", "llm.token")
+
+
+def draw_timeline(fb: FrameBuffer, top: int) -> None:
+    """Timeline pane: one event per line, starting at event ``top``."""
+    fb.clear()
+    for y in range(fb.height):
+        n = top + y
+        fb.put_text(0, y, f"{n:>6} ", _STYLES[3])
+        fb.put_text(7, y, f"{_EVENTS[n % len(_EVENTS)]:<14}", _STYLES[n % 3])
+        fb.put_text(22, y, f"session=s{n % 7} node=n{n % 13} payload={'x' * (n * 7 % 90)}")
+
+
+def per_cell_cost(fb: FrameBuffer, prev: list[list[tuple[str, Style]]], term: Terminal) -> tuple[int, int]:
+    """Bytes and writes the former flush would emit; updates ``prev``."""
+    total = writes = 0
+    for y in range(fb.height):
+        for x in range(fb.width):
+            cell = fb.get_cell(x, y)
+            if prev[y][x] != (cell.char, cell.style):
+                total += len(f"\x1b[{y + 1};{x + 1}H") + len(term._style_to_ansi(cell.style)) + len(cell.char) + 4
+                writes += 4
+                prev[y][x] = (cell.char, cell.style)
+    return total, writes
+
+
+def best_per_call(calls: int, fn: Callable[[], object]) -> float:
+    best = float("inf")
+    for _ in range(5):
+        start = time.perf_counter()
+        for _ in range(calls):
+            fn()
+        best = min(best, time.perf_counter() - start)
+    return best / calls
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--frames", type=int, default=200, help="scroll frames to render")
+    parser.add_argument("--width", type=int, default=200)
+    parser.add_argument("--height", type=int, default=60)
+    args = parser.parse_args()
+
+    fd = os.open(os.devnull, os.O_WRONLY)
+    term = Terminal(fd=fd)
+    fb = FrameBuffer(args.width, args.height)
+    prev = [[("", Style())] * args.width for _ in range(args.height)]
+
+    draw_timeline(fb, 0)
+    legacy_bytes, legacy_writes = per_cell_cost(fb, prev, term)
+    start = time.perf_counter()
+    fb.flush(term)
+    full_ms = (time.perf_counter() - start) * 1000
+    print(f"{args.width}x{args.height} full redraw")
+    print(f"  per-cell: {legacy_bytes:>9} bytes {legacy_writes:>7} writes")
+    print(f"  encoded:  {fb.last_frame.bytes:>9} bytes {1:>7} writes  {full_ms:.2f} ms")
+
+    legacy_bytes = legacy_writes = encoded = 0
+    start = time.perf_counter()
+    for top in range(1, args.frames + 1):
+        draw_timeline(fb, top)
+        fb.flush(term)
+        encoded += fb.last_frame.bytes
+    elapsed = time.perf_counter() - start
+    for top in range(1, args.frames + 1):
+        draw_timeline(fb, top)
+        frame_bytes, frame_writes = per_cell_cost(fb, prev, term)
+        legacy_bytes += frame_bytes
+        legacy_writes += frame_writes
+
+    idle_flush = best_per_call(args.frames, lambda: fb.flush(term))
+    redraw = best_per_call(args.frames, lambda: (draw_timeline(fb, args.frames), fb.flush(term)))
+    os.close(fd)
+
+    print(f"scrolling, mean per frame over {args.frames} frames")
+    print(f"  per-cell: {legacy_bytes // args.frames:>9} bytes {legacy_writes // args.frames:>7} writes")
+    print(
+        f"  encoded:  {encoded // args.frames:>9} bytes {1:>7} writes"
+        f"  {elapsed / args.frames * 1000:.2f} ms  ({legacy_bytes / encoded:.1f}x fewer bytes)"
+    )
+    print("idle tick")
+    print(f"  untouched flush:          {idle_flush * 1e6:>8.1f} us  {fb.last_frame.bytes} bytes")
+    print(f"  identical redraw + flush: {redraw * 1e6:>8.1f} us  {fb.last_frame.bytes} bytes")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,166 @@
+#!/usr/bin/env python3
+"""Benchmark panning the graph canvas over large generated graphs.
+
+@llm-type script.benchmark
+@llm-does time render_graph_canvas frames on 1k-5k node graphs, full walk versus spatial index
+
+The graphs are shaped like generated query plans and unrolled loops:
+layers of varying width, every node fed from the layer above (half of
+them feeding a second node), and a few long edges that skip layers. Each graph gets a
+hierarchical layout, then a terminal-sized viewport pans across it.
+
+Two variants draw the same frames into a FrameBuffer:
+- "walk": the former canvas - every node and edge per frame, a position
+  lookup and visibility test each, edges rasterized cell by cell
+- "index": GraphLayout.spatial_index queries, segments clipped before
+  drawing (index build time is reported separately; it happens once per layout)
+
+The walk skipped edges whose endpoints were both off screen, so it draws
+slightly less than the index variant on long edges.
+
+Usage:
+    python3 scripts/bench_graph_canvas.py [--nodes 1000 5000] [--frames 200] [--size 120x40]
+"""
+
+from __future__ import annotations
+
+import argparse
+import random
+import sys
+import time
+from pathlib import Path
+
+sys.path.insert(0, str(Path(__file__).resolve().parents[1]))
+
+from libs.python.models.graph.schema import Graph
+from libs.python.terminal.cell import Style
+from libs.python.terminal.framebuffer import FrameBuffer
+from libs.python.terminal.renderer import Renderer
+from libs.python.terminal.unhinged.graph_canvas import DEFAULT_STYLE, render_graph_canvas, render_node
+from libs.python.terminal.unhinged.graph_layout import GraphLayout, calculate_hierarchical_layout
+from libs.python.terminal.unhinged.graph_types import create_edge, create_empty_graph, create_node
+from libs.python.terminal.unhinged.viewport import Viewport
+
+
+def generated_graph(count: int, seed: int = 7) -> Graph:
+    """Layered DAG: widths 1-60, one parent per node plus extra and ~2% layer-skipping edges."""
+    rng = random.Random(seed)
+    graph = create_empty_graph(f"bench-{count}", name=f"bench {count}")
+    layers: list[list[str]] = []
+    while sum(map(len, layers)) < count:
+        width = min(rng.randint(1, 60), count - sum(map(len, layers)))
+        layer = [f"n{len(graph.nodes) + i}" for i in range(width)]
+        graph.nodes.extend(create_node(node_id, name=f"op_{node_id}") for node_id in layer)
+        layers.append(layer)
+    for depth, layer in enumerate(layers[:-1]):
+        below = layers[depth + 1]
+        # Every node below gets a parent, so layout layers match generated ones
+        for node_id in below:
+            graph.edges.append(create_edge(rng.choice(layer), node_id))
+        for node_id in layer:
+            if rng.random() < 0.5:
+                graph.edges.append(create_edge(node_id, rng.choice(below)))
+            if rng.random() < 0.02:
+                graph.edges.append(create_edge(node_id, rng.choice(rng.choice(layers[depth + 1 :]))))
+    return graph
+
+
+def pan_path(layout: GraphLayout, width: int, height: int, frames: int) -> list[Viewport]:
+    """Zig-zag down the layout in small steps, like holding an arrow key."""
+    min_x, min_y, max_x, max_y = layout.bounds
+    path = []
+    for i in range(frames):
+        t = i / max(frames - 1, 1)
+        sweep = (i % 40) / 39 if (i // 40) % 2 == 0 else 1 - (i % 40) / 39
+        x = min_x + sweep * max(max_x - min_x - width, 0)
+        y = min_y + t * max(max_y - min_y - height, 0)
+        path.append(Viewport(world_x=x, world_y=y, width=width, height=height))
+    return path
+
+
+# Former canvas, kept here as the baseline
+
+
+def _walk_edge_line(r: Renderer, x1: int, y1: int, x2: int, y2: int, viewport: Viewport, style: Style) -> None:
+    dx = x2 - x1
+    dy = y2 - y1
+    if dx != 0:
+        step = 1 if dx > 0 else -1
+        for x in range(x1, x1 + dx, step):
+            if 0 <= x < viewport.width and 0 <= y1 < viewport.height:
+                r.char(x, y1, "─", style)
+    if dy != 0:
+        step = 1 if dy > 0 else -1
+        mid_x = x1 + dx
+        for y in range(y1, y1 + dy + step, step):
+            if 0 <= mid_x < viewport.width and 0 <= y < viewport.height:
+                char = "│"
+                if y == y1 and dx != 0:
+                    char = "┐" if dx > 0 else "┌"
+                elif y == y2:
+                    char = "▼" if dy > 0 else "▲"
+                r.char(mid_x, y, char, style)
+
+
+def walk_canvas(graph: Graph, layout: GraphLayout, viewport: Viewport, r: Renderer) -> None:
+    edge_style = Style(fg=DEFAULT_STYLE.edge_color)
+    for edge in graph.edges:
+        src_pos = layout.get_position(edge.source_node_id)
+        tgt_pos = layout.get_position(edge.target_node_id)
+        if not src_pos or not tgt_pos:
+            continue
+        sx1, sy1 = viewport.world_to_screen(src_pos[0], src_pos[1])
+        sx2, sy2 = viewport.world_to_screen(tgt_pos[0], tgt_pos[1])
+        if not (
+            viewport.is_visible(src_pos[0], src_pos[1], margin=2)
+            or viewport.is_visible(tgt_pos[0], tgt_pos[1], margin=2)
+        ):
+            continue
+        _walk_edge_line(r, sx1, sy1 + 1, sx2, sy2 - 1, viewport, edge_style)
+    for node in graph.nodes:
+        pos = layout.get_position(node.id)
+        if not pos or not viewport.is_visible(pos[0], pos[1], margin=10):
+            continue
+        sx, sy = viewport.world_to_screen(pos[0], pos[1])
+        render_node(node, sx, sy, r)
+
+
+def time_frames(draw, path: list[Viewport], fb: FrameBuffer) -> float:
+    """Mean milliseconds per frame (clear + draw)."""
+    start = time.perf_counter()
+    for viewport in path:
+        fb.clear()
+        draw(viewport)
+    return (time.perf_counter() - start) / len(path) * 1000
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--nodes", type=int, nargs="+", default=[1000, 2500, 5000], help="graph sizes")
+    parser.add_argument("--frames", type=int, default=200, help="pan steps per graph")
+    parser.add_argument("--size", default="120x40", help="viewport WxH")
+    args = parser.parse_args()
+    width, height = map(int, args.size.split("x"))
+
+    print(f"viewport {width}x{height}, {args.frames} frames per graph")
+    print(f"{'nodes':>6} {'edges':>6} {'index ms':>9} {'walk ms/f':>10} {'index ms/f':>11}")
+    for count in args.nodes:
+        graph = generated_graph(count)
+        layout = calculate_hierarchical_layout(graph)
+        path = pan_path(layout, width, height, args.frames)
+        fb = FrameBuffer(width, height)
+        r = Renderer(fb)
+
+        walk_ms = time_frames(lambda vp: walk_canvas(graph, layout, vp, r), path, fb)
+        start = time.perf_counter()
+        layout.spatial_index(graph)
+        build_ms = (time.perf_counter() - start) * 1000
+        index_ms = time_frames(lambda vp: render_graph_canvas(graph, layout, vp, r), path, fb)
+        print(
+            f"{len(graph.nodes):>6} {len(graph.edges):>6} {build_ms:>9.1f}"
+            f" {walk_ms:>10.2f} {index_ms:>11.2f}  {walk_ms / index_ms:.1f}x"
+        )
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,78 @@
+#!/usr/bin/env python3
+"""Benchmark GraphExecutor overhead as edge count grows.
+
+@llm-type script.benchmark
+@llm-does time executor bookkeeping (edge lookup, condition evaluation) on wide graphs
+
+Builds layered graphs of no-op nodes where every node in a layer feeds
+every node in the next layer, with a share of conditional edges. Node
+work is zero, so the timings are pure scheduling/routing overhead.
+
+Usage:
+    python3 scripts/bench_graph_edges.py [--width 10] [--repeat 5]
+"""
+
+from __future__ import annotations
+
+import argparse
+import asyncio
+import sys
+import time
+from pathlib import Path
+from typing import Any
+
+sys.path.insert(0, str(Path(__file__).resolve().parents[1]))
+
+from libs.python.graph import Graph, GraphExecutor, GraphNode, SessionContext
+
+
+class NoopNode(GraphNode):
+    """Node that returns immediately."""
+
+    async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
+        return {"stdout": self.id, "success": True, "value": 1}
+
+
+def build_graph(layers: int, width: int) -> Graph:
+    """Fully connect consecutive layers; every third edge is conditional."""
+    graph = Graph()
+    for layer in range(layers):
+        for i in range(width):
+            graph.add_node(NoopNode(f"n{layer}_{i}"))
+    count = 0
+    for layer in range(layers - 1):
+        for i in range(width):
+            for j in range(width):
+                src = f"n{layer}_{i}"
+                condition = f"{src}['value'] == 1" if count % 3 == 0 else None
+                graph.add_edge(src, f"n{layer + 1}_{j}", condition)
+                count += 1
+    return graph
+
+
+async def run_once(graph: Graph, with_cdc: bool) -> float:
+    executor = GraphExecutor(session_ctx=SessionContext(session_id="bench") if with_cdc else None)
+    start = time.perf_counter()
+    result = await executor.execute(graph)
+    elapsed = time.perf_counter() - start
+    assert result.success
+    return elapsed
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--width", type=int, default=10, help="nodes per layer")
+    parser.add_argument("--repeat", type=int, default=5, help="runs per size (best is reported)")
+    parser.add_argument("--cdc", action="store_true", help="attach a SessionContext (edge CDC events)")
+    args = parser.parse_args()
+
+    print(f"{'nodes':>7} {'edges':>7} {'best ms':>9} {'us/edge':>9}")
+    for layers in (2, 5, 10, 20, 40):
+        graph = build_graph(layers, args.width)
+        best = min(asyncio.run(run_once(graph, args.cdc)) for _ in range(args.repeat))
+        edges = len(graph.edges)
+        print(f"{len(graph.nodes):>7} {edges:>7} {best * 1000:>9.2f} {best * 1e6 / max(edges, 1):>9.2f}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,91 @@
+#!/usr/bin/env python3
+"""Benchmark compiled template rendering against per-call regex substitution.
+
+@llm-type script.benchmark
+@llm-does time graph.template.interpolate on large prompts versus the former regex path
+
+Builds prompts of growing size with a placeholder every ~200 chars of
+literal text (node outputs, nested paths, env and unresolved references)
+and renders each one repeatedly, as a loop body or re-hydrated node would.
+"regex" is the pre-compilation implementation: re.sub with a callback
+that re-splits every dotted path on every call.
+
+Usage:
+    python3 scripts/bench_template.py [--renders 200] [--repeat 5]
+"""
+
+from __future__ import annotations
+
+import argparse
+import re
+import sys
+import time
+from pathlib import Path
+from typing import Any
+
+sys.path.insert(0, str(Path(__file__).resolve().parents[1]))
+
+from libs.python.graph.template import _resolve_env, _resolve_node, _resolve_session, interpolate
+
+_PATTERN = re.compile(r"\{\{([^}]+)\}\}")
+_PATHS = ("search.text", "input.topic", "plan.steps.first", "env.HOME", "missing.field")
+
+
+def regex_interpolate(template: str, nodes: dict[str, Any] | None = None, session: Any = None) -> str:
+    """The former interpolate(): regex callback, path split per match."""
+    if not template:
+        return template
+    nodes = nodes or {}
+
+    def replace_match(match: re.Match[str]) -> str:
+        namespace, *rest = match.group(1).strip().split(".")
+        if namespace == "env":
+            return _resolve_env(rest)
+        if namespace == "session":
+            return _resolve_session(rest, session)
+        return _resolve_node(namespace, rest, nodes)
+
+    return _PATTERN.sub(replace_match, template)
+
+
+def build_prompt(placeholders: int) -> str:
+    filler = "Summarize the findings below and cite each source by number. " * 3
+    return "".join(f"{filler}{{{{{_PATHS[i % len(_PATHS)]}}}}}\n" for i in range(placeholders))
+
+
+def best_of(repeat: int, renders: int, render: Any, template: str, nodes: dict[str, Any]) -> float:
+    best = float("inf")
+    for _ in range(repeat):
+        start = time.perf_counter()
+        for _ in range(renders):
+            render(template, nodes)
+        best = min(best, time.perf_counter() - start)
+    return best / renders
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--renders", type=int, default=200, help="renders per timing run")
+    parser.add_argument("--repeat", type=int, default=5, help="timing runs per size (best is reported)")
+    args = parser.parse_args()
+
+    nodes = {
+        "search": {"text": "result " * 50},
+        "input": {"topic": "graph schedulers"},
+        "plan": {"steps": {"first": "collect sources"}},
+    }
+
+    print(f"{'holes':>7} {'chars':>9} {'regex us':>10} {'compiled us':>12} {'speedup':>8}")
+    for placeholders in (4, 32, 256, 2048):
+        template = build_prompt(placeholders)
+        assert interpolate(template, nodes) == regex_interpolate(template, nodes)
+        legacy = best_of(args.repeat, args.renders, regex_interpolate, template, nodes)
+        compiled = best_of(args.repeat, args.renders, interpolate, template, nodes)
+        print(
+            f"{placeholders:>7} {len(template):>9} {legacy * 1e6:>10.1f} {compiled * 1e6:>12.1f}"
+            f" {legacy / compiled:>7.2f}x"
+        )
+
+
+if __name__ == "__main__":
+    main()
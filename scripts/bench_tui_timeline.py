@@ -0,0 +1,152 @@
+#!/usr/bin/env python3
+"""Benchmark replaying a CDC feed into the main-screen state.
+
+@llm-type script.benchmark
+@llm-does replay 10k CDC events into MainState + TUIFlightObserver, list-backed versus RingLog-backed
+
+Each event goes through what run_main does with it: append to the
+timeline, then TUIFlightObserver.on_event (transcript and status). Three
+variants are timed at the same scroll-back capacity:
+- "list": the former MainState - timeline rebuilt as [event] + timeline[: max - 1]
+  and transcript copied, one state per event
+- "ring": RingLog timeline/transcript, one state per event
+- "ring batched": RingLog, one timeline state per batch of events, as the
+  event-driven loop delivers them
+
+The feed is synthetic and shaped like a strace-enabled graph run: mostly
+sys.call events, node/edge events and a few messages. You can also replay a
+recorded feed: JSONL of CDCEvent.to_record(), the CDC spill segment format.
+
+Usage:
+    python3 scripts/bench_tui_timeline.py [--events 10000] [--feed segment.jsonl] [--batch 64]
+"""
+
+from __future__ import annotations
+
+import argparse
+import json
+import sys
+import time
+from datetime import datetime, timedelta
+from pathlib import Path
+from typing import Any
+
+sys.path.insert(0, str(Path(__file__).resolve().parents[1]))
+
+from libs.python.graph.context import CDCEvent, CDCEventType, SessionContext
+from libs.python.terminal.unhinged.state import (
+    TIMELINE_MAX,
+    MainState,
+    TranscriptEntry,
+    TranscriptRole,
+    TUIFlightObserver,
+)
+
+
+class ListBackedState(MainState):
+    """MainState with the former list-backed timeline (newest first) and transcript."""
+
+    capacity = TIMELINE_MAX
+
+    def add_transcript(self, role: TranscriptRole, content: str) -> MainState:
+        return self._replace(transcript=[*self.transcript, TranscriptEntry(role=role, content=content)])
+
+    def add_timeline_event(self, event: CDCEvent) -> MainState:
+        return self._replace(timeline=[event] + self.timeline[: self.capacity - 1])
+
+    def _replace(self, **changes: Any) -> MainState:
+        return ListBackedState(
+            session_ctx=changes.get("session_ctx", self.session_ctx),
+            transcript=changes.get("transcript", self.transcript),
+            timeline=changes.get("timeline", self.timeline),
+            timeline_scroll=changes.get("timeline_scroll", self.timeline_scroll),
+            focused_panel=changes.get("focused_panel", self.focused_panel),
+            selected_transcript_row=changes.get("selected_transcript_row", self.selected_transcript_row),
+            selected_timeline_row=changes.get("selected_timeline_row", self.selected_timeline_row),
+            voice_mode=changes.get("voice_mode", self.voice_mode),
+            status=changes.get("status", self.status),
+            running=changes.get("running", self.running),
+        )
+
+
+def synthetic_feed(count: int) -> list[CDCEvent]:
+    """strace-heavy graph run: ~70% sys.call, node/edge lifecycle, 1% chat messages."""
+    start = datetime(2026, 1, 1, 12, 0, 0)
+    events = []
+    for i in range(count):
+        if i % 100 == 0:
+            event_type, data = CDCEventType.MSG_USER, {"text": f"request {i}"}
+        elif i % 100 == 50:
+            event_type, data = CDCEventType.MSG_SYSTEM, {"text": f"response {i}"}
+        elif i % 10 == 1:
+            event_type, data = CDCEventType.NODE_START, {"node_id": ("llm_generate", "analyze", "fetch")[i % 3]}
+        elif i % 10 == 2:
+            event_type, data = CDCEventType.EDGE_EVAL, {"from": f"n{i % 7}", "to": f"n{i % 5}", "taken": True}
+        elif i % 10 == 3:
+            event_type, data = CDCEventType.NODE_SUCCESS, {"node_id": f"n{i % 7}", "duration_ms": 12.5}
+        else:
+            event_type = CDCEventType.SYS_CALL
+            data = {"pid": 4242, "syscall": "openat", "args": f'AT_FDCWD, "/tmp/f{i}", O_RDONLY', "ret": 3}
+        events.append(CDCEvent(event_type=event_type, timestamp=start + timedelta(microseconds=i), data=data))
+    return events
+
+
+def load_feed(path: Path) -> list[CDCEvent]:
+    with path.open() as f:
+        return [CDCEvent.from_record(json.loads(line)) for line in f if line.strip()]
+
+
+def replay(initial: MainState, events: list[CDCEvent], batch: int | None) -> tuple[float, MainState]:
+    """Feed events like run_main does; returns (seconds, final state)."""
+    state = initial
+
+    def get_state() -> MainState:
+        return state
+
+    def set_state(new_state: MainState) -> None:
+        nonlocal state
+        state = new_state
+
+    observer = TUIFlightObserver(get_state, set_state)
+    start = time.perf_counter()
+    step = batch or 1
+    for i in range(0, len(events), step):
+        chunk = events[i : i + step]
+        if batch:
+            state = state.add_timeline_events(chunk)
+        else:
+            state = state.add_timeline_event(chunk[0])
+        for event in chunk:
+            observer.on_event(stage=None, event_type=event.event_type.value, data=event.data)
+    return time.perf_counter() - start, state
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--events", type=int, default=10_000, help="synthetic feed size")
+    parser.add_argument("--feed", type=Path, help="recorded feed (JSONL of CDCEvent.to_record())")
+    parser.add_argument("--batch", type=int, default=64, help="events per UI wake-up for the batched run")
+    args = parser.parse_args()
+
+    events = load_feed(args.feed) if args.feed else synthetic_feed(args.events)
+    session = SessionContext(session_id="bench")
+
+    runs = [
+        ("list", ListBackedState(session_ctx=session, transcript=[], timeline=[]), None),
+        ("ring", MainState(session_ctx=session), None),
+        ("ring batched", MainState(session_ctx=session), args.batch),
+    ]
+    print(f"{len(events)} events, scroll-back {TIMELINE_MAX}")
+    print(f"{'variant':>13} {'total ms':>9} {'us/event':>9} {'timeline':>9} {'transcript':>11}")
+    baseline = None
+    for name, initial, batch in runs:
+        elapsed, state = replay(initial, events, batch)
+        baseline = baseline or elapsed
+        print(
+            f"{name:>13} {elapsed * 1000:>9.1f} {elapsed / len(events) * 1e6:>9.2f}"
+            f" {len(state.timeline):>9} {len(state.transcript):>11}  {baseline / elapsed:.1f}x"
+        )
+
+
+if __name__ == "__main__":
+    main()
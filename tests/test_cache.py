@@ -0,0 +1,132 @@
+"""Tests for the size-aware BoundedCache.
+
+@llm-type test.cache
+@llm-does unit tests for byte budgets, TTL, segmented-LRU admission and incremental save
+"""
+
+from __future__ import annotations
+
+import threading
+from typing import Any
+
+from libs.python.cache import BoundedCache
+
+
+class _EntryStore:
+    """Records the DocumentStore calls BoundedCache.save()/load() make."""
+
+    def __init__(self) -> None:
+        from libs.python.persistence import Document, WriteResult
+
+        self._document = Document
+        self._result = WriteResult
+        self.docs: dict[str, dict[str, Any]] = {}
+        self.upserted: list[str] = []
+
+    def key_id(self, collection: str, key: str) -> str:
+        return key
+
+    def upsert_many(self, collection: str, items: dict[str, dict[str, Any]]):
+        self.docs.update(items)
+        self.upserted.extend(items)
+        return [self._result(i, self._document.create(collection, data)) for i, data in enumerate(items.values())]
+
+    def delete(self, collection: str, doc_id: str) -> bool:
+        return self.docs.pop(doc_id, None) is not None
+
+    def query(self, collection: str, filters: dict[str, Any] | None = None, limit: int = 100):
+        return [self._document.create(collection, d) for d in self.docs.values()][:limit]
+
+
+def test_evicts_by_weight_not_count() -> None:
+    evicted: list[str] = []
+    cache = BoundedCache(max_bytes=1000, stripes=1, on_evict=lambda k, v: evicted.append(k))
+
+    for i in range(10):
+        cache.set(f"status{i}", "ok")
+    cache.set("page", "x" * 990)
+
+    assert "page" in cache
+    assert cache.weight() <= 1000
+    assert evicted == ["status0", "status1", "status2", "status3", "status4"]
+
+    cache.set("huge", "y" * 5000)  # over the whole budget: rejected, nothing else flushed
+    assert "huge" not in cache and "page" in cache
+
+
+def test_budget_is_shared_across_stripes() -> None:
+    evicted: list[str] = []
+    cache = BoundedCache(max_bytes=60_000, max_entries=100, stripes=6, on_evict=lambda k, v: evicted.append(k))
+
+    cache.set("big", "b" * 40_000)  # far over one stripe's share, well under the budget
+    assert "big" in cache and evicted == []
+
+    for i in range(99):
+        cache.set(f"k{i}", i)
+    assert cache.size() == 100 and evicted == []  # hash skew does not evict early
+
+    cache.set("k99", 99)
+    assert evicted == ["big"] and cache.size() == 100  # globally oldest, whichever stripe
+
+    cache.set("huge", "h" * 70_000)  # over the whole budget: rejected, never reported
+    assert "huge" not in cache and evicted == ["big"] and cache.size() == 100
+
+
+def test_ttl_expires_entries() -> None:
+    cache = BoundedCache(default_ttl=60)
+    cache.set("short", 1, ttl=-1)
+    cache.set("long", 2)
+
+    assert cache.get("short") is None
+    assert cache.get("long") == 2
+    assert cache.stats()["expirations"] == 1
+
+
+def test_scan_does_not_flush_hot_entries() -> None:
+    cache = BoundedCache(max_bytes=10_000, max_entries=10, stripes=1)
+    for key in ("hot1", "hot2"):
+        cache.set(key, key)
+        cache.get(key)  # second access promotes to the protected segment
+
+    for i in range(100):  # one-pass scan, e.g. loop iterations
+        cache.set(f"scan{i}", i)
+
+    assert "hot1" in cache and "hot2" in cache
+    assert cache.size() == 10
+
+
+def test_concurrent_writers_stay_within_budget() -> None:
+    cache = BoundedCache(max_bytes=50_000, stripes=4)
+
+    def writer(n: int) -> None:
+        for i in range(500):
+            cache.set(f"{n}-{i}", "v" * 100)
+            cache.get(f"{n}-{i // 2}")
+
+    threads = [threading.Thread(target=writer, args=(n,)) for n in range(8)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+
+    assert cache.weight() <= 50_000
+    assert cache.weight() == sum(len(v) for _, v in cache.items())
+
+
+def test_save_writes_only_dirty_entries_and_load_restores() -> None:
+    store = _EntryStore()
+    cache = BoundedCache(store=store, namespace="outputs")  # type: ignore[arg-type]
+    cache.set("a", {"n": 1})
+    cache.set("b", {"n": 2})
+    assert cache.save()
+
+    cache.set("b", {"n": 3})
+    cache.delete("a")
+    store.upserted.clear()
+    assert cache.save()
+    assert store.upserted == ["outputs/b"]
+    assert set(store.docs) == {"outputs/b"}
+
+    restored = BoundedCache(store=store, namespace="outputs")  # type: ignore[arg-type]
+    assert restored.load()
+    assert restored.items() == [("b", {"n": 3})]
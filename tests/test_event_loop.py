@@ -0,0 +1,99 @@
+"""Tests for the event-driven TUI loop.
+
+@llm-type test.terminal.event_loop
+@llm-does unit tests for UILoop wake-ups, frame coalescing and latency metrics
+"""
+
+from __future__ import annotations
+
+import os
+import threading
+import time
+from concurrent.futures import ThreadPoolExecutor
+from datetime import datetime, timedelta, timezone
+
+from libs.python.graph.context import CDCEvent, CDCEventType, SessionContext
+from libs.python.terminal.event_loop import UILoop, monotonic_at
+
+
+def test_cdc_burst_renders_immediately_and_coalesces() -> None:
+    session = SessionContext(session_id="ui-loop")
+    subscription = session.subscribe(name="tui")
+    seen: list[CDCEvent] = []
+    drawn: list[int] = []
+    ui = UILoop(draw=lambda: drawn.append(len(seen)), frame_interval=0.02)
+
+    def on_events(events: list[CDCEvent]) -> None:
+        ui.invalidate(since=monotonic_at(events[0].timestamp))
+        seen.extend(events)
+        if len(seen) == 501:
+            ui.stop()
+
+    def emit() -> None:
+        time.sleep(0.05)  # let the loop go idle first
+        session.emit(CDCEventType.NODE_START, {"node_id": "first"})
+        time.sleep(0.05)
+        for i in range(500):
+            session.emit(CDCEventType.NODE_SUCCESS, {"node_id": f"n{i}"})
+
+    ui.on_subscription(subscription, on_events)
+    emitter = threading.Thread(target=emit)
+    emitter.start()
+    ui.run()
+    emitter.join()
+    session.unsubscribe(subscription)
+
+    # Initial frame, then the lone event on its own frame without waiting for a tick
+    assert drawn[:2] == [0, 1]
+    assert ui.metrics.max_latency_ms < 50
+    # 500 events land as a handful of batched frames, not one per event
+    assert ui.metrics.frames < 20 and ui.metrics.wakeups < 100
+
+
+def test_idle_loop_draws_nothing_until_input_or_future() -> None:
+    read_fd, write_fd = os.pipe()
+    keys: list[str] = []
+    done: list[str] = []
+    ui = UILoop(draw=lambda: None)
+
+    def on_keys(text: str) -> None:
+        keys.append(text)
+        ui.invalidate()
+        if "q" in text:
+            ui.stop()
+
+    def on_done(future) -> None:
+        done.append(future.result())
+        ui.invalidate()
+        frames_while_idle.append(ui.metrics.frames)
+        os.write(write_fd, "é q".encode())
+
+    frames_while_idle: list[int] = []
+    with ThreadPoolExecutor(max_workers=1) as pool:
+        ui.on_input(read_fd, on_keys)
+        ui.on_future(pool.submit(time.sleep, 0.2), on_done)
+        ui.run()
+    os.close(read_fd)
+    os.close(write_fd)
+
+    assert frames_while_idle == [1]  # only the initial frame during 0.2s idle
+    assert done == [None] and "".join(keys) == "é q"
+    assert ui.metrics.wakeups == 2 and ui.metrics.frames <= 3
+
+
+def test_monotonic_at_reads_naive_timestamps_as_utc() -> None:
+    saved = os.environ.get("TZ")
+    try:
+        for tz in ("Europe/Berlin", "America/Los_Angeles"):
+            os.environ["TZ"] = tz
+            time.tzset()
+            naive = datetime.utcnow() - timedelta(seconds=1)
+            assert abs(time.monotonic() - monotonic_at(naive) - 1.0) < 0.1, tz
+            aware = datetime.now(timezone.utc) - timedelta(seconds=1)
+            assert abs(time.monotonic() - monotonic_at(aware) - 1.0) < 0.1, tz
+    finally:
+        if saved is None:
+            os.environ.pop("TZ", None)
+        else:
+            os.environ["TZ"] = saved
+        time.tzset()
@@ -0,0 +1,131 @@
+"""Tests for framebuffer flushing.
+
+@llm-type test.terminal.framebuffer
+@llm-does unit tests for the ANSI diff encoder behind FrameBuffer.flush
+"""
+
+from __future__ import annotations
+
+import os
+import re
+
+from libs.python.terminal.cell import Cell, Color, Style
+from libs.python.terminal.framebuffer import FrameBuffer
+from libs.python.terminal.terminal import Terminal, sgr_codes
+
+_TOKEN = re.compile(r"\x1b\[([0-9;]*)([HCDm])|\r|(.)", re.DOTALL)
+
+
+def replay(data: bytes, screen: list[list[tuple[str, str]]]) -> None:
+    """Apply ANSI output to a (char, sgr) grid, as a terminal would."""
+    x = y = 0
+    sgr = ""
+    for match in _TOKEN.finditer(data.decode()):
+        params, command, char = match.groups()
+        if char is not None:
+            screen[y][x] = (char, sgr)
+            x += 1
+        elif command is None:
+            x = 0
+        elif command == "H":
+            row, col = params.split(";")
+            y, x = int(row) - 1, int(col) - 1
+        elif command == "C":
+            x += int(params or 1)
+        elif command == "D":
+            x -= int(params or 1)
+        else:
+            codes = [code for code in params.split(";") if code not in ("", "0")]
+            sgr = ";".join(codes)
+
+
+def flush_to_bytes(fb: FrameBuffer) -> bytes:
+    read_fd, write_fd = os.pipe()
+    try:
+        fb.flush(Terminal(fd=write_fd))
+        os.close(write_fd)
+        chunks = []
+        while chunk := os.read(read_fd, 1 << 16):
+            chunks.append(chunk)
+        return b"".join(chunks)
+    finally:
+        os.close(read_fd)
+
+
+def test_flush_output_reproduces_buffer_with_minimal_escapes() -> None:
+    fb = FrameBuffer(12, 3)
+    screen = [[("?", "")] * 12 for _ in range(3)]
+    red = Style(fg=Color.RED)
+
+    fb.put_text(0, 0, "status", red)
+    fb.put_text(2, 2, "ok")
+    replay(flush_to_bytes(fb), screen)
+
+    # Two runs change and one cell keeps its value: bridged, not jumped over
+    fb.put_text(0, 0, "S", red)
+    fb.put_char(2, 0, "A", red)
+    fb.put_char(9, 1, "x", Style(bg=Color.BLUE))
+    frame = flush_to_bytes(fb)
+    replay(frame, screen)
+
+    cells = [[fb.get_cell(x, y) for x in range(12)] for y in range(3)]
+    assert screen == [[(cell.char, ";".join(sgr_codes(cell.style))) for cell in row] for row in cells]
+    assert frame == b"\x1b[1;1H\x1b[0;31mStA\x1b[2;10H\x1b[0;44mx\x1b[0m"
+    assert fb.last_frame.cells == 3 and fb.last_frame.cursor_moves == 2 and fb.last_frame.style_changes == 2
+
+
+def test_full_redraw_is_one_write_with_style_transitions_only(monkeypatch) -> None:
+    writes: list[int] = []
+    real_write = os.write
+
+    def counting_write(fd: int, data: bytes) -> int:
+        writes.append(len(data))
+        return real_write(fd, data)
+
+    monkeypatch.setattr(os, "write", counting_write)
+    fb = FrameBuffer(200, 60)
+    for y in range(60):
+        fb.put_text(0, y, f"{y:>3} | " + "event " * 30, Style(fg=Color.GREEN))
+    fb.set_cell(199, 59, Cell("#", Style(fg=Color.RED)))
+
+    assert flush_to_bytes(fb) and len(writes) == 1
+    assert fb.last_frame.cells == 200 * 60
+    assert fb.last_frame.cursor_moves == 60
+    assert fb.last_frame.style_changes == 60 * 2 + 1
+    assert fb.bytes_per_frame == writes[0] < 200 * 60 + 60 * 20
+
+    fb.put_char(5, 30, "!", Style(fg=Color.GREEN))
+    assert flush_to_bytes(fb) == b"\x1b[31;6H\x1b[0;32m!\x1b[0m" and len(writes) == 2
+
+
+def test_unchanged_and_rerendered_frames_write_nothing() -> None:
+    fb = FrameBuffer(40, 10)
+    for y in range(10):
+        fb.put_text(0, y, f"row {y}", Style(fg=Color.CYAN))
+    flush_to_bytes(fb)
+
+    assert flush_to_bytes(fb) == b"" and fb.last_frame.cells == 0
+
+    # A full clear + identical re-render marks every row dirty but matches the screen
+    fb.clear()
+    for y in range(10):
+        fb.put_text(0, y, f"row {y}", Style(fg=Color.CYAN))
+    fb.put_text(4, 7, "7!", Style(fg=Color.CYAN))
+    assert flush_to_bytes(fb) == b"\x1b[8;6H\x1b[0;36m!\x1b[0m"
+    assert fb.get_cell(5, 7) == Cell("!", Style(fg=Color.CYAN)) and fb.get_cell(6, 7) == Cell()
+
+
+def test_put_text_clips_to_its_own_row() -> None:
+    fb = FrameBuffer(10, 3)
+    fb.put_text(-3, 1, "abcdefghijklmnop")
+    fb.put_text(8, 2, "xyz")
+    # Starting past the right edge draws nothing, not the next row
+    fb.put_text(13, 0, "abcdefgh")
+    fb.put_text(10, 1, "abcdefgh")
+    fb.put_text(11, 2, "abcdefgh")  # last row: must not grow the buffer
+
+    rows = ["".join(fb.get_cell(x, y).char for x in range(10)) for y in range(3)]
+    assert rows == [" " * 10, "defghijklm", " " * 8 + "xy"]
+    fb.fill(0, 0, 10, 3, "#")
+    assert all(fb.get_cell(x, y).char == "#" for x in range(10) for y in range(3))
+    assert flush_to_bytes(fb).count(b"#") == 30
@@ -6,8 +6,10 @@
 
 from __future__ import annotations
 
+import asyncio
 import sys
 from pathlib import Path
+from typing import Any
 
 import pytest
 
@@ -23,11 +25,28 @@ from libs.python.graph import (
     Graph,
     GraphExecutionResult,
     GraphExecutor,
+    GraphNode,
+    SchedulingMode,
     SubgraphNode,
     UnixCommandNode,
 )
 
 
+class SleepNode(GraphNode):
+    """Test node that sleeps, then records when it started and finished."""
+
+    def __init__(self, node_id: str, delay: float, log: list[tuple[str, str]]) -> None:
+        super().__init__(node_id)
+        self.delay = delay
+        self.log = log
+
+    async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
+        self.log.append(("start", self.id))
+        await asyncio.sleep(self.delay)
+        self.log.append(("end", self.id))
+        return {"stdout": self.id, "success": True}
+
+
 class TestUnixCommandNode:
     """Tests for UnixCommandNode execution semantics."""
 
@@ -87,6 +106,21 @@ class TestGraphTopology:
 
         assert groups == [["n1"], ["n2"], ["n3"]]
 
+    def test_edge_indexes_invalidated_on_add(self) -> None:
+        graph = Graph()
+        graph.add_node(UnixCommandNode("a", command="true"))
+        graph.add_node(UnixCommandNode("b", command="true"))
+        graph.add_edge("a", "b")
+
+        assert graph.outgoing_edges("a") == [("a", "b", None)]
+        assert graph.incoming_edges("a") == []
+
+        graph.add_node(UnixCommandNode("c", command="true"))
+        graph.add_edge("c", "b", condition="c['success']")
+
+        assert graph.incoming_edges("b") == [("a", "b", None), ("c", "b", "c['success']")]
+        assert graph.outgoing_edges("c") == [("c", "b", "c['success']")]
+
 
 class TestGraphExecutor:
     """Tests for GraphExecutor parallel execution and piping semantics."""
@@ -130,6 +164,43 @@ class TestGraphExecutor:
         assert prod_out["stdout"] == "foo"
         assert cons_out["stdout"] == "foo"
 
+    @pytest.mark.asyncio
+    async def test_edge_condition_evaluated_once_per_execution(self) -> None:
+        from libs.python.graph.graph import NodeExecutionResult
+
+        class CountingExecutor(GraphExecutor):
+            def __init__(self) -> None:
+                super().__init__()
+                self.evaluations = 0
+
+            def _evaluate_condition(
+                self, condition: str | None, node_results: dict[str, NodeExecutionResult]
+            ) -> bool:
+                self.evaluations += 1
+                return super()._evaluate_condition(condition, node_results)
+
+        graph = Graph()
+        graph.add_node(UnixCommandNode("src", command="echo -n go"))
+        graph.add_node(UnixCommandNode("dst", command="cat"))
+        graph.add_edge("src", "dst", condition="src['stdout'] == 'go'")
+
+        executor = CountingExecutor()
+        result = await executor.execute(graph)
+
+        assert result.node_results["dst"].output["stdout"] == "go"
+        assert executor.evaluations == 1
+
+    @pytest.mark.asyncio
+    async def test_invalid_condition_blocks_edge(self) -> None:
+        graph = Graph()
+        graph.add_node(UnixCommandNode("src", command="true"))
+        graph.add_node(UnixCommandNode("dst", command="true"))
+        graph.add_edge("src", "dst", condition="src[")
+
+        result = await GraphExecutor().execute(graph)
+
+        assert "dst" not in result.node_results
+
     @pytest.mark.asyncio
     async def test_cycle_detection_returns_error(self) -> None:
         graph = Graph()
@@ -149,6 +220,90 @@ class TestGraphExecutor:
         assert "cycle" in result.error_message.lower()
 
 
+class TestEagerScheduling:
+    """Tests for dependency-driven (EAGER) scheduling."""
+
+    @pytest.mark.asyncio
+    async def test_downstream_starts_before_slow_sibling_finishes(self) -> None:
+        log: list[tuple[str, str]] = []
+        graph = Graph()
+        graph.add_node(SleepNode("fast", 0.01, log))
+        graph.add_node(SleepNode("slow", 0.2, log))
+        graph.add_node(SleepNode("after_fast", 0.01, log))
+        graph.add_edge("fast", "after_fast")
+
+        executor = GraphExecutor(scheduling=SchedulingMode.EAGER)
+        result = await executor.execute(graph)
+
+        assert result.success is True
+        assert log.index(("end", "after_fast")) < log.index(("end", "slow"))
+
+    @pytest.mark.asyncio
+    async def test_layered_mode_waits_for_whole_group(self) -> None:
+        log: list[tuple[str, str]] = []
+        graph = Graph()
+        graph.add_node(SleepNode("fast", 0.01, log))
+        graph.add_node(SleepNode("slow", 0.05, log))
+        graph.add_node(SleepNode("after_fast", 0.01, log))
+        graph.add_edge("fast", "after_fast")
+
+        result = await GraphExecutor().execute(graph)
+
+        assert result.success is True
+        assert log.index(("start", "after_fast")) > log.index(("end", "slow"))
+
+    @pytest.mark.asyncio
+    async def test_pipes_stdout_and_skips_blocked_branch(self) -> None:
+        graph = Graph()
+        graph.add_node(UnixCommandNode("src", command="echo -n foo"))
+        graph.add_node(UnixCommandNode("yes", command="cat"))
+        graph.add_node(UnixCommandNode("no", command="cat"))
+        graph.add_node(UnixCommandNode("tail", command="echo -n done"))
+        graph.add_edge("src", "yes", condition="src['stdout'] == 'foo'")
+        graph.add_edge("src", "no", condition="src['stdout'] == 'bar'")
+        graph.add_edge("no", "tail")
+
+        result = await GraphExecutor(scheduling=SchedulingMode.EAGER).execute(graph)
+
+        assert result.node_results["yes"].output["stdout"] == "foo"
+        assert "no" not in result.node_results
+        # Unconditional edge from a skipped node still resolves, as in LAYERED mode
+        assert result.node_results["tail"].output["stdout"] == "done"
+
+    @pytest.mark.asyncio
+    async def test_max_concurrency_prefers_critical_path(self) -> None:
+        log: list[tuple[str, str]] = []
+        graph = Graph()
+        for node_id in ("a_leaf", "b_head", "b_mid", "b_tail"):
+            graph.add_node(SleepNode(node_id, 0.01, log))
+        graph.add_edge("b_head", "b_mid")
+        graph.add_edge("b_mid", "b_tail")
+
+        executor = GraphExecutor(scheduling=SchedulingMode.EAGER, max_concurrency=1)
+        result = await executor.execute(graph)
+
+        assert result.success is True
+        assert result.execution_order[0] == ["b_head"]
+        starts = [node_id for kind, node_id in log if kind == "start"]
+        assert starts[0] == "b_head"
+        assert len(starts) == 4
+
+    def test_critical_path_lengths_use_costs(self) -> None:
+        graph = Graph()
+        for node_id in ("a", "b", "c"):
+            graph.add_node(UnixCommandNode(node_id, command="true"))
+        graph.add_edge("a", "b")
+        graph.add_edge("a", "c")
+
+        lengths = graph.critical_path_lengths({"c": 5.0})
+
+        assert lengths == {"a": 6.0, "b": 1.0, "c": 5.0}
+
+    def test_invalid_max_concurrency_rejected(self) -> None:
+        with pytest.raises(ValueError):
+            GraphExecutor(max_concurrency=0)
+
+
 class TestSubgraphNode:
     """Tests for SubgraphNode graph-of-graphs execution semantics."""
 
@@ -302,3 +457,516 @@ class TestGenerationNodes:
         result = node.hydrate(input_data)
 
         assert result["prompt"] == "A beautiful mountain landscape at dawn"
+
+
+class _MemoryStore:
+    """In-memory stand-in for the DocumentStore calls ContextStore makes."""
+
+    def __init__(self) -> None:
+        from libs.python.persistence import Document, WriteResult
+
+        self._document = Document
+        self._result = WriteResult
+        self.snapshots: dict[str, dict[str, Any]] = {}
+        self.cdc: list[dict[str, Any]] = []
+        self.payloads: dict[str, dict[str, Any]] = {}
+        self.fail_cdc = False
+        self.fail_sequences: set[int] = set()  # rejected one by one, the rest of the batch is written
+
+    def key_id(self, collection: str, key: str) -> str:
+        return f"{collection}/{key}"
+
+    def read(self, collection: str, doc_id: str):
+        data = self.payloads.get(doc_id)
+        return self._document.create(collection, data) if data is not None else None
+
+    def upsert_many(self, collection: str, items: dict[str, dict[str, Any]]):
+        self.payloads.update(items)
+        return [self._result(i, self._document.create(collection, data)) for i, data in enumerate(items.values())]
+
+    def upsert(self, collection: str, key: str, data: dict[str, Any]):
+        self.snapshots[key] = {**self.snapshots.get(key, {}), **data}
+        return self._document.create(collection, self.snapshots[key])
+
+    def create_many(self, collection: str, items: list[dict[str, Any]]):
+        if self.fail_cdc:
+            raise ConnectionError("down")
+        results = []
+        for i, item in enumerate(items):
+            if item["sequence"] in self.fail_sequences:
+                results.append(self._result(i, None, "not JSON serializable"))
+            else:
+                self.cdc.append(item)
+                results.append(self._result(i, self._document.create(collection, item)))
+        return results
+
+
+class TestContextPersistence:
+    def _store(self) -> tuple[Any, _MemoryStore]:
+        from libs.python.graph.context import ContextStore
+
+        context_store = ContextStore()
+        context_store._store = backing = _MemoryStore()
+        return context_store, backing
+
+    def test_persist_appends_only_events_past_watermark(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        context_store, backing = self._store()
+        session = SessionContext(session_id="s1")
+        session.set("a", 1)
+        session.msg_user("hi")
+        assert context_store.persist(session)
+
+        session.set("a", 2)
+        assert context_store.persist(session)
+        assert context_store.persist(session)
+
+        assert [e["sequence"] for e in backing.cdc] == [1, 2, 3]
+        snapshot = backing.snapshots["s1"]
+        assert snapshot["persisted_seq"] == 3
+        assert snapshot["data"] == {"a": 2}
+        assert "cdc_feed" not in snapshot and "changelog" not in snapshot
+
+    def test_failed_cdc_write_is_retried_and_resume_continues(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        context_store, backing = self._store()
+        session = SessionContext(session_id="s2")
+        session.set("a", 1)
+        backing.fail_cdc = True
+        context_store.persist(session)
+        assert backing.snapshots["s2"]["persisted_seq"] == 0
+
+        backing.fail_cdc = False
+        context_store.persist(session)
+        resumed = SessionContext.from_dict(backing.snapshots["s2"])
+        resumed.set("b", 2)
+        context_store.persist(resumed)
+
+        assert [e["sequence"] for e in backing.cdc] == [1, 2]
+        assert resumed.persisted_seq == 2
+
+    def test_failed_middle_event_is_retried_alone(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        context_store, backing = self._store()
+        session = SessionContext(session_id="s3")
+        for i in range(4):
+            session.set("a", i)
+        backing.fail_sequences = {2}
+        context_store.persist(session)
+        session.set("b", 1)
+        context_store.persist(session)
+        assert [e["sequence"] for e in backing.cdc] == [1, 3, 4, 5]
+        assert backing.snapshots["s3"]["persisted_seq"] == 1
+
+        backing.fail_sequences = set()
+        context_store.persist(session)
+        context_store.persist(session)
+        assert [e["sequence"] for e in backing.cdc] == [1, 3, 4, 5, 2]
+        assert backing.snapshots["s3"]["persisted_seq"] == 5
+
+    def test_legacy_snapshot_history_is_dropped_on_persist(self) -> None:
+        from libs.python.graph.context import ContextStore, SessionContext
+
+        context_store, backing = self._store()
+        legacy = SessionContext(session_id="old").to_dict()
+        legacy.update(changelog=[{"timestamp": "2024-01-01T00:00:00"}] * 3, cdc_feed=[{"sequence": 1}])
+        backing.snapshots["old"] = dict(legacy)
+
+        resumed = SessionContext.from_dict(legacy)
+        resumed.set("a", 1)
+        assert context_store.persist(resumed)
+        assert backing.snapshots["old"]["changelog"] is None and backing.snapshots["old"]["cdc_feed"] is None
+
+        doc = backing._document.create(ContextStore.COLLECTION, backing.snapshots["old"])
+        summary = context_store._doc_to_summary(doc)
+        assert summary.last_updated == doc.updated_at and summary.mutation_count == 1
+
+
+class TestPayloadSharing:
+    def test_node_events_share_one_payload_blob(self) -> None:
+        from libs.python.graph.context import ContextStore, SessionContext
+        from libs.python.graph.payload_store import PayloadRef
+
+        session = SessionContext(session_id="payloads")
+        output = {"text": "x" * 5000, "success": True}
+        session.node_output("llm", output)
+        session.set_output("llm", output)
+        session.node_success("llm", output)
+        session.node_output("other", dict(output))  # equal content, different object
+
+        refs = [e.data["output"] for e in session.cdc_feed()]
+        assert all(isinstance(r, PayloadRef) for r in refs)
+        assert len({r.digest for r in refs}) == 1
+        assert session.payloads.stats()["blobs"] == 1
+        assert session.event_data(session.cdc_tail(1)[0])["output"] == output
+        assert refs[0].top_keys == ("text", "success")
+
+        context_store = ContextStore()
+        context_store._store = backing = _MemoryStore()
+        context_store.persist(session)
+        session.node_success("llm", output)
+        context_store.persist(session)
+
+        assert len(backing.payloads) == 1
+        assert all(len(str(doc["data"])) < 500 for doc in backing.cdc)
+        assert context_store.read_payload(refs[0]) == output
+
+    @pytest.mark.asyncio
+    async def test_executor_digests_each_output_once(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        session = SessionContext(session_id="digest-once")
+        digested: list[Any] = []
+        ref = session.payloads.ref
+        session.payloads.ref = lambda payload: digested.append(payload) or ref(payload)  # type: ignore[method-assign]
+        graph = Graph()
+        graph.add_node(UnixCommandNode("big", command="head -c 5000 /dev/zero | tr '\\0' x"))
+
+        result = await GraphExecutor(session).execute(graph)
+
+        output = result.node_results["big"].output
+        assert len(output["stdout"]) == 5000
+        assert sum(1 for payload in digested if payload is output) == 1
+        events = [e for e in session.iter_cdc() if "output" in e.data]
+        assert [e.event_type.value for e in events] == ["node.output", "state.create", "node.success"]
+        assert len({e.data["output"] for e in events}) == 1
+
+    def test_mutated_payload_gets_a_new_ref_and_the_tui_shows_it(self) -> None:
+        from libs.python.graph.context import SessionContext
+        from libs.python.terminal.unhinged.state import MainState, Panel, event_preview
+
+        session = SessionContext(session_id="mutate")
+        inputs = {"text": "a" * 1000}
+        session.node_start("n", "UnixCommandNode", inputs)
+        inputs["text"] = "b" * 1000  # the executor reuses its aggregated_inputs dicts
+        session.node_start("n", "UnixCommandNode", inputs)
+
+        first, second = session.cdc_feed()
+        assert first.data["input"].digest != second.data["input"].digest
+        assert session.event_data(second)["input"] == {"text": "b" * 1000}
+
+        preview = event_preview(second.data)
+        assert preview == "{'node_id': 'n', 'node_type': 'UnixCommandNode', 'input': {text...}}"
+        state = MainState(session_ctx=session).add_timeline_events([first, second])
+        state = state._replace(focused_panel=Panel.TIMELINE, selected_timeline_row=0)
+        assert "b" * 1000 in state.get_selected_content()
+
+    def test_small_payloads_stay_inline_and_refs_survive_spill(self) -> None:
+        from libs.python.graph.cdc_feed import CDCFeed
+        from libs.python.graph.context import CDCEvent, SessionContext
+        from libs.python.graph.payload_store import PayloadRef
+
+        session = SessionContext(session_id="spill", _cdc_feed=CDCFeed(CDCEvent.from_record, segment_size=2))
+        session.node_output("small", {"ok": True})
+        session.node_output("big", {"text": "y" * 1000})
+        session.msg_user("seal")
+
+        first, second, _ = session.iter_cdc()  # first two are read back from the spill file
+        assert first.data["output"] == {"ok": True}
+        assert isinstance(second.data["output"], PayloadRef)
+        assert session.event_data(second)["output"] == {"text": "y" * 1000}
+        session._cdc_feed.close()
+
+
+class TestCDCFeed:
+    def _session(self, segment_size: int) -> Any:
+        from libs.python.graph.cdc_feed import CDCFeed
+        from libs.python.graph.context import CDCEvent, SessionContext
+
+        return SessionContext(session_id="feed", _cdc_feed=CDCFeed(CDCEvent.from_record, segment_size=segment_size))
+
+    def test_sealed_segments_spill_and_read_back(self, tmp_path, monkeypatch) -> None:
+        from libs.python.graph import cdc_feed
+
+        monkeypatch.setenv(cdc_feed.SPILL_DIR_ENV, str(tmp_path))
+        session = self._session(segment_size=4)
+        for i in range(10):
+            session.msg_user(f"turn {i}")
+
+        feed = session._cdc_feed
+        assert feed.stats()["in_memory"] == 2
+        assert feed.stats()["sealed_segments"] == 2
+        assert len(list(tmp_path.iterdir())) == 1
+
+        assert [e.data["text"] for e in session.iter_cdc()] == [f"turn {i}" for i in range(10)]
+        assert [e.sequence for e in session.cdc_tail(3)] == [8, 9, 10]
+        assert [e.sequence for e in session.cdc_since(5)] == [6, 7, 8, 9, 10]
+        assert [e.sequence for e in session.iter_cdc(7)] == [8, 9, 10]
+        assert session.cdc_count() == 10
+
+        feed.close()
+        assert list(tmp_path.iterdir()) == []
+
+    def test_changelog_is_bounded_but_counted(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        session = SessionContext(session_id="bounded")
+        for i in range(SessionContext.CHANGELOG_MAX_SIZE + 5):
+            session.set("k", i)
+
+        assert len(session.changelog()) == SessionContext.CHANGELOG_MAX_SIZE
+        assert session.to_dict()["mutation_count"] == SessionContext.CHANGELOG_MAX_SIZE + 5
+
+
+class TestCDCBus:
+    def test_slow_push_subscriber_does_not_block_emit(self) -> None:
+        import threading
+        import time
+
+        from libs.python.graph.context import SessionContext
+
+        release = threading.Event()
+        received: list[str] = []
+
+        def slow(event: Any) -> None:
+            release.wait(5)
+            received.append(event.event_type.value)
+
+        session = SessionContext(session_id="bus")
+        session.subscribe(slow, prefixes=("node.",), name="slow")
+
+        start = time.perf_counter()
+        session.node_start("a", "unix")
+        session.msg_user("ignored by filter")
+        session.node_success("a", {})
+        assert time.perf_counter() - start < 1.0
+
+        release.set()
+        assert session.cdc_bus.flush(timeout=5)
+        assert received == ["node.start", "node.success"]
+        assert session.cdc_bus.stats()[0].delivered == 2
+        session.cdc_bus.close()
+
+    def test_overflow_policies_on_pull_subscriptions(self) -> None:
+        from libs.python.graph.cdc_bus import OverflowPolicy
+        from libs.python.graph.context import SessionContext
+
+        session = SessionContext(session_id="bus")
+        oldest = session.subscribe(name="oldest", capacity=2)
+        newest = session.subscribe(name="newest", capacity=2, policy=OverflowPolicy.DROP_NEWEST)
+        blocking = session.cdc_bus.subscribe(name="block", capacity=2, policy=OverflowPolicy.BLOCK, block_timeout=0.01)
+
+        for i in range(3):
+            session.msg_user(str(i))
+
+        assert [e.data["text"] for e in oldest.poll()] == ["1", "2"]
+        assert [e.data["text"] for e in newest.poll()] == ["0", "1"]
+        assert [e.data["text"] for e in blocking.poll()] == ["0", "1"]
+        stats = {s.name: s for s in session.cdc_bus.stats()}
+        assert [stats[n].dropped for n in ("oldest", "newest", "block")] == [1, 1, 1]
+        assert stats["oldest"].max_lag == 2 and stats["oldest"].lag == 0
+
+
+class TestNodeMemo:
+    @pytest.mark.asyncio
+    async def test_unchanged_cacheable_node_is_not_re_executed(self, tmp_path) -> None:
+        from libs.python.graph import NodeMemo
+        from libs.python.graph.context import SessionContext
+
+        runs = tmp_path / "runs"
+        node = UnixCommandNode("n", command=f"echo run >> {runs}; echo -n {{{{input.topic}}}}")
+        node.cacheable = True
+        graph = Graph()
+        graph.add_node(node)
+
+        async def run(topic: str) -> tuple[dict[str, Any], list[str]]:
+            session = SessionContext(session_id="memo")
+            memo = NodeMemo(tmp_path / "memo.sqlite3")  # reopened per run, as a new process would
+            result = await GraphExecutor(session, memo=memo).execute(graph, {"n": {"input": {"topic": topic}}})
+            memo.close()
+            return result.node_results["n"].output, [e.event_type.value for e in session.iter_cdc()]
+
+        first, first_events = await run("cats")
+        second, second_events = await run("cats")
+        third, _ = await run("dogs")
+
+        assert first == second and first["stdout"] == "cats" and third["stdout"] == "dogs"
+        assert runs.read_text().splitlines() == ["run", "run"]
+        assert "node.cached" not in first_events
+        assert second_events[:2] == ["node.start", "node.cached"] and "node.success" in second_events
+
+    def test_memo_ttl_eviction_and_loader_options(self, tmp_path) -> None:
+        from libs.python.graph import NodeMemo, load_graph_from_dict
+        from libs.python.graph.loader import GraphLoadError
+
+        memo = NodeMemo(tmp_path / "memo.sqlite3", max_bytes=100)
+        memo.put("stale", "LLMNode", {"text": "old"}, ttl=-1)
+        assert memo.get("stale") is None
+        memo.put("a", "LLMNode", {"text": "a" * 30})
+        memo.put("b", "LLMNode", {"text": "b" * 30})
+        memo.get("a")  # b is now least recently used
+        memo.put("c", "LLMNode", {"text": "c" * 30})
+        assert memo.get("b") is None and memo.get("a") and memo.get("c")
+        assert memo.stats()["evictions"] == 1 and memo.stats()["expirations"] == 1
+        assert not memo.put("huge", "LLMNode", {"text": "x" * 200})
+
+        graph = load_graph_from_dict(
+            {"nodes": [{"id": "s", "type": "web_search", "cacheable": True, "ttl": 60}, {"id": "u", "type": "unix"}]}
+        )
+        assert graph.nodes["s"].cacheable and graph.nodes["s"].cache_ttl == 60.0
+        assert not graph.nodes["u"].cacheable
+        with pytest.raises(GraphLoadError):
+            load_graph_from_dict({"nodes": [{"id": "s", "type": "unix", "ttl": "1h"}]})
+
+    def test_llm_stream_and_timeout_are_not_part_of_the_memo_key(self) -> None:
+        from libs.python.graph import LLMNode
+        from libs.python.graph.node_memo import memo_key
+
+        def key(**options: Any) -> str:
+            node = LLMNode("llm", input_template="Summarize {{input.text}}", **options)
+            return memo_key(node, {"input": {"text": "cats"}})
+
+        assert key() == key(stream=True, timeout=30.0)
+        assert key() != key(temperature=0.2)
+
+
+class TestStreaming:
+    @pytest.mark.asyncio
+    async def test_stream_consumer_starts_before_producer_finishes(self) -> None:
+        from libs.python.graph.context import SessionContext
+
+        class ChunkNode(GraphNode):
+            def streams_output(self) -> bool:
+                return True
+
+            async def execute(self, input_data: dict[str, Any] | None = None) -> dict[str, Any]:
+                raise AssertionError("executor should call execute_stream")
+
+            async def execute_stream(self, input_data: dict[str, Any] | None, stream: Any) -> dict[str, Any]:
+                for chunk in ("alpha ", "beta ", "gamma"):
+                    stream.feed(chunk)
+                    await asyncio.sleep(0.1)
+                return {"stdout": stream.text(), "success": True}
+
+        graph = Graph()
+        graph.add_node(ChunkNode("llm"))
+        graph.add_node(UnixCommandNode("upper", command="tr a-z A-Z"))
+        graph.add_edge("llm", "upper")
+
+        session = SessionContext(session_id="stream")
+        result = await GraphExecutor(session, scheduling=SchedulingMode.EAGER).execute(graph)
+
+        assert result.success
+        assert result.node_results["upper"].output["stdout"] == "ALPHA BETA GAMMA"
+        assert result.execution_order == [["llm", "upper"]]
+        events = [(e.event_type.value, session.event_data(e)) for e in session.iter_cdc()]
+        streamed = [d["text"] for t, d in events if t == "node.stream"]
+        assert streamed[0] == "alpha " and "".join(streamed) == "alpha beta gamma"
+        kinds = [t for t, _ in events]
+        assert kinds.index("node.stream") < kinds.index("node.success")
+
+        # A consumer whose template reads the producer's output waits for it
+        graph = Graph()
+        graph.add_node(ChunkNode("llm"))
+        graph.add_node(UnixCommandNode("echo", command="echo {{llm.stdout}}"))
+        graph.add_edge("llm", "echo")
+        result = await GraphExecutor(SessionContext(session_id="wait"), scheduling=SchedulingMode.EAGER).execute(graph)
+
+        assert result.success and result.node_results["echo"].output["stdout"] == "alpha beta gamma"
+        assert result.execution_order == [["llm"], ["echo"]]
+
+    @pytest.mark.asyncio
+    async def test_llm_stream_mode_does_not_block_the_loop(self) -> None:
+        from libs.python.graph import LLMNode
+
+        ticks = 0
+
+        async def ticker() -> None:
+            nonlocal ticks
+            while True:
+                ticks += 1
+                await asyncio.sleep(0.01)
+
+        with _fake_ollama():
+            tick_task = asyncio.create_task(ticker())
+            output = await LLMNode("llm", input_template="hi", stream=True).execute({})
+            tick_task.cancel()
+
+        assert output["success"] and output["stdout"] == "Hello, world"
+        assert output["first_chunk_ms"] < 250
+        assert ticks > 10
+
+
+class _FakeAsyncClient:
+    """Stand-in for ollama.AsyncClient: 0.2s per completion, chunks every 0.1s."""
+
+    instances: list[_FakeAsyncClient] = []
+
+    def __init__(self, host: str) -> None:
+        self.host = host
+        self.health_checks = 0
+        self.options: list[dict[str, Any]] = []
+        _FakeAsyncClient.instances.append(self)
+
+    async def list(self) -> dict[str, Any]:
+        self.health_checks += 1
+        return {"models": []}
+
+    async def generate(self, model: str, prompt: str, stream: bool, options: dict[str, Any]) -> Any:
+        self.options.append(options)
+        if stream:
+            return self._chunks()
+        await asyncio.sleep(0.2)
+        return {"response": f"re: {prompt}"}
+
+    async def _chunks(self) -> Any:
+        for word in ("Hello", ", ", "world "):
+            await asyncio.sleep(0.1)
+            yield {"response": word}
+
+
+def _fake_ollama() -> Any:
+    """Patch in a fake ``ollama`` module (and ``requests`` if it is not installed).
+
+    The clients package is replaced by a bare package so importing the text
+    service does not pull in the heavy model clients (torch, diffusers).
+    """
+    import types
+    from unittest import mock
+
+    _FakeAsyncClient.instances.clear()
+    ollama = types.ModuleType("ollama")
+    ollama.AsyncClient = _FakeAsyncClient  # type: ignore[attr-defined]
+    clients = types.ModuleType("libs.python.clients")
+    clients.__path__ = [str(Path(__file__).resolve().parents[1] / "libs" / "python" / "clients")]
+    modules = {
+        "ollama": ollama,
+        "requests": sys.modules.get("requests") or types.ModuleType("requests"),
+        "libs.python.clients": clients,
+    }
+    return mock.patch.dict(sys.modules, modules)
+
+
+class TestAsyncLLMClient:
+    @pytest.mark.asyncio
+    async def test_parallel_llm_nodes_overlap_on_one_shared_client(self) -> None:
+        import time
+
+        from libs.python.graph import LLMNode
+
+        graph = Graph()
+        for node_id in ("a", "b"):
+            graph.add_node(LLMNode(node_id, input_template=node_id, max_tokens=64, temperature=0.0))
+
+        with _fake_ollama():
+            start = time.perf_counter()
+            result = await GraphExecutor().execute(graph)
+            elapsed = time.perf_counter() - start
+
+        assert result.success and result.node_results["b"].output["text"] == "re: b"
+        assert elapsed < 0.35  # one completion takes 0.2s; serial would be 0.4s
+        (client,) = _FakeAsyncClient.instances
+        assert client.health_checks == 1
+        assert client.options == [{"num_predict": 64, "temperature": 0.0, "top_p": 0.9}] * 2
+
+    @pytest.mark.asyncio
+    async def test_request_timeout_fails_the_node(self) -> None:
+        from libs.python.graph import LLMNode
+
+        with _fake_ollama():
+            output = await LLMNode("slow", input_template="x", timeout=0.05).execute({})
+
+        assert output["success"] is False and "timed out" in output["error"]
@@ -0,0 +1,97 @@
+"""Tests for graph canvas culling.
+
+@llm-type test.terminal.graph_canvas
+@llm-does unit tests for the GraphLayout spatial index and the canvas rendering through it
+"""
+
+from __future__ import annotations
+
+import random
+
+from libs.python.terminal.cell import Style
+from libs.python.terminal.framebuffer import FrameBuffer
+from libs.python.terminal.renderer import Renderer
+from libs.python.terminal.unhinged.graph_canvas import DEFAULT_STYLE, render_graph_canvas, render_node
+from libs.python.terminal.unhinged.graph_layout import GraphLayout, calculate_hierarchical_layout
+from libs.python.terminal.unhinged.graph_types import create_edge, create_empty_graph, create_node
+from libs.python.terminal.unhinged.viewport import Viewport
+
+
+def walk_all(graph, layout: GraphLayout, viewport: Viewport, r: Renderer, offset_x: int, offset_y: int) -> None:
+    """Reference canvas: every edge rasterized cell by cell, every node tested."""
+    style = Style(fg=DEFAULT_STYLE.edge_color)
+    for edge in graph.edges:
+        src, tgt = layout.get_position(edge.source_node_id), layout.get_position(edge.target_node_id)
+        if not src or not tgt:
+            continue
+        sx, sy = viewport.world_to_screen(*src)
+        tx, ty = viewport.world_to_screen(*tgt)
+        x1, y1, x2, y2 = sx + offset_x, sy + 1 + offset_y, tx + offset_x, ty - 1 + offset_y
+        cells = [(x, y1, "─") for x in range(x1, x2, 1 if x2 > x1 else -1)]
+        if y2 != y1:
+            step = 1 if y2 > y1 else -1
+            cells += [(x2, y, "│") for y in range(y1, y2 + step, step)]
+            if x2 != x1:
+                cells[len(cells) - abs(y2 - y1) - 1] = (x2, y1, "┐" if x2 > x1 else "┌")
+            cells[-1] = (x2, y2, "▼" if y2 > y1 else "▲")
+        for x, y, char in cells:
+            if 0 <= x < viewport.width and 0 <= y < viewport.height:
+                r.char(x, y, char, style)
+    for node in graph.nodes:
+        pos = layout.get_position(node.id)
+        if pos and viewport.is_visible(pos[0], pos[1], margin=10):
+            sx, sy = viewport.world_to_screen(*pos)
+            render_node(node, sx + offset_x, sy + offset_y, r, selected=node.id == "n3")
+
+
+def screen(fb: FrameBuffer) -> list[list[object]]:
+    return [[fb.get_cell(x, y) for x in range(fb.width)] for y in range(fb.height)]
+
+
+def test_culled_canvas_matches_full_walk() -> None:
+    rng = random.Random(3)
+    for trial in range(12):
+        count = rng.randint(1, 200)
+        graph = create_empty_graph(f"g{trial}")
+        graph.nodes = [create_node(f"n{i}", name=f"node{i}") for i in range(count)]
+        graph.edges = [create_edge(f"n{rng.randrange(count)}", f"n{rng.randrange(count)}") for _ in range(2 * count)]
+        if trial % 2:
+            layout = calculate_hierarchical_layout(graph)
+        else:  # scattered, with long edges and nodes missing from the layout
+            positions = {
+                n.id: (rng.uniform(-900, 900), rng.uniform(-300, 300)) for n in graph.nodes if rng.random() < 0.95
+            }
+            layout = GraphLayout(positions=positions, bounds=(-900, -300, 900, 300))
+        min_x, min_y, max_x, max_y = layout.bounds
+        for _ in range(10):
+            viewport = Viewport(
+                world_x=rng.uniform(min_x - 50, max_x),
+                world_y=rng.uniform(min_y - 30, max_y),
+                width=rng.randint(5, 120),
+                height=rng.randint(3, 40),
+            )
+            offset_x, offset_y = rng.randint(0, 3), rng.randint(0, 3)
+            culled, reference = FrameBuffer(130, 50), FrameBuffer(130, 50)
+            render_graph_canvas(graph, layout, viewport, Renderer(culled), "n3", offset_x=offset_x, offset_y=offset_y)
+            walk_all(graph, layout, viewport, Renderer(reference), offset_x, offset_y)
+            assert screen(culled) == screen(reference), (trial, viewport, offset_x, offset_y)
+
+
+def test_index_is_built_once_per_layout_and_queried_in_graph_order() -> None:
+    graph = create_empty_graph("g")
+    graph.nodes = [create_node(f"n{i}") for i in range(4)]
+    graph.edges = [create_edge("n0", "n1"), create_edge("n2", "n3")]
+    positions = {"n0": (0.0, 0.0), "n1": (5000.0, 40.0), "n2": (10.0, 5.0), "n3": (20.0, 90.0)}
+    layout = GraphLayout(positions=positions, bounds=(0, 0, 5000, 90))
+
+    index = layout.spatial_index(graph)
+    assert layout.spatial_index(graph) is index
+    assert index.nodes_in((-1, -1, 30, 30)) == [0, 2]
+    # The long leg of n0 -> n1 is found far from both endpoints
+    assert index.edges_in((2400, 0, 2500, 10)) == [0]
+    assert index.edges_in((0, 0, 40, 100)) == [0, 1]
+    assert index.edges_in((100, 60, 200, 100)) == []
+
+    graph.edges.append(create_edge("n3", "n0"))
+    rebuilt = layout.spatial_index(graph)
+    assert rebuilt is not index and rebuilt.edges_in((0, 0, 40, 100)) == [0, 1, 2]
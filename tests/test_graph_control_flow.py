@@ -262,3 +262,60 @@ class TestNestedLoops:
         assert result["success"] is True
         # 2 outer * 2 inner = 4 total inner iterations
         assert result.get("total_inner_iterations", 0) == 4 or result["iterations"] == 2
+
+
+class TestParallelForLoop:
+    """Specs for concurrent ForLoopGraph iterations."""
+
+    @staticmethod
+    def _sleep_body(delay: float) -> Graph:
+        import asyncio
+
+        from libs.python.graph import GraphNode
+
+        class SleepEcho(GraphNode):
+            async def execute(self, input_data=None):  # type: ignore[no-untyped-def]
+                await asyncio.sleep(delay if input_data["index"] % 2 == 0 else delay / 4)
+                return {"stdout": input_data["item"], "success": True}
+
+        body = Graph()
+        body.add_node(SleepEcho("echo"))
+        return body
+
+    @pytest.mark.asyncio
+    async def test_parallel_iterations_keep_item_order(self) -> None:
+        import time
+
+        from libs.python.graph.control_flow import ForLoopGraph
+
+        items = [f"item{i}" for i in range(8)]
+        loop = ForLoopGraph(items=items, body_graph=self._sleep_body(0.2), parallelism=8, map_node="echo")
+
+        start = time.perf_counter()
+        result = await loop.execute({})
+
+        assert time.perf_counter() - start < 0.8  # serial would take > 1s
+        assert [o["item"] for o in result["outputs"]] == items
+        assert [r["stdout"] for r in result["results"]] == items
+        assert result["iteration_indices"] == list(range(8))
+
+    @pytest.mark.asyncio
+    async def test_break_cancels_later_iterations(self) -> None:
+        from libs.python.graph.context import SessionContext
+        from libs.python.graph.control_flow import BreakNode, ForLoopGraph
+
+        body = self._sleep_body(0.5)
+        body.add_node(BreakNode("brk", condition="item == 'stop'"))
+        body.add_edge("brk", "echo", condition="not brk['triggered']")
+
+        session = SessionContext(session_id="loop")
+        loop = ForLoopGraph(items=["a", "b", "stop", "d", "e"], body_graph=body, parallelism=5)
+        loop._session_ctx = session
+        result = await loop.execute({})
+
+        assert result["terminated_early"] is True and result["iterations"] == 3
+        assert [o["item"] for o in result["outputs"]] == ["a", "b"]
+        ends = {e.data["index"]: e.data for e in session.iter_cdc() if e.event_type.value == "loop.iteration.end"}
+        assert ends[2]["status"] == "break" and ends[0]["status"] == "ok"
+        assert ends[3]["status"] == "cancelled" and ends[4]["status"] == "cancelled"
+        assert all(d["duration_ms"] >= 0 for d in ends.values())
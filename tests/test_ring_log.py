@@ -0,0 +1,42 @@
+"""Tests for the RingLog persistent ring buffer.
+
+@llm-type test.terminal.ring_log
+@llm-does unit tests for RingLog versions, windows and the MainState timeline built on it
+"""
+
+from __future__ import annotations
+
+from datetime import datetime
+
+from libs.python.graph.context import CDCEvent, CDCEventType, SessionContext
+from libs.python.terminal.ring_log import RingLog
+from libs.python.terminal.unhinged.state import MainState, Panel
+
+
+def test_versions_read_as_independent_logs() -> None:
+    base = RingLog(4, range(3))
+    appended = base.append(3)
+    forked = base.append(9)  # appending to an older version copies instead of clobbering
+
+    assert list(base) == [0, 1, 2]
+    assert list(appended) == [0, 1, 2, 3] and list(forked) == [0, 1, 2, 9]
+
+    wrapped = appended.extend(range(4, 10))
+    assert list(wrapped) == [6, 7, 8, 9] and wrapped.total == 10
+    assert wrapped.newest(1, 2) == [8, 7] and wrapped.recent(0) == 9
+    assert wrapped[-1] == 9 and wrapped[1:3] == [7, 8] and wrapped.window(-2, 10) == [8, 9]
+    # Slots the newer version overwrote drop out of the older views instead of reading wrong
+    assert list(appended) == [] and list(base) == []
+    assert list(forked) == [0, 1, 2, 9]
+
+
+def test_main_state_timeline_is_windowed_newest_first() -> None:
+    session = SessionContext(session_id="ring")
+    events = [CDCEvent(CDCEventType.SYS_CALL, datetime.now(), {"n": i}) for i in range(1500)]
+    state = MainState(session_ctx=session).add_timeline_events(events[:1000]).add_timeline_event(events[1000])
+    state = state.add_timeline_events(events[1001:])
+
+    assert len(state.timeline) == 1000 and state.timeline.total == 1500
+    assert [e.data["n"] for e in state.timeline.newest(2, 3)] == [1497, 1496, 1495]
+    state = state._replace(focused_panel=Panel.TIMELINE, selected_timeline_row=1)
+    assert state.get_selected_content() == "sys.call: {'n': 1498}"
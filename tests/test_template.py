@@ -0,0 +1,32 @@
+"""Tests for the graph template DSL.
+
+@llm-type test.graph.template
+@llm-does unit tests for compiled template rendering and reference extraction
+"""
+
+from __future__ import annotations
+
+from libs.python.graph.template import compile_template, interpolate
+
+
+def test_compiled_render_keeps_interpolate_semantics(monkeypatch) -> None:
+    monkeypatch.setenv("BENCH_USER", "ada")
+    nodes = {"search": {"text": "hits", "meta": {"n": 3}, "ok": True, "none": None}, "cmd": "raw"}
+    template = (
+        "{{ search.text }}|{{search.meta.n}}|{{search.ok}}|{{search.none}}"
+        "|{{env.BENCH_USER}}|{{missing.x}}|{{cmd.deep}}|{{session.key}}"
+    )
+
+    assert interpolate(template, nodes) == "hits|3|true||ada|{{missing.x}}|{{cmd.deep}}|{{session.key}}"
+    assert interpolate("no placeholders", nodes) == "no placeholders"
+    assert interpolate("", nodes) == ""
+
+
+def test_compile_is_cached_and_exposes_references() -> None:
+    compiled = compile_template("Use {{search.text}} on {{input.topic}} as {{env.USER}} in {{session.id}}")
+
+    assert compile_template("Use {{search.text}} on {{input.topic}} as {{env.USER}} in {{session.id}}") is compiled
+    assert compiled.namespaces == {"search", "input", "env", "session"}
+    assert compiled.node_ids == {"search", "input"}
+    assert compiled.segments[::2] == ("Use ", " on ", " as ", " in ", "")
+    assert compiled.placeholders[0].parts == ("text",)